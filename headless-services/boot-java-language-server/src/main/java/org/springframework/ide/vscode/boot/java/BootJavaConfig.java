@@ -10,9 +10,14 @@
  *******************************************************************************/
 package org.springframework.ide.vscode.boot.java;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.ide.vscode.commons.languageserver.util.Settings;
 import org.springframework.ide.vscode.commons.util.Log;
 
+import com.google.common.collect.ImmutableList;
+
 /**
  * Boot-Java LS settings
  *
@@ -28,6 +33,22 @@ public class BootJavaConfig {
 		return enabled == null || enabled.booleanValue();
 	}
 
+	/**
+	 * @return the base URLs of the actuator endpoints of apps that are accessed via HTTP (never <code>null</code>)
+	 */
+	public List<String> getRemoteAppUrls() {
+		Object urls = settings.getProperty("boot-java", "remote-apps");
+		ImmutableList.Builder<String> result = ImmutableList.builder();
+		if (urls instanceof Collection) {
+			for (Object url : (Collection<?>) urls) {
+				if (url instanceof String && !((String) url).trim().isEmpty()) {
+					result.add(((String) url).trim());
+				}
+			}
+		}
+		return result.build();
+	}
+
 	public void handleConfigurationChange(Settings newConfig) {
 		Log.info("Settings received: "+newConfig);
 		this.settings = newConfig;
@@ -35,11 +35,13 @@ import org.springframework.ide.vscode.boot.java.handlers.BootJavaWorkspaceSymbol
 import org.springframework.ide.vscode.boot.java.handlers.CompletionProvider;
 import org.springframework.ide.vscode.boot.java.handlers.HoverProvider;
 import org.springframework.ide.vscode.boot.java.handlers.ReferenceProvider;
+import org.springframework.ide.vscode.boot.java.handlers.RemoteRunningAppProvider;
 import org.springframework.ide.vscode.boot.java.handlers.RunningAppProvider;
 import org.springframework.ide.vscode.boot.java.handlers.SymbolProvider;
 import org.springframework.ide.vscode.boot.java.livehover.ActiveProfilesProvider;
 import org.springframework.ide.vscode.boot.java.livehover.BeanInjectedIntoHoverProvider;
 import org.springframework.ide.vscode.boot.java.livehover.ComponentInjectionsHoverProvider;
+import org.springframework.ide.vscode.boot.java.livehover.LiveAppSnapshots;
 import org.springframework.ide.vscode.boot.java.requestmapping.LiveAppURLSymbolProvider;
 import org.springframework.ide.vscode.boot.java.requestmapping.RequestMappingHoverProvider;
 import org.springframework.ide.vscode.boot.java.requestmapping.RequestMappingSymbolProvider;
@@ -48,8 +50,10 @@ import org.springframework.ide.vscode.boot.java.snippets.JavaSnippet;
 import org.springframework.ide.vscode.boot.java.snippets.JavaSnippetContext;
 import org.springframework.ide.vscode.boot.java.snippets.JavaSnippetManager;
 import org.springframework.ide.vscode.boot.java.utils.CompilationUnitCache;
+import org.springframework.ide.vscode.boot.java.utils.ProjectCapabilities;
 import org.springframework.ide.vscode.boot.java.utils.SpringIndexer;
 import org.springframework.ide.vscode.boot.java.utils.SpringLiveHoverWatchdog;
+import org.springframework.ide.vscode.boot.java.value.PropertyKeyIndex;
 import org.springframework.ide.vscode.boot.java.value.ValueCompletionProcessor;
 import org.springframework.ide.vscode.boot.java.value.ValueHoverProvider;
 import org.springframework.ide.vscode.boot.java.value.ValuePropertyReferencesProvider;
@@ -83,7 +87,11 @@ public class BootJavaLanguageServer extends SimpleLanguageServer {
 	private final SpringLiveHoverWatchdog liveHoverWatchdog;
 	private final ProjectObserver projectObserver;
 	private final BootJavaConfig config;
+	private final RemoteRunningAppProvider remoteApps;
 	private final CompilationUnitCache cuCache;
+	private final ProjectCapabilities projectCapabilities;
+	private final PropertyKeyIndex propertyKeyIndex;
+	private final LiveAppSnapshots liveAppSnapshots;
 
 	private final WordHighlighter testHightlighter = null; // new WordHighlighter("foo");
 
@@ -95,9 +103,16 @@ public class BootJavaLanguageServer extends SimpleLanguageServer {
 
 		this.config = new BootJavaConfig();
 
+		// apps accessed via actuator HTTP endpoints, in addition to the ones found via the given provider
+		this.remoteApps = new RemoteRunningAppProvider();
+		RunningAppProvider runningAppProvider = RunningAppProvider.union(serverParams.runningAppProvider, remoteApps);
+
 		projectFinder = serverParams.projectFinder;
 		projectObserver = serverParams.projectObserver;
 		cuCache = new CompilationUnitCache(projectFinder, getTextDocumentService(), projectObserver);
+		projectCapabilities = new ProjectCapabilities(projectObserver);
+		propertyKeyIndex = new PropertyKeyIndex();
+		liveAppSnapshots = new LiveAppSnapshots();
 
 		propertyIndexProvider = serverParams.indexProvider;
 
@@ -118,11 +133,12 @@ public class BootJavaLanguageServer extends SimpleLanguageServer {
 		documents.onCompletionResolve(completionEngine::resolveCompletion);
 
 		BootJavaHoverProvider hoverInfoProvider = createHoverHandler(javaProjectFinder,
-				serverParams.runningAppProvider);
+				runningAppProvider);
 		documents.onHover(hoverInfoProvider);
 
 		ReferencesHandler referencesHandler = createReferenceHandler(this, javaProjectFinder);
 		documents.onReferences(referencesHandler);
+		workspaceService.onDidChangeWorkspaceFolders(evt -> propertyKeyIndex.initialize(getWorkspaceRoots()));
 
 		indexer = createAnnotationIndexer(this, javaProjectFinder);
 		documents.onDidSave(params -> {
@@ -133,13 +149,13 @@ public class BootJavaLanguageServer extends SimpleLanguageServer {
 
 		documents.onDocumentSymbol(new BootJavaDocumentSymbolHandler(indexer));
 		workspaceService.onWorkspaceSymbol(new BootJavaWorkspaceSymbolHandler(indexer,
-				new LiveAppURLSymbolProvider(serverParams.runningAppProvider)));
+				new LiveAppURLSymbolProvider(runningAppProvider, liveAppSnapshots)));
 
 		BootJavaCodeLensEngine codeLensHandler = createCodeLensEngine(this, javaProjectFinder);
 		documents.onCodeLens(codeLensHandler::createCodeLenses);
 		documents.onCodeLensResolve(codeLensHandler::resolveCodeLens);
 
-		liveHoverWatchdog = new SpringLiveHoverWatchdog(this, hoverInfoProvider, serverParams.runningAppProvider,
+		liveHoverWatchdog = new SpringLiveHoverWatchdog(this, hoverInfoProvider, runningAppProvider, liveAppSnapshots,
 				projectFinder, projectObserver, serverParams.watchDogInterval);
 		documents.onDidChangeContent(params -> {
 			TextDocument doc = params.getDocument();
@@ -161,6 +177,7 @@ public class BootJavaLanguageServer extends SimpleLanguageServer {
 
 		workspaceService.onDidChangeConfiguraton(settings -> {
 			config.handleConfigurationChange(settings);
+			remoteApps.setActuatorUrls(config.getRemoteAppUrls());
 			if (config.isBootHintsEnabled()) {
 				liveHoverWatchdog.enableHighlights();
 			} else {
@@ -179,6 +196,7 @@ public class BootJavaLanguageServer extends SimpleLanguageServer {
 		CompletableFuture<InitializeResult> result = super.initialize(params);
 
 		this.indexer.initialize(getWorkspaceRoots());
+		this.propertyKeyIndex.initialize(getWorkspaceRoots());
 
 		return result;
 	}
@@ -190,6 +208,7 @@ public class BootJavaLanguageServer extends SimpleLanguageServer {
 		getClient().registerCapability(registrationParams);
 
 		this.indexer.serverInitialized();
+		this.propertyKeyIndex.serverInitialized(getWorkspaceService().getFileObserver());
 
 		// TODO: due to a missing message from lsp4e this "initialized" is not called in
 		// the LSP4E case
@@ -204,6 +223,9 @@ public class BootJavaLanguageServer extends SimpleLanguageServer {
 		this.liveHoverWatchdog.shutdown();
 		this.indexer.shutdown();
 		this.cuCache.dispose();
+		this.projectCapabilities.dispose();
+		this.propertyKeyIndex.dispose();
+		this.liveAppSnapshots.dispose();
 
 		return super.shutdown();
 	}
@@ -254,38 +276,38 @@ public class BootJavaLanguageServer extends SimpleLanguageServer {
 			RunningAppProvider runningAppProvider) {
 		AnnotationHierarchyAwareLookup<HoverProvider> providers = new AnnotationHierarchyAwareLookup<>();
 
-		providers.put(org.springframework.ide.vscode.boot.java.value.Constants.SPRING_VALUE, new ValueHoverProvider());
-
-		providers.put(Annotations.SPRING_REQUEST_MAPPING, new RequestMappingHoverProvider());
-		providers.put(Annotations.SPRING_GET_MAPPING, new RequestMappingHoverProvider());
-		providers.put(Annotations.SPRING_POST_MAPPING, new RequestMappingHoverProvider());
-		providers.put(Annotations.SPRING_PUT_MAPPING, new RequestMappingHoverProvider());
-		providers.put(Annotations.SPRING_DELETE_MAPPING, new RequestMappingHoverProvider());
-		providers.put(Annotations.SPRING_PATCH_MAPPING, new RequestMappingHoverProvider());
-		providers.put(Annotations.PROFILE, new ActiveProfilesProvider());
-
-		providers.put(Annotations.AUTOWIRED, new AutowiredHoverProvider());
-		providers.put(Annotations.COMPONENT, new ComponentInjectionsHoverProvider());
-		providers.put(Annotations.BEAN, new BeanInjectedIntoHoverProvider());
-
-		providers.put(Annotations.CONDITIONAL, new ConditionalsLiveHoverProvider());
-		providers.put(Annotations.CONDITIONAL_ON_BEAN, new ConditionalsLiveHoverProvider());
-		providers.put(Annotations.CONDITIONAL_ON_MISSING_BEAN, new ConditionalsLiveHoverProvider());
-		providers.put(Annotations.CONDITIONAL_ON_PROPERTY, new ConditionalsLiveHoverProvider());
-		providers.put(Annotations.CONDITIONAL_ON_RESOURCE, new ConditionalsLiveHoverProvider());
-		providers.put(Annotations.CONDITIONAL_ON_CLASS, new ConditionalsLiveHoverProvider());
-		providers.put(Annotations.CONDITIONAL_ON_MISSING_CLASS, new ConditionalsLiveHoverProvider());
-		providers.put(Annotations.CONDITIONAL_ON_CLOUD_PLATFORM, new ConditionalsLiveHoverProvider());
-		providers.put(Annotations.CONDITIONAL_ON_WEB_APPLICATION, new ConditionalsLiveHoverProvider());
-		providers.put(Annotations.CONDITIONAL_ON_NOT_WEB_APPLICATION, new ConditionalsLiveHoverProvider());
-		providers.put(Annotations.CONDITIONAL_ON_ENABLED_INFO_CONTRIBUTOR, new ConditionalsLiveHoverProvider());
-		providers.put(Annotations.CONDITIONAL_ON_ENABLED_RESOURCE_CHAIN, new ConditionalsLiveHoverProvider());
-		providers.put(Annotations.CONDITIONAL_ON_ENABLED_ENDPOINT, new ConditionalsLiveHoverProvider());
-		providers.put(Annotations.CONDITIONAL_ON_ENABLED_HEALTH_INDICATOR, new ConditionalsLiveHoverProvider());
-		providers.put(Annotations.CONDITIONAL_ON_EXPRESSION, new ConditionalsLiveHoverProvider());
-		providers.put(Annotations.CONDITIONAL_ON_JAVA, new ConditionalsLiveHoverProvider());
-		providers.put(Annotations.CONDITIONAL_ON_JNDI, new ConditionalsLiveHoverProvider());
-		providers.put(Annotations.CONDITIONAL_ON_SINGLE_CANDIDATE, new ConditionalsLiveHoverProvider());
+		providers.put(org.springframework.ide.vscode.boot.java.value.Constants.SPRING_VALUE, new ValueHoverProvider(liveAppSnapshots));
+
+		providers.put(Annotations.SPRING_REQUEST_MAPPING, new RequestMappingHoverProvider(liveAppSnapshots));
+		providers.put(Annotations.SPRING_GET_MAPPING, new RequestMappingHoverProvider(liveAppSnapshots));
+		providers.put(Annotations.SPRING_POST_MAPPING, new RequestMappingHoverProvider(liveAppSnapshots));
+		providers.put(Annotations.SPRING_PUT_MAPPING, new RequestMappingHoverProvider(liveAppSnapshots));
+		providers.put(Annotations.SPRING_DELETE_MAPPING, new RequestMappingHoverProvider(liveAppSnapshots));
+		providers.put(Annotations.SPRING_PATCH_MAPPING, new RequestMappingHoverProvider(liveAppSnapshots));
+		providers.put(Annotations.PROFILE, new ActiveProfilesProvider(liveAppSnapshots));
+
+		providers.put(Annotations.AUTOWIRED, new AutowiredHoverProvider(liveAppSnapshots));
+		providers.put(Annotations.COMPONENT, new ComponentInjectionsHoverProvider(liveAppSnapshots));
+		providers.put(Annotations.BEAN, new BeanInjectedIntoHoverProvider(liveAppSnapshots));
+
+		providers.put(Annotations.CONDITIONAL, new ConditionalsLiveHoverProvider(liveAppSnapshots));
+		providers.put(Annotations.CONDITIONAL_ON_BEAN, new ConditionalsLiveHoverProvider(liveAppSnapshots));
+		providers.put(Annotations.CONDITIONAL_ON_MISSING_BEAN, new ConditionalsLiveHoverProvider(liveAppSnapshots));
+		providers.put(Annotations.CONDITIONAL_ON_PROPERTY, new ConditionalsLiveHoverProvider(liveAppSnapshots));
+		providers.put(Annotations.CONDITIONAL_ON_RESOURCE, new ConditionalsLiveHoverProvider(liveAppSnapshots));
+		providers.put(Annotations.CONDITIONAL_ON_CLASS, new ConditionalsLiveHoverProvider(liveAppSnapshots));
+		providers.put(Annotations.CONDITIONAL_ON_MISSING_CLASS, new ConditionalsLiveHoverProvider(liveAppSnapshots));
+		providers.put(Annotations.CONDITIONAL_ON_CLOUD_PLATFORM, new ConditionalsLiveHoverProvider(liveAppSnapshots));
+		providers.put(Annotations.CONDITIONAL_ON_WEB_APPLICATION, new ConditionalsLiveHoverProvider(liveAppSnapshots));
+		providers.put(Annotations.CONDITIONAL_ON_NOT_WEB_APPLICATION, new ConditionalsLiveHoverProvider(liveAppSnapshots));
+		providers.put(Annotations.CONDITIONAL_ON_ENABLED_INFO_CONTRIBUTOR, new ConditionalsLiveHoverProvider(liveAppSnapshots));
+		providers.put(Annotations.CONDITIONAL_ON_ENABLED_RESOURCE_CHAIN, new ConditionalsLiveHoverProvider(liveAppSnapshots));
+		providers.put(Annotations.CONDITIONAL_ON_ENABLED_ENDPOINT, new ConditionalsLiveHoverProvider(liveAppSnapshots));
+		providers.put(Annotations.CONDITIONAL_ON_ENABLED_HEALTH_INDICATOR, new ConditionalsLiveHoverProvider(liveAppSnapshots));
+		providers.put(Annotations.CONDITIONAL_ON_EXPRESSION, new ConditionalsLiveHoverProvider(liveAppSnapshots));
+		providers.put(Annotations.CONDITIONAL_ON_JAVA, new ConditionalsLiveHoverProvider(liveAppSnapshots));
+		providers.put(Annotations.CONDITIONAL_ON_JNDI, new ConditionalsLiveHoverProvider(liveAppSnapshots));
+		providers.put(Annotations.CONDITIONAL_ON_SINGLE_CANDIDATE, new ConditionalsLiveHoverProvider(liveAppSnapshots));
 
 		return new BootJavaHoverProvider(this, javaProjectFinder, providers, runningAppProvider);
 	}
@@ -308,7 +330,7 @@ public class BootJavaLanguageServer extends SimpleLanguageServer {
 	protected ReferencesHandler createReferenceHandler(SimpleLanguageServer server, JavaProjectFinder projectFinder) {
 		Map<String, ReferenceProvider> providers = new HashMap<>();
 		providers.put(org.springframework.ide.vscode.boot.java.value.Constants.SPRING_VALUE,
-				new ValuePropertyReferencesProvider(server));
+				new ValuePropertyReferencesProvider(server, propertyKeyIndex));
 
 		return new BootJavaReferencesHandler(server, projectFinder, providers);
 	}
@@ -342,4 +364,15 @@ public class BootJavaLanguageServer extends SimpleLanguageServer {
 		return cuCache;
 	}
 
+	public ProjectCapabilities getProjectCapabilities() {
+		return projectCapabilities;
+	}
+
+	/**
+	 * @return the live data snapshots of the running apps, shared by the live hover providers of this server
+	 */
+	public LiveAppSnapshots getLiveAppSnapshots() {
+		return liveAppSnapshots;
+	}
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017 Pivotal, Inc.
+ * Copyright (c) 2017, 2018 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,30 +10,75 @@
  *******************************************************************************/
 package org.springframework.ide.vscode.boot.java.annotations;
 
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.Annotation;
+import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.IAnnotationBinding;
 import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.springframework.ide.vscode.commons.util.CollectorUtil;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 /**
  * Utility class for working with annotation and discovering / understanding their
  * 'inheritance' structure.
  * <p>
  * Provides methods to ask questions about inheritance between annotations.
+ * <p>
+ * An instance remembers the hierarchies it has seen (by qualified name of the annotations only, not holding
+ * on to any bindings), so that the meta-annotations of an annotation type are walked only once. The hierarchies
+ * depend on the classpath, so there is one instance per project (see {@link #of(ASTNode)}), which needs to be
+ * dropped when the classpath of the project changes. Instances are thread-safe.
+ * <p>
+ * Only the hierarchies of binary annotation types (from the classpath) are remembered. Annotation types defined in
+ * the sources of the project change with every edit, their part of the hierarchy is walked again each time.
 
  * @author Kris De Volder
+ * @author Martin Lippert
  */
-public abstract class AnnotationHierarchies {
+public class AnnotationHierarchies {
+
+	private static final String PROPERTY = AnnotationHierarchies.class.getName();
+
+	/**
+	 * Qualified name of an annotation type -> qualified names of its direct super annotations. An entry is added
+	 * only after the entries of all its super annotations have been added (except for cycles in the hierarchy).
+	 */
+	private final ConcurrentMap<String, List<String>> directSupers = new ConcurrentHashMap<>();
+
+	/**
+	 * Qualified name of an annotation type -> qualified names of the annotation type and all its super annotations.
+	 */
+	private final ConcurrentMap<String, Set<String>> transitiveSupers = new ConcurrentHashMap<>();
 
-	private AnnotationHierarchies() {
+	/**
+	 * Makes this instance available to all users of the bindings of the given AST, see {@link #of(ASTNode)}.
+	 */
+	public void attachTo(CompilationUnit cu) {
+		cu.setProperty(PROPERTY, this);
+	}
+
+	/**
+	 * @return the instance attached to the AST of the given node (shared by all ASTs of the same project), or a
+	 * new (empty) instance if there is none
+	 */
+	public static AnnotationHierarchies of(ASTNode node) {
+		Object hierarchies = node.getRoot().getProperty(PROPERTY);
+		return hierarchies instanceof AnnotationHierarchies ? (AnnotationHierarchies) hierarchies : new AnnotationHierarchies();
 	}
 
 	protected static boolean ignoreAnnotation(String fqname) {
@@ -58,10 +103,112 @@ public abstract class AnnotationHierarchies {
 		return ImmutableList.of();
 	}
 
-	public static Set<String> getTransitiveSuperAnnotations(ITypeBinding typeBinding) {
-		Set<String> seen = new HashSet<>();
-		findTransitiveSupers(typeBinding, seen);
-		return seen;
+	/**
+	 * @return the qualified names of the direct super annotations of the given annotation type, or <code>null</code>
+	 * if the given type hasn't been seen yet (or is defined in source)
+	 */
+	public List<String> getDirectSuperAnnotationNames(String qualifiedName) {
+		return directSupers.get(qualifiedName);
+	}
+
+	/**
+	 * Records the hierarchy of the given annotation type (if it isn't known already). For annotation types defined
+	 * in source, only the binary annotation types of its hierarchy are recorded.
+	 */
+	public void addHierarchy(ITypeBinding typeBinding) {
+		addHierarchy(typeBinding, new HashSet<>());
+	}
+
+	private void addHierarchy(ITypeBinding typeBinding, Set<String> visiting) {
+		String qname = typeBinding.getQualifiedName();
+		if (typeBinding.isFromSource()) {
+			if (visiting.add(qname)) {
+				for (ITypeBinding superBinding : getDirectSuperAnnotations(typeBinding)) {
+					addHierarchy(superBinding, visiting);
+				}
+			}
+		}
+		else if (!directSupers.containsKey(qname) && visiting.add(qname)) {
+			Collection<ITypeBinding> supers = getDirectSuperAnnotations(typeBinding);
+			for (ITypeBinding superBinding : supers) {
+				addHierarchy(superBinding, visiting);
+			}
+			directSupers.putIfAbsent(qname, supers.stream().map(ITypeBinding::getQualifiedName).collect(CollectorUtil.toImmutableList()));
+		}
+	}
+
+	/**
+	 * @return the qualified names of the given annotation type and all its (transitive) super annotations
+	 */
+	public Set<String> getTransitiveSuperAnnotations(ITypeBinding typeBinding) {
+		if (typeBinding.isFromSource()) {
+			Set<String> result = new LinkedHashSet<>();
+			collectTransitiveSupersFromSource(typeBinding, result);
+			return ImmutableSet.copyOf(result);
+		}
+
+		String qname = typeBinding.getQualifiedName();
+		Set<String> result = transitiveSupers.get(qname);
+		if (result == null) {
+			addHierarchy(typeBinding);
+			result = collectTransitiveSupers(qname);
+			if (result != null) {
+				Set<String> existing = transitiveSupers.putIfAbsent(qname, result);
+				result = existing != null ? existing : result;
+			}
+			else {
+				// hierarchy not completely recorded yet (another thread is still busy with a cycle), walk the bindings
+				result = findTransitiveSupers(typeBinding, new HashSet<>())
+						.map(ITypeBinding::getQualifiedName)
+						.collect(Collectors.collectingAndThen(Collectors.toList(), ImmutableSet::copyOf));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Walks the bindings of annotation types defined in source, the super annotations of binary types are taken
+	 * from the recorded hierarchies.
+	 */
+	private void collectTransitiveSupersFromSource(ITypeBinding typeBinding, Set<String> result) {
+		if (typeBinding.isFromSource()) {
+			if (result.add(typeBinding.getQualifiedName())) {
+				for (ITypeBinding superBinding : getDirectSuperAnnotations(typeBinding)) {
+					collectTransitiveSupersFromSource(superBinding, result);
+				}
+			}
+		}
+		else if (!result.contains(typeBinding.getQualifiedName())) {
+			result.addAll(getTransitiveSuperAnnotations(typeBinding));
+		}
+	}
+
+	/**
+	 * @return the transitive super annotations, collected from the recorded hierarchies (in the same order as
+	 * {@link #findTransitiveSupers(ITypeBinding, Set)}), or <code>null</code> if some part of the hierarchy
+	 * isn't recorded
+	 */
+	private Set<String> collectTransitiveSupers(String qname) {
+		Set<String> seen = new LinkedHashSet<>();
+		Deque<String> todo = new ArrayDeque<>();
+		todo.push(qname);
+		while (!todo.isEmpty()) {
+			String current = todo.pop();
+			if (seen.add(current)) {
+				List<String> supers = directSupers.get(current);
+				if (supers == null) {
+					return null;
+				}
+				for (int i = supers.size() - 1; i >= 0; i--) {
+					todo.push(supers.get(i));
+				}
+			}
+		}
+		return ImmutableSet.copyOf(seen);
+	}
+
+	public boolean isSubtypeOf(ITypeBinding typeBinding, String fqAnnotationTypeName) {
+		return getTransitiveSuperAnnotations(typeBinding).contains(fqAnnotationTypeName);
 	}
 
 	public static Stream<ITypeBinding> findTransitiveSupers(ITypeBinding typeBinding, Set<String> seen) {
@@ -80,13 +227,16 @@ public abstract class AnnotationHierarchies {
 	public static boolean isSubtypeOf(Annotation annotation, String fqAnnotationTypeName) {
 		ITypeBinding annotationType = annotation.resolveTypeBinding();
 		if (annotationType!=null) {
-			return findTransitiveSupers(annotationType, new HashSet<>())
-					.anyMatch(superType -> superType.getQualifiedName().equals(fqAnnotationTypeName));
+			return of(annotation).isSubtypeOf(annotationType, fqAnnotationTypeName);
 		}
 		return false;
 	}
 
-	public static Collection<ITypeBinding> getMetaAnnotations(ITypeBinding actualAnnotation, Predicate<String> isKeyAnnotationName) {
+	public Collection<ITypeBinding> getMetaAnnotations(ITypeBinding actualAnnotation, Predicate<String> isKeyAnnotationName) {
+		// a meta annotation of a key annotation implies that the key annotation is somewhere in the hierarchy
+		if (!getTransitiveSuperAnnotations(actualAnnotation).stream().anyMatch(isKeyAnnotationName)) {
+			return ImmutableList.of();
+		}
 		Stream<ITypeBinding> allSupers = findTransitiveSupers(actualAnnotation, new HashSet<>())
 				.skip(1); //Don't include 'actualAnnotation' itself.
 		return allSupers
@@ -94,9 +244,8 @@ public abstract class AnnotationHierarchies {
 				.collect(CollectorUtil.toImmutableList());
 	}
 
-	private static boolean isMetaAnnotation(ITypeBinding candidate, Predicate<String> isKeyAnnotationName) {
-		return findTransitiveSupers(candidate, new HashSet<>())
-				.anyMatch(sa -> isKeyAnnotationName.test(sa.getQualifiedName()));
+	private boolean isMetaAnnotation(ITypeBinding candidate, Predicate<String> isKeyAnnotationName) {
+		return getTransitiveSuperAnnotations(candidate).stream().anyMatch(isKeyAnnotationName);
 	}
 
 }
@@ -14,6 +14,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
 
@@ -93,6 +94,24 @@ public class AnnotationHierarchyAwareLookup<T> {
 		return found.build();
 	}
 
+	/**
+	 * Same as {@link #get(ITypeBinding)}, but walks the hierarchy recorded in the given {@link AnnotationHierarchies}
+	 * (recording it first, if necessary) instead of the bindings. Annotation types defined in source are not recorded,
+	 * their bindings are walked.
+	 */
+	public Collection<T> get(ITypeBinding annotationType, AnnotationHierarchies hierarchies) {
+		if (annotationType.isFromSource()) {
+			return get(annotationType);
+		}
+		hierarchies.addHierarchy(annotationType);
+		ImmutableList.Builder<T> found = ImmutableList.builder();
+		if (findElements(annotationType.getQualifiedName(), hierarchies, new HashSet<>(), found::add)) {
+			return found.build();
+		}
+		// hierarchy not completely recorded yet
+		return get(annotationType);
+	}
+
 	public Collection<T> getAll() {
 		ImmutableList.Builder<T> found = ImmutableList.builder();
 		Collection<Binding<T>> values = bindings.values();
@@ -117,6 +136,32 @@ public class AnnotationHierarchyAwareLookup<T> {
 		}
 	}
 
+	/**
+	 * @return <code>false</code> if some part of the hierarchy isn't recorded in the given {@link AnnotationHierarchies}
+	 */
+	private boolean findElements(String qname, AnnotationHierarchies hierarchies, HashSet<String> seen, Consumer<T> requestor) {
+		if (seen.add(qname)) {
+			List<String> superAnnotations = hierarchies.getDirectSuperAnnotationNames(qname);
+			if (superAnnotations == null) {
+				return false;
+			}
+			Binding<T> binding = bindings.get(qname);
+			boolean isOverriding = false;
+			if (binding!=null) {
+				requestor.accept(binding.value);
+				isOverriding = binding.isOverriding;
+			}
+			if (!isOverriding) {
+				for (String superAnnotation : superAnnotations) {
+					if (!findElements(superAnnotation, hierarchies, seen, requestor)) {
+						return false;
+					}
+				}
+			}
+		}
+		return true;
+	}
+
 	public void put(String annotationName, T value) {
 		put(annotationName, true, value);
 	}
@@ -125,6 +170,15 @@ public class AnnotationHierarchyAwareLookup<T> {
 		return bindings.containsKey(fqName);
 	}
 
+	/**
+	 * @return the value associated with exactly the given annotation type (not considering any sub- or super types),
+	 * or <code>null</code> if there is none
+	 */
+	public T getExact(String fqName) {
+		Binding<T> binding = bindings.get(fqName);
+		return binding != null ? binding.value : null;
+	}
+
 //	private static int indent = 0;
 //
 //	private static void debug(int indent, String msg) {
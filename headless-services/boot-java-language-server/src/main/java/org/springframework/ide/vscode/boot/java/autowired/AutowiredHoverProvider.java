@@ -12,9 +12,9 @@ package org.springframework.ide.vscode.boot.java.autowired;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
-import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.Annotation;
 import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.TypeDeclaration;
@@ -24,9 +24,13 @@ import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.springframework.ide.vscode.boot.java.Annotations;
 import org.springframework.ide.vscode.boot.java.annotations.AnnotationHierarchies;
 import org.springframework.ide.vscode.boot.java.handlers.HoverProvider;
+import org.springframework.ide.vscode.boot.java.handlers.LiveHoverTarget;
 import org.springframework.ide.vscode.boot.java.livehover.ComponentInjectionsHoverProvider;
+import org.springframework.ide.vscode.boot.java.livehover.LiveAppSnapshots;
 import org.springframework.ide.vscode.boot.java.livehover.LiveHoverUtils;
 import org.springframework.ide.vscode.boot.java.utils.ASTUtils;
+import org.springframework.ide.vscode.commons.boot.app.cli.LiveAppSnapshot;
+import org.springframework.ide.vscode.commons.boot.app.cli.LiveDataCategory;
 import org.springframework.ide.vscode.commons.boot.app.cli.SpringBootApp;
 import org.springframework.ide.vscode.commons.boot.app.cli.livebean.LiveBean;
 import org.springframework.ide.vscode.commons.boot.app.cli.livebean.LiveBeansModel;
@@ -36,80 +40,29 @@ import org.springframework.ide.vscode.commons.util.StringUtil;
 import org.springframework.ide.vscode.commons.util.text.TextDocument;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 /**
  * @author Martin Lippert
  */
 public class AutowiredHoverProvider implements HoverProvider {
 
-	@Override
-	public Collection<Range> getLiveHoverHints(Annotation annotation, TextDocument doc, SpringBootApp[] runningApps) {
-		try {
-			LiveBean definedBean = getDefinedBean(annotation);
-			if (definedBean != null) {
-				for (SpringBootApp app : runningApps) {
-					try {
-						List<LiveBean> relevantBeans = LiveHoverUtils.findRelevantBeans(app, definedBean).collect(Collectors.toList());
-
-						if (!relevantBeans.isEmpty()) {
-							for (LiveBean bean : relevantBeans) {
-								String[] dependencies = bean.getDependencies();
-								if (dependencies != null && dependencies.length > 0) {
-									Range hoverRange = doc.toRange(annotation.getStartPosition(), annotation.getLength());
-									return ImmutableList.of(hoverRange);
-								}
-							}
-						}
-					}
-					catch (Exception e) {
-						Log.log(e);
-					}
-				}
-			}
-		}
-		catch (Exception e) {
-			Log.log(e);
-		}
+	private final LiveAppSnapshots liveAppSnapshots;
 
-		return null;
+	public AutowiredHoverProvider(LiveAppSnapshots liveAppSnapshots) {
+		this.liveAppSnapshots = liveAppSnapshots;
 	}
 
 	@Override
-	public Hover provideHover(ASTNode node, Annotation annotation, ITypeBinding type, int offset,
-			TextDocument doc, IJavaProject project, SpringBootApp[] runningApps) {
-		if (runningApps.length > 0) {
-
-			StringBuilder hover = new StringBuilder();
-
-			LiveBean definedBean = getDefinedBean(annotation);
-			if (definedBean != null) {
-
-				hover.append("**Injection report for " + LiveHoverUtils.showBean(definedBean) + "**\n\n");
-
-				boolean hasInterestingApp = false;
-				boolean hasAutowiring = false;
-
-				for (SpringBootApp app : runningApps) {
-					LiveBeansModel beans = app.getBeans();
-					List<LiveBean> relevantBeans = LiveHoverUtils.findRelevantBeans(app, definedBean).collect(Collectors.toList());
-
-					if (!relevantBeans.isEmpty()) {
-						if (!hasInterestingApp) {
-							hasInterestingApp = true;
-						} else {
-							hover.append("\n\n");
-						}
-						hover.append(LiveHoverUtils.niceAppName(app) + ":");
-
-						for (LiveBean bean : relevantBeans) {
-							hover.append("\n\n");
-							hasAutowiring |= addAutomaticallyWired(hover, annotation, beans, bean, project);
-						}
-					}
-				}
-				if (hasInterestingApp && hasAutowiring) {
-					return new Hover(ImmutableList.of(Either.forLeft(hover.toString())));
-				}
+	public LiveHoverTarget createTarget(Annotation annotation, ITypeBinding type, TextDocument doc) {
+		LiveBean definedBean = getDefinedBean(annotation);
+		if (definedBean != null) {
+			try {
+				Range hoverRange = doc.toRange(annotation.getStartPosition(), annotation.getLength());
+				return new AutowiredTarget(definedBean, hoverRange);
+			}
+			catch (Exception e) {
+				Log.log(e);
 			}
 		}
 		return null;
@@ -140,7 +93,7 @@ public class AutowiredHoverProvider implements HoverProvider {
 		return null;
 	}
 
-	private boolean addAutomaticallyWired(StringBuilder hover, Annotation annotation, LiveBeansModel beans, LiveBean bean, IJavaProject project) {
+	private static boolean addAutomaticallyWired(StringBuilder hover, LiveBeansModel beans, LiveBean bean, IJavaProject project) {
 		boolean result = false;
 		String[] dependencies = bean.getDependencies();
 
@@ -164,15 +117,91 @@ public class AutowiredHoverProvider implements HoverProvider {
 	}
 
 	@Override
-	public Hover provideHover(ASTNode node, TypeDeclaration typeDeclaration, ITypeBinding type, int offset,
-			TextDocument doc, IJavaProject project, SpringBootApp[] runningApps) {
+	public LiveHoverTarget createTarget(TypeDeclaration typeDeclaration, TextDocument doc) {
 		return null;
 	}
 
 	@Override
-	public Collection<Range> getLiveHoverHints(TypeDeclaration typeDeclaration, TextDocument doc,
-			SpringBootApp[] runningApps) {
-		return null;
+	public Set<LiveDataCategory> getLiveHintDataForAnnotations() {
+		return ImmutableSet.of(LiveDataCategory.BEANS);
+	}
+
+	@Override
+	public Set<LiveDataCategory> getLiveHintDataForTypes() {
+		return ImmutableSet.of();
+	}
+
+	/**
+	 * Highlights the annotation if the bean got autowired with other beans in a running app, the hover shows
+	 * the beans it got autowired with.
+	 */
+	private class AutowiredTarget implements LiveHoverTarget {
+
+		private final LiveBean definedBean;
+		private final Range hoverRange;
+
+		AutowiredTarget(LiveBean definedBean, Range hoverRange) {
+			this.definedBean = definedBean;
+			this.hoverRange = hoverRange;
+		}
+
+		@Override
+		public Collection<Range> getLiveHoverHints(TextDocument doc, SpringBootApp[] runningApps) {
+			for (SpringBootApp app : runningApps) {
+				try {
+					List<LiveBean> relevantBeans = LiveHoverUtils.findRelevantBeans(liveAppSnapshots.get(app), definedBean).collect(Collectors.toList());
+
+					if (!relevantBeans.isEmpty()) {
+						for (LiveBean bean : relevantBeans) {
+							String[] dependencies = bean.getDependencies();
+							if (dependencies != null && dependencies.length > 0) {
+								return ImmutableList.of(hoverRange);
+							}
+						}
+					}
+				}
+				catch (Exception e) {
+					Log.log(e);
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public Hover provideHover(int offset, TextDocument doc, IJavaProject project, SpringBootApp[] runningApps) {
+			if (runningApps.length > 0) {
+
+				StringBuilder hover = new StringBuilder();
+				hover.append("**Injection report for " + LiveHoverUtils.showBean(definedBean) + "**\n\n");
+
+				boolean hasInterestingApp = false;
+				boolean hasAutowiring = false;
+
+				for (SpringBootApp app : runningApps) {
+					LiveAppSnapshot snapshot = liveAppSnapshots.get(app);
+					LiveBeansModel beans = snapshot.getBeans();
+					List<LiveBean> relevantBeans = LiveHoverUtils.findRelevantBeans(snapshot, definedBean).collect(Collectors.toList());
+
+					if (!relevantBeans.isEmpty()) {
+						if (!hasInterestingApp) {
+							hasInterestingApp = true;
+						} else {
+							hover.append("\n\n");
+						}
+						hover.append(LiveHoverUtils.niceAppName(app, snapshot) + ":");
+
+						for (LiveBean bean : relevantBeans) {
+							hover.append("\n\n");
+							hasAutowiring |= addAutomaticallyWired(hover, beans, bean, project);
+						}
+					}
+				}
+				if (hasInterestingApp && hasAutowiring) {
+					return new Hover(ImmutableList.of(Either.forLeft(hover.toString())));
+				}
+			}
+			return null;
+		}
 	}
 
 }
@@ -14,6 +14,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.Annotation;
@@ -26,14 +27,18 @@ import org.eclipse.lsp4j.MarkedString;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.springframework.ide.vscode.boot.java.handlers.HoverProvider;
+import org.springframework.ide.vscode.boot.java.handlers.LiveHoverTarget;
+import org.springframework.ide.vscode.boot.java.livehover.LiveAppSnapshots;
 import org.springframework.ide.vscode.boot.java.livehover.LiveHoverUtils;
 import org.springframework.ide.vscode.commons.boot.app.cli.LiveConditional;
+import org.springframework.ide.vscode.commons.boot.app.cli.LiveDataCategory;
 import org.springframework.ide.vscode.commons.boot.app.cli.SpringBootApp;
 import org.springframework.ide.vscode.commons.java.IJavaProject;
 import org.springframework.ide.vscode.commons.util.Log;
 import org.springframework.ide.vscode.commons.util.text.TextDocument;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 /**
  *
@@ -42,70 +47,32 @@ import com.google.common.collect.ImmutableList;
  */
 public class ConditionalsLiveHoverProvider implements HoverProvider {
 
-	@Override
-	public Hover provideHover(ASTNode node, Annotation annotation, ITypeBinding type, int offset,
-			TextDocument doc, IJavaProject project, SpringBootApp[] runningApps) {
-		return provideHover(annotation, doc, runningApps);
-	}
-
-	@Override
-	public Collection<Range> getLiveHoverHints(Annotation annotation, TextDocument doc, SpringBootApp[] runningApps) {
-		try {
-			Optional<List<LiveConditional>> val = getMatchedLiveConditionals(annotation, runningApps);
-			if (val.isPresent()) {
-				Range hoverRange = doc.toRange(annotation.getStartPosition(), annotation.getLength());
-				return ImmutableList.of(hoverRange);
-			}
-		} catch (Exception e) {
-			Log.log(e);
-		}
+	private final LiveAppSnapshots liveAppSnapshots;
 
-		return null;
+	public ConditionalsLiveHoverProvider(LiveAppSnapshots liveAppSnapshots) {
+		this.liveAppSnapshots = liveAppSnapshots;
 	}
 
-	private Optional<List<LiveConditional>> getMatchedLiveConditionals(Annotation annotation,
-			SpringBootApp[] runningApps) throws Exception {
-		if (runningApps != null) {
-			List<LiveConditional> all = new ArrayList<>();
-
-			for (SpringBootApp springBootApp : runningApps) {
-				springBootApp.getLiveConditionals().ifPresent((conditionals) -> {
-					conditionals.stream().forEach((conditional) -> {
-						if (matchesAnnotation(annotation, conditional)) {
-							all.add(conditional);
-						}
-					});
-				});
-			}
-			if (!all.isEmpty()) {
-				return Optional.of(all);
-			}
-		}
-		return Optional.empty();
-	}
-
-	private Hover provideHover(Annotation annotation, TextDocument doc,
-			SpringBootApp[] runningApps) {
-
+	@Override
+	public LiveHoverTarget createTarget(Annotation annotation, ITypeBinding type, TextDocument doc) {
 		try {
-			List<Either<String, MarkedString>> hoverContent = new ArrayList<>();
-			Optional<List<LiveConditional>> val = getMatchedLiveConditionals(annotation, runningApps);
-
-			if (val.isPresent()) {
-				addHoverContent(val.get(), hoverContent);
-			}
-
 			Range hoverRange = doc.toRange(annotation.getStartPosition(), annotation.getLength());
-			Hover hover = new Hover();
-
-			hover.setContents(hoverContent);
-			hover.setRange(hoverRange);
-
-			return hover;
+			String annotationName = type.getName();
+
+			// the Java type the annotation belongs to, to be matched against the live conditional
+			ASTNode parent = annotation.getParent();
+			if (parent instanceof MethodDeclaration) {
+				MethodDeclaration methodDec = (MethodDeclaration) parent;
+				IMethodBinding binding = methodDec.resolveBinding();
+				return new ConditionalTarget(hoverRange, annotationName, binding.getDeclaringClass().getName(), binding.getName());
+			} else if (parent instanceof TypeDeclaration) {
+				TypeDeclaration typeDec = (TypeDeclaration) parent;
+				return new ConditionalTarget(hoverRange, annotationName, typeDec.resolveBinding().getName(), null);
+			}
+			return new ConditionalTarget(hoverRange, annotationName, null, null);
 		} catch (Exception e) {
 			Log.log(e);
 		}
-
 		return null;
 	}
 
@@ -122,49 +89,113 @@ public class ConditionalsLiveHoverProvider implements HoverProvider {
 		}
 	}
 
+	@Override
+	public LiveHoverTarget createTarget(TypeDeclaration typeDeclaration, TextDocument doc) {
+		return null;
+	}
+
+	@Override
+	public Set<LiveDataCategory> getLiveHintDataForAnnotations() {
+		return ImmutableSet.of(LiveDataCategory.CONDITIONALS);
+	}
+
+	@Override
+	public Set<LiveDataCategory> getLiveHintDataForTypes() {
+		return ImmutableSet.of();
+	}
+
 	/**
-	 *
-	 * @param annotation
-	 * @param jsonKey
-	 * @return true if the annotation matches the information in the json key from
-	 *         the running app.
+	 * Highlights the annotation if a running app reports a matching condition evaluation, the hover shows the
+	 * messages of the matching conditions.
 	 */
-	protected boolean matchesAnnotation(Annotation annotation, LiveConditional liveConditional) {
+	private class ConditionalTarget implements LiveHoverTarget {
+
+		private final Range hoverRange;
+		private final String annotationName;
+		private final String declaringClassName;
+		private final String methodName;
+
+		/**
+		 * @param declaringClassName the simple name of the type the annotation belongs to, <code>null</code>
+		 * if the annotation belongs to neither a type nor a method
+		 * @param methodName the name of the method the annotation belongs to, if any
+		 */
+		ConditionalTarget(Range hoverRange, String annotationName, String declaringClassName, String methodName) {
+			this.hoverRange = hoverRange;
+			this.annotationName = annotationName;
+			this.declaringClassName = declaringClassName;
+			this.methodName = methodName;
+		}
 
-		// First check that the annotation matches the live conditional annotation
-		String annotationName = annotation.resolveTypeBinding().getName();
-		if (!liveConditional.getMessage().contains(annotationName)) {
-			return false;
+		@Override
+		public Collection<Range> getLiveHoverHints(TextDocument doc, SpringBootApp[] runningApps) {
+			if (getMatchedLiveConditionals(runningApps).isPresent()) {
+				return ImmutableList.of(hoverRange);
+			}
+			return null;
+		}
+
+		@Override
+		public Hover provideHover(int offset, TextDocument doc, IJavaProject project, SpringBootApp[] runningApps) {
+			try {
+				List<Either<String, MarkedString>> hoverContent = new ArrayList<>();
+				Optional<List<LiveConditional>> val = getMatchedLiveConditionals(runningApps);
+
+				if (val.isPresent()) {
+					addHoverContent(val.get(), hoverContent);
+				}
+
+				Hover hover = new Hover();
+
+				hover.setContents(hoverContent);
+				hover.setRange(hoverRange);
+
+				return hover;
+			} catch (Exception e) {
+				Log.log(e);
+			}
+
+			return null;
 		}
 
-		// Check that Java type in annotation in editor matches Java information in the live Conditional
-		ASTNode parent = annotation.getParent();
-		String typeInfo = liveConditional.getTypeInfo();
-
-		if (parent instanceof MethodDeclaration) {
-			MethodDeclaration methodDec = (MethodDeclaration) parent;
-			IMethodBinding binding = methodDec.resolveBinding();
-			String annotationDeclaringClassName = binding.getDeclaringClass().getName();
-			String annotationMethodName = binding.getName();
-			return typeInfo.contains(annotationDeclaringClassName) && typeInfo.contains(annotationMethodName);
-		} else if (parent instanceof TypeDeclaration) {
-			TypeDeclaration typeDec = (TypeDeclaration) parent;
-			String annotationDeclaringClassName = typeDec.resolveBinding().getName();
-			return typeInfo.contains(annotationDeclaringClassName);
+		private Optional<List<LiveConditional>> getMatchedLiveConditionals(SpringBootApp[] runningApps) {
+			if (runningApps != null) {
+				List<LiveConditional> all = new ArrayList<>();
+
+				for (SpringBootApp springBootApp : runningApps) {
+					liveAppSnapshots.get(springBootApp).getLiveConditionals().ifPresent((conditionals) -> {
+						conditionals.stream().forEach((conditional) -> {
+							if (matchesAnnotation(conditional)) {
+								all.add(conditional);
+							}
+						});
+					});
+				}
+				if (!all.isEmpty()) {
+					return Optional.of(all);
+				}
+			}
+			return Optional.empty();
 		}
-		return false;
-	}
 
-	@Override
-	public Hover provideHover(ASTNode node, TypeDeclaration typeDeclaration, ITypeBinding type, int offset,
-			TextDocument doc, IJavaProject project, SpringBootApp[] runningApps) {
-		return null;
-	}
+		/**
+		 * @return true if the annotation matches the information in the json key from
+		 *         the running app.
+		 */
+		private boolean matchesAnnotation(LiveConditional liveConditional) {
 
-	@Override
-	public Collection<Range> getLiveHoverHints(TypeDeclaration typeDeclaration, TextDocument doc,
-			SpringBootApp[] runningApps) {
-		return null;
+			// First check that the annotation matches the live conditional annotation
+			if (!liveConditional.getMessage().contains(annotationName)) {
+				return false;
+			}
+
+			// Check that Java type in annotation in editor matches Java information in the live Conditional
+			String typeInfo = liveConditional.getTypeInfo();
+			if (declaringClassName != null) {
+				return typeInfo.contains(declaringClassName) && (methodName == null || typeInfo.contains(methodName));
+			}
+			return false;
+		}
 	}
 
 }
@@ -11,18 +11,19 @@
 package org.springframework.ide.vscode.boot.java.handlers;
 
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
-import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTVisitor;
 import org.eclipse.jdt.core.dom.Annotation;
+import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.MarkerAnnotation;
-import org.eclipse.jdt.core.dom.NodeFinder;
 import org.eclipse.jdt.core.dom.NormalAnnotation;
-import org.eclipse.jdt.core.dom.SimpleName;
 import org.eclipse.jdt.core.dom.SingleMemberAnnotation;
 import org.eclipse.jdt.core.dom.TypeDeclaration;
 import org.eclipse.lsp4j.Hover;
@@ -31,13 +32,16 @@ import org.eclipse.lsp4j.TextDocumentIdentifier;
 import org.eclipse.lsp4j.TextDocumentPositionParams;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.springframework.ide.vscode.boot.java.BootJavaLanguageServer;
+import org.springframework.ide.vscode.boot.java.annotations.AnnotationHierarchies;
 import org.springframework.ide.vscode.boot.java.annotations.AnnotationHierarchyAwareLookup;
-import org.springframework.ide.vscode.boot.java.utils.ASTUtils;
+import org.springframework.ide.vscode.boot.java.utils.CompilationUnitSnapshot;
+import org.springframework.ide.vscode.boot.java.utils.CompilationUnitSnapshot.AnnotationSnapshot;
+import org.springframework.ide.vscode.boot.java.utils.CompilationUnitSnapshot.Extension;
+import org.springframework.ide.vscode.boot.java.utils.CompilationUnitSnapshot.TypeSnapshot;
+import org.springframework.ide.vscode.commons.boot.app.cli.LiveDataCategory;
 import org.springframework.ide.vscode.commons.boot.app.cli.SpringBootApp;
-import org.springframework.ide.vscode.commons.java.IClasspath;
 import org.springframework.ide.vscode.commons.java.IJavaProject;
 import org.springframework.ide.vscode.commons.languageserver.java.JavaProjectFinder;
-import org.springframework.ide.vscode.commons.languageserver.util.DocumentRegion;
 import org.springframework.ide.vscode.commons.languageserver.util.HoverHandler;
 import org.springframework.ide.vscode.commons.languageserver.util.SimpleTextDocumentService;
 import org.springframework.ide.vscode.commons.util.Log;
@@ -45,8 +49,13 @@ import org.springframework.ide.vscode.commons.util.text.IDocument;
 import org.springframework.ide.vscode.commons.util.text.TextDocument;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Iterables;
 
 /**
+ * Live hover hints and hovers are computed from the {@link LiveHoverTarget}s the hover providers extract
+ * into the (read-only) snapshots of the compilation units, so neither of them has to synchronize on the AST.
+ *
  * @author Martin Lippert
  */
 public class BootJavaHoverProvider implements HoverHandler {
@@ -55,12 +64,15 @@ public class BootJavaHoverProvider implements HoverHandler {
 	private BootJavaLanguageServer server;
 	private AnnotationHierarchyAwareLookup<HoverProvider> hoverProviders;
 	private RunningAppProvider runningAppProvider;
+	private final Extension<LiveHoverTargets> liveHoverTargets = this::extractTargets;
 
 	public BootJavaHoverProvider(BootJavaLanguageServer server, JavaProjectFinder projectFinder, AnnotationHierarchyAwareLookup<HoverProvider> specificProviders, RunningAppProvider runningAppProvider) {
 		this.server = server;
 		this.projectFinder = projectFinder;
 		this.hoverProviders = specificProviders;
 		this.runningAppProvider = runningAppProvider;
+
+		server.getCompilationUnitCache().addSnapshotExtension(liveHoverTargets);
 	}
 
 	@Override
@@ -83,111 +95,128 @@ public class BootJavaHoverProvider implements HoverHandler {
 	}
 
 	public Range[] getLiveHoverHints(final TextDocument document, final SpringBootApp[] runningBootApps) {
-		return server.getCompilationUnitCache().withCompilationUnit(document, cu -> {
-			Collection<Range> result = new HashSet<>();
-			try {
-				if (cu != null) {
-					cu.accept(new ASTVisitor() {
-
-						@Override
-						public boolean visit(TypeDeclaration node) {
-							try {
-								extractLiveHintsForType(node, document, runningBootApps, result);
-							}
-							catch (Exception e) {
-								e.printStackTrace();
-							}
-							return super.visit(node);
-						}
-
-						@Override
-						public boolean visit(SingleMemberAnnotation node) {
-							try {
-								extractLiveHintsForAnnotation(node, document, runningBootApps, result);
-							} catch (Exception e) {
-								Log.log(e);
-							}
-
-							return super.visit(node);
-						}
-
-						@Override
-						public boolean visit(NormalAnnotation node) {
-							try {
-								extractLiveHintsForAnnotation(node, document, runningBootApps, result);
-							} catch (Exception e) {
-								Log.log(e);
-							}
-
-							return super.visit(node);
-						}
-
-						@Override
-						public boolean visit(MarkerAnnotation node) {
-							try {
-								extractLiveHintsForAnnotation(node, document, runningBootApps, result);
-							} catch (Exception e) {
-								Log.log(e);
-							}
+		if (runningBootApps.length == 0 || !getProject(document).map(this::hasActuatorDependency).orElse(false)) {
+			//Do nothing... we don't want a highlight for the 'no actuator warning'
+			return new Range[0];
+		}
 
-							return super.visit(node);
+		return server.getCompilationUnitCache().withSnapshot(document, snapshot -> {
+			Collection<Range> result = new HashSet<>();
+			LiveHoverTargets targets = snapshot != null ? snapshot.get(liveHoverTargets) : null;
+			if (targets != null) {
+				for (LiveHoverTarget target : targets.getAll()) {
+					try {
+						Collection<Range> hints = target.getLiveHoverHints(document, runningBootApps);
+						if (hints != null) {
+							result.addAll(hints);
 						}
-					});
+					}
+					catch (Exception e) {
+						Log.log(e);
+					}
 				}
-			} catch (Exception e) {
-				Log.log(e);
 			}
 			return result.toArray(new Range[result.size()]);
 		});
 	}
 
-	protected void extractLiveHintsForType(TypeDeclaration typeDeclaration, TextDocument doc, SpringBootApp[] runningApps, Collection<Range> result) {
-		Collection<HoverProvider> providers = this.hoverProviders.getAll();
-		if (!providers.isEmpty()) {
-			for (HoverProvider provider : providers) {
-				getProject(doc).ifPresent(project -> {
-					if (hasActuatorDependency(project)) {
-						Collection<Range> hints = provider.getLiveHoverHints(typeDeclaration, doc, runningApps);
-						if (hints!=null) {
-							result.addAll(hints);
+	/**
+	 * Finds out which kinds of live data the live hover hints of the given document are computed from. This only
+	 * looks at the (lock-free) snapshot of the compilation unit, the AST is not needed for this.
+	 */
+	public Set<LiveDataCategory> getLiveDataCategories(final TextDocument document) {
+		return server.getCompilationUnitCache().withSnapshot(document, snapshot -> {
+			Set<LiveDataCategory> categories = EnumSet.noneOf(LiveDataCategory.class);
+			if (snapshot != null) {
+				if (!snapshot.getTypes().isEmpty()) {
+					for (HoverProvider provider : hoverProviders.getAll()) {
+						categories.addAll(provider.getLiveHintDataForTypes());
+					}
+				}
+				for (AnnotationSnapshot annotation : snapshot.getAnnotations()) {
+					for (String annotationType : annotation.getTypeHierarchy()) {
+						HoverProvider provider = hoverProviders.getExact(annotationType);
+						if (provider != null) {
+							categories.addAll(provider.getLiveHintDataForAnnotations());
 						}
-					} else {
-						//Do nothing... we don't want a highlight for the 'no actuator warning'
-						//ASTUtils.nameRange(doc, annotation).ifPresent(result::add);
 					}
-				});
+				}
 			}
-		}
+			return categories;
+		});
 	}
 
-	protected void extractLiveHintsForAnnotation(Annotation annotation, TextDocument doc, SpringBootApp[] runningApps, Collection<Range> result) {
-		ITypeBinding type = annotation.resolveTypeBinding();
-		if (type != null) {
-			if (runningApps.length > 0) {
-				for (HoverProvider provider : this.hoverProviders.get(type)) {
-					getProject(doc).ifPresent(project -> {
-						if (hasActuatorDependency(project)) {
-							Collection<Range> hints = provider.getLiveHoverHints(annotation, doc, runningApps);
-							if (hints!=null) {
-								result.addAll(hints);
+	/**
+	 * Lets the hover providers extract their targets from the AST, called once per document version when
+	 * the snapshot of the compilation unit gets created.
+	 */
+	private LiveHoverTargets extractTargets(CompilationUnit cu, TextDocument doc) {
+		ImmutableListMultimap.Builder<Integer, LiveHoverTarget> annotationTargets = ImmutableListMultimap.builder();
+		ImmutableListMultimap.Builder<Integer, LiveHoverTarget> typeTargets = ImmutableListMultimap.builder();
+
+		cu.accept(new ASTVisitor() {
+
+			@Override
+			public boolean visit(TypeDeclaration node) {
+				for (HoverProvider provider : hoverProviders.getAll()) {
+					try {
+						LiveHoverTarget target = provider.createTarget(node, doc);
+						if (target != null) {
+							typeTargets.put(node.getName().getStartPosition(), target);
+						}
+					}
+					catch (Exception e) {
+						Log.log(e);
+					}
+				}
+				return super.visit(node);
+			}
+
+			@Override
+			public boolean visit(SingleMemberAnnotation node) {
+				addTargets(node);
+				return super.visit(node);
+			}
+
+			@Override
+			public boolean visit(NormalAnnotation node) {
+				addTargets(node);
+				return super.visit(node);
+			}
+
+			@Override
+			public boolean visit(MarkerAnnotation node) {
+				addTargets(node);
+				return super.visit(node);
+			}
+
+			private void addTargets(Annotation annotation) {
+				ITypeBinding type = annotation.resolveTypeBinding();
+				if (type != null) {
+					for (HoverProvider provider : hoverProviders.get(type, AnnotationHierarchies.of(annotation))) {
+						try {
+							LiveHoverTarget target = provider.createTarget(annotation, type, doc);
+							if (target != null) {
+								annotationTargets.put(annotation.getStartPosition(), target);
 							}
-						} else {
-							//Do nothing... we don't want a highlight for the 'no actuator warning'
-							//ASTUtils.nameRange(doc, annotation).ifPresent(result::add);
 						}
-					});
+						catch (Exception e) {
+							Log.log(e);
+						}
+					}
 				}
 			}
-		}
+		});
+
+		return new LiveHoverTargets(annotationTargets.build(), typeTargets.build());
 	}
 
 	private Hover provideHover(TextDocument document, int offset) throws Exception {
 		IJavaProject project = getProject(document).orElse(null);
 		if (project!=null) {
-			return server.getCompilationUnitCache().withCompilationUnit(document, cu -> {
-				ASTNode node = NodeFinder.perform(cu, offset, 0);
-				if (node != null) {
-					return provideHover(node, offset, document, project);
+			return server.getCompilationUnitCache().withSnapshot(document, snapshot -> {
+				if (snapshot != null) {
+					return provideHover(snapshot, offset, document, project);
 				}
 				return null;
 			});
@@ -195,59 +224,61 @@ public class BootJavaHoverProvider implements HoverHandler {
 		return null;
 	}
 
-	private Hover provideHover(ASTNode node, int offset, TextDocument doc, IJavaProject project) {
+	private Hover provideHover(CompilationUnitSnapshot snapshot, int offset, TextDocument doc, IJavaProject project) {
+		LiveHoverTargets targets = snapshot.get(liveHoverTargets);
 
 		// look for spring annotations first
-		ASTNode annotationNode = node;
-		while (annotationNode != null && !(annotationNode instanceof Annotation)) {
-			annotationNode = annotationNode.getParent();
-		}
-		if (annotationNode != null) {
-			return provideHoverForAnnotation(node, (Annotation) annotationNode, offset, doc, project);
+		AnnotationSnapshot annotation = snapshot.getAnnotationAt(offset);
+		if (annotation != null) {
+			List<LiveHoverTarget> annotationTargets = targets != null ? targets.forAnnotation(annotation) : ImmutableList.of();
+			return provideHoverForAnnotation(annotation, annotationTargets, offset, doc, project);
 		}
 
 		// then do additional AST node coverage
-		if (node instanceof SimpleName && node.getParent() instanceof TypeDeclaration) {
-			return provideHoverForTypeDeclaration(node, (TypeDeclaration) node.getParent(), offset, doc, project);
+		TypeSnapshot type = snapshot.getTypeWithNameAt(offset);
+		if (type != null && targets != null) {
+			return provideHoverForTypeDeclaration(targets.forType(type), offset, doc, project);
 		}
 
 		return null;
 	}
 
-	private Hover provideHoverForAnnotation(ASTNode exactNode, Annotation annotation, int offset, TextDocument doc, IJavaProject project) {
-		ITypeBinding type = annotation.resolveTypeBinding();
-		if (type != null) {
+	private Hover provideHoverForAnnotation(AnnotationSnapshot annotation, List<LiveHoverTarget> targets, int offset, TextDocument doc, IJavaProject project) {
+		if (annotation.isResolved()) {
+			boolean showActuatorWarning = !hasActuatorDependency(project) && annotation.getNameRange().containsOffset(offset);
+			if (targets.isEmpty() && !showActuatorWarning) {
+				// nothing to show, no need to look for running apps
+				return null;
+			}
+
 			SpringBootApp[] runningApps = getRunningSpringApps(project);
 			if (runningApps.length > 0) {
-				for (HoverProvider provider : this.hoverProviders.get(type)) {
-					Hover hover = provider.provideHover(exactNode, annotation, type, offset, doc, project, runningApps);
+				for (LiveHoverTarget target : targets) {
+					Hover hover = target.provideHover(offset, doc, project, runningApps);
 					if (hover!=null) {
 						//TODO: compose multiple hovers somehow instead of just returning the first one?
 						return hover;
 					}
 				}
 				//Only reaching here if we didn't get a hover.
-				if (!hasActuatorDependency(project)) {
-					DocumentRegion region = ASTUtils.nameRegion(doc, annotation);
-					if (region.containsOffset(offset)) {
-						return actuatorWarning(project);
-					}
+				if (showActuatorWarning) {
+					return actuatorWarning(project);
 				}
 			}
 		}
 		return null;
 	}
 
-	private Hover provideHoverForTypeDeclaration(ASTNode exactNode, TypeDeclaration typeDeclaration, int offset, TextDocument doc, IJavaProject project) {
-		SpringBootApp[] runningApps = getRunningSpringApps(project);
-		if (runningApps.length > 0) {
-			ITypeBinding type = typeDeclaration.resolveBinding();
-
-			for (HoverProvider provider : this.hoverProviders.getAll()) {
-				Hover hover = provider.provideHover(exactNode, typeDeclaration, type, offset, doc, project, runningApps);
-				if (hover!=null) {
-					//TODO: compose multiple hovers somehow instead of just returning the first one?
-					return hover;
+	private Hover provideHoverForTypeDeclaration(List<LiveHoverTarget> targets, int offset, TextDocument doc, IJavaProject project) {
+		if (!targets.isEmpty()) {
+			SpringBootApp[] runningApps = getRunningSpringApps(project);
+			if (runningApps.length > 0) {
+				for (LiveHoverTarget target : targets) {
+					Hover hover = target.provideHover(offset, doc, project, runningApps);
+					if (hover!=null) {
+						//TODO: compose multiple hovers somehow instead of just returning the first one?
+						return hover;
+					}
 				}
 			}
 		}
@@ -264,18 +295,7 @@ public class BootJavaHoverProvider implements HoverHandler {
 	}
 
 	private boolean hasActuatorDependency(IJavaProject project) {
-		try {
-			IClasspath classpath = project.getClasspath();
-			if (classpath!=null) {
-				return classpath.getClasspathEntries().stream().anyMatch(cpe -> {
-					String name = cpe.getFileName().toString();
-					return name.startsWith("spring-boot-actuator-");
-				});
-			}
-		} catch (Exception e) {
-			Log.log(e);
-		}
-		return false;
+		return server.getProjectCapabilities().get(project).hasActuator();
 	}
 
 	private Optional<IJavaProject> getProject(IDocument doc) {
@@ -291,4 +311,31 @@ public class BootJavaHoverProvider implements HoverHandler {
 		}
 	}
 
+	/**
+	 * The live hover targets of a compilation unit, by the start offset of the annotation or the name of the
+	 * type declaration they got extracted for.
+	 */
+	private static class LiveHoverTargets {
+
+		private final ImmutableListMultimap<Integer, LiveHoverTarget> annotationTargets;
+		private final ImmutableListMultimap<Integer, LiveHoverTarget> typeTargets;
+
+		LiveHoverTargets(ImmutableListMultimap<Integer, LiveHoverTarget> annotationTargets, ImmutableListMultimap<Integer, LiveHoverTarget> typeTargets) {
+			this.annotationTargets = annotationTargets;
+			this.typeTargets = typeTargets;
+		}
+
+		List<LiveHoverTarget> forAnnotation(AnnotationSnapshot annotation) {
+			return annotationTargets.get(annotation.getRange().getStart());
+		}
+
+		List<LiveHoverTarget> forType(TypeSnapshot type) {
+			return typeTargets.get(type.getNameRange().getStart());
+		}
+
+		Iterable<LiveHoverTarget> getAll() {
+			return Iterables.concat(typeTargets.values(), annotationTargets.values());
+		}
+	}
+
 }
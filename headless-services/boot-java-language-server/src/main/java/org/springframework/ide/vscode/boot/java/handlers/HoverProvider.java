@@ -10,27 +10,45 @@
  *******************************************************************************/
 package org.springframework.ide.vscode.boot.java.handlers;
 
-import java.util.Collection;
+import java.util.Set;
 
-import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.Annotation;
 import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.TypeDeclaration;
-import org.eclipse.lsp4j.Hover;
-import org.eclipse.lsp4j.Range;
-import org.springframework.ide.vscode.commons.boot.app.cli.SpringBootApp;
-import org.springframework.ide.vscode.commons.java.IJavaProject;
+import org.springframework.ide.vscode.commons.boot.app.cli.LiveDataCategory;
 import org.springframework.ide.vscode.commons.util.text.TextDocument;
 
 /**
+ * Provides live hover hints and hovers for annotations and type declarations.
+ * <p>
+ * Providers work in two steps: they extract what they need from the AST into a {@link LiveHoverTarget}
+ * once per document version (with the AST lock held), and the live hints and hovers are computed from
+ * the targets later on, without synchronizing on the AST.
+ *
  * @author Martin Lippert
  */
 public interface HoverProvider {
 
-	Hover provideHover(ASTNode node, Annotation annotation, ITypeBinding type, int offset, TextDocument doc, IJavaProject project, SpringBootApp[] runningApps);
-	Hover provideHover(ASTNode node, TypeDeclaration typeDeclaration, ITypeBinding type, int offset, TextDocument doc, IJavaProject project, SpringBootApp[] runningApps);
+	/**
+	 * @return the target for the given annotation, or <code>null</code> if there is nothing this provider
+	 * could ever show for it
+	 */
+	LiveHoverTarget createTarget(Annotation annotation, ITypeBinding type, TextDocument doc);
+
+	/**
+	 * @return the target for the given type declaration, or <code>null</code> if there is nothing this provider
+	 * could ever show for it
+	 */
+	LiveHoverTarget createTarget(TypeDeclaration typeDeclaration, TextDocument doc);
+
+	/**
+	 * @return the kinds of live data the live hover hints for annotations are computed from
+	 */
+	Set<LiveDataCategory> getLiveHintDataForAnnotations();
 
-	Collection<Range> getLiveHoverHints(Annotation annotation, TextDocument doc, SpringBootApp[] runningApps);
-	Collection<Range> getLiveHoverHints(TypeDeclaration typeDeclaration, TextDocument doc, SpringBootApp[] runningApps);
+	/**
+	 * @return the kinds of live data the live hover hints for type declarations are computed from
+	 */
+	Set<LiveDataCategory> getLiveHintDataForTypes();
 
 }
@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.boot.java.handlers;
+
+import java.util.Collection;
+
+import org.eclipse.lsp4j.Hover;
+import org.eclipse.lsp4j.Range;
+import org.springframework.ide.vscode.commons.boot.app.cli.SpringBootApp;
+import org.springframework.ide.vscode.commons.java.IJavaProject;
+import org.springframework.ide.vscode.commons.util.text.TextDocument;
+
+/**
+ * What a {@link HoverProvider} extracted from the AST for a single annotation or type declaration.
+ * Targets are immutable and don't refer to AST nodes or bindings, so live hover hints and hovers
+ * can be computed from them without synchronizing on the AST.
+ *
+ * @author Martin Lippert
+ */
+public interface LiveHoverTarget {
+
+	/**
+	 * @param doc the document the target got extracted from
+	 */
+	Collection<Range> getLiveHoverHints(TextDocument doc, SpringBootApp[] runningApps);
+
+	/**
+	 * @param offset the offset of the hover, within the annotation or the name of the type declaration
+	 * @param doc the document the target got extracted from
+	 */
+	Hover provideHover(int offset, TextDocument doc, IJavaProject project, SpringBootApp[] runningApps);
+
+}
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.boot.java.handlers;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.ide.vscode.commons.boot.app.cli.ActuatorHttpClient;
+import org.springframework.ide.vscode.commons.boot.app.cli.RemoteSpringBootApp;
+import org.springframework.ide.vscode.commons.boot.app.cli.SpringBootApp;
+import org.springframework.ide.vscode.commons.util.Log;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Provides the Spring Boot apps that are accessed via their actuator HTTP endpoints, for a configured list of
+ * actuator base URLs.
+ * <p>
+ * Only apps that respond are handed out. Whether they respond is checked for all apps in parallel (with a
+ * timeout), in the background and at most every {@link #EXPIRE_AFTER}. Only the first request after the URLs
+ * got configured waits for the check to finish.
+ *
+ * @author Martin Lippert
+ */
+public class RemoteRunningAppProvider implements RunningAppProvider {
+
+	private static final Duration EXPIRE_AFTER = Duration.ofMillis(2000); //Limits rate at which we check the apps
+	private static final Duration CHECK_TIMEOUT = Duration.ofSeconds(3);
+
+	private final ActuatorHttpClient client = new ActuatorHttpClient();
+	private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable, "Remote Spring Boot App Check");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private volatile ImmutableMap<String, RemoteSpringBootApp> apps = ImmutableMap.of();
+	private volatile ImmutableList<SpringBootApp> availableApps = ImmutableList.of();
+	private volatile long nextCheckAfter = Long.MIN_VALUE;
+
+	private CompletableFuture<Void> check = null;
+	private CompletableFuture<Void> initialCheck = null;
+
+	/**
+	 * Sets the base URLs of the actuator endpoints of the apps (apps of URLs that are configured already are kept).
+	 */
+	public synchronized void setActuatorUrls(Collection<String> actuatorUrls) {
+		ImmutableMap<String, RemoteSpringBootApp> oldApps = apps;
+		Map<String, RemoteSpringBootApp> newApps = new LinkedHashMap<>();
+		for (String actuatorUrl : actuatorUrls) {
+			try {
+				RemoteSpringBootApp app = new RemoteSpringBootApp(actuatorUrl, client);
+				RemoteSpringBootApp existingApp = oldApps.get(app.getActuatorUrl());
+				newApps.put(app.getActuatorUrl(), existingApp != null ? existingApp : app);
+			} catch (Exception e) {
+				Log.log(e);
+			}
+		}
+
+		if (!newApps.equals(oldApps)) {
+			for (Entry<String, RemoteSpringBootApp> oldApp : oldApps.entrySet()) {
+				if (!newApps.containsKey(oldApp.getKey())) {
+					oldApp.getValue().dispose();
+				}
+			}
+			apps = ImmutableMap.copyOf(newApps);
+			availableApps = ImmutableList.of();
+			nextCheckAfter = Long.MIN_VALUE;
+			initialCheck = null;
+		}
+	}
+
+	@Override
+	public Collection<SpringBootApp> getAllRunningSpringApps() throws Exception {
+		if (apps.isEmpty()) {
+			return ImmutableList.of();
+		}
+
+		CompletableFuture<Void> initial;
+		synchronized (this) {
+			if (System.currentTimeMillis() >= nextCheckAfter && (check == null || check.isDone())) {
+				check = CompletableFuture.runAsync(this::check, executor);
+				if (initialCheck == null) {
+					initialCheck = check;
+				}
+			}
+			initial = initialCheck;
+		}
+		if (initial != null && !initial.isDone()) {
+			initial.get();
+		}
+		return availableApps;
+	}
+
+	private void check() {
+		ImmutableMap<String, RemoteSpringBootApp> apps = this.apps;
+		try {
+			Map<RemoteSpringBootApp, Future<Boolean>> checks = new LinkedHashMap<>();
+			for (RemoteSpringBootApp app : apps.values()) {
+				checks.put(app, executor.submit(app::isAvailable));
+			}
+
+			long deadline = System.currentTimeMillis() + CHECK_TIMEOUT.toMillis();
+			ImmutableList.Builder<SpringBootApp> available = ImmutableList.builder();
+			for (Entry<RemoteSpringBootApp, Future<Boolean>> result : checks.entrySet()) {
+				try {
+					if (result.getValue().get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+						available.add(result.getKey());
+					}
+				} catch (Exception e) {
+					// not available (in time), try again with the next check
+					result.getValue().cancel(true);
+				}
+			}
+
+			// the configured apps might have changed in the meantime
+			if (apps == this.apps) {
+				availableApps = available.build();
+			}
+		} finally {
+			if (apps == this.apps) {
+				nextCheckAfter = System.currentTimeMillis() + EXPIRE_AFTER.toMillis();
+			}
+		}
+	}
+
+}
@@ -13,6 +13,7 @@ package org.springframework.ide.vscode.boot.java.handlers;
 import java.util.Collection;
 
 import org.springframework.ide.vscode.commons.boot.app.cli.SpringBootApp;
+import org.springframework.ide.vscode.commons.util.Log;
 
 import com.google.common.collect.ImmutableList;
 
@@ -22,4 +23,22 @@ public interface RunningAppProvider {
 	public static final RunningAppProvider NULL = () -> ImmutableList.of();
 
 	Collection<SpringBootApp> getAllRunningSpringApps() throws Exception;
+
+	/**
+	 * @return a provider for the apps of all the given providers (problems of single providers are logged,
+	 * the apps of the other providers are returned nevertheless)
+	 */
+	public static RunningAppProvider union(RunningAppProvider... providers) {
+		return () -> {
+			ImmutableList.Builder<SpringBootApp> apps = ImmutableList.builder();
+			for (RunningAppProvider provider : providers) {
+				try {
+					apps.addAll(provider.getAllRunningSpringApps());
+				} catch (Exception e) {
+					Log.log(e);
+				}
+			}
+			return apps.build();
+		};
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017 Pivotal, Inc.
+ * Copyright (c) 2017, 2018 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,17 +13,20 @@ package org.springframework.ide.vscode.boot.java.livehover;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.Annotation;
 import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.lsp4j.Hover;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.springframework.ide.vscode.boot.java.handlers.HoverProvider;
+import org.springframework.ide.vscode.boot.java.handlers.LiveHoverTarget;
 import org.springframework.ide.vscode.boot.java.utils.ASTUtils;
+import org.springframework.ide.vscode.commons.boot.app.cli.LiveAppSnapshot;
+import org.springframework.ide.vscode.commons.boot.app.cli.LiveDataCategory;
 import org.springframework.ide.vscode.commons.boot.app.cli.SpringBootApp;
 import org.springframework.ide.vscode.commons.boot.app.cli.livebean.LiveBean;
 import org.springframework.ide.vscode.commons.boot.app.cli.livebean.LiveBeansModel;
@@ -32,44 +35,105 @@ import org.springframework.ide.vscode.commons.util.Log;
 import org.springframework.ide.vscode.commons.util.text.TextDocument;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 public abstract class AbstractInjectedIntoHoverProvider implements HoverProvider {
 
+	protected final LiveAppSnapshots liveAppSnapshots;
+
+	protected AbstractInjectedIntoHoverProvider(LiveAppSnapshots liveAppSnapshots) {
+		this.liveAppSnapshots = liveAppSnapshots;
+	}
+
 	@Override
-	public Collection<Range> getLiveHoverHints(Annotation annotation, TextDocument doc, SpringBootApp[] runningApps) {
-		// Highlight if any running app contains an instance of this component
-		try {
-			if (runningApps.length > 0) {
-				LiveBean definedBean = getDefinedBean(annotation);
-				if (definedBean != null) {
-					if (Stream.of(runningApps).anyMatch(app -> LiveHoverUtils.hasRelevantBeans(app, definedBean))) {
-						Optional<Range> nameRange = ASTUtils.nameRange(doc, annotation);
-						if (nameRange.isPresent()) {
-							return ImmutableList.of(nameRange.get());
-						}
-					}
+	public LiveHoverTarget createTarget(Annotation annotation, ITypeBinding type, TextDocument doc) {
+		LiveBean definedBean = getDefinedBean(annotation);
+		if (definedBean != null) {
+			Optional<Range> nameRange = ASTUtils.nameRange(doc, annotation);
+			if (nameRange.isPresent()) {
+				return new InjectedIntoTarget(definedBean, nameRange.get(), hasAutomaticallyWiredConstructor(annotation));
+			}
+		}
+		return null;
+	}
+
+	protected abstract LiveBean getDefinedBean(Annotation annotation);
+
+	protected boolean hasAutomaticallyWiredConstructor(Annotation annotation) {
+		//This doesn't really belong here, but it accomodates Martin's additional logic to handle implicitly
+		//@Autowired constructor.
+		//This returns false by default as its really only relevant to @Component annotation report.
+		return false;
+	}
+
+	protected void addAutomaticallyWiredContructor(StringBuilder hover, LiveBeansModel beans, LiveBean bean, IJavaProject project) {
+		//Only called for targets that have an implicitly @Autowired constructor, see above.
+	}
+
+	protected void addInjectedInto(LiveBean definedBean, StringBuilder hover, LiveBeansModel beans, LiveBean bean, IJavaProject project) {
+		hover.append("\n\n");
+		List<LiveBean> dependers = beans.getBeansDependingOn(bean.getId());
+		if (dependers.isEmpty()) {
+			hover.append(LiveHoverUtils.showBean(bean) + " exists but is **Not injected anywhere**\n");
+		} else {
+			hover.append(LiveHoverUtils.showBean(bean) + " injected into:\n\n");
+			boolean firstDependency = true;
+			for (LiveBean dependingBean : dependers) {
+				if (!firstDependency) {
+					hover.append("\n");
 				}
+				hover.append("- " + LiveHoverUtils.showBeanWithResource(dependingBean, "  ", project));
+				firstDependency = false;
 			}
-		} catch (Exception e) {
-			Log.log(e);
 		}
-		return ImmutableList.of();
 	}
 
 	@Override
-	public Hover provideHover(ASTNode node, Annotation annotation, ITypeBinding type, int offset,
-			TextDocument doc, IJavaProject project, SpringBootApp[] runningApps) {
-		if (runningApps.length > 0) {
+	public Set<LiveDataCategory> getLiveHintDataForAnnotations() {
+		return ImmutableSet.of(LiveDataCategory.BEANS);
+	}
+
+	/**
+	 * Highlights the name of the bean definition if any running app contains an instance of the defined bean,
+	 * the hover shows where the instances got injected into.
+	 */
+	protected class InjectedIntoTarget implements LiveHoverTarget {
 
-			LiveBean definedBean = getDefinedBean(annotation);
-			if (definedBean != null) {
+		private final LiveBean definedBean;
+		private final Range nameRange;
+		private final boolean automaticallyWiredConstructor;
+
+		public InjectedIntoTarget(LiveBean definedBean, Range nameRange, boolean automaticallyWiredConstructor) {
+			this.definedBean = definedBean;
+			this.nameRange = nameRange;
+			this.automaticallyWiredConstructor = automaticallyWiredConstructor;
+		}
+
+		@Override
+		public Collection<Range> getLiveHoverHints(TextDocument doc, SpringBootApp[] runningApps) {
+			try {
+				if (runningApps.length > 0) {
+					if (Stream.of(runningApps).anyMatch(app -> LiveHoverUtils.hasRelevantBeans(liveAppSnapshots.get(app), definedBean))) {
+						return ImmutableList.of(nameRange);
+					}
+				}
+			} catch (Exception e) {
+				Log.log(e);
+			}
+			return ImmutableList.of();
+		}
+
+		@Override
+		public Hover provideHover(int offset, TextDocument doc, IJavaProject project, SpringBootApp[] runningApps) {
+			if (runningApps.length > 0) {
 				StringBuilder hover = new StringBuilder();
 				hover.append("**Injection report for " + LiveHoverUtils.showBean(definedBean) + "**\n\n");
 
 				boolean hasInterestingApp = false;
 				for (SpringBootApp app : runningApps) {
-					LiveBeansModel beans = app.getBeans();
-					List<LiveBean> relevantBeans = LiveHoverUtils.findRelevantBeans(app, definedBean).collect(Collectors.toList());
+					LiveAppSnapshot snapshot = liveAppSnapshots.get(app);
+					LiveBeansModel beans = snapshot.getBeans();
+					List<LiveBean> relevantBeans = LiveHoverUtils.findRelevantBeans(snapshot, definedBean).collect(Collectors.toList());
 
 					if (!relevantBeans.isEmpty()) {
 						if (!hasInterestingApp) {
@@ -77,11 +141,13 @@ public abstract class AbstractInjectedIntoHoverProvider implements HoverProvider
 						} else {
 							hover.append("\n\n");
 						}
-						hover.append(LiveHoverUtils.niceAppName(app) + ":");
+						hover.append(LiveHoverUtils.niceAppName(app, snapshot) + ":");
 
 						for (LiveBean bean : relevantBeans) {
 							addInjectedInto(definedBean, hover, beans, bean, project);
-							addAutomaticallyWiredContructor(hover, annotation, beans, bean, project);
+							if (automaticallyWiredConstructor) {
+								addAutomaticallyWiredContructor(hover, beans, bean, project);
+							}
 						}
 					}
 				}
@@ -89,33 +155,8 @@ public abstract class AbstractInjectedIntoHoverProvider implements HoverProvider
 					return new Hover(ImmutableList.of(Either.forLeft(hover.toString())));
 				}
 			}
+			return null;
 		}
-		return null;
-	}
-
-	protected abstract LiveBean getDefinedBean(Annotation annotation);
-
-	protected void addAutomaticallyWiredContructor(StringBuilder hover, Annotation annotation, LiveBeansModel beans, LiveBean bean, IJavaProject project) {
-		//This doesn't really belong here, but it accomodates Martin's additional logic to handle implicitly
-		//@Autowired constructor.
-		//This does nothing by default as its really only relevant to @Component annotation report.
 	}
 
-	protected void addInjectedInto(LiveBean definedBean, StringBuilder hover, LiveBeansModel beans, LiveBean bean, IJavaProject project) {
-		hover.append("\n\n");
-		List<LiveBean> dependers = beans.getBeansDependingOn(bean.getId());
-		if (dependers.isEmpty()) {
-			hover.append(LiveHoverUtils.showBean(bean) + " exists but is **Not injected anywhere**\n");
-		} else {
-			hover.append(LiveHoverUtils.showBean(bean) + " injected into:\n\n");
-			boolean firstDependency = true;
-			for (LiveBean dependingBean : dependers) {
-				if (!firstDependency) {
-					hover.append("\n");
-				}
-				hover.append("- " + LiveHoverUtils.showBeanWithResource(dependingBean, "  ", project));
-				firstDependency = false;
-			}
-		}
-	}
 }
@@ -14,10 +14,10 @@ import static org.springframework.ide.vscode.boot.java.utils.ASTUtils.nameRange;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 
-import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTVisitor;
 import org.eclipse.jdt.core.dom.Annotation;
 import org.eclipse.jdt.core.dom.ITypeBinding;
@@ -27,7 +27,9 @@ import org.eclipse.lsp4j.Hover;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.springframework.ide.vscode.boot.java.handlers.HoverProvider;
+import org.springframework.ide.vscode.boot.java.handlers.LiveHoverTarget;
 import org.springframework.ide.vscode.boot.java.utils.ASTUtils;
+import org.springframework.ide.vscode.commons.boot.app.cli.LiveDataCategory;
 import org.springframework.ide.vscode.commons.boot.app.cli.SpringBootApp;
 import org.springframework.ide.vscode.commons.java.IJavaProject;
 import org.springframework.ide.vscode.commons.util.Log;
@@ -35,6 +37,7 @@ import org.springframework.ide.vscode.commons.util.text.TextDocument;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableList.Builder;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableSet;
 
 /**
@@ -42,76 +45,41 @@ import com.google.common.collect.ImmutableSet;
  */
 public class ActiveProfilesProvider implements HoverProvider {
 
+	private final LiveAppSnapshots liveAppSnapshots;
+
+	public ActiveProfilesProvider(LiveAppSnapshots liveAppSnapshots) {
+		this.liveAppSnapshots = liveAppSnapshots;
+	}
+
 	@Override
-	public Hover provideHover(
-			ASTNode node,
-			Annotation annotation,
-			ITypeBinding type,
-			int offset,
-			TextDocument doc, IJavaProject project, SpringBootApp[] runningApps
-	) {
-		if (runningApps.length>0) {
-			StringBuilder markdown = new StringBuilder();
-			markdown.append("**Active Profiles**\n\n");
-			boolean hasInterestingApp = false;
-			for (SpringBootApp app : runningApps) {
-				List<String> profiles = app.getActiveProfiles();
-				if (profiles==null) {
-					markdown.append(niceAppName(app)+" : _Unknown_\n\n");
-				} else {
-					hasInterestingApp = true;
-					if (profiles.isEmpty()) {
-						markdown.append(niceAppName(app)+" : _None_\n\n");
-					} else {
-						markdown.append(niceAppName(app)+" :\n");
-						for (String profile : profiles) {
-							markdown.append("- "+profile+"\n");
-						}
-						markdown.append("\n");
-					}
+	public LiveHoverTarget createTarget(Annotation annotation, ITypeBinding type, TextDocument doc) {
+		Optional<Range> nameRange = nameRange(doc, annotation);
+
+		ImmutableListMultimap.Builder<String, Range> literalRanges = ImmutableListMultimap.builder();
+		annotation.accept(new ASTVisitor() {
+			@Override
+			public boolean visit(StringLiteral node) {
+				String value = ASTUtils.getLiteralValue(node);
+				if (value!=null) {
+					rangeOf(doc, node).ifPresent(range -> literalRanges.put(value, range));
 				}
+				return true;
 			}
-			if (hasInterestingApp) {
-				return new Hover(
-						ImmutableList.of(Either.forLeft(markdown.toString()))
-				);
-			}
-		}
-		return null;
-	}
+		});
 
-	private String niceAppName(SpringBootApp app) {
-		return "Process [PID="+app.getProcessID()+", name=`"+app.getProcessName()+"`]";
+		return new ActiveProfilesTarget(nameRange.orElse(null), literalRanges.build());
 	}
 
-	@Override
-	public Collection<Range> getLiveHoverHints(Annotation annotation, TextDocument doc, SpringBootApp[] runningApps) {
-		if (runningApps.length > 0) {
-			Builder<Range> ranges = ImmutableList.builder();
-			nameRange(doc, annotation).ifPresent(ranges::add);
-
-			Set<String> allActiveProfiles = getAllActiveProfiles(runningApps);
-			annotation.accept(new ASTVisitor() {
-				@Override
-				public boolean visit(StringLiteral node) {
-					String value = ASTUtils.getLiteralValue(node);
-					if (value!=null && allActiveProfiles.contains(value)) {
-						rangeOf(doc, node).ifPresent(ranges::add);
-					}
-					return true;
-				}
-			});
-			return ranges.build();
-		}
-		return ImmutableList.of();
+	private String niceAppName(SpringBootApp app) {
+		return LiveHoverUtils.niceAppName(app, liveAppSnapshots.get(app));
 	}
 
-	private static Set<String> getAllActiveProfiles(SpringBootApp[] runningApps) {
+	private Set<String> getAllActiveProfiles(SpringBootApp[] runningApps) {
 		ImmutableSet.Builder<String> builder = ImmutableSet.builder();
 		for (SpringBootApp app : runningApps) {
-			List<String> profiles = app.getActiveProfiles();
+			List<String> profiles = liveAppSnapshots.get(app).getActiveProfiles();
 			if (profiles!=null) {
-				builder.addAll(app.getActiveProfiles());
+				builder.addAll(profiles);
 			}
 		}
 		return builder.build();
@@ -135,15 +103,83 @@ public class ActiveProfilesProvider implements HoverProvider {
 	}
 
 	@Override
-	public Hover provideHover(ASTNode node, TypeDeclaration typeDeclaration, ITypeBinding type, int offset,
-			TextDocument doc, IJavaProject project, SpringBootApp[] runningApps) {
+	public LiveHoverTarget createTarget(TypeDeclaration typeDeclaration, TextDocument doc) {
 		return null;
 	}
 
 	@Override
-	public Collection<Range> getLiveHoverHints(TypeDeclaration typeDeclaration, TextDocument doc,
-			SpringBootApp[] runningApps) {
-		return null;
+	public Set<LiveDataCategory> getLiveHintDataForAnnotations() {
+		return ImmutableSet.of(LiveDataCategory.PROFILES);
+	}
+
+	@Override
+	public Set<LiveDataCategory> getLiveHintDataForTypes() {
+		return ImmutableSet.of();
+	}
+
+	/**
+	 * Highlights the annotation and the profile names in it that are active in a running app.
+	 */
+	private class ActiveProfilesTarget implements LiveHoverTarget {
+
+		private final Range nameRange;
+		private final ImmutableListMultimap<String, Range> literalRanges;
+
+		ActiveProfilesTarget(Range nameRange, ImmutableListMultimap<String, Range> literalRanges) {
+			this.nameRange = nameRange;
+			this.literalRanges = literalRanges;
+		}
+
+		@Override
+		public Collection<Range> getLiveHoverHints(TextDocument doc, SpringBootApp[] runningApps) {
+			if (runningApps.length > 0) {
+				Builder<Range> ranges = ImmutableList.builder();
+				if (nameRange != null) {
+					ranges.add(nameRange);
+				}
+
+				Set<String> allActiveProfiles = getAllActiveProfiles(runningApps);
+				for (Entry<String, Range> literal : literalRanges.entries()) {
+					if (allActiveProfiles.contains(literal.getKey())) {
+						ranges.add(literal.getValue());
+					}
+				}
+				return ranges.build();
+			}
+			return ImmutableList.of();
+		}
+
+		@Override
+		public Hover provideHover(int offset, TextDocument doc, IJavaProject project, SpringBootApp[] runningApps) {
+			if (runningApps.length>0) {
+				StringBuilder markdown = new StringBuilder();
+				markdown.append("**Active Profiles**\n\n");
+				boolean hasInterestingApp = false;
+				for (SpringBootApp app : runningApps) {
+					List<String> profiles = liveAppSnapshots.get(app).getActiveProfiles();
+					if (profiles==null) {
+						markdown.append(niceAppName(app)+" : _Unknown_\n\n");
+					} else {
+						hasInterestingApp = true;
+						if (profiles.isEmpty()) {
+							markdown.append(niceAppName(app)+" : _None_\n\n");
+						} else {
+							markdown.append(niceAppName(app)+" :\n");
+							for (String profile : profiles) {
+								markdown.append("- "+profile+"\n");
+							}
+							markdown.append("\n");
+						}
+					}
+				}
+				if (hasInterestingApp) {
+					return new Hover(
+							ImmutableList.of(Either.forLeft(markdown.toString()))
+					);
+				}
+			}
+			return null;
+		}
 	}
 
 }
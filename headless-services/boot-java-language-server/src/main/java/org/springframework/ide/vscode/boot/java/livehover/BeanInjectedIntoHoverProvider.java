@@ -10,25 +10,27 @@
  *******************************************************************************/
 package org.springframework.ide.vscode.boot.java.livehover;
 
-import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
-import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.Annotation;
-import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
 import org.eclipse.jdt.core.dom.TypeDeclaration;
-import org.eclipse.lsp4j.Hover;
-import org.eclipse.lsp4j.Range;
+import org.springframework.ide.vscode.boot.java.handlers.LiveHoverTarget;
 import org.springframework.ide.vscode.boot.java.utils.ASTUtils;
-import org.springframework.ide.vscode.commons.boot.app.cli.SpringBootApp;
+import org.springframework.ide.vscode.commons.boot.app.cli.LiveDataCategory;
 import org.springframework.ide.vscode.commons.boot.app.cli.livebean.LiveBean;
-import org.springframework.ide.vscode.commons.java.IJavaProject;
 import org.springframework.ide.vscode.commons.util.Optionals;
 import org.springframework.ide.vscode.commons.util.text.TextDocument;
 
+import com.google.common.collect.ImmutableSet;
+
 public class BeanInjectedIntoHoverProvider extends AbstractInjectedIntoHoverProvider {
 
+	public BeanInjectedIntoHoverProvider(LiveAppSnapshots liveAppSnapshots) {
+		super(liveAppSnapshots);
+	}
+
 	@Override
 	protected LiveBean getDefinedBean(Annotation annotation) {
 		MethodDeclaration beanMethod = ASTUtils.getAnnotatedMethod(annotation);
@@ -71,15 +73,13 @@ public class BeanInjectedIntoHoverProvider extends AbstractInjectedIntoHoverProv
 	}
 
 	@Override
-	public Hover provideHover(ASTNode node, TypeDeclaration typeDeclaration, ITypeBinding type, int offset,
-			TextDocument doc, IJavaProject project, SpringBootApp[] runningApps) {
+	public LiveHoverTarget createTarget(TypeDeclaration typeDeclaration, TextDocument doc) {
 		return null;
 	}
 
 	@Override
-	public Collection<Range> getLiveHoverHints(TypeDeclaration typeDeclaration, TextDocument doc,
-			SpringBootApp[] runningApps) {
-		return null;
+	public Set<LiveDataCategory> getLiveHintDataForTypes() {
+		return ImmutableSet.of();
 	}
 
 }
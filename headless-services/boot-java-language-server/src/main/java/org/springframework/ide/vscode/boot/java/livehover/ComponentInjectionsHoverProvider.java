@@ -10,25 +10,20 @@
  *******************************************************************************/
 package org.springframework.ide.vscode.boot.java.livehover;
 
-import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.Set;
 
-import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.Annotation;
 import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.MarkerAnnotation;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
 import org.eclipse.jdt.core.dom.TypeDeclaration;
-import org.eclipse.lsp4j.Hover;
 import org.eclipse.lsp4j.Range;
-import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.springframework.ide.vscode.boot.java.Annotations;
+import org.springframework.ide.vscode.boot.java.handlers.LiveHoverTarget;
 import org.springframework.ide.vscode.boot.java.utils.ASTUtils;
 import org.springframework.ide.vscode.boot.java.utils.FunctionUtils;
-import org.springframework.ide.vscode.commons.boot.app.cli.SpringBootApp;
+import org.springframework.ide.vscode.commons.boot.app.cli.LiveDataCategory;
 import org.springframework.ide.vscode.commons.boot.app.cli.livebean.LiveBean;
 import org.springframework.ide.vscode.commons.boot.app.cli.livebean.LiveBeansModel;
 import org.springframework.ide.vscode.commons.java.IJavaProject;
@@ -37,37 +32,44 @@ import org.springframework.ide.vscode.commons.util.Log;
 import org.springframework.ide.vscode.commons.util.StringUtil;
 import org.springframework.ide.vscode.commons.util.text.TextDocument;
 
-import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 import reactor.util.function.Tuple3;
 
 public class ComponentInjectionsHoverProvider extends AbstractInjectedIntoHoverProvider {
 
+	public ComponentInjectionsHoverProvider(LiveAppSnapshots liveAppSnapshots) {
+		super(liveAppSnapshots);
+	}
+
 	@Override
-	protected void addAutomaticallyWiredContructor(StringBuilder hover, Annotation annotation, LiveBeansModel beans, LiveBean bean, IJavaProject project) {
+	protected boolean hasAutomaticallyWiredConstructor(Annotation annotation) {
 		TypeDeclaration typeDecl = ASTUtils.findDeclaringType(annotation);
 		if (typeDecl != null) {
 			MethodDeclaration[] constructors = ASTUtils.findConstructors(typeDecl);
+			return constructors != null && constructors.length == 1 && !hasAutowiredAnnotation(constructors[0]);
+		}
+		return false;
+	}
 
-			if (constructors != null && constructors.length == 1 && !hasAutowiredAnnotation(constructors[0])) {
-				String[] dependencies = bean.getDependencies();
-
-				if (dependencies != null && dependencies.length > 0) {
-					hover.append("\n\n");
-					hover.append(LiveHoverUtils.showBean(bean) + " got autowired with:\n\n");
-
-					boolean firstDependency = true;
-					for (String injectedBean : dependencies) {
-						if (!firstDependency) {
-							hover.append("\n");
-						}
-						List<LiveBean> dependencyBeans = beans.getBeansOfName(injectedBean);
-						for (LiveBean dependencyBean : dependencyBeans) {
-							hover.append("- " + LiveHoverUtils.showBeanWithResource(dependencyBean, "  ", project));
-						}
-						firstDependency = false;
-					}
+	@Override
+	protected void addAutomaticallyWiredContructor(StringBuilder hover, LiveBeansModel beans, LiveBean bean, IJavaProject project) {
+		String[] dependencies = bean.getDependencies();
+
+		if (dependencies != null && dependencies.length > 0) {
+			hover.append("\n\n");
+			hover.append(LiveHoverUtils.showBean(bean) + " got autowired with:\n\n");
+
+			boolean firstDependency = true;
+			for (String injectedBean : dependencies) {
+				if (!firstDependency) {
+					hover.append("\n");
+				}
+				List<LiveBean> dependencyBeans = beans.getBeansOfName(injectedBean);
+				for (LiveBean dependencyBean : dependencyBeans) {
+					hover.append("- " + LiveHoverUtils.showBeanWithResource(dependencyBean, "  ", project));
 				}
+				firstDependency = false;
 			}
 		}
 	}
@@ -128,62 +130,25 @@ public class ComponentInjectionsHoverProvider extends AbstractInjectedIntoHoverP
 	}
 
 	@Override
-	public Collection<Range> getLiveHoverHints(TypeDeclaration typeDeclaration, TextDocument doc,
-			SpringBootApp[] runningApps) {
+	public LiveHoverTarget createTarget(TypeDeclaration typeDeclaration, TextDocument doc) {
 		Tuple3<String, String, DocumentRegion> functionBean = FunctionUtils.getFunctionBean(typeDeclaration, doc);
-		if (functionBean != null && runningApps.length > 0) {
-			try {
-				LiveBean definedBean = getDefinedBeanForType(typeDeclaration, null);
-				if (definedBean != null) {
-					if (Stream.of(runningApps).anyMatch(app -> LiveHoverUtils.hasRelevantBeans(app, definedBean))) {
-						Optional<Range> nameRange = Optional.of(ASTUtils.nodeRegion(doc, typeDeclaration.getName()).asRange());
-						if (nameRange.isPresent()) {
-							return ImmutableList.of(nameRange.get());
-						}
-					}
-				}
-			} catch (Exception e) {
-				Log.log(e);
-			}
-		}
-		return ImmutableList.of();
-	}
-
-	@Override
-	public Hover provideHover(ASTNode node, TypeDeclaration typeDeclaration, ITypeBinding type, int offset,
-			TextDocument doc, IJavaProject project, SpringBootApp[] runningApps) {
-		Tuple3<String, String, DocumentRegion> functionBean = FunctionUtils.getFunctionBean(typeDeclaration, doc);
-		if (functionBean != null && runningApps.length > 0) {
-
+		if (functionBean != null) {
 			LiveBean definedBean = getDefinedBeanForType(typeDeclaration, null);
 			if (definedBean != null) {
-				StringBuilder hover = new StringBuilder();
-				hover.append("**Injection report for " + LiveHoverUtils.showBean(definedBean) + "**\n\n");
-
-				boolean hasInterestingApp = false;
-				for (SpringBootApp app : runningApps) {
-					LiveBeansModel beans = app.getBeans();
-					List<LiveBean> relevantBeans = LiveHoverUtils.findRelevantBeans(app, definedBean).collect(Collectors.toList());
-
-					if (!relevantBeans.isEmpty()) {
-						if (!hasInterestingApp) {
-							hasInterestingApp = true;
-						} else {
-							hover.append("\n\n");
-						}
-						hover.append(LiveHoverUtils.niceAppName(app) + ":");
-
-						for (LiveBean bean : relevantBeans) {
-							addInjectedInto(definedBean, hover, beans, bean, project);
-						}
-					}
-				}
-				if (hasInterestingApp) {
-					return new Hover(ImmutableList.of(Either.forLeft(hover.toString())));
+				try {
+					Range nameRange = ASTUtils.nodeRegion(doc, typeDeclaration.getName()).asRange();
+					return new InjectedIntoTarget(definedBean, nameRange, false);
+				} catch (Exception e) {
+					Log.log(e);
 				}
 			}
 		}
 		return null;
 	}
 
+	@Override
+	public Set<LiveDataCategory> getLiveHintDataForTypes() {
+		return ImmutableSet.of(LiveDataCategory.BEANS);
+	}
+
 }
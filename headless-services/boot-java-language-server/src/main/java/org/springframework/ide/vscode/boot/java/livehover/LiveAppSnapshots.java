@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.boot.java.livehover;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.ide.vscode.commons.boot.app.cli.LiveAppCircuitBreaker;
+import org.springframework.ide.vscode.commons.boot.app.cli.LiveAppSnapshot;
+import org.springframework.ide.vscode.commons.boot.app.cli.LiveDataCategory;
+import org.springframework.ide.vscode.commons.boot.app.cli.SpringBootApp;
+import org.springframework.ide.vscode.commons.util.ExceptionUtil;
+import org.springframework.ide.vscode.commons.util.Log;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Caches one {@link LiveAppSnapshot} per running app, shared by all live hover providers of a language server.
+ * <p>
+ * The live hover watchdog starts a new tick with every polling cycle. A new snapshot is created at most
+ * once per tick (with the first access to the app) and then handed out to all providers and documents
+ * of that tick. Accesses outside of the watchdog cycles (e.g. hovers) re-use the snapshot as long as
+ * it isn't older than {@link #EXPIRE_AFTER}.
+ * <p>
+ * Snapshots fetch their data on demand, so only the kinds of live data that are actually used within
+ * a tick are fetched from the app (and each of them only once per tick). Data that is unchanged compared
+ * to the snapshot of the previous tick keeps the identical data objects.
+ * <p>
+ * Latency sensitive callers that must not wait for an app (e.g. workspace symbol queries) can use
+ * {@link #getLatest(SpringBootApp, Duration, LiveDataCategory)}, which hands out the last fetched data
+ * and refreshes it in the background.
+ * <p>
+ * The data of several apps can be fetched in parallel via {@link #fetch(SpringBootApp[], Set)}, so that one slow
+ * app doesn't delay the data of all the others.
+ * <p>
+ * All snapshots of an app share the circuit breaker of the app, so an app that doesn't respond is left
+ * alone for a while (and its last good data is shown, marked as {@link LiveAppSnapshot#isStale() stale}) instead
+ * of blocking every hover and polling cycle until the call timeout. The circuit breakers are kept separately from
+ * the snapshots, dropping the snapshots doesn't reset them.
+ *
+ * @author Martin Lippert
+ */
+public class LiveAppSnapshots {
+
+	private static final Duration EXPIRE_AFTER = Duration.ofMillis(2000);
+
+	private static class Entry {
+		final LiveAppSnapshot snapshot;
+		final long tick;
+		final long fetchedAt;
+
+		Entry(LiveAppSnapshot snapshot, long tick, long fetchedAt) {
+			this.snapshot = snapshot;
+			this.tick = tick;
+			this.fetchedAt = fetchedAt;
+		}
+
+		boolean isValid(long currentTick, long now) {
+			return tick == currentTick && now - fetchedAt < EXPIRE_AFTER.toMillis();
+		}
+	}
+
+	private final Cache<SpringBootApp, Entry> snapshots = CacheBuilder.newBuilder().weakKeys().build();
+	private final Cache<SpringBootApp, LiveAppCircuitBreaker> circuitBreakers = CacheBuilder.newBuilder().weakKeys().build();
+	private final AtomicLong tick = new AtomicLong(0);
+
+	private final Set<SpringBootApp> backgroundFetches = ConcurrentHashMap.newKeySet();
+	private final ExecutorService backgroundFetcher = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "Live App Snapshot Fetcher");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private final ExecutorService parallelFetcher = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable, "Live App Snapshot Parallel Fetcher");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * @return the live data snapshot of the given app, a new one (fetching its data on demand) if there is no up-to-date
+	 * snapshot yet
+	 */
+	public LiveAppSnapshot get(SpringBootApp app) {
+		long currentTick = tick.get();
+		Entry entry = snapshots.getIfPresent(app);
+		if (entry == null || !entry.isValid(currentTick, System.currentTimeMillis())) {
+			Entry previous = entry;
+			if (previous != null) {
+				snapshots.asMap().remove(app, previous);
+			}
+			try {
+				LiveAppCircuitBreaker circuitBreaker = circuitBreakers.get(app, LiveAppCircuitBreaker::new);
+				entry = snapshots.get(app, () -> new Entry(LiveAppSnapshot.create(app, previous != null ? previous.snapshot : null, circuitBreaker),
+						currentTick, System.currentTimeMillis()));
+			} catch (ExecutionException e) {
+				throw ExceptionUtil.unchecked(e);
+			}
+		}
+		return entry.snapshot;
+	}
+
+	/**
+	 * Returns the latest snapshot of the given app without waiting for the app. If there is no snapshot with the
+	 * given category of data yet or the snapshot is older than the given age (but at least {@link #EXPIRE_AFTER}),
+	 * the data is fetched in the background (for subsequent calls).
+	 *
+	 * @return the latest snapshot of the given app or <code>null</code> if there is none with the given category
+	 * of data fetched already
+	 */
+	public LiveAppSnapshot getLatest(SpringBootApp app, Duration maxAge, LiveDataCategory category) {
+		Entry entry = snapshots.getIfPresent(app);
+		boolean fetched = entry != null && entry.snapshot.isFetched(category);
+		if (!fetched || System.currentTimeMillis() - entry.fetchedAt >= maxAge.toMillis()) {
+			fetchInBackground(app, category);
+		}
+		return fetched ? entry.snapshot : null;
+	}
+
+	private void fetchInBackground(SpringBootApp app, LiveDataCategory category) {
+		if (backgroundFetches.add(app)) {
+			try {
+				backgroundFetcher.execute(() -> {
+					try {
+						get(app).fetch(category);
+					} catch (Exception e) {
+						Log.log(e);
+					} finally {
+						backgroundFetches.remove(app);
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				// already disposed
+				backgroundFetches.remove(app);
+			}
+		}
+	}
+
+	/**
+	 * Fetches the given categories of live data of the given apps (unless their snapshots have them already), the
+	 * data of different apps in parallel. Returns once the data of all apps is there (or couldn't be fetched in time,
+	 * the calls to each app are bounded by its circuit breaker).
+	 */
+	public void fetch(SpringBootApp[] apps, Set<LiveDataCategory> categories) {
+		LiveDataCategory[] categoryArray = categories.toArray(new LiveDataCategory[categories.size()]);
+		List<Future<?>> fetches = new ArrayList<>(apps.length);
+		for (SpringBootApp app : apps) {
+			LiveAppSnapshot snapshot = get(app);
+			if (apps.length == 1) {
+				snapshot.fetch(categoryArray);
+			}
+			else {
+				try {
+					fetches.add(parallelFetcher.submit(() -> snapshot.fetch(categoryArray)));
+				} catch (RejectedExecutionException e) {
+					// already disposed
+					snapshot.fetch(categoryArray);
+				}
+			}
+		}
+
+		for (Future<?> fetch : fetches) {
+			try {
+				fetch.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (ExecutionException e) {
+				Log.log(e);
+			}
+		}
+	}
+
+	/**
+	 * Starts a new polling tick, snapshots created before are replaced with their next access.
+	 */
+	public void newTick() {
+		tick.incrementAndGet();
+	}
+
+	/**
+	 * Drops all cached snapshots. The circuit breakers of the apps are kept, an app that didn't respond recently
+	 * is still left alone for the rest of its cool-down.
+	 */
+	public void clear() {
+		snapshots.invalidateAll();
+	}
+
+	/**
+	 * Drops all cached snapshots and stops fetching data in the background.
+	 */
+	public void dispose() {
+		backgroundFetcher.shutdownNow();
+		parallelFetcher.shutdownNow();
+		clear();
+	}
+
+}
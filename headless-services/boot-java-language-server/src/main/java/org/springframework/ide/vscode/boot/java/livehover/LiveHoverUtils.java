@@ -15,6 +15,7 @@ import java.util.stream.Stream;
 
 import org.springframework.ide.vscode.boot.java.utils.SourceLinks;
 import org.springframework.ide.vscode.boot.java.utils.SpringResource;
+import org.springframework.ide.vscode.commons.boot.app.cli.LiveAppSnapshot;
 import org.springframework.ide.vscode.commons.boot.app.cli.SpringBootApp;
 import org.springframework.ide.vscode.commons.boot.app.cli.livebean.LiveBean;
 import org.springframework.ide.vscode.commons.boot.app.cli.livebean.LiveBeansModel;
@@ -64,20 +65,28 @@ public class LiveHoverUtils {
 		return new SpringResource(resource, project).toMarkdown();
 	}
 
-	public static String niceAppName(SpringBootApp app) {
-		return niceAppName(app.getProcessID() ,app.getProcessName());
+	/**
+	 * Shows the app, with a note if the live data of the app couldn't be fetched (e.g. because the app is
+	 * suspended in the debugger) and older data is shown instead.
+	 */
+	public static String niceAppName(SpringBootApp app, LiveAppSnapshot snapshot) {
+		String name = niceAppName(app.getProcessID() ,app.getProcessName());
+		if (snapshot.isStale()) {
+			name += " _(not responding, data might be outdated)_";
+		}
+		return name;
 	}
 
 	public static String niceAppName(String processId, String processName) {
 		return "Process [PID=" + processId + ", name=`" + processName + "`]";
 	}
 
-	public static boolean hasRelevantBeans(SpringBootApp app, LiveBean definedBean) {
-		return findRelevantBeans(app, definedBean).findAny().isPresent();
+	public static boolean hasRelevantBeans(LiveAppSnapshot snapshot, LiveBean definedBean) {
+		return findRelevantBeans(snapshot, definedBean).findAny().isPresent();
 	}
 
-	public static Stream<LiveBean> findRelevantBeans(SpringBootApp app, LiveBean definedBean) {
-		LiveBeansModel beansModel = app.getBeans();
+	public static Stream<LiveBean> findRelevantBeans(LiveAppSnapshot snapshot, LiveBean definedBean) {
+		LiveBeansModel beansModel = snapshot.getBeans();
 		if (beansModel != null) {
 			Stream<LiveBean> relevantBeans = beansModel.getBeansOfName(definedBean.getId()).stream();
 			String type = definedBean.getType();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017 Pivotal, Inc.
+ * Copyright (c) 2017, 2018 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,10 +10,15 @@
  *******************************************************************************/
 package org.springframework.ide.vscode.boot.java.requestmapping;
 
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Stream;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.Position;
@@ -21,40 +26,79 @@ import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.SymbolInformation;
 import org.eclipse.lsp4j.SymbolKind;
 import org.springframework.ide.vscode.boot.java.handlers.RunningAppProvider;
+import org.springframework.ide.vscode.boot.java.livehover.LiveAppSnapshots;
+import org.springframework.ide.vscode.commons.boot.app.cli.LiveAppSnapshot;
+import org.springframework.ide.vscode.commons.boot.app.cli.LiveDataCategory;
 import org.springframework.ide.vscode.commons.boot.app.cli.SpringBootApp;
+import org.springframework.ide.vscode.commons.boot.app.cli.requestmappings.RequestMapping;
 import org.springframework.ide.vscode.commons.util.Log;
 
+import com.google.common.collect.ImmutableList;
+
 /**
+ * Provides the URLs of the request mappings of the running apps as workspace symbols.
+ * <p>
+ * The URL symbols are kept in an index per running app, built from the latest request mappings of the app
+ * and re-built only when they change. Queries never talk to the running apps themselves, the
+ * snapshots get refreshed by the live data polling (or in the background, if nobody else polls).
+ *
  * @author Martin Lippert
  */
 public class LiveAppURLSymbolProvider {
 
+	private static final Duration SNAPSHOT_MAX_AGE = Duration.ofSeconds(5);
+
+	private static final Set<LiveDataCategory> URL_DATA = EnumSet.of(LiveDataCategory.REQUEST_MAPPINGS);
+
+	private static class AppSymbols {
+		final long fingerprint;
+		final List<SymbolInformation> symbols;
+		final List<String> searchTexts;
+
+		AppSymbols(long fingerprint, List<SymbolInformation> symbols, List<String> searchTexts) {
+			this.fingerprint = fingerprint;
+			this.symbols = symbols;
+			this.searchTexts = searchTexts;
+		}
+	}
+
 	private final RunningAppProvider runningAppProvider;
+	private final LiveAppSnapshots liveAppSnapshots;
+	private final Map<String, AppSymbols> index = new ConcurrentHashMap<>();
 
-	public LiveAppURLSymbolProvider(RunningAppProvider runningAppProvider) {
+	public LiveAppURLSymbolProvider(RunningAppProvider runningAppProvider, LiveAppSnapshots liveAppSnapshots) {
 		this.runningAppProvider = runningAppProvider;
+		this.liveAppSnapshots = liveAppSnapshots;
 	}
 
 	public List<? extends SymbolInformation> getSymbols(String query) {
-		System.out.println(query);
-
 		List<SymbolInformation> result = new ArrayList<>();
+		String searchText = query != null ? query.toLowerCase() : "";
 
 		try {
-			SpringBootApp[] runningApps = runningAppProvider.getAllRunningSpringApps().toArray(new SpringBootApp[0]);
+			Collection<SpringBootApp> runningApps = runningAppProvider.getAllRunningSpringApps();
+			Set<String> runningProcesses = new HashSet<>();
+
 			for (SpringBootApp app : runningApps) {
 				try {
-					String host = app.getHost();
-					String port = app.getPort();
-					Stream<String> urls = app.getRequestMappings().stream()
-							.flatMap(rm -> Arrays.stream(rm.getSplitPath()))
-							.map(path -> UrlUtil.createUrl(host, port, path));
-					urls.forEach(url -> result.add(new SymbolInformation(url, SymbolKind.Method, new Location(url, new Range(new Position(0, 0), new Position(0, 1))))));
+					String processId = app.getProcessID();
+					runningProcesses.add(processId);
+
+					AppSymbols symbols = getSymbols(processId, liveAppSnapshots.getLatest(app, SNAPSHOT_MAX_AGE, LiveDataCategory.REQUEST_MAPPINGS));
+					if (symbols != null) {
+						for (int i = 0; i < symbols.symbols.size(); i++) {
+							if (symbols.searchTexts.get(i).contains(searchText)) {
+								result.add(symbols.symbols.get(i));
+							}
+						}
+					}
 				}
 				catch (Exception e) {
 					Log.log(e);
 				}
 			}
+
+			index.keySet().retainAll(runningProcesses);
 		} catch (Exception e) {
 			Log.log(e);
 		}
@@ -62,4 +106,43 @@ public class LiveAppURLSymbolProvider {
 		return result;
 	}
 
+	private AppSymbols getSymbols(String processId, LiveAppSnapshot snapshot) {
+		if (snapshot == null) {
+			// not fetched yet, use what we had for the process before (if anything)
+			return index.get(processId);
+		}
+
+		AppSymbols symbols = index.get(processId);
+		long fingerprint = snapshot.getFingerprint(URL_DATA);
+		if (symbols == null || symbols.fingerprint != fingerprint) {
+			symbols = createSymbols(snapshot, fingerprint);
+			index.put(processId, symbols);
+		}
+		return symbols;
+	}
+
+	private static AppSymbols createSymbols(LiveAppSnapshot snapshot, long fingerprint) {
+		ImmutableList.Builder<SymbolInformation> symbols = ImmutableList.builder();
+		ImmutableList.Builder<String> searchTexts = ImmutableList.builder();
+
+		Collection<RequestMapping> requestMappings = snapshot.getRequestMappings();
+		if (requestMappings != null) {
+			String host = snapshot.getHost();
+			String port = snapshot.getPort();
+
+			for (RequestMapping rm : requestMappings) {
+				String[] paths = rm.getSplitPath();
+				if (paths != null) {
+					for (String path : paths) {
+						String url = UrlUtil.createUrl(host, port, path);
+						symbols.add(new SymbolInformation(url, SymbolKind.Method, new Location(url, new Range(new Position(0, 0), new Position(0, 1)))));
+						searchTexts.add(url.toLowerCase());
+					}
+				}
+			}
+		}
+
+		return new AppSymbols(fingerprint, symbols.build(), searchTexts.build());
+	}
+
 }
@@ -14,6 +14,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -28,7 +29,11 @@ import org.eclipse.lsp4j.MarkedString;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.springframework.ide.vscode.boot.java.handlers.HoverProvider;
+import org.springframework.ide.vscode.boot.java.handlers.LiveHoverTarget;
+import org.springframework.ide.vscode.boot.java.livehover.LiveAppSnapshots;
 import org.springframework.ide.vscode.boot.java.livehover.LiveHoverUtils;
+import org.springframework.ide.vscode.commons.boot.app.cli.LiveAppSnapshot;
+import org.springframework.ide.vscode.commons.boot.app.cli.LiveDataCategory;
 import org.springframework.ide.vscode.commons.boot.app.cli.SpringBootApp;
 import org.springframework.ide.vscode.commons.boot.app.cli.requestmappings.RequestMapping;
 import org.springframework.ide.vscode.commons.java.IJavaProject;
@@ -39,6 +44,7 @@ import org.springframework.ide.vscode.commons.util.Renderables;
 import org.springframework.ide.vscode.commons.util.text.TextDocument;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 import reactor.util.function.Tuple2;
 import reactor.util.function.Tuples;
@@ -48,102 +54,37 @@ import reactor.util.function.Tuples;
  */
 public class RequestMappingHoverProvider implements HoverProvider {
 
-	@Override
-	public Hover provideHover(ASTNode node, Annotation annotation,
-			ITypeBinding type, int offset, TextDocument doc, IJavaProject project, SpringBootApp[] runningApps) {
-		return provideHover(annotation, doc, runningApps);
-	}
+	private final LiveAppSnapshots liveAppSnapshots;
 
-	@Override
-	public Collection<Range> getLiveHoverHints(Annotation annotation, TextDocument doc, SpringBootApp[] runningApps) {
-		try {
-			if (runningApps.length > 0) {
-				List<Tuple2<RequestMapping, SpringBootApp>> val = getRequestMappingMethodFromRunningApp(annotation, runningApps);
-				if (!val.isEmpty()) {
-					Range hoverRange = doc.toRange(annotation.getStartPosition(), annotation.getLength());
-					return ImmutableList.of(hoverRange);
-				}
-			}
-		}
-		catch (BadLocationException e) {
-			Log.log(e);
-		}
-
-		return null;
+	public RequestMappingHoverProvider(LiveAppSnapshots liveAppSnapshots) {
+		this.liveAppSnapshots = liveAppSnapshots;
 	}
 
-	private Hover provideHover(Annotation annotation, TextDocument doc, SpringBootApp[] runningApps) {
-
+	@Override
+	public LiveHoverTarget createTarget(Annotation annotation, ITypeBinding type, TextDocument doc) {
 		try {
-			List<Either<String, MarkedString>> hoverContent = new ArrayList<>();
-
-			List<Tuple2<RequestMapping, SpringBootApp>> val = getRequestMappingMethodFromRunningApp(annotation, runningApps);
-
-			if (!val.isEmpty()) {
-				addHoverContent(val, hoverContent);
-			}
-
 			Range hoverRange = doc.toRange(annotation.getStartPosition(), annotation.getLength());
-			Hover hover = new Hover();
-
-			hover.setContents(hoverContent);
-			hover.setRange(hoverRange);
-
-			return hover;
-		} catch (Exception e) {
-			Log.log(e);
-		}
-
-		return null;
-	}
-
-	private List<Tuple2<RequestMapping, SpringBootApp>> getRequestMappingMethodFromRunningApp(Annotation annotation,
-			SpringBootApp[] runningApps) {
-
-		List<Tuple2<RequestMapping, SpringBootApp>> results = new ArrayList<>();
-		try {
-			for (SpringBootApp app : runningApps) {
-				Collection<RequestMapping> mappings = app.getRequestMappings();
-				if (mappings != null && !mappings.isEmpty()) {
-					mappings.stream()
-							.filter(rm -> methodMatchesAnnotation(annotation, rm))
-							.map(rm -> Tuples.of(rm, app))
-							.findFirst().ifPresent(t -> results.add(t));
-				}
-			}
-		} catch (Exception e) {
-			Log.log(e);
-		}
-		return results;
-	}
-
-	private boolean methodMatchesAnnotation(Annotation annotation, RequestMapping rm) {
-		String rqClassName = rm.getFullyQualifiedClassName();
-
-		if (rqClassName != null) {
-			int chop = rqClassName.indexOf("$$EnhancerBySpringCGLIB$$");
-			if (chop >= 0) {
-				rqClassName = rqClassName.substring(0, chop);
-			}
-
-			rqClassName = rqClassName.replace('$', '.');
 
 			ASTNode parent = annotation.getParent();
 			if (parent instanceof MethodDeclaration) {
 				MethodDeclaration methodDec = (MethodDeclaration) parent;
 				IMethodBinding binding = methodDec.resolveBinding();
-				return binding.getDeclaringClass().getQualifiedName().equals(rqClassName)
-						&& binding.getName().equals(rm.getMethodName())
-						&& Arrays.equals(Arrays.stream(binding.getParameterTypes())
-								.map(t -> t.getTypeDeclaration().getQualifiedName())
-								.toArray(String[]::new),
-							rm.getMethodParameters());
+				if (binding != null) {
+					String[] parameterTypes = Arrays.stream(binding.getParameterTypes())
+							.map(t -> t.getTypeDeclaration().getQualifiedName())
+							.toArray(String[]::new);
+					return new RequestMappingTarget(hoverRange, binding.getDeclaringClass().getQualifiedName(), binding.getName(), parameterTypes);
+				}
 	//		} else if (parent instanceof TypeDeclaration) {
 	//			TypeDeclaration typeDec = (TypeDeclaration) parent;
 	//			return typeDec.resolveBinding().getQualifiedName().equals(rqClassName);
 			}
+			return new RequestMappingTarget(hoverRange, null, null, null);
 		}
-		return false;
+		catch (BadLocationException e) {
+			Log.log(e);
+		}
+		return null;
 	}
 
 	private void addHoverContent(List<Tuple2<RequestMapping, SpringBootApp>> mappingMethods, List<Either<String, MarkedString>> hoverContent) throws Exception {
@@ -151,8 +92,9 @@ public class RequestMappingHoverProvider implements HoverProvider {
 			Tuple2<RequestMapping, SpringBootApp> mappingMethod = mappingMethods.get(i);
 
 			SpringBootApp app = mappingMethod.getT2();
-			String port = mappingMethod.getT2().getPort();
-			String host = mappingMethod.getT2().getHost();
+			LiveAppSnapshot snapshot = liveAppSnapshots.get(app);
+			String port = snapshot.getPort();
+			String host = snapshot.getHost();
 
 			 List<Renderable> renderableUrls = Arrays.stream(mappingMethod.getT1().getSplitPath()).flatMap(path -> {
 				String url = UrlUtil.createUrl(host, port, path);
@@ -171,7 +113,7 @@ public class RequestMappingHoverProvider implements HoverProvider {
 			 renderableUrls.remove(renderableUrls.size() - 1);
 
 			hoverContent.add(Either.forLeft(Renderables.concat(renderableUrls).toMarkdown()));
-			hoverContent.add(Either.forLeft(LiveHoverUtils.niceAppName(app)));
+			hoverContent.add(Either.forLeft(LiveHoverUtils.niceAppName(app, snapshot)));
 			if (i < mappingMethods.size() - 1) {
 				// Three dashes == line separator in Markdown
 				hoverContent.add(Either.forLeft("---"));
@@ -181,15 +123,108 @@ public class RequestMappingHoverProvider implements HoverProvider {
 	}
 
 	@Override
-	public Hover provideHover(ASTNode node, TypeDeclaration typeDeclaration, ITypeBinding type, int offset,
-			TextDocument doc, IJavaProject project, SpringBootApp[] runningApps) {
+	public LiveHoverTarget createTarget(TypeDeclaration typeDeclaration, TextDocument doc) {
 		return null;
 	}
 
 	@Override
-	public Collection<Range> getLiveHoverHints(TypeDeclaration typeDeclaration, TextDocument doc,
-			SpringBootApp[] runningApps) {
-		return null;
+	public Set<LiveDataCategory> getLiveHintDataForAnnotations() {
+		return ImmutableSet.of(LiveDataCategory.REQUEST_MAPPINGS);
+	}
+
+	@Override
+	public Set<LiveDataCategory> getLiveHintDataForTypes() {
+		return ImmutableSet.of();
+	}
+
+	/**
+	 * Highlights the request mapping annotation of a method if a running app has a matching request mapping,
+	 * the hover shows the URLs of the matching mappings.
+	 */
+	private class RequestMappingTarget implements LiveHoverTarget {
+
+		private final Range hoverRange;
+		private final String declaringClass;
+		private final String methodName;
+		private final String[] parameterTypes;
+
+		RequestMappingTarget(Range hoverRange, String declaringClass, String methodName, String[] parameterTypes) {
+			this.hoverRange = hoverRange;
+			this.declaringClass = declaringClass;
+			this.methodName = methodName;
+			this.parameterTypes = parameterTypes;
+		}
+
+		@Override
+		public Collection<Range> getLiveHoverHints(TextDocument doc, SpringBootApp[] runningApps) {
+			if (runningApps.length > 0) {
+				List<Tuple2<RequestMapping, SpringBootApp>> val = getRequestMappingMethodFromRunningApp(runningApps);
+				if (!val.isEmpty()) {
+					return ImmutableList.of(hoverRange);
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public Hover provideHover(int offset, TextDocument doc, IJavaProject project, SpringBootApp[] runningApps) {
+			try {
+				List<Either<String, MarkedString>> hoverContent = new ArrayList<>();
+
+				List<Tuple2<RequestMapping, SpringBootApp>> val = getRequestMappingMethodFromRunningApp(runningApps);
+
+				if (!val.isEmpty()) {
+					addHoverContent(val, hoverContent);
+				}
+
+				Hover hover = new Hover();
+
+				hover.setContents(hoverContent);
+				hover.setRange(hoverRange);
+
+				return hover;
+			} catch (Exception e) {
+				Log.log(e);
+			}
+
+			return null;
+		}
+
+		private List<Tuple2<RequestMapping, SpringBootApp>> getRequestMappingMethodFromRunningApp(SpringBootApp[] runningApps) {
+			List<Tuple2<RequestMapping, SpringBootApp>> results = new ArrayList<>();
+			try {
+				for (SpringBootApp app : runningApps) {
+					Collection<RequestMapping> mappings = liveAppSnapshots.get(app).getRequestMappings();
+					if (mappings != null && !mappings.isEmpty()) {
+						mappings.stream()
+								.filter(rm -> methodMatchesAnnotation(rm))
+								.map(rm -> Tuples.of(rm, app))
+								.findFirst().ifPresent(t -> results.add(t));
+					}
+				}
+			} catch (Exception e) {
+				Log.log(e);
+			}
+			return results;
+		}
+
+		private boolean methodMatchesAnnotation(RequestMapping rm) {
+			String rqClassName = rm.getFullyQualifiedClassName();
+
+			if (rqClassName != null && declaringClass != null) {
+				int chop = rqClassName.indexOf("$$EnhancerBySpringCGLIB$$");
+				if (chop >= 0) {
+					rqClassName = rqClassName.substring(0, chop);
+				}
+
+				rqClassName = rqClassName.replace('$', '.');
+
+				return declaringClass.equals(rqClassName)
+						&& methodName.equals(rm.getMethodName())
+						&& Arrays.equals(parameterTypes, rm.getMethodParameters());
+			}
+			return false;
+		}
 	}
 
 }
@@ -11,21 +11,30 @@
 package org.springframework.ide.vscode.boot.java.utils;
 
 import java.net.URI;
-import java.nio.file.Path;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
 import java.util.function.Function;
-import java.util.stream.Stream;
 
-import org.eclipse.jdt.core.JavaCore;
-import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
 import org.eclipse.jdt.core.dom.CompilationUnit;
-import org.springframework.ide.vscode.commons.java.IClasspath;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.springframework.ide.vscode.boot.java.utils.CompilationUnitSnapshot.Extension;
+import org.springframework.ide.vscode.boot.java.utils.ParserEnvironments.ParserEnvironment;
 import org.springframework.ide.vscode.commons.java.IJavaProject;
 import org.springframework.ide.vscode.commons.languageserver.java.JavaProjectFinder;
 import org.springframework.ide.vscode.commons.languageserver.java.ProjectObserver;
@@ -33,17 +42,52 @@ import org.springframework.ide.vscode.commons.languageserver.util.SimpleTextDocu
 import org.springframework.ide.vscode.commons.util.Log;
 import org.springframework.ide.vscode.commons.util.text.TextDocument;
 
+import com.google.common.cache.AbstractCache.SimpleStatsCounter;
+import com.google.common.cache.AbstractCache.StatsCounter;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 
 public final class CompilationUnitCache {
 
+	/**
+	 * System property to configure the max (estimated) memory footprint of the cached compilation units,
+	 * in kilobytes. Least recently used compilation units get evicted when the limit is reached.
+	 */
+	public static final String MAX_WEIGHT_PROPERTY = "sts4.boot-java.cu-cache.max-weight";
+
+	/**
+	 * System property to configure the idle time (in milliseconds) after the last change of a document
+	 * before its compilation unit gets re-parsed in the background.
+	 */
+	public static final String PARSE_DELAY_PROPERTY = "sts4.boot-java.cu-cache.parse-delay";
+
+	private static final long DEFAULT_MAX_WEIGHT = 100 * 1024;
+	private static final long DEFAULT_PARSE_DELAY = 200;
+
+	/**
+	 * Rough estimates of the memory footprint of a binding-resolved AST: bytes per character
+	 * of source code (AST nodes) and bytes per name (resolved binding).
+	 */
+	private static final int BYTES_PER_SOURCE_CHAR = 40;
+	private static final int BYTES_PER_NAME = 200;
+
 	private JavaProjectFinder projectFinder;
 	private ProjectObserver projectObserver;
-	private Cache<URI, CompilationUnit> uriToCu;
+	private Cache<URI, VersionedCompilationUnit> uriToCu;
 	private Cache<IJavaProject, Set<URI>> projectToDocs;
+	private ParserEnvironments parserEnvironments;
 	private ProjectObserver.Listener projectListener;
 
+	private final ScheduledExecutorService parseScheduler;
+	private final long parseDelay;
+	private final ConcurrentMap<URI, ScheduledFuture<?>> scheduledParses = new ConcurrentHashMap<>();
+	private final ConcurrentMap<URI, ParseJob> runningParses = new ConcurrentHashMap<>();
+	private final List<Extension<?>> snapshotExtensions = new CopyOnWriteArrayList<>();
+
+	// recorded here instead of by the cache, since an entry for an older version of a document is a miss, too
+	private final StatsCounter stats = new SimpleStatsCounter();
+
 	private ReadLock readLock;
 	private WriteLock writeLock;
 
@@ -52,15 +96,34 @@ public final class CompilationUnitCache {
 		this.projectObserver = projectObserver;
 		projectListener = new CUProjectListener();
 
-		uriToCu = CacheBuilder.newBuilder().build();
+		uriToCu = CacheBuilder.newBuilder()
+				.maximumWeight(Math.max(1, Long.getLong(MAX_WEIGHT_PROPERTY, DEFAULT_MAX_WEIGHT)))
+				.weigher((URI uri, VersionedCompilationUnit entry) -> entry.weight)
+				.softValues()
+				.removalListener(notification -> {
+					if (notification.wasEvicted()) {
+						stats.recordEviction();
+					}
+				})
+				.build();
 		projectToDocs = CacheBuilder.newBuilder().build();
+		parserEnvironments = new ParserEnvironments();
 
 		ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 		readLock = lock.readLock();
 		writeLock = lock.writeLock();
 
+		parseDelay = Math.max(0, Long.getLong(PARSE_DELAY_PROPERTY, DEFAULT_PARSE_DELAY));
+		parseScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "Compilation Unit Cache Parser");
+			thread.setDaemon(true);
+			return thread;
+		});
+
 		if (documentService != null) {
-			documentService.onDidChangeContent(doc -> invalidateCuForJavaFile(doc.getDocument().getId().getUri()));
+			documentService.onDidChangeContent(doc -> {
+				scheduleParse(doc.getDocument());
+			});
 			documentService.onDidClose(doc -> invalidateCuForJavaFile(doc.getId().getUri()));
 		}
 
@@ -73,6 +136,33 @@ public final class CompilationUnitCache {
 		if (projectObserver != null) {
 			projectObserver.removeListener(projectListener);
 		}
+		parseScheduler.shutdownNow();
+		parserEnvironments.clear();
+	}
+
+	/**
+	 * @return the per-project parser environments used by this cache, to be shared with other components that parse
+	 * compilation units of the same projects
+	 */
+	public ParserEnvironments getParserEnvironments() {
+		return parserEnvironments;
+	}
+
+	/**
+	 * Registers an extension that extracts additional read-only data into the snapshots of the compilation units.
+	 * Extensions should be registered before the first snapshot gets created, snapshots that exist already don't
+	 * get the data of extensions registered later.
+	 */
+	public void addSnapshotExtension(Extension<?> extension) {
+		snapshotExtensions.add(extension);
+	}
+
+	/**
+	 * @return hit, miss and eviction statistics of the cached compilation units. Requests that find the compilation
+	 * unit of an older version of the document count as misses.
+	 */
+	public CacheStats getStats() {
+		return stats.snapshot();
 	}
 
 	/**
@@ -88,24 +178,8 @@ public final class CompilationUnitCache {
 		IJavaProject project = projectFinder.find(document.getId()).orElse(null);
 
 		if (project != null) {
-
-			readLock.lock();
-			CompilationUnit cu = null;
-
-			try {
-				cu = uriToCu.get(uri, () -> {
-					CompilationUnit cUnit = parse(document, project);
-					projectToDocs.get(project, () -> new HashSet<>()).add(URI.create(document.getUri()));
-					return cUnit;
-				});
-				if (cu != null) {
-					projectToDocs.get(project, () -> new HashSet<>()).add(URI.create(document.getUri()));
-				}
-			} catch (Exception e) {
-				Log.log(e);
-			} finally {
-				readLock.unlock();
-			}
+			VersionedCompilationUnit entry = getEntry(uri, document, project);
+			CompilationUnit cu = entry != null ? entry.cu : null;
 
 			if (cu != null) {
 				try {
@@ -122,8 +196,125 @@ public final class CompilationUnitCache {
 		return requestor.apply(null);
 	}
 
+	/**
+	 * Retrieves the read-only snapshot of the compilation unit of the given document and passes it to a requestor
+	 * callback. The snapshot is extracted from the AST only once per document version. Unlike the AST, it can be
+	 * used without any synchronization, so requestors for the same document can run in parallel.
+	 */
+	public <T> T withSnapshot(TextDocument document, Function<CompilationUnitSnapshot, T> requestor) {
+		URI uri = URI.create(document.getUri());
+		IJavaProject project = projectFinder.find(document.getId()).orElse(null);
+
+		if (project != null) {
+			VersionedCompilationUnit entry = getEntry(uri, document, project);
+			if (entry != null) {
+				try {
+					return requestor.apply(entry.getSnapshot(snapshotExtensions));
+				}
+				catch (Exception e) {
+					Log.log(e);
+				}
+			}
+		}
+
+		return requestor.apply(null);
+	}
+
+	private VersionedCompilationUnit getEntry(URI uri, TextDocument document, IJavaProject project) {
+		readLock.lock();
+		try {
+			VersionedCompilationUnit entry = uriToCu.getIfPresent(uri);
+			if (entry != null && entry.isUpToDate(document.getVersion())) {
+				stats.recordHits(1);
+				return entry;
+			}
+			stats.recordMisses(1);
+			return parse(uri, document, project);
+		} catch (Exception e) {
+			Log.log(e);
+			return null;
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * Parses the document into the cache, unless the cache already contains an up-to-date AST for the document.
+	 * Concurrent requests for the same version of a document wait for the same parse.
+	 * <p>
+	 * Callers have to hold the read lock.
+	 */
+	private VersionedCompilationUnit parse(URI uri, TextDocument document, IJavaProject project) throws Exception {
+		TextDocument snapshot = document.copy();
+		int version = snapshot.getVersion();
+
+		ParseJob job = new ParseJob(version);
+		ParseJob runningJob = runningParses.merge(uri, job, (running, newJob) -> running.version == version ? running : newJob);
+		if (runningJob != job) {
+			return runningJob.result.get();
+		}
+
+		long start = System.nanoTime();
+		try {
+			VersionedCompilationUnit entry = uriToCu.getIfPresent(uri);
+			if (entry == null || !entry.isUpToDate(version)) {
+				entry = new VersionedCompilationUnit(version, parse(snapshot, project), snapshot);
+				stats.recordLoadSuccess(System.nanoTime() - start);
+				uriToCu.asMap().merge(uri, entry, (cached, parsed) -> cached.isNewerThan(parsed) ? cached : parsed);
+				projectToDocs.get(project, () -> new HashSet<>()).add(uri);
+			}
+			job.result.complete(entry);
+			return entry;
+		}
+		catch (Exception e) {
+			stats.recordLoadException(System.nanoTime() - start);
+			job.result.completeExceptionally(e);
+			throw e;
+		}
+		finally {
+			runningParses.remove(uri, job);
+		}
+	}
+
+	/**
+	 * Re-parses the given document in the background, once it hasn't changed for the parse delay.
+	 */
+	private void scheduleParse(TextDocument document) {
+		URI uri = URI.create(document.getId().getUri());
+		try {
+			ScheduledFuture<?> previous = scheduledParses.put(uri, parseScheduler.schedule(() -> {
+				scheduledParses.remove(uri);
+				IJavaProject project = projectFinder.find(document.getId()).orElse(null);
+				if (project != null) {
+					readLock.lock();
+					try {
+						parse(uri, document, project);
+					}
+					catch (Exception e) {
+						Log.log(e);
+					}
+					finally {
+						readLock.unlock();
+					}
+				}
+			}, parseDelay, TimeUnit.MILLISECONDS));
+
+			if (previous != null) {
+				previous.cancel(false);
+			}
+		}
+		catch (RejectedExecutionException e) {
+			// cache already disposed
+		}
+	}
+
 	private void invalidateCuForJavaFile(String uriStr) {
 		URI uri = URI.create(uriStr);
+		ScheduledFuture<?> scheduledParse = scheduledParses.remove(uri);
+		if (scheduledParse != null) {
+			scheduledParse.cancel(false);
+		}
+
 		writeLock.lock();
 		try {
 			uriToCu.invalidate(uri);
@@ -132,19 +323,9 @@ public final class CompilationUnitCache {
 		}
 	}
 
-	public static CompilationUnit parse(TextDocument document, IJavaProject project) throws Exception {
-		ASTParser parser = ASTParser.newParser(AST.JLS9);
-		Map<String, String> options = JavaCore.getOptions();
-		JavaCore.setComplianceOptions(JavaCore.VERSION_1_8, options);
-		parser.setCompilerOptions(options);
-		parser.setKind(ASTParser.K_COMPILATION_UNIT);
-		parser.setStatementsRecovery(true);
-		parser.setBindingsRecovery(true);
-		parser.setResolveBindings(true);
-
-		String[] classpathEntries = getClasspathEntries(document, project);
-		String[] sourceEntries = new String[] {};
-		parser.setEnvironment(classpathEntries, sourceEntries, null, true);
+	private CompilationUnit parse(TextDocument document, IJavaProject project) throws Exception {
+		ParserEnvironment environment = parserEnvironments.get(project);
+		ASTParser parser = environment.createParser();
 
 		String docURI = document.getUri();
 		String unitName = docURI.substring(docURI.lastIndexOf("/"));
@@ -152,23 +333,35 @@ public final class CompilationUnitCache {
 		parser.setSource(document.get(0, document.getLength()).toCharArray());
 
 		CompilationUnit cu = (CompilationUnit) parser.createAST(null);
+		if (cu != null) {
+			environment.getAnnotationHierarchies().attachTo(cu);
+		}
 
 		return cu;
 	}
 
-	private static String[] getClasspathEntries(TextDocument document, IJavaProject project) throws Exception {
-		if (project == null) {
-			return new String[0];
-		} else {
-			IClasspath classpath = project.getClasspath();
-			Stream<Path> classpathEntries = classpath.getClasspathEntries().stream();
-			return classpathEntries
-					.filter(path -> path.toFile().exists())
-					.map(path -> path.toAbsolutePath().toString()).toArray(String[]::new);
+	/**
+	 * Estimates the memory footprint of a compilation unit (in kilobytes) from the length of its source
+	 * and the number of names in it (which all come with resolved bindings).
+	 */
+	private static int estimateWeight(CompilationUnit cu) {
+		if (cu == null) {
+			return 1;
 		}
+		AtomicInteger names = new AtomicInteger(0);
+		cu.accept(new ASTVisitor() {
+			@Override
+			public boolean visit(SimpleName node) {
+				names.incrementAndGet();
+				return true;
+			}
+		});
+		long bytes = (long) cu.getLength() * BYTES_PER_SOURCE_CHAR + (long) names.get() * BYTES_PER_NAME;
+		return (int) Math.min(Integer.MAX_VALUE, Math.max(1, bytes / 1024));
 	}
 
 	private void invalidateProject(IJavaProject project) {
+		parserEnvironments.invalidate(project);
 		Set<URI> docUris = projectToDocs.getIfPresent(project);
 		if (docUris != null) {
 			writeLock.lock();
@@ -181,6 +374,64 @@ public final class CompilationUnitCache {
 		}
 	}
 
+	/**
+	 * A cached AST together with the version of the document it got parsed from. Entries of older versions
+	 * stay in the cache until they get replaced by the AST of a newer version.
+	 */
+	private static class VersionedCompilationUnit {
+
+		final int version;
+		final CompilationUnit cu;
+		final int weight;
+		private volatile TextDocument document;
+		private volatile CompilationUnitSnapshot snapshot;
+
+		VersionedCompilationUnit(int version, CompilationUnit cu, TextDocument document) {
+			this.version = version;
+			this.cu = cu;
+			this.weight = estimateWeight(cu);
+			this.document = document;
+		}
+
+		CompilationUnitSnapshot getSnapshot(List<Extension<?>> extensions) {
+			CompilationUnitSnapshot result = snapshot;
+			if (result == null && cu == null) {
+				result = CompilationUnitSnapshot.create(null, version);
+				snapshot = result;
+			}
+			else if (result == null) {
+				synchronized (cu.getAST()) {
+					result = snapshot;
+					if (result == null) {
+						result = CompilationUnitSnapshot.create(cu, document, version, extensions);
+						snapshot = result;
+						// the document is only needed to create the snapshot
+						document = null;
+					}
+				}
+			}
+			return result;
+		}
+
+		boolean isUpToDate(int documentVersion) {
+			return version == documentVersion;
+		}
+
+		boolean isNewerThan(VersionedCompilationUnit other) {
+			return version > other.version;
+		}
+	}
+
+	private static class ParseJob {
+
+		final int version;
+		final CompletableFuture<VersionedCompilationUnit> result = new CompletableFuture<>();
+
+		ParseJob(int version) {
+			this.version = version;
+		}
+	}
+
 	private class CUProjectListener implements ProjectObserver.Listener {
 
 		@Override
@@ -0,0 +1,369 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.boot.java.utils;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.Annotation;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.MarkerAnnotation;
+import org.eclipse.jdt.core.dom.NormalAnnotation;
+import org.eclipse.jdt.core.dom.SingleMemberAnnotation;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.springframework.ide.vscode.boot.java.annotations.AnnotationHierarchies;
+import org.springframework.ide.vscode.commons.languageserver.util.DocumentRegion;
+import org.springframework.ide.vscode.commons.util.Log;
+import org.springframework.ide.vscode.commons.util.text.TextDocument;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Read-only model of the annotations and type declarations of a compilation unit, extracted
+ * from the AST once per document version.
+ * <p>
+ * Unlike the JDT AST, a snapshot is immutable and can be used by any number of threads in parallel,
+ * without synchronizing on the AST. Components that need more than the resolved type names captured here
+ * can register an {@link Extension} with the {@link CompilationUnitCache} to extract their own read-only
+ * data in the same pass, instead of going back to the AST via {@link CompilationUnitCache#withCompilationUnit}.
+ *
+ * @author Martin Lippert
+ */
+public final class CompilationUnitSnapshot {
+
+	/**
+	 * Extracts additional, component specific read-only data from the AST when the snapshot gets created.
+	 * This happens once per document version, with the AST lock held. The extracted data must not refer
+	 * to AST nodes or bindings, since it is used later on without synchronizing on the AST.
+	 */
+	public interface Extension<T> {
+
+		/**
+		 * @param cu the AST
+		 * @param doc the version of the document the AST got parsed from
+		 * @return the extracted data, or <code>null</code> if there is nothing to extract
+		 */
+		T extract(CompilationUnit cu, TextDocument doc);
+	}
+
+	public static final class SourceRange {
+
+		private final int start;
+		private final int length;
+
+		private SourceRange(int start, int length) {
+			this.start = start;
+			this.length = length;
+		}
+
+		private static SourceRange of(ASTNode node) {
+			return new SourceRange(node.getStartPosition(), node.getLength());
+		}
+
+		public int getStart() {
+			return start;
+		}
+
+		public int getLength() {
+			return length;
+		}
+
+		public boolean containsOffset(int offset) {
+			return offset >= start && offset <= start + length;
+		}
+
+		public DocumentRegion region(TextDocument doc) {
+			return new DocumentRegion(doc, start, start + length);
+		}
+	}
+
+	public static final class AnnotationSnapshot {
+
+		private final String typeName;
+		private final boolean resolved;
+		private final Set<String> typeHierarchy;
+		private final SourceRange range;
+		private final SourceRange nameRange;
+
+		private AnnotationSnapshot(Annotation annotation) {
+			ITypeBinding type = annotation.resolveTypeBinding();
+			this.resolved = type != null;
+			this.typeName = type != null ? type.getQualifiedName() : annotation.getTypeName().getFullyQualifiedName();
+			this.typeHierarchy = type != null ? ImmutableSet.copyOf(AnnotationHierarchies.of(annotation).getTransitiveSuperAnnotations(type)) : ImmutableSet.of(typeName);
+			this.range = SourceRange.of(annotation);
+
+			// include the '@' in the name range, same as ASTUtils.nameRegion
+			SourceRange typeNameRange = SourceRange.of(annotation.getTypeName());
+			this.nameRange = typeNameRange.start > range.start
+					? new SourceRange(typeNameRange.start - 1, typeNameRange.length + 1)
+					: typeNameRange;
+		}
+
+		/**
+		 * @return the fully qualified name of the annotation type (or the name as written in the source, if the
+		 * type can't be resolved)
+		 */
+		public String getTypeName() {
+			return typeName;
+		}
+
+		/**
+		 * @return whether the type of the annotation could be resolved
+		 */
+		public boolean isResolved() {
+			return resolved;
+		}
+
+		/**
+		 * @return the fully qualified names of the annotation type and all its (transitive) super annotations
+		 */
+		public Set<String> getTypeHierarchy() {
+			return typeHierarchy;
+		}
+
+		public boolean isSubtypeOf(String fqAnnotationTypeName) {
+			return typeHierarchy.contains(fqAnnotationTypeName);
+		}
+
+		public SourceRange getRange() {
+			return range;
+		}
+
+		public SourceRange getNameRange() {
+			return nameRange;
+		}
+	}
+
+	public static final class TypeSnapshot {
+
+		private final String qualifiedName;
+		private final Set<String> superTypes;
+		private final SourceRange range;
+		private final SourceRange nameRange;
+		private final List<AnnotationSnapshot> annotations;
+
+		private TypeSnapshot(TypeDeclaration type, List<AnnotationSnapshot> annotations) {
+			ITypeBinding binding = type.resolveBinding();
+			this.qualifiedName = binding != null ? binding.getQualifiedName() : type.getName().getIdentifier();
+			this.superTypes = binding != null ? collectSuperTypes(binding) : ImmutableSet.of();
+			this.range = SourceRange.of(type);
+			this.nameRange = SourceRange.of(type.getName());
+			this.annotations = ImmutableList.copyOf(annotations);
+		}
+
+		public String getQualifiedName() {
+			return qualifiedName;
+		}
+
+		/**
+		 * @return the fully qualified (erased) names of all super classes and interfaces of the type
+		 */
+		public Set<String> getSuperTypes() {
+			return superTypes;
+		}
+
+		public SourceRange getRange() {
+			return range;
+		}
+
+		public SourceRange getNameRange() {
+			return nameRange;
+		}
+
+		/**
+		 * @return the annotations of the type declaration itself (not the ones of its members)
+		 */
+		public List<AnnotationSnapshot> getAnnotations() {
+			return annotations;
+		}
+
+		private static Set<String> collectSuperTypes(ITypeBinding binding) {
+			Set<String> result = new LinkedHashSet<>();
+			List<ITypeBinding> toVisit = new ArrayList<>();
+			toVisit.add(binding);
+			while (!toVisit.isEmpty()) {
+				ITypeBinding current = toVisit.remove(toVisit.size() - 1);
+				ITypeBinding superclass = current.getSuperclass();
+				if (superclass != null && result.add(superclass.getErasure().getQualifiedName())) {
+					toVisit.add(superclass);
+				}
+				for (ITypeBinding superInterface : current.getInterfaces()) {
+					if (result.add(superInterface.getErasure().getQualifiedName())) {
+						toVisit.add(superInterface);
+					}
+				}
+			}
+			return ImmutableSet.copyOf(result);
+		}
+	}
+
+	private final int version;
+	private final List<AnnotationSnapshot> annotations;
+	private final List<TypeSnapshot> types;
+	private final Map<Extension<?>, Object> extensions;
+
+	private CompilationUnitSnapshot(int version, List<AnnotationSnapshot> annotations, List<TypeSnapshot> types, Map<Extension<?>, Object> extensions) {
+		this.version = version;
+		this.annotations = annotations;
+		this.types = types;
+		this.extensions = extensions;
+	}
+
+	/**
+	 * Extracts the snapshot from the given AST. Callers have to make sure that no other thread is accessing
+	 * the AST at the same time.
+	 */
+	public static CompilationUnitSnapshot create(CompilationUnit cu, int version) {
+		return create(cu, null, version, ImmutableList.of());
+	}
+
+	/**
+	 * Extracts the snapshot, including the data of the given extensions, from the given AST. Callers have to
+	 * make sure that no other thread is accessing the AST at the same time.
+	 */
+	public static CompilationUnitSnapshot create(CompilationUnit cu, TextDocument doc, int version, Iterable<Extension<?>> extensions) {
+		ImmutableList.Builder<AnnotationSnapshot> annotations = ImmutableList.builder();
+		ImmutableList.Builder<TypeSnapshot> types = ImmutableList.builder();
+		Map<TypeDeclaration, List<AnnotationSnapshot>> typeAnnotations = new IdentityHashMap<>();
+
+		if (cu != null) {
+			cu.accept(new ASTVisitor() {
+
+				@Override
+				public boolean visit(TypeDeclaration node) {
+					typeAnnotations.put(node, new ArrayList<>());
+					return super.visit(node);
+				}
+
+				@Override
+				public void endVisit(TypeDeclaration node) {
+					types.add(new TypeSnapshot(node, typeAnnotations.remove(node)));
+				}
+
+				@Override
+				public boolean visit(SingleMemberAnnotation node) {
+					add(node);
+					return super.visit(node);
+				}
+
+				@Override
+				public boolean visit(NormalAnnotation node) {
+					add(node);
+					return super.visit(node);
+				}
+
+				@Override
+				public boolean visit(MarkerAnnotation node) {
+					add(node);
+					return super.visit(node);
+				}
+
+				private void add(Annotation node) {
+					AnnotationSnapshot annotation = new AnnotationSnapshot(node);
+					annotations.add(annotation);
+
+					List<AnnotationSnapshot> annotationsOfType = typeAnnotations.get(node.getParent());
+					if (annotationsOfType != null) {
+						annotationsOfType.add(annotation);
+					}
+				}
+			});
+		}
+
+		ImmutableMap.Builder<Extension<?>, Object> extensionData = ImmutableMap.builder();
+		if (cu != null && doc != null) {
+			for (Extension<?> extension : extensions) {
+				try {
+					Object data = extension.extract(cu, doc);
+					if (data != null) {
+						extensionData.put(extension, data);
+					}
+				}
+				catch (Exception e) {
+					Log.log(e);
+				}
+			}
+		}
+
+		return new CompilationUnitSnapshot(version, annotations.build(), types.build(), extensionData.build());
+	}
+
+	/**
+	 * @return the version of the document this snapshot got extracted from
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return all annotations of the compilation unit, in source order
+	 */
+	public List<AnnotationSnapshot> getAnnotations() {
+		return annotations;
+	}
+
+	/**
+	 * @return all type declarations of the compilation unit (including nested types)
+	 */
+	public List<TypeSnapshot> getTypes() {
+		return types;
+	}
+
+	public boolean hasAnnotation(Predicate<AnnotationSnapshot> filter) {
+		return annotations.stream().anyMatch(filter);
+	}
+
+	/**
+	 * @return the innermost annotation that contains the given offset, or <code>null</code> if there is none
+	 */
+	public AnnotationSnapshot getAnnotationAt(int offset) {
+		AnnotationSnapshot result = null;
+		for (AnnotationSnapshot annotation : annotations) {
+			if (annotation.getRange().containsOffset(offset)
+					&& (result == null || annotation.getRange().getLength() < result.getRange().getLength())) {
+				result = annotation;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return the type declaration whose name contains the given offset, or <code>null</code> if there is none
+	 */
+	public TypeSnapshot getTypeWithNameAt(int offset) {
+		for (TypeSnapshot type : types) {
+			if (type.getNameRange().containsOffset(offset)) {
+				return type;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the data the given extension extracted from the AST, or <code>null</code> if it didn't extract
+	 * anything (or got registered after this snapshot was created)
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T get(Extension<T> extension) {
+		return (T) extensions.get(extension);
+	}
+
+}
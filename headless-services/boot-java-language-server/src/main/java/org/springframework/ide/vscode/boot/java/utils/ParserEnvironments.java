@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.boot.java.utils;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.springframework.ide.vscode.boot.java.annotations.AnnotationHierarchies;
+import org.springframework.ide.vscode.commons.java.IClasspath;
+import org.springframework.ide.vscode.commons.java.IJavaProject;
+
+/**
+ * Per-project parser environments, shared by the {@link SpringIndexer} and the {@link CompilationUnitCache}.
+ * <p>
+ * JDT doesn't allow to hand a pre-built name environment over to an {@link ASTParser}, so the jars on the
+ * classpath are still opened by every parse (the indexer amortizes that by parsing files in batches). What is
+ * shared is the setup of the environment (resolving the classpath entries of the project, computing the compiler
+ * options), which is done only once per project and re-used for all parses until the classpath of the project
+ * changes. Entries are checked for existence only until they show up: output folders and jars can appear later on
+ * (e.g. with the first build of the project) without a change of the classpath, so missing entries are looked for
+ * again with every parse, but an entry that was found once isn't checked again for this version of the classpath.
+ * {@link ASTParser}s are not thread-safe, so every parse creates its own parser from the shared (immutable)
+ * environment.
+ * <p>
+ * The environment also carries the {@link AnnotationHierarchies} of the project, so that the annotation hierarchies
+ * remembered for the project get dropped together with the environment when the classpath changes.
+ *
+ * @author Martin Lippert
+ */
+public class ParserEnvironments {
+
+	public static class ParserEnvironment {
+
+		private final String[] classpathEntries;
+		private final Set<String> existingEntries = ConcurrentHashMap.newKeySet();
+		private volatile boolean allEntriesExist;
+		private final Map<String, String> options;
+		private final AnnotationHierarchies annotationHierarchies = new AnnotationHierarchies();
+
+		public ParserEnvironment(String[] classpathEntries) {
+			this.classpathEntries = classpathEntries;
+
+			Map<String, String> options = JavaCore.getOptions();
+			JavaCore.setComplianceOptions(JavaCore.VERSION_1_8, options);
+			this.options = Collections.unmodifiableMap(options);
+		}
+
+		/**
+		 * @return the classpath entries of the project that exist (entries that were found once are not checked again)
+		 */
+		public String[] getClasspathEntries() {
+			if (allEntriesExist) {
+				return classpathEntries.clone();
+			}
+			String[] entries = Arrays.stream(classpathEntries)
+					.filter(entry -> existingEntries.contains(entry) || exists(entry))
+					.toArray(String[]::new);
+			if (entries.length == classpathEntries.length) {
+				allEntriesExist = true;
+			}
+			return entries;
+		}
+
+		private boolean exists(String entry) {
+			if (new File(entry).exists()) {
+				existingEntries.add(entry);
+				return true;
+			}
+			return false;
+		}
+
+		/**
+		 * @return the annotation hierarchies of the project, to be attached to the ASTs parsed with this environment
+		 */
+		public AnnotationHierarchies getAnnotationHierarchies() {
+			return annotationHierarchies;
+		}
+
+		/**
+		 * Creates a new binding-resolving parser for compilation units of the project.
+		 */
+		public ASTParser createParser() {
+			ASTParser parser = ASTParser.newParser(AST.JLS9);
+			parser.setCompilerOptions(options);
+			parser.setKind(ASTParser.K_COMPILATION_UNIT);
+			parser.setStatementsRecovery(true);
+			parser.setBindingsRecovery(true);
+			parser.setResolveBindings(true);
+
+			String[] sourceEntries = new String[] {};
+			parser.setEnvironment(getClasspathEntries(), sourceEntries, null, true);
+			return parser;
+		}
+	}
+
+	private final ConcurrentMap<IJavaProject, ParserEnvironment> environments = new ConcurrentHashMap<>();
+
+	public ParserEnvironment get(IJavaProject project) throws Exception {
+		try {
+			// computed atomically, so that an invalidate() for the project waits for a running computation
+			// (and then removes its result) instead of a stale environment being put into the map afterwards
+			return environments.computeIfAbsent(project, p -> {
+				try {
+					return new ParserEnvironment(resolveClasspathEntries(p));
+				}
+				catch (Exception e) {
+					throw new EnvironmentCreationException(e);
+				}
+			});
+		}
+		catch (EnvironmentCreationException e) {
+			throw (Exception) e.getCause();
+		}
+	}
+
+	/**
+	 * Drops the environment of the given project, it gets re-created with the next parse. Needs to be
+	 * called when the classpath of the project has changed.
+	 */
+	public void invalidate(IJavaProject project) {
+		environments.remove(project);
+	}
+
+	public void clear() {
+		environments.clear();
+	}
+
+	private static String[] resolveClasspathEntries(IJavaProject project) throws Exception {
+		IClasspath classpath = project.getClasspath();
+		return classpath.getClasspathEntries().stream()
+				.map(path -> path.toAbsolutePath().toString()).toArray(String[]::new);
+	}
+
+	private static class EnvironmentCreationException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		public EnvironmentCreationException(Exception cause) {
+			super(cause);
+		}
+	}
+
+}
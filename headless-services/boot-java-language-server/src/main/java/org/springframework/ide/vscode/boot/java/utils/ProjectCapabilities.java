@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.boot.java.utils;
+
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.ide.vscode.commons.java.IClasspath;
+import org.springframework.ide.vscode.commons.java.IJavaProject;
+import org.springframework.ide.vscode.commons.languageserver.java.ProjectObserver;
+import org.springframework.ide.vscode.commons.util.Log;
+
+/**
+ * Per-project capabilities derived from the classpath of the project (whether actuator is around, the Boot
+ * version, the web stack), for checks that happen on every hover or live hint update.
+ * <p>
+ * The capabilities of a project are computed once, with the first request, and kept until the project
+ * observer reports a change of the project (e.g. a changed classpath).
+ *
+ * @author Martin Lippert
+ */
+public class ProjectCapabilities {
+
+	public static class Capabilities {
+
+		private final boolean actuator;
+		private final String bootVersion;
+		private final boolean webMvc;
+		private final boolean webFlux;
+
+		public Capabilities(boolean actuator, String bootVersion, boolean webMvc, boolean webFlux) {
+			this.actuator = actuator;
+			this.bootVersion = bootVersion;
+			this.webMvc = webMvc;
+			this.webFlux = webFlux;
+		}
+
+		/**
+		 * @return <code>true</code> if <code>spring-boot-actuator</code> is on the classpath
+		 */
+		public boolean hasActuator() {
+			return actuator;
+		}
+
+		/**
+		 * @return the version of the <code>spring-boot</code> jar on the classpath or <code>null</code> if there is none
+		 */
+		public String getBootVersion() {
+			return bootVersion;
+		}
+
+		public boolean hasWebMvc() {
+			return webMvc;
+		}
+
+		public boolean hasWebFlux() {
+			return webFlux;
+		}
+
+		@Override
+		public String toString() {
+			return "Capabilities [actuator=" + actuator + ", bootVersion=" + bootVersion + ", webMvc=" + webMvc
+					+ ", webFlux=" + webFlux + "]";
+		}
+	}
+
+	private static final Capabilities NONE = new Capabilities(false, null, false, false);
+
+	private final ConcurrentMap<IJavaProject, Capabilities> capabilities = new ConcurrentHashMap<>();
+	private final ProjectObserver projectObserver;
+	private final ProjectObserver.Listener projectListener;
+
+	public ProjectCapabilities(ProjectObserver projectObserver) {
+		this.projectObserver = projectObserver;
+		this.projectListener = ProjectObserver.onAny(this::invalidate);
+		if (projectObserver != null) {
+			projectObserver.addListener(projectListener);
+		}
+	}
+
+	public void dispose() {
+		if (projectObserver != null) {
+			projectObserver.removeListener(projectListener);
+		}
+		capabilities.clear();
+	}
+
+	public Capabilities get(IJavaProject project) {
+		// computed atomically, so that an invalidate() for the project waits for a running computation
+		// (and then removes its result) instead of stale capabilities being put into the map afterwards
+		Capabilities result = capabilities.computeIfAbsent(project, ProjectCapabilities::compute);
+		// null if the classpath is not available (yet), nothing gets remembered then and the next request tries again
+		return result != null ? result : NONE;
+	}
+
+	/**
+	 * Drops the capabilities of the given project, they get re-computed with the next request.
+	 */
+	public void invalidate(IJavaProject project) {
+		capabilities.remove(project);
+	}
+
+	private static Capabilities compute(IJavaProject project) {
+		try {
+			IClasspath classpath = project.getClasspath();
+			if (classpath != null) {
+				boolean actuator = false;
+				String bootVersion = null;
+				boolean webMvc = false;
+				boolean webFlux = false;
+
+				for (Path entry : classpath.getClasspathEntries()) {
+					Path fileName = entry.getFileName();
+					if (fileName == null) {
+						continue;
+					}
+					String name = fileName.toString();
+					actuator |= name.startsWith("spring-boot-actuator-");
+					webMvc |= name.startsWith("spring-webmvc-");
+					webFlux |= name.startsWith("spring-webflux-");
+					if (bootVersion == null) {
+						bootVersion = getVersion(name, "spring-boot-");
+					}
+				}
+				return new Capabilities(actuator, bootVersion, webMvc, webFlux);
+			}
+		} catch (Exception e) {
+			Log.log(e);
+		}
+		return null;
+	}
+
+	/**
+	 * @return the version of the given artifact, if the given file is the jar of the artifact (e.g. <code>1.5.7.RELEASE</code>
+	 * for <code>spring-boot-1.5.7.RELEASE.jar</code>)
+	 */
+	private static String getVersion(String fileName, String artifactPrefix) {
+		if (fileName.startsWith(artifactPrefix) && fileName.endsWith(".jar") && fileName.length() > artifactPrefix.length() + ".jar".length()
+				&& Character.isDigit(fileName.charAt(artifactPrefix.length()))) {
+			return fileName.substring(artifactPrefix.length(), fileName.length() - ".jar".length());
+		}
+		return null;
+	}
+
+}
@@ -19,22 +19,35 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import org.apache.commons.io.FileUtils;
-import org.eclipse.jdt.core.JavaCore;
-import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.ASTVisitor;
 import org.eclipse.jdt.core.dom.Annotation;
@@ -53,13 +66,15 @@ import org.springframework.ide.vscode.boot.java.BootJavaLanguageServer;
 import org.springframework.ide.vscode.boot.java.annotations.AnnotationHierarchies;
 import org.springframework.ide.vscode.boot.java.annotations.AnnotationHierarchyAwareLookup;
 import org.springframework.ide.vscode.boot.java.handlers.SymbolProvider;
+import org.springframework.ide.vscode.boot.java.utils.ParserEnvironments.ParserEnvironment;
+import org.springframework.ide.vscode.boot.java.utils.SpringIndexerCache.CachedDocument;
 import org.springframework.ide.vscode.commons.java.IClasspath;
 import org.springframework.ide.vscode.commons.java.IJavaProject;
+import org.springframework.ide.vscode.commons.languageserver.ProgressService;
 import org.springframework.ide.vscode.commons.languageserver.java.JavaProjectFinder;
 import org.springframework.ide.vscode.commons.languageserver.java.ProjectObserver.Listener;
 import org.springframework.ide.vscode.commons.languageserver.multiroot.WorkspaceFolder;
 import org.springframework.ide.vscode.commons.util.Log;
-import org.springframework.ide.vscode.commons.util.StringUtil;
 import org.springframework.ide.vscode.commons.util.UriUtil;
 import org.springframework.ide.vscode.commons.util.text.LanguageId;
 import org.springframework.ide.vscode.commons.util.text.TextDocument;
@@ -69,47 +84,119 @@ import org.springframework.ide.vscode.commons.util.text.TextDocument;
  */
 public class SpringIndexer {
 
+	/**
+	 * System property to configure the number of threads used to scan projects in parallel
+	 * during the initial (full) indexing run. Defaults to the number of available processors.
+	 */
+	public static final String PARALLELISM_PROPERTY = "sts4.boot-java.indexer.parallelism";
+
+	/**
+	 * System property to configure the max number of source files that are parsed together
+	 * in one shard (one <code>ASTParser.createASTs</code> batch) during the initial indexing run.
+	 */
+	public static final String SHARD_SIZE_PROPERTY = "sts4.boot-java.indexer.shard-size";
+
+	/**
+	 * System property to configure the max number of symbols returned for a workspace symbol query.
+	 */
+	public static final String MAX_SEARCH_RESULTS_PROPERTY = "sts4.boot-java.indexer.max-search-results";
+
+	/**
+	 * System property to configure the quiet period (in milliseconds) after the last document change
+	 * before pending document changes get processed. Changes that arrive in bursts (e.g. after a
+	 * branch switch) are coalesced and processed together after this period.
+	 */
+	public static final String UPDATE_DELAY_PROPERTY = "sts4.boot-java.indexer.update-delay";
+
+	private static final int DEFAULT_SHARD_SIZE = 500;
+	private static final int DEFAULT_MAX_SEARCH_RESULTS = 1000;
+	private static final int DEFAULT_UPDATE_DELAY = 100;
+
+	/**
+	 * Interval (in milliseconds) in which a running scan checks whether it got cancelled while it waits for its shards.
+	 */
+	private static final long CANCELLATION_POLL_INTERVAL = 100;
+
+	/**
+	 * Pending document changes are processed after at most this many quiet periods, even if
+	 * new changes keep arriving.
+	 */
+	private static final int MAX_UPDATE_DELAY_FACTOR = 10;
+
+	private static final AtomicInteger progressIdCt = new AtomicInteger(0);
+
 	private final BootJavaLanguageServer server;
 	private final JavaProjectFinder projectFinder;
 	private final AnnotationHierarchyAwareLookup<SymbolProvider> symbolProviders;
 
-	private final List<SymbolInformation> symbols;
-	private final ConcurrentMap<String, List<SymbolInformation>> symbolsByDoc;
+	private final SymbolStore symbolStore;
+	private final ConcurrentMap<IJavaProject, Set<String>> docsByProject;
+	private final SymbolSearchIndex searchIndex;
+	private final ParserEnvironments parserEnvironments;
 
 	private final Thread updateWorker;
 	private final BlockingQueue<WorkerItem> updateQueue;
 
+	private final int parallelism;
+	private final int shardSize;
+	private final int maxSearchResults;
+	private final long updateDelay;
+	private final ForkJoinPool scanPool;
+
+	private final Map<String, DocumentChange> pendingChanges;
+	private long firstPendingChange;
+	private long lastPendingChange;
+
+	private final AtomicLong processedChanges = new AtomicLong(0);
+	private final AtomicLong totalUpdateLatency = new AtomicLong(0);
+	private volatile long lastUpdateLatency;
+
 	private final Listener projectListener = new Listener() {
 
 		@Override
 		public void created(IJavaProject project) {
 			Log.log("project created event: " + project.getElementName());
-			refresh();
+			refreshProject(project, false);
 		}
 
 		@Override
 		public void changed(IJavaProject project) {
 			Log.log("project changed event: " + project.getElementName());
-			refresh();
+			// the shared environment might not have been invalidated yet, depending on the order of the listeners
+			parserEnvironments.invalidate(project);
+			refreshProject(project, false);
 		}
 
 		@Override
 		public void deleted(IJavaProject project) {
 			Log.log("project deleted event: " + project.getElementName());
-			refresh();
+			parserEnvironments.invalidate(project);
+			refreshProject(project, true);
 		}
 
 	};
 
 	private volatile InitializeItem lastInitializeItem;
+	private volatile CompletableFuture<Void> lastProjectUpdate;
 
 	public SpringIndexer(BootJavaLanguageServer server, JavaProjectFinder projectFinder, AnnotationHierarchyAwareLookup<SymbolProvider> specificProviders) {
 		this.server = server;
 		this.projectFinder = projectFinder;
 		this.symbolProviders = specificProviders;
 
-		this.symbols = Collections.synchronizedList(new ArrayList<>());
-		this.symbolsByDoc = new ConcurrentHashMap<>();
+		this.symbolStore = new SymbolStore();
+		this.docsByProject = new ConcurrentHashMap<>();
+		this.searchIndex = new SymbolSearchIndex();
+
+		CompilationUnitCache cuCache = server.getCompilationUnitCache();
+		this.parserEnvironments = cuCache != null ? cuCache.getParserEnvironments() : new ParserEnvironments();
+
+		this.parallelism = Math.max(1, Integer.getInteger(PARALLELISM_PROPERTY, Runtime.getRuntime().availableProcessors()));
+		this.shardSize = Math.max(1, Integer.getInteger(SHARD_SIZE_PROPERTY, DEFAULT_SHARD_SIZE));
+		this.maxSearchResults = Math.max(1, Integer.getInteger(MAX_SEARCH_RESULTS_PROPERTY, DEFAULT_MAX_SEARCH_RESULTS));
+		this.updateDelay = Math.max(0, Integer.getInteger(UPDATE_DELAY_PROPERTY, DEFAULT_UPDATE_DELAY));
+		this.pendingChanges = new LinkedHashMap<>();
+		this.scanPool = new ForkJoinPool(parallelism);
 
 		this.updateQueue = new LinkedBlockingQueue<>();
 		this.updateWorker = new Thread(new Runnable() {
@@ -186,17 +273,55 @@ public class SpringIndexer {
 		}
 	}
 
+	/**
+	 * Re-indexes all workspace roots. The existing symbols stay available until the new
+	 * ones are ready and get swapped in.
+	 */
 	private void refresh() {
 		synchronized (this) {
-			symbols.clear();
-			symbolsByDoc.clear();
-
 			Collection<WorkspaceFolder> roots = server.getWorkspaceRoots();
 			Log.log("refresh spring indexer for roots: " + roots.toString());
 			initialize(roots);
 		}
 	}
 
+	/**
+	 * Re-indexes the given project and all the projects depending on it, leaving the symbols of
+	 * other projects untouched. The existing symbols of the affected projects stay available until
+	 * the new ones are ready and get swapped in.
+	 */
+	private CompletableFuture<Void> refreshProject(IJavaProject project, boolean deleted) {
+		synchronized (this) {
+			try {
+				ProjectItem projectItem = new ProjectItem(project, deleted);
+				lastProjectUpdate = projectItem.getFuture();
+				updateQueue.put(projectItem);
+				return projectItem.getFuture();
+			}
+			catch (Exception e) {
+				Log.log(e);
+			}
+		}
+
+		return null;
+	}
+
+	public boolean isUpdatingProjects() {
+		CompletableFuture<Void> projectUpdate = lastProjectUpdate;
+		return projectUpdate != null && !projectUpdate.isDone();
+	}
+
+	public void waitForProjectUpdates() {
+		CompletableFuture<Void> projectUpdate = lastProjectUpdate;
+		if (projectUpdate != null) {
+			try {
+				projectUpdate.get();
+			} catch (InterruptedException | ExecutionException e) {
+				// ignore
+			}
+		}
+	}
+
 	public void shutdown() {
 		try {
 			synchronized(this) {
@@ -204,6 +329,8 @@ public class SpringIndexer {
 					updateWorker.interrupt();
 				}
 
+				scanPool.shutdownNow();
+
 				if (server.getProjectObserver() != null) {
 					server.getProjectObserver().removeListener(projectListener);
 				}
@@ -219,11 +346,8 @@ public class SpringIndexer {
 				try {
 					Optional<IJavaProject> maybeProject = projectFinder.find(new TextDocumentIdentifier(docURI));
 					if (maybeProject.isPresent()) {
-						String[] classpathEntries = getClasspathEntries(maybeProject.get());
-
-						UpdateItem updateItem = new UpdateItem(docURI, content, classpathEntries);
-						updateQueue.put(updateItem);
-						return updateItem.getFuture();
+						ParserEnvironment environment = parserEnvironments.get(maybeProject.get());
+						return enqueueChange(new DocumentChange(docURI, maybeProject.get(), environment, content, false));
 					}
 				}
 				catch (Exception e) {
@@ -238,9 +362,10 @@ public class SpringIndexer {
 	public CompletableFuture<Void> deleteDocument(String deletedDocURI) {
 		synchronized(this) {
 			try {
-				DeleteItem deleteItem = new DeleteItem(deletedDocURI);
-				updateQueue.put(deleteItem);
-				return deleteItem.getFuture();
+				for (Set<String> docURIs : docsByProject.values()) {
+					docURIs.remove(deletedDocURI);
+				}
+				return enqueueChange(new DocumentChange(deletedDocURI, null, null, null, true));
 			}
 			catch (Exception e) {
 				Log.log(e);
@@ -256,12 +381,11 @@ public class SpringIndexer {
 				try {
 					Optional<IJavaProject> maybeProject = projectFinder.find(new TextDocumentIdentifier(docURI));
 					if (maybeProject.isPresent()) {
-						String[] classpathEntries = getClasspathEntries(maybeProject.get());
+						ParserEnvironment environment = parserEnvironments.get(maybeProject.get());
 
-						String content = FileUtils.readFileToString(new File(new URI(docURI)));
-						UpdateItem updateItem = new UpdateItem(docURI, content, classpathEntries);
-						updateQueue.put(updateItem);
-						return updateItem.getFuture();
+						docsByProject.computeIfAbsent(maybeProject.get(), p -> ConcurrentHashMap.newKeySet()).add(docURI);
+						// content is read from disk when the change gets processed, so that created files can be parsed together
+						return enqueueChange(new DocumentChange(docURI, maybeProject.get(), environment, null, false));
 					}
 				}
 				catch (Exception e) {
@@ -273,29 +397,90 @@ public class SpringIndexer {
 		return null;
 	}
 
+	/**
+	 * @return the number of items waiting for the update worker, including pending (not yet processed) document changes
+	 */
+	public int getUpdateQueueDepth() {
+		synchronized (pendingChanges) {
+			return updateQueue.size() + pendingChanges.size();
+		}
+	}
+
+	/**
+	 * @return the time (in milliseconds) between the arrival of the last processed document change and the
+	 * moment its symbols got updated
+	 */
+	public long getLastUpdateLatency() {
+		return lastUpdateLatency;
+	}
+
+	/**
+	 * @return the average time (in milliseconds) between the arrival of a document change and the moment its
+	 * symbols got updated
+	 */
+	public long getAverageUpdateLatency() {
+		long processed = processedChanges.get();
+		return processed == 0 ? 0 : totalUpdateLatency.get() / processed;
+	}
+
+	/**
+	 * Adds the change to the pending document changes, replacing a pending change for the same document.
+	 * The pending changes are processed together by a {@link DocumentChangesItem} once no new changes
+	 * arrived for the update delay.
+	 */
+	private CompletableFuture<Void> enqueueChange(DocumentChange change) throws InterruptedException {
+		synchronized (pendingChanges) {
+			DocumentChange previous = pendingChanges.remove(change.docURI);
+			if (previous != null) {
+				change.coalesce(previous);
+			}
+			pendingChanges.put(change.docURI, change);
+
+			long now = System.currentTimeMillis();
+			lastPendingChange = now;
+			if (previous == null && pendingChanges.size() == 1) {
+				firstPendingChange = now;
+				updateQueue.put(new DocumentChangesItem());
+			}
+		}
+		return change.getFuture();
+	}
+
+	/**
+	 * Waits until the symbols of the last initialize task can be served, which might be before the
+	 * initialize task is completely done in case symbols got loaded from the cache.
+	 */
+	private void waitForSymbolsAvailable() {
+		InitializeItem initializeItem = lastInitializeItem;
+		if (initializeItem != null) {
+			try {
+				initializeItem.getSymbolsAvailableFuture().get();
+			} catch (InterruptedException | ExecutionException e) {
+				// ignore
+			}
+		}
+	}
+
 	public List<SymbolInformation> getAllSymbols(String query) {
-		waitForInitializeTask();
+		waitForSymbolsAvailable();
 
 		if (query != null && query.length() > 0) {
-			return searchMatchingSymbols(this.symbols, query);
+			return searchMatchingSymbols(query);
 		} else {
-			return this.symbols;
+			return this.symbolStore.getAll();
 		}
 	}
 
 	public List<? extends SymbolInformation> getSymbols(String docURI) {
-		waitForInitializeTask();
-		return this.symbolsByDoc.get(docURI);
+		waitForSymbolsAvailable();
+		return this.symbolStore.get(docURI);
 	}
 
-	private List<SymbolInformation> searchMatchingSymbols(List<SymbolInformation> allsymbols, String query) {
-		waitForInitializeTask();
-		return allsymbols.stream()
-				.filter(symbol -> StringUtil.containsCharactersCaseInsensitive(symbol.getName(), query))
-				.collect(Collectors.toList());
+	private List<SymbolInformation> searchMatchingSymbols(String query) {
+		return searchIndex.search(query, maxSearchResults);
 	}
 
-	private void scanFiles(WorkspaceFolder directory) {
+	private Map<IJavaProject, List<String>> findJavaFiles(WorkspaceFolder directory) {
 		try {
 			Map<Optional<IJavaProject>, List<String>> projects = Files.walk(Paths.get(new URI(directory.getUri())))
 					.filter(path -> path.getFileName().toString().endsWith(".java"))
@@ -303,37 +488,259 @@ public class SpringIndexer {
 					.map(path -> path.toAbsolutePath().toString())
 					.collect(Collectors.groupingBy((javaFile) -> projectFinder.find(new TextDocumentIdentifier(new File(javaFile).toURI().toString()))));
 
-			projects.forEach((maybeProject, files) -> maybeProject.ifPresent(project -> scanProject(project, files.toArray(new String[0]))));
+			Map<IJavaProject, List<String>> result = new HashMap<>();
+			projects.forEach((maybeProject, files) -> maybeProject.ifPresent(project -> result.computeIfAbsent(project, p -> new ArrayList<>()).addAll(files)));
+			return result;
 		}
 		catch (Exception e) {
 			e.printStackTrace();
 		}
+		return Collections.emptyMap();
 	}
 
-	private void scanProject(IJavaProject project, String[] files) {
+	/**
+	 * Finds the java files of the given project in its source folders, together with the documents of the
+	 * project that got indexed before and still exist (e.g. test sources, which are not part of the source
+	 * folders of Maven projects).
+	 *
+	 * @return the java files of the project or <code>null</code> if the source folders of the project are not known
+	 */
+	private List<String> findJavaFiles(IJavaProject project) {
 		try {
-			ASTParser parser = ASTParser.newParser(AST.JLS9);
-			String[] classpathEntries = getClasspathEntries(project);
+			List<String> sourceFolders = project.getClasspath().getSourceFolders();
+			if (sourceFolders.isEmpty()) {
+				return null;
+			}
+
+			Set<String> javaFiles = new LinkedHashSet<>();
+			for (String sourceFolder : sourceFolders) {
+				Path folder = Paths.get(sourceFolder);
+				if (Files.isDirectory(folder)) {
+					try (Stream<Path> paths = Files.walk(folder)) {
+						paths.filter(path -> path.getFileName().toString().endsWith(".java"))
+								.filter(Files::isRegularFile)
+								.forEach(path -> javaFiles.add(path.toAbsolutePath().toString()));
+					}
+				}
+			}
 
-			scanFiles(parser, files, classpathEntries);
+			Set<String> knownDocURIs = docsByProject.get(project);
+			if (knownDocURIs != null) {
+				for (String docURI : knownDocURIs) {
+					File file = new File(new URI(docURI));
+					if (file.isFile()) {
+						javaFiles.add(file.getAbsolutePath());
+					}
+				}
+			}
+			return new ArrayList<>(javaFiles);
 		}
 		catch (Exception e) {
-			e.printStackTrace();
+			Log.log(e);
+			return null;
+		}
+	}
+
+	/**
+	 * Scans all java files of all the given workspace roots and swaps the result into the symbol
+	 * store, dropping the symbols of documents that are not part of the workspace roots anymore.
+	 */
+	private void scanWorkspaceRoots(WorkspaceFolder[] workspaceRoots, CompletableFuture<Void> future, CompletableFuture<Void> symbolsAvailable) throws Exception {
+		Map<IJavaProject, List<String>> javaFiles = new HashMap<>();
+		for (WorkspaceFolder root : workspaceRoots) {
+			findJavaFiles(root).forEach((project, files) -> javaFiles.computeIfAbsent(project, p -> new ArrayList<>()).addAll(files));
+		}
+
+		Set<IJavaProject> removedProjects = new HashSet<>(docsByProject.keySet());
+		removedProjects.removeAll(javaFiles.keySet());
+
+		if (scanProjects(javaFiles, future, symbolsAvailable)) {
+			removedProjects.forEach(this::removeProjectSymbols);
+		}
+	}
+
+	/**
+	 * Splits the given java files into shards (a shard is a batch of files of a single project),
+	 * scans all the shards in parallel on the scan pool and merges the resulting symbols into
+	 * the symbol store once all shards have completed.
+	 * <p>
+	 * Symbols of previous runs that got persisted in the project data cache are loaded
+	 * upfront and made available right away (via the symbolsAvailable future), only the
+	 * files that have changed since then are scanned again.
+	 *
+	 * @return <code>true</code> if the scan completed, <code>false</code> if it got canceled
+	 */
+	private boolean scanProjects(Map<IJavaProject, List<String>> javaFiles, CompletableFuture<Void> future, CompletableFuture<Void> symbolsAvailable) throws Exception {
+		List<ProjectScan> projectScans = new ArrayList<>();
+		List<ScanShard> shards = new ArrayList<>();
+		javaFiles.forEach((project, files) -> {
+			try {
+				ProjectScan projectScan = new ProjectScan(project, parserEnvironments.get(project));
+				projectScans.add(projectScan);
+
+				List<String> staleFiles = projectScan.loadCachedSymbols(files);
+				for (int i = 0; i < staleFiles.size(); i += shardSize) {
+					List<String> batch = staleFiles.subList(i, Math.min(i + shardSize, staleFiles.size()));
+					shards.add(new ScanShard(projectScan, batch.toArray(new String[batch.size()]), future));
+				}
+			}
+			catch (Exception e) {
+				Log.log(e);
+			}
+		});
+
+		if (symbolsAvailable != null && projectScans.stream().anyMatch(ProjectScan::hasCachedSymbols)) {
+			symbolsAvailable.complete(null);
+		}
+
+		if (!shards.isEmpty()) {
+			final String taskId = getProgressId();
+			final AtomicInteger shardsDone = new AtomicInteger(0);
+			reportProgress(taskId, "Indexing Spring symbols: 0 of " + shards.size() + " batches done");
+
+			shards.forEach(shard -> shard.onDone(() -> {
+				reportProgress(taskId, "Indexing Spring symbols: " + shardsDone.incrementAndGet() + " of " + shards.size()
+						+ " batches done (project `" + shard.projectScan.project.getElementName() + "`)");
+			}));
+
+			List<Map<String, List<SymbolInformation>>> scannedSymbols = new ArrayList<>();
+			try {
+				List<Future<Map<String, List<SymbolInformation>>>> results = new ArrayList<>();
+				for (ScanShard shard : shards) {
+					results.add(scanPool.submit(shard));
+				}
+				for (Future<Map<String, List<SymbolInformation>>> result : results) {
+					while (true) {
+						if (future.isCancelled()) {
+							// running shards stop with their next file, the ones not started yet are skipped
+							results.forEach(r -> r.cancel(true));
+							return false;
+						}
+						try {
+							scannedSymbols.add(result.get(CANCELLATION_POLL_INTERVAL, TimeUnit.MILLISECONDS));
+							break;
+						}
+						catch (TimeoutException e) {
+							// shard still running, check for cancellation again
+						}
+						catch (ExecutionException e) {
+							Log.log(e.getCause());
+							break;
+						}
+					}
+				}
+				if (future.isCancelled()) {
+					return false;
+				}
+			}
+			finally {
+				reportProgress(taskId, null);
+			}
+
+			// swap in the new symbols only after all shards are done
+			scannedSymbols.forEach(this::mergeSymbols);
+		}
+
+		for (ProjectScan projectScan : projectScans) {
+			projectScan.updateProjectDocs();
+			projectScan.storeSymbols();
+		}
+		return true;
+	}
+
+	private Set<IJavaProject> getDependentProjects(IJavaProject project) {
+		Set<IJavaProject> dependents = new HashSet<>();
+		List<IJavaProject> toVisit = new ArrayList<>();
+		toVisit.add(project);
+
+		while (!toVisit.isEmpty()) {
+			Path outputFolder = getOutputFolder(toVisit.remove(toVisit.size() - 1));
+			if (outputFolder != null) {
+				for (IJavaProject candidate : docsByProject.keySet()) {
+					if (candidate != project && !dependents.contains(candidate) && dependsOn(candidate, outputFolder)) {
+						dependents.add(candidate);
+						toVisit.add(candidate);
+					}
+				}
+			}
+		}
+		return dependents;
+	}
+
+	private Path getOutputFolder(IJavaProject project) {
+		try {
+			IClasspath classpath = project.getClasspath();
+			return classpath != null ? classpath.getOutputFolder() : null;
+		}
+		catch (Exception e) {
+			// e.g. a project that just got deleted, its dependents are not looked for then
+			Log.log(e);
+			return null;
+		}
+	}
+
+	private boolean dependsOn(IJavaProject project, Path outputFolder) {
+		try {
+			return project.getClasspath().getClasspathEntries().contains(outputFolder);
+		}
+		catch (Exception e) {
+			Log.log(e);
+			return false;
+		}
+	}
+
+	private void removeProjectSymbols(IJavaProject project) {
+		Set<String> docURIs = docsByProject.remove(project);
+		if (docURIs != null) {
+			for (String docURI : docURIs) {
+				removeDocSymbols(docURI);
+			}
+		}
+	}
+
+	private void mergeSymbols(Map<String, List<SymbolInformation>> scannedSymbols) {
+		scannedSymbols.forEach(this::putDocSymbols);
+	}
+
+	/**
+	 * Replaces the symbols of a single document. Only writers synchronize here (to keep the symbol
+	 * store and the search index in sync), readers access the symbol store without locking.
+	 */
+	private void putDocSymbols(String docURI, List<SymbolInformation> docSymbols) {
+		synchronized (symbolStore) {
+			List<SymbolInformation> oldSymbols = symbolStore.put(docURI, docSymbols);
+			searchIndex.removeAll(oldSymbols);
+			searchIndex.addAll(docSymbols);
 		}
 	}
 
-	private void scanFile(String docURI, String content, String[] classpathEntries) throws Exception {
-		ASTParser parser = ASTParser.newParser(AST.JLS9);
-		Map<String, String> options = JavaCore.getOptions();
-		JavaCore.setComplianceOptions(JavaCore.VERSION_1_8, options);
-		parser.setCompilerOptions(options);
-		parser.setKind(ASTParser.K_COMPILATION_UNIT);
-		parser.setStatementsRecovery(true);
-		parser.setBindingsRecovery(true);
-		parser.setResolveBindings(true);
+	private void removeDocSymbols(String docURI) {
+		putDocSymbols(docURI, Collections.emptyList());
+	}
+
+	private void reportProgress(String taskId, String statusMsg) {
+		ProgressService progressService = server.getProgressService();
+		if (progressService != null) {
+			progressService.progressEvent(taskId, statusMsg);
+		}
+	}
 
-		String[] sourceEntries = new String[] {};
-		parser.setEnvironment(classpathEntries, sourceEntries, null, true);
+	private static String getProgressId() {
+		return SpringIndexer.class.getName() + progressIdCt.incrementAndGet();
+	}
+
+	/**
+	 * Creates the parser for indexing, the same settings for single documents and batches of files,
+	 * so that a document gets the same symbols no matter which way it got scanned.
+	 */
+	private static ASTParser createParser(ParserEnvironment environment) {
+		ASTParser parser = environment.createParser();
+		parser.setIgnoreMethodBodies(true);
+		return parser;
+	}
+
+	private void scanFile(String docURI, String content, ParserEnvironment environment) throws Exception {
+		ASTParser parser = createParser(environment);
 
 		String unitName = docURI.substring(docURI.lastIndexOf("/"));
 		parser.setUnitName(unitName);
@@ -342,49 +749,117 @@ public class SpringIndexer {
 		CompilationUnit cu = (CompilationUnit) parser.createAST(null);
 
 		if (cu != null) {
-			List<SymbolInformation> oldSymbols = symbolsByDoc.remove(docURI);
-			if (oldSymbols != null) {
-				symbols.removeAll(oldSymbols);
-			}
-
+			environment.getAnnotationHierarchies().attachTo(cu);
+			Map<String, List<SymbolInformation>> scannedSymbols = new HashMap<>();
 			AtomicReference<TextDocument> docRef = new AtomicReference<>();
-			scanAST(cu, docURI, docRef, content);
+			scanAST(cu, docURI, docRef, content, scannedSymbols);
+
+			putDocSymbols(docURI, scannedSymbols.getOrDefault(docURI, Collections.emptyList()));
 		}
 	}
 
-	private void scanFiles(ASTParser parser, String[] javaFiles, String[] classpathEntries) throws Exception {
+	/**
+	 * Processes a batch of coalesced document changes. Deleted documents are removed right away,
+	 * changed editor buffers are parsed one by one and documents that need to be read from disk
+	 * are parsed together per project (with one <code>createASTs</code> call).
+	 */
+	private void processDocumentChanges(Collection<DocumentChange> changes) {
+		long start = System.currentTimeMillis();
+		Map<IJavaProject, List<DocumentChange>> changesFromDisk = new LinkedHashMap<>();
+
+		for (DocumentChange change : changes) {
+			if (change.deleted) {
+				removeDocSymbols(change.docURI);
+				change.done();
+			}
+			else if (change.content != null) {
+				try {
+					scanFile(change.docURI, change.content, change.environment);
+				}
+				catch (Exception e) {
+					Log.log(e);
+				}
+				change.done();
+			}
+			else {
+				changesFromDisk.computeIfAbsent(change.project, p -> new ArrayList<>()).add(change);
+			}
+		}
 
-		Map<String, String> options = JavaCore.getOptions();
-		JavaCore.setComplianceOptions(JavaCore.VERSION_1_8, options);
-		parser.setCompilerOptions(options);
-		parser.setKind(ASTParser.K_COMPILATION_UNIT);
-		parser.setStatementsRecovery(true);
-		parser.setBindingsRecovery(true);
-		parser.setResolveBindings(true);
-		parser.setIgnoreMethodBodies(true);
+		changesFromDisk.forEach((project, projectChanges) -> {
+			try {
+				Map<String, DocumentChange> changesByFile = new LinkedHashMap<>();
+				for (DocumentChange change : projectChanges) {
+					changesByFile.put(new File(new URI(change.docURI)).getAbsolutePath(), change);
+				}
+
+				String[] javaFiles = changesByFile.keySet().toArray(new String[changesByFile.size()]);
+				Map<String, List<SymbolInformation>> scannedSymbols = scanFiles(javaFiles, projectChanges.get(0).environment);
 
-		String[] sourceEntries = new String[] {};
-		parser.setEnvironment(classpathEntries, sourceEntries, null, true);
+				changesByFile.forEach((javaFile, change) -> {
+					String fileURI = UriUtil.toUri(new File(javaFile)).toString();
+					putDocSymbols(change.docURI, scannedSymbols.getOrDefault(fileURI, Collections.emptyList()));
+				});
+			}
+			catch (Exception e) {
+				Log.log(e);
+			}
+			finally {
+				projectChanges.forEach(DocumentChange::done);
+			}
+		});
+
+		Log.debug("processed " + changes.size() + " document changes in " + (System.currentTimeMillis() - start) + "ms, queue depth: " + getUpdateQueueDepth());
+	}
+
+	private void recordUpdateLatency(long latency) {
+		lastUpdateLatency = latency;
+		totalUpdateLatency.addAndGet(latency);
+		processedChanges.incrementAndGet();
+	}
 
+	private Map<String, List<SymbolInformation>> scanFiles(String[] javaFiles, ParserEnvironment environment) throws Exception {
+		return scanFiles(javaFiles, environment, () -> false);
+	}
+
+	/**
+	 * @param cancelled checked between files, the scan stops with an {@link OperationCanceledException} once it returns <code>true</code>
+	 */
+	private Map<String, List<SymbolInformation>> scanFiles(String[] javaFiles, ParserEnvironment environment, BooleanSupplier cancelled) throws Exception {
+		ASTParser parser = createParser(environment);
+
+		Map<String, List<SymbolInformation>> scannedSymbols = new HashMap<>();
 		FileASTRequestor requestor = new FileASTRequestor() {
 			@Override
 			public void acceptAST(String sourceFilePath, CompilationUnit cu) {
+				if (cancelled.getAsBoolean()) {
+					throw new OperationCanceledException();
+				}
+				environment.getAnnotationHierarchies().attachTo(cu);
 				String docURI = UriUtil.toUri(new File(sourceFilePath)).toString();
 				AtomicReference<TextDocument> docRef = new AtomicReference<>();
-				scanAST(cu, docURI, docRef, null);
+				scanAST(cu, docURI, docRef, null, scannedSymbols);
+			}
+		};
+
+		IProgressMonitor monitor = new NullProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				return cancelled.getAsBoolean();
 			}
 		};
 
-		parser.createASTs(javaFiles, null, new String[0], requestor, null);
+		parser.createASTs(javaFiles, null, new String[0], requestor, monitor);
+		return scannedSymbols;
 	}
 
-	private void scanAST(final CompilationUnit cu, final String docURI, AtomicReference<TextDocument> docRef, final String content) {
+	private void scanAST(final CompilationUnit cu, final String docURI, AtomicReference<TextDocument> docRef, final String content, Map<String, List<SymbolInformation>> result) {
 		cu.accept(new ASTVisitor() {
 
 			@Override
 			public boolean visit(TypeDeclaration node) {
 				try {
-					extractSymbolInformation(node, docURI, docRef, content);
+					extractSymbolInformation(node, docURI, docRef, content, result);
 				}
 				catch (Exception e) {
 					e.printStackTrace();
@@ -395,7 +870,7 @@ public class SpringIndexer {
 			@Override
 			public boolean visit(SingleMemberAnnotation node) {
 				try {
-					extractSymbolInformation(node, docURI, docRef, content);
+					extractSymbolInformation(node, docURI, docRef, content, result);
 				}
 				catch (Exception e) {
 					e.printStackTrace();
@@ -407,7 +882,7 @@ public class SpringIndexer {
 			@Override
 			public boolean visit(NormalAnnotation node) {
 				try {
-					extractSymbolInformation(node, docURI, docRef, content);
+					extractSymbolInformation(node, docURI, docRef, content, result);
 				}
 				catch (Exception e) {
 					e.printStackTrace();
@@ -419,7 +894,7 @@ public class SpringIndexer {
 			@Override
 			public boolean visit(MarkerAnnotation node) {
 				try {
-					extractSymbolInformation(node, docURI, docRef, content);
+					extractSymbolInformation(node, docURI, docRef, content, result);
 				}
 				catch (Exception e) {
 					e.printStackTrace();
@@ -430,44 +905,38 @@ public class SpringIndexer {
 		});
 	}
 
-	private void extractSymbolInformation(TypeDeclaration typeDeclaration, String docURI, AtomicReference<TextDocument> docRef, String content) throws Exception {
+	private void extractSymbolInformation(TypeDeclaration typeDeclaration, String docURI, AtomicReference<TextDocument> docRef, String content, Map<String, List<SymbolInformation>> result) throws Exception {
 		Collection<SymbolProvider> providers = symbolProviders.getAll();
 		if (!providers.isEmpty()) {
 			TextDocument doc = getTempTextDocument(docURI, docRef, content);
 			for (SymbolProvider provider : providers) {
 				Collection<SymbolInformation> sbls = provider.getSymbols(typeDeclaration, doc);
 				if (sbls != null) {
-					sbls.forEach(symbol -> {
-						symbols.add(symbol);
-						symbolsByDoc.computeIfAbsent(docURI, s -> new ArrayList<SymbolInformation>()).add(symbol);
-					});
+					result.computeIfAbsent(docURI, s -> new ArrayList<SymbolInformation>()).addAll(sbls);
 				}
 			}
 		}
 	}
 
-	private void extractSymbolInformation(Annotation node, String docURI, AtomicReference<TextDocument> docRef, String content) throws Exception {
+	private void extractSymbolInformation(Annotation node, String docURI, AtomicReference<TextDocument> docRef, String content, Map<String, List<SymbolInformation>> result) throws Exception {
 		ITypeBinding typeBinding = node.resolveTypeBinding();
 
 		if (typeBinding != null) {
-			Collection<SymbolProvider> providers = symbolProviders.get(typeBinding);
-			Collection<ITypeBinding> metaAnnotations = AnnotationHierarchies.getMetaAnnotations(typeBinding, symbolProviders::containsKey);
+			AnnotationHierarchies hierarchies = AnnotationHierarchies.of(node);
+			Collection<SymbolProvider> providers = symbolProviders.get(typeBinding, hierarchies);
+			Collection<ITypeBinding> metaAnnotations = hierarchies.getMetaAnnotations(typeBinding, symbolProviders::containsKey);
 			if (!providers.isEmpty()) {
 				TextDocument doc = getTempTextDocument(docURI, docRef, content);
 				for (SymbolProvider provider : providers) {
 					Collection<SymbolInformation> sbls = provider.getSymbols(node, typeBinding, metaAnnotations, doc);
 					if (sbls != null) {
-						sbls.forEach(symbol -> {
-							symbols.add(symbol);
-							symbolsByDoc.computeIfAbsent(docURI, s -> new ArrayList<SymbolInformation>()).add(symbol);
-						});
+						result.computeIfAbsent(docURI, s -> new ArrayList<SymbolInformation>()).addAll(sbls);
 					}
 				}
 			} else {
 				SymbolInformation symbol = provideDefaultSymbol(node, docURI, docRef, content);
 				if (symbol != null) {
-					symbols.add(symbol);
-					symbolsByDoc.computeIfAbsent(docURI, s -> new ArrayList<SymbolInformation>()).add(symbol);
+					result.computeIfAbsent(docURI, s -> new ArrayList<SymbolInformation>()).add(symbol);
 				}
 			}
 		}
@@ -512,14 +981,6 @@ public class SpringIndexer {
 		return null;
 	}
 
-	private String[] getClasspathEntries(IJavaProject project) throws Exception {
-		IClasspath classpath = project.getClasspath();
-		Stream<Path> classpathEntries = classpath.getClasspathEntries().stream();
-		return classpathEntries
-				.filter(path -> path.toFile().exists())
-				.map(path -> path.toAbsolutePath().toString()).toArray(String[]::new);
-	}
-
 	/**
 	 * inner class to capture items for the update worker
 	 */
@@ -534,12 +995,14 @@ public class SpringIndexer {
 
 		private final WorkspaceFolder[] workspaceRoots;
 		private final CompletableFuture<Void> future;
+		private final CompletableFuture<Void> symbolsAvailable;
 
 		public InitializeItem(WorkspaceFolder[] workspaceRoots) {
 			Log.debug("initialze spring indexer task created for roots:   " + Arrays.toString(workspaceRoots));
 
 			this.workspaceRoots = workspaceRoots;
 			this.future = new CompletableFuture<Void>();
+			this.symbolsAvailable = new CompletableFuture<Void>();
 		}
 
 		@Override
@@ -547,13 +1010,27 @@ public class SpringIndexer {
 			return future;
 		}
 
+		/**
+		 * @return future that completes as soon as symbols can be served, which is right after loading
+		 * the cached symbols (if there are any) or otherwise after the full scan is done
+		 */
+		public CompletableFuture<Void> getSymbolsAvailableFuture() {
+			return symbolsAvailable;
+		}
+
 		@Override
 		public void run() {
 			if (!future.isCancelled()) {
 				Log.debug("initialze spring indexer task started for roots:   " + Arrays.toString(workspaceRoots));
 
-				for (WorkspaceFolder root : workspaceRoots) {
-					SpringIndexer.this.scanFiles(root);
+				try {
+					SpringIndexer.this.scanWorkspaceRoots(workspaceRoots, future, symbolsAvailable);
+				}
+				catch (Exception e) {
+					Log.log(e);
+				}
+				finally {
+					symbolsAvailable.complete(null);
 				}
 
 				Log.debug("initialze spring indexer task completed for roots: " + Arrays.toString(workspaceRoots));
@@ -561,23 +1038,25 @@ public class SpringIndexer {
 				future.complete(null);
 			}
 			else {
+				symbolsAvailable.complete(null);
 				Log.debug("initialze spring indexer task canceled for roots:  " + Arrays.toString(workspaceRoots));
 			}
 		}
 	}
 
-	private class UpdateItem implements WorkerItem {
-
-		private final String docURI;
-		private final String content;
-		private final String[] classpathEntries;
+	/**
+	 * Re-indexes a single project that got created, changed or deleted, together with all the
+	 * projects that depend on it.
+	 */
+	private class ProjectItem implements WorkerItem {
 
+		private final IJavaProject project;
+		private final boolean deleted;
 		private final CompletableFuture<Void> future;
 
-		public UpdateItem(String docURI, String content, String[] classpathEntries) {
-			this.docURI = docURI;
-			this.content = content;
-			this.classpathEntries = classpathEntries;
+		public ProjectItem(IJavaProject project, boolean deleted) {
+			this.project = project;
+			this.deleted = deleted;
 			this.future = new CompletableFuture<Void>();
 		}
 
@@ -589,24 +1068,261 @@ public class SpringIndexer {
 		@Override
 		public void run() {
 			try {
-				SpringIndexer.this.scanFile(docURI, content, classpathEntries);
-			} catch (Exception e) {
+				Set<IJavaProject> affectedProjects = getDependentProjects(project);
+				if (deleted) {
+					removeProjectSymbols(project);
+				} else {
+					affectedProjects.add(project);
+				}
+
+				Log.debug("update spring indexer for projects: " + affectedProjects.stream().map(IJavaProject::getElementName).collect(Collectors.toList()));
+
+				if (!affectedProjects.isEmpty()) {
+					Map<IJavaProject, List<String>> javaFiles = new HashMap<>();
+					Set<IJavaProject> unknownSourceFolders = new HashSet<>();
+					for (IJavaProject affectedProject : affectedProjects) {
+						List<String> files = findJavaFiles(affectedProject);
+						if (files == null) {
+							unknownSourceFolders.add(affectedProject);
+						}
+						else if (!files.isEmpty()) {
+							javaFiles.put(affectedProject, files);
+						}
+					}
+
+					// only the projects without known source folders need the workspace roots to be walked
+					if (!unknownSourceFolders.isEmpty()) {
+						for (WorkspaceFolder root : server.getWorkspaceRoots()) {
+							findJavaFiles(root).forEach((p, files) -> {
+								if (unknownSourceFolders.contains(p)) {
+									javaFiles.computeIfAbsent(p, key -> new ArrayList<>()).addAll(files);
+								}
+							});
+						}
+					}
+
+					// affected projects without any java files left
+					affectedProjects.stream()
+							.filter(p -> !javaFiles.containsKey(p))
+							.forEach(SpringIndexer.this::removeProjectSymbols);
+
+					scanProjects(javaFiles, future, null);
+				}
+			}
+			catch (Exception e) {
 				Log.log(e);
 			}
 			future.complete(null);
 		}
 	}
 
-	private class DeleteItem implements WorkerItem {
+	/**
+	 * Captures the state of the initial scan of a single project, including the symbols
+	 * from the persisted cache and the symbols that are re-created by the scan shards.
+	 */
+	private class ProjectScan {
+
+		private final IJavaProject project;
+		private final ParserEnvironment environment;
+		private final String classpathFingerprint;
+		private final File cacheFile;
+		private final ConcurrentMap<String, CachedDocument> documents;
+		private final Set<String> docURIs;
+
+		public ProjectScan(IJavaProject project, ParserEnvironment environment) {
+			this.project = project;
+			this.environment = environment;
+			this.cacheFile = SpringIndexerCache.getCacheFile(project);
+			this.classpathFingerprint = cacheFile != null ? SpringIndexerCache.classpathFingerprint(environment.getClasspathEntries()) : null;
+			this.documents = new ConcurrentHashMap<>();
+			this.docURIs = ConcurrentHashMap.newKeySet();
+		}
+
+		public boolean hasCacheFile() {
+			return cacheFile != null;
+		}
+
+		public boolean hasCachedSymbols() {
+			return !documents.isEmpty();
+		}
+
+		/**
+		 * Loads the persisted symbols of this project into the symbol store.
+		 *
+		 * @return the files that need to be scanned (again) since they changed or are not in the cache
+		 */
+		public List<String> loadCachedSymbols(List<String> javaFiles) {
+			for (String javaFile : javaFiles) {
+				docURIs.add(UriUtil.toUri(new File(javaFile)).toString());
+			}
+
+			if (cacheFile == null) {
+				return javaFiles;
+			}
+
+			Map<String, CachedDocument> cached = SpringIndexerCache.load(cacheFile, classpathFingerprint);
+			Map<String, List<SymbolInformation>> cachedSymbols = new HashMap<>();
+			List<String> staleFiles = new ArrayList<>();
+
+			for (String javaFile : javaFiles) {
+				File file = new File(javaFile);
+				String docURI = UriUtil.toUri(file).toString();
+				CachedDocument cachedDoc = cached.get(docURI);
+				if (cachedDoc != null) {
+					// also serve the symbols of changed files until they got re-scanned,
+					// but never replace symbols that are already live
+					if (!symbolStore.contains(docURI)) {
+						cachedSymbols.put(docURI, cachedDoc.getSymbols());
+					}
+					if (cachedDoc.isUpToDate(file)) {
+						documents.put(docURI, cachedDoc);
+						continue;
+					}
+				}
+				staleFiles.add(javaFile);
+			}
+
+			mergeSymbols(cachedSymbols);
+			Log.debug("loaded cached spring symbols for project " + project.getElementName() + " - " + documents.size() + " up-to-date documents, " + staleFiles.size() + " to scan");
+			return staleFiles;
+		}
+
+		public void scanned(Map<String, CachedDocument> stamps, Map<String, List<SymbolInformation>> scannedSymbols) {
+			if (cacheFile != null) {
+				stamps.forEach((docURI, stamp) -> documents.put(docURI, stamp.withSymbols(scannedSymbols.getOrDefault(docURI, Collections.emptyList()))));
+			}
+		}
+
+		/**
+		 * Replaces the set of known documents of the project, removing the symbols of documents
+		 * that don't exist anymore.
+		 */
+		public void updateProjectDocs() {
+			Set<String> oldDocURIs = docsByProject.put(project, docURIs);
+			if (oldDocURIs != null) {
+				for (String docURI : oldDocURIs) {
+					if (!docURIs.contains(docURI)) {
+						removeDocSymbols(docURI);
+					}
+				}
+			}
+		}
+
+		public void storeSymbols() {
+			if (cacheFile != null) {
+				SpringIndexerCache.store(cacheFile, classpathFingerprint, documents.values());
+			}
+		}
+	}
+
+	/**
+	 * A batch of source files of a single project that is parsed and scanned as one unit
+	 * on the scan pool. Each shard collects its symbols locally, they get merged into the
+	 * symbol store after all shards are done.
+	 */
+	private class ScanShard implements Callable<Map<String, List<SymbolInformation>>> {
+
+		private final ProjectScan projectScan;
+		private final String[] javaFiles;
+		private final Future<?> scan;
+		private Runnable onDone;
+
+		public ScanShard(ProjectScan projectScan, String[] javaFiles, Future<?> scan) {
+			this.projectScan = projectScan;
+			this.javaFiles = javaFiles;
+			this.scan = scan;
+		}
+
+		public void onDone(Runnable onDone) {
+			this.onDone = onDone;
+		}
+
+		@Override
+		public Map<String, List<SymbolInformation>> call() throws Exception {
+			try {
+				if (scan.isCancelled()) {
+					return Collections.emptyMap();
+				}
+
+				Map<String, CachedDocument> stamps = new HashMap<>();
+				for (String javaFile : javaFiles) {
+					File file = new File(javaFile);
+					String docURI = UriUtil.toUri(file).toString();
+					stamps.put(docURI, projectScan.hasCacheFile() ? CachedDocument.stamp(docURI, file) : null);
+				}
+
+				Map<String, List<SymbolInformation>> result = SpringIndexer.this.scanFiles(javaFiles, projectScan.environment, scan::isCancelled);
+
+				// files without symbols are reported as well, so that stale symbols from the cache get removed
+				for (String docURI : stamps.keySet()) {
+					result.putIfAbsent(docURI, Collections.emptyList());
+				}
+				projectScan.scanned(stamps, result);
+				return result;
+			}
+			catch (OperationCanceledException e) {
+				return Collections.emptyMap();
+			}
+			finally {
+				if (onDone != null) {
+					onDone.run();
+				}
+			}
+		}
+	}
+
+	/**
+	 * A pending change of a single document. Multiple changes of the same document that arrive
+	 * before the pending changes get processed are coalesced into the latest one.
+	 */
+	private class DocumentChange {
 
 		private final String docURI;
+		private final IJavaProject project;
+		private final ParserEnvironment environment;
+		private final String content;
+		private final boolean deleted;
+
 		private final CompletableFuture<Void> future;
+		private final List<CompletableFuture<Void>> coalescedFutures;
+		private long arrived;
 
-		public DeleteItem(String docURI) {
+		public DocumentChange(String docURI, IJavaProject project, ParserEnvironment environment, String content, boolean deleted) {
 			this.docURI = docURI;
+			this.project = project;
+			this.environment = environment;
+			this.content = content;
+			this.deleted = deleted;
 			this.future = new CompletableFuture<Void>();
+			this.coalescedFutures = new ArrayList<>();
+			this.arrived = System.currentTimeMillis();
+		}
+
+		public CompletableFuture<Void> getFuture() {
+			return future;
+		}
+
+		public void coalesce(DocumentChange previous) {
+			coalescedFutures.add(previous.future);
+			coalescedFutures.addAll(previous.coalescedFutures);
+			arrived = Math.min(arrived, previous.arrived);
 		}
 
+		public void done() {
+			recordUpdateLatency(System.currentTimeMillis() - arrived);
+			future.complete(null);
+			coalescedFutures.forEach(f -> f.complete(null));
+		}
+	}
+
+	/**
+	 * Waits until no new document changes arrived for the update delay (or the max update delay
+	 * is reached) and processes all pending document changes together.
+	 */
+	private class DocumentChangesItem implements WorkerItem {
+
+		private final CompletableFuture<Void> future = new CompletableFuture<Void>();
+
 		@Override
 		public CompletableFuture<Void> getFuture() {
 			return future;
@@ -614,12 +1330,27 @@ public class SpringIndexer {
 
 		@Override
 		public void run() {
-			try {
-				List<SymbolInformation> oldSymbols = symbolsByDoc.remove(docURI);
-				if (oldSymbols != null) {
-					symbols.removeAll(oldSymbols);
+			List<DocumentChange> changes;
+			synchronized (pendingChanges) {
+				try {
+					long deadline = firstPendingChange + updateDelay * MAX_UPDATE_DELAY_FACTOR;
+					long wait;
+					while ((wait = Math.min(lastPendingChange + updateDelay, deadline) - System.currentTimeMillis()) > 0) {
+						pendingChanges.wait(wait);
+					}
 				}
-			} catch (Exception e) {
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+
+				changes = new ArrayList<>(pendingChanges.values());
+				pendingChanges.clear();
+			}
+
+			try {
+				processDocumentChanges(changes);
+			}
+			catch (Exception e) {
 				Log.log(e);
 			}
 			future.complete(null);
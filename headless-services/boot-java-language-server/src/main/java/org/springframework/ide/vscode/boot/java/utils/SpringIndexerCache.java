@@ -0,0 +1,278 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.boot.java.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SymbolInformation;
+import org.eclipse.lsp4j.SymbolKind;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.springframework.ide.vscode.commons.java.AbstractJavaProject;
+import org.springframework.ide.vscode.commons.java.IJavaProject;
+import org.springframework.ide.vscode.commons.util.Log;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteSource;
+
+/**
+ * Persists the symbols found by the {@link SpringIndexer} for the documents of a project
+ * into the project's data cache folder (next to the cached classpath data), so that they
+ * can be served right away after a restart of the language server.
+ * <p>
+ * Every document entry is stamped with the last modified time, size and content hash of
+ * the file it was created from. The whole project cache is invalidated if the classpath of
+ * the project has changed (detected via a fingerprint of the classpath entries) or if the
+ * cache was written by a version of the indexer that creates different symbols.
+ *
+ * @author Martin Lippert
+ */
+public class SpringIndexerCache {
+
+	public static final String SYMBOLS_CACHE_FILE = "spring-symbols.json";
+
+	/**
+	 * Needs to be incremented whenever the format of the cache file or the symbols created by the
+	 * symbol providers change, so that caches written by older versions don't get used anymore.
+	 */
+	public static final int CACHE_VERSION = 1;
+
+	private static final String CLASSPATH_PROPERTY = "classpath";
+	private static final String DOCUMENTS_PROPERTY = "documents";
+	private static final String URI_PROPERTY = "uri";
+	private static final String LAST_MODIFIED_PROPERTY = "lastModified";
+	private static final String SIZE_PROPERTY = "size";
+	private static final String HASH_PROPERTY = "hash";
+	private static final String SYMBOLS_PROPERTY = "symbols";
+	private static final String NAME_PROPERTY = "name";
+	private static final String KIND_PROPERTY = "kind";
+	private static final String CONTAINER_PROPERTY = "container";
+	private static final String RANGE_PROPERTY = "range";
+
+	/**
+	 * The cached symbols of a single document, together with the stamp of the file
+	 * at the time it got scanned.
+	 */
+	public static class CachedDocument {
+
+		private final String docURI;
+		private final long lastModified;
+		private final long size;
+		private final String hash;
+		private final List<SymbolInformation> symbols;
+
+		public CachedDocument(String docURI, long lastModified, long size, String hash, List<SymbolInformation> symbols) {
+			this.docURI = docURI;
+			this.lastModified = lastModified;
+			this.size = size;
+			this.hash = hash;
+			this.symbols = symbols;
+		}
+
+		public String getDocURI() {
+			return docURI;
+		}
+
+		public List<SymbolInformation> getSymbols() {
+			return symbols;
+		}
+
+		public CachedDocument withSymbols(List<SymbolInformation> symbols) {
+			return new CachedDocument(docURI, lastModified, size, hash, symbols);
+		}
+
+		/**
+		 * Checks whether the given file is still the same as the one this entry got created from.
+		 * The (expensive) content hash is only compared when the cheap checks are not conclusive.
+		 */
+		public boolean isUpToDate(File file) {
+			if (file.length() != size) {
+				return false;
+			}
+			if (file.lastModified() == lastModified) {
+				return true;
+			}
+			return hash != null && hash.equals(hash(file));
+		}
+
+		/**
+		 * Creates an (empty) entry that captures the current state of the given file.
+		 */
+		public static CachedDocument stamp(String docURI, File file) {
+			return new CachedDocument(docURI, file.lastModified(), file.length(), hash(file), Collections.emptyList());
+		}
+	}
+
+	/**
+	 * @return the file to persist the symbols of the given project in, or <code>null</code> if the project
+	 * doesn't have a data cache folder
+	 */
+	public static File getCacheFile(IJavaProject project) {
+		if (project instanceof AbstractJavaProject) {
+			Path projectDataCache = ((AbstractJavaProject) project).getProjectDataCache();
+			if (projectDataCache != null) {
+				return projectDataCache.resolve(SYMBOLS_CACHE_FILE).toFile();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Creates the key the cache of a project is stored with. Only the time stamps of the jars are part of
+	 * the fingerprint, the output folders change with every build (and the classes in there are compiled
+	 * from the sources, whose changes are detected by the stamps of the document entries).
+	 */
+	public static String classpathFingerprint(String[] classpathEntries) {
+		String[] sorted = Arrays.copyOf(classpathEntries, classpathEntries.length);
+		Arrays.sort(sorted);
+		Hasher hasher = Hashing.murmur3_128().newHasher();
+		hasher.putInt(CACHE_VERSION);
+		for (String entry : sorted) {
+			hasher.putUnencodedChars(entry);
+			File file = new File(entry);
+			if (file.isFile()) {
+				hasher.putLong(file.lastModified());
+			}
+		}
+		return hasher.hash().toString();
+	}
+
+	/**
+	 * Loads the cached documents of a project, keyed by document URI. Returns an empty map if there is no
+	 * cache for the project or if the cache was created for a different classpath.
+	 */
+	public static Map<String, CachedDocument> load(File cacheFile, String classpathFingerprint) {
+		Map<String, CachedDocument> result = new HashMap<>();
+		if (cacheFile != null && cacheFile.exists()) {
+			try (InputStream in = new FileInputStream(cacheFile)) {
+				JSONObject json = new JSONObject(new JSONTokener(new InputStreamReader(in, StandardCharsets.UTF_8)));
+				if (classpathFingerprint.equals(json.optString(CLASSPATH_PROPERTY))) {
+					JSONArray documents = json.optJSONArray(DOCUMENTS_PROPERTY);
+					if (documents != null) {
+						for (int i = 0; i < documents.length(); i++) {
+							CachedDocument doc = toCachedDocument(documents.getJSONObject(i));
+							result.put(doc.getDocURI(), doc);
+						}
+					}
+				}
+			} catch (Throwable e) {
+				Log.log(e);
+				result.clear();
+			}
+		}
+		return result;
+	}
+
+	public static void store(File cacheFile, String classpathFingerprint, Collection<CachedDocument> documents) {
+		if (cacheFile != null) {
+			try {
+				Files.createDirectories(cacheFile.getParentFile().toPath());
+				JSONObject json = new JSONObject();
+				json.put(CLASSPATH_PROPERTY, classpathFingerprint);
+				JSONArray documentsJson = new JSONArray();
+				for (CachedDocument doc : documents) {
+					documentsJson.put(toJson(doc));
+				}
+				json.put(DOCUMENTS_PROPERTY, documentsJson);
+
+				// write to a temp file first and move it into place, so that a crash or another language
+				// server instance never leaves a truncated cache file behind
+				Path tempFile = Files.createTempFile(cacheFile.getParentFile().toPath(), cacheFile.getName(), ".tmp");
+				try {
+					try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+						json.write(writer);
+					}
+					try {
+						Files.move(tempFile, cacheFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+					} catch (AtomicMoveNotSupportedException e) {
+						Files.move(tempFile, cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+					}
+				} finally {
+					Files.deleteIfExists(tempFile);
+				}
+			} catch (IOException e) {
+				Log.log(e);
+			}
+		}
+	}
+
+	private static String hash(File file) {
+		try {
+			return ByteSource.wrap(Files.readAllBytes(file.toPath())).hash(Hashing.murmur3_128()).toString();
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private static JSONObject toJson(CachedDocument doc) {
+		JSONObject json = new JSONObject();
+		json.put(URI_PROPERTY, doc.docURI);
+		json.put(LAST_MODIFIED_PROPERTY, doc.lastModified);
+		json.put(SIZE_PROPERTY, doc.size);
+		json.put(HASH_PROPERTY, doc.hash);
+
+		JSONArray symbolsJson = new JSONArray();
+		for (SymbolInformation symbol : doc.symbols) {
+			JSONObject symbolJson = new JSONObject();
+			symbolJson.put(NAME_PROPERTY, symbol.getName());
+			symbolJson.put(KIND_PROPERTY, symbol.getKind().getValue());
+			symbolJson.put(URI_PROPERTY, symbol.getLocation().getUri());
+			symbolJson.put(CONTAINER_PROPERTY, symbol.getContainerName());
+			Range range = symbol.getLocation().getRange();
+			symbolJson.put(RANGE_PROPERTY, new JSONArray(Arrays.asList(
+					range.getStart().getLine(), range.getStart().getCharacter(),
+					range.getEnd().getLine(), range.getEnd().getCharacter())));
+			symbolsJson.put(symbolJson);
+		}
+		json.put(SYMBOLS_PROPERTY, symbolsJson);
+		return json;
+	}
+
+	private static CachedDocument toCachedDocument(JSONObject json) {
+		JSONArray symbolsJson = json.getJSONArray(SYMBOLS_PROPERTY);
+		List<SymbolInformation> symbols = new ArrayList<>(symbolsJson.length());
+		for (int i = 0; i < symbolsJson.length(); i++) {
+			JSONObject symbolJson = symbolsJson.getJSONObject(i);
+			JSONArray range = symbolJson.getJSONArray(RANGE_PROPERTY);
+			Location location = new Location(symbolJson.getString(URI_PROPERTY), new Range(
+					new Position(range.getInt(0), range.getInt(1)),
+					new Position(range.getInt(2), range.getInt(3))));
+			symbols.add(new SymbolInformation(symbolJson.getString(NAME_PROPERTY),
+					SymbolKind.forValue(symbolJson.getInt(KIND_PROPERTY)), location,
+					symbolJson.optString(CONTAINER_PROPERTY, null)));
+		}
+		return new CachedDocument(json.getString(URI_PROPERTY), json.getLong(LAST_MODIFIED_PROPERTY),
+				json.getLong(SIZE_PROPERTY), json.optString(HASH_PROPERTY, null), symbols);
+	}
+
+}
@@ -11,10 +11,12 @@
 package org.springframework.ide.vscode.boot.java.utils;
 
 import java.time.Duration;
-import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.stream.Stream;
 
@@ -22,6 +24,9 @@ import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.TextDocumentIdentifier;
 import org.springframework.ide.vscode.boot.java.handlers.BootJavaHoverProvider;
 import org.springframework.ide.vscode.boot.java.handlers.RunningAppProvider;
+import org.springframework.ide.vscode.boot.java.livehover.LiveAppSnapshots;
+import org.springframework.ide.vscode.commons.boot.app.cli.JmxSpringBootApp;
+import org.springframework.ide.vscode.commons.boot.app.cli.LiveDataCategory;
 import org.springframework.ide.vscode.commons.boot.app.cli.SpringBootApp;
 import org.springframework.ide.vscode.commons.java.IJavaProject;
 import org.springframework.ide.vscode.commons.languageserver.HighlightParams;
@@ -31,7 +36,18 @@ import org.springframework.ide.vscode.commons.languageserver.util.SimpleLanguage
 import org.springframework.ide.vscode.commons.util.Log;
 import org.springframework.ide.vscode.commons.util.text.TextDocument;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
 /**
+ * Polls the running apps and publishes the live hover hints for the watched documents.
+ * <p>
+ * Hints are only re-computed for a document if the document version or the live data of the running apps
+ * changed since they were published last (only the kinds of live data the hints of the document are based on
+ * are fetched from the apps for this), and they are only sent to the client if they differ from the
+ * previously published ones. While nothing changes, the polling interval backs off (up to
+ * {@link #MAX_BACKOFF_FACTOR} times the configured interval).
+ *
  * @author Martin Lippert
  */
 public class SpringLiveHoverWatchdog {
@@ -39,11 +55,28 @@ public class SpringLiveHoverWatchdog {
 
 	public static final Duration DEFAULT_INTERVAL = Duration.ofMillis(5000);
 
+	private static final int MAX_BACKOFF_FACTOR = 4;
+
+	private static class PublishedHints {
+		final int version;
+		final Set<String> appsKey;
+		final Set<Range> ranges;
+
+		PublishedHints(int version, Set<String> appsKey, Range[] ranges) {
+			this.version = version;
+			this.appsKey = appsKey;
+			this.ranges = ImmutableSet.copyOf(ranges);
+		}
+	}
+
 	private final long POLLING_INTERVAL_MILLISECONDS;
+	private long currentInterval;
+	private final Map<String, PublishedHints> publishedHints = new ConcurrentHashMap<>();
 	private final Set<String> watchedDocs;
 	private final SimpleLanguageServer server;
 	private final BootJavaHoverProvider hoverProvider;
 	private RunningAppProvider runningAppProvider;
+	private final LiveAppSnapshots liveAppSnapshots;
 
 	private boolean highlightsEnabled = true;
 
@@ -68,6 +101,7 @@ public class SpringLiveHoverWatchdog {
 			SimpleLanguageServer server,
 			BootJavaHoverProvider hoverProvider,
 			RunningAppProvider runningAppProvider,
+			LiveAppSnapshots liveAppSnapshots,
 			JavaProjectFinder projectFinder,
 			ProjectObserver projectChanges,
 			Duration pollingInterval
@@ -76,6 +110,7 @@ public class SpringLiveHoverWatchdog {
 		this.server = server;
 		this.hoverProvider = hoverProvider;
 		this.runningAppProvider = runningAppProvider;
+		this.liveAppSnapshots = liveAppSnapshots;
 		this.projectFinder = projectFinder;
 		this.watchedDocs = new ConcurrentSkipListSet<>();
 		projectChanges.addListener(new ProjectObserver.Listener() {
@@ -101,24 +136,46 @@ public class SpringLiveHoverWatchdog {
 		if (highlightsEnabled && timer == null) {
 			Log.debug("Starting SpringLiveHoverWatchdog");
 			this.timer = new Timer();
+			this.currentInterval = POLLING_INTERVAL_MILLISECONDS;
+			scheduleUpdate(timer, 0);
+		}
+	}
 
+	private synchronized void scheduleUpdate(Timer scheduler, long delay) {
+		// the timer might have been shut down (or replaced by a new one) in the meantime
+		if (timer == scheduler && timer != null) {
 			TimerTask task = new TimerTask() {
 				@Override
 				public void run() {
-					update();
+					boolean changed = update();
+					updateFinished(scheduler, changed);
 				}
 			};
 
-			timer.schedule(task, 0, POLLING_INTERVAL_MILLISECONDS);
+			timer.schedule(task, delay);
 		}
 	}
 
+	private synchronized void updateFinished(Timer scheduler, boolean changed) {
+		if (changed) {
+			currentInterval = POLLING_INTERVAL_MILLISECONDS;
+		} else {
+			currentInterval = Math.min(currentInterval * 2, POLLING_INTERVAL_MILLISECONDS * MAX_BACKOFF_FACTOR);
+		}
+		scheduleUpdate(scheduler, currentInterval);
+	}
+
+	private synchronized void resetPollingInterval() {
+		currentInterval = POLLING_INTERVAL_MILLISECONDS;
+	}
+
 	public synchronized void shutdown() {
 		if (timer != null) {
 			Log.info("Shutting down SpringLiveHoverWatchdog");
 			timer.cancel();
 			timer = null;
 			watchedDocs.forEach(uri -> cleanupLiveHints(uri));
+			cleanupResources();
 		}
 	}
 
@@ -137,54 +194,108 @@ public class SpringLiveHoverWatchdog {
 		refreshEnablement();
 	}
 
+	/**
+	 * Re-computes the live hover hints of the given document, needs to be called when the document changed.
+	 */
 	public void update(String docURI, SpringBootApp[] runningBootApps) {
 		if (highlightsEnabled) {
+			resetPollingInterval();
 
 			try {
 				if (runningBootApps == null) {
 					runningBootApps = runningAppProvider.getAllRunningSpringApps().toArray(new SpringBootApp[0]);
 				}
-
-				if (runningBootApps != null && runningBootApps.length > 0) {
-					TextDocument doc = this.server.getTextDocumentService().get(docURI);
-					if (doc != null) {
-						Range[] ranges = this.hoverProvider.getLiveHoverHints(doc, runningBootApps);
-						publishLiveHints(docURI, ranges);
-					}
-				}
-				else {
-					cleanupLiveHints(docURI);
-				}
+				update(docURI, runningBootApps, true);
 
 			} catch (Exception e) {
-				e.printStackTrace();
+				Log.log(e);
 			}
 		}
 	}
 
-	protected void update() {
+	/**
+	 * @return <code>true</code> if the hints of at least one document had to be re-computed
+	 */
+	protected boolean update() {
+		boolean changed = false;
 		if (this.watchedDocs.size() > 0) {
 			try {
+				// all documents of this cycle share the same live data, each kind of it fetched at most once per app
+				liveAppSnapshots.newTick();
 				SpringBootApp[] runningBootApps = runningAppProvider.getAllRunningSpringApps().toArray(new SpringBootApp[0]);
 				for (String docURI : watchedDocs) {
-					update(docURI, runningBootApps);
+					changed |= update(docURI, runningBootApps, false);
 				}
 			} catch (Exception e) {
-				e.printStackTrace();
+				Log.log(e);
+			}
+		}
+		return changed;
+	}
+
+	private boolean update(String docURI, SpringBootApp[] runningBootApps, boolean force) {
+		TextDocument doc = this.server.getTextDocumentService().get(docURI);
+		if (doc != null) {
+			int version = doc.getVersion();
+			Set<String> appsKey = getAppsKey(runningBootApps, hoverProvider.getLiveDataCategories(doc));
+			PublishedHints published = publishedHints.get(docURI);
+			if (!force && published != null && published.version == version && published.appsKey.equals(appsKey)) {
+				return false;
 			}
+
+			Range[] ranges = runningBootApps.length > 0 ? this.hoverProvider.getLiveHoverHints(doc, runningBootApps) : new Range[0];
+			publishLiveHints(docURI, new PublishedHints(version, appsKey, ranges));
+			return true;
+		}
+		else if (runningBootApps.length == 0) {
+			cleanupLiveHints(docURI);
 		}
+		return false;
 	}
 
-	private void publishLiveHints(String docURI, Range[] ranges) {
-		server.getClient().highlight(new HighlightParams(new TextDocumentIdentifier(docURI), Arrays.asList(ranges)));
+	/**
+	 * Identifies the running apps together with the state of the given kinds of their live data. If this key
+	 * doesn't change, the live hover hints of an unchanged document (based on these kinds of data) don't change
+	 * either.
+	 */
+	private Set<String> getAppsKey(SpringBootApp[] runningBootApps, Set<LiveDataCategory> categories) {
+		// fetch the data of all apps in parallel first, the fingerprints below are computed from the fetched data then
+		liveAppSnapshots.fetch(runningBootApps, categories);
+
+		ImmutableSet.Builder<String> key = ImmutableSet.builder();
+		for (SpringBootApp app : runningBootApps) {
+			key.add(app.getProcessID() + ":" + Long.toHexString(liveAppSnapshots.get(app).getFingerprint(categories)));
+		}
+		return key.build();
+	}
+
+	private void publishLiveHints(String docURI, PublishedHints hints) {
+		PublishedHints previous = publishedHints.put(docURI, hints);
+		if (previous == null || previous.version != hints.version || !previous.ranges.equals(hints.ranges)) {
+			publishLiveHints(docURI, hints.ranges);
+		}
+	}
+
+	private void publishLiveHints(String docURI, Collection<Range> ranges) {
+		server.getClient().highlight(new HighlightParams(new TextDocumentIdentifier(docURI), ImmutableList.copyOf(ranges)));
 	}
 
 	private void cleanupLiveHints(String docURI) {
-		publishLiveHints(docURI, new Range[0]);
+		PublishedHints previous = publishedHints.remove(docURI);
+		if (previous == null || !previous.ranges.isEmpty()) {
+			publishLiveHints(docURI, ImmutableList.of());
+		}
 	}
 
 	private void cleanupResources() {
-		// TODO: close and cleanup open JMX connections and cached data
+		// JMX connections are pooled per running app, nobody is watching anymore, so close them.
+		// They get re-opened lazily with the next request (e.g. a hover)
+		try {
+			JmxSpringBootApp.closeAllConnections();
+			liveAppSnapshots.clear();
+		} catch (Exception e) {
+			Log.log(e);
+		}
 	}
 
 	public synchronized void enableHighlights() {
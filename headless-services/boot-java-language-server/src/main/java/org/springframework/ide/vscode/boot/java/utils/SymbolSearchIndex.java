@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.boot.java.utils;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
+
+import org.eclipse.lsp4j.SymbolInformation;
+import org.springframework.ide.vscode.commons.util.FuzzyMatcher;
+
+/**
+ * Search structure for workspace symbols that answers 'subsequence' queries (all characters
+ * of the query have to appear in the symbol name in the same order, case insensitive) without
+ * matching the query against every single symbol.
+ * <p>
+ * For every (lower-cased) character the index keeps a posting bitset of the symbols whose name
+ * contains that character. A query first intersects the postings of its characters, only the
+ * remaining candidates are matched and scored with the {@link FuzzyMatcher}. Adjacent bigrams or
+ * trigrams can't be used for pruning here, since the characters of a subsequence query don't
+ * need to be adjacent in the symbol name.
+ *
+ * @author Martin Lippert
+ */
+public class SymbolSearchIndex {
+
+	private static class Match {
+		final int id;
+		final String name;
+		final double score;
+
+		Match(int id, String name, double score) {
+			this.id = id;
+			this.name = name;
+			this.score = score;
+		}
+	}
+
+	/**
+	 * Worst match first, so that the head of the queue can be dropped when there are too many results.
+	 * Matches with equal scores are ordered alphabetically.
+	 */
+	private static final Comparator<Match> WORST_FIRST = (m1, m2) -> {
+		int result = Double.compare(m1.score, m2.score);
+		return result != 0 ? result : m2.name.compareTo(m1.name);
+	};
+
+	private final List<SymbolInformation> symbols = new ArrayList<>();
+	private final List<String> lowerCaseNames = new ArrayList<>();
+	private final List<Integer> freeIds = new ArrayList<>();
+	private final Map<SymbolInformation, Integer> ids = new IdentityHashMap<>();
+	private final Map<Character, BitSet> postings = new HashMap<>();
+	private final BitSet allIds = new BitSet();
+
+	private final ReadLock readLock;
+	private final WriteLock writeLock;
+
+	public SymbolSearchIndex() {
+		ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+		readLock = lock.readLock();
+		writeLock = lock.writeLock();
+	}
+
+	public void addAll(Collection<SymbolInformation> symbolsToAdd) {
+		writeLock.lock();
+		try {
+			for (SymbolInformation symbol : symbolsToAdd) {
+				add(symbol);
+			}
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	public void removeAll(Collection<SymbolInformation> symbolsToRemove) {
+		writeLock.lock();
+		try {
+			for (SymbolInformation symbol : symbolsToRemove) {
+				remove(symbol);
+			}
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	public void clear() {
+		writeLock.lock();
+		try {
+			symbols.clear();
+			lowerCaseNames.clear();
+			freeIds.clear();
+			ids.clear();
+			postings.clear();
+			allIds.clear();
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	public int size() {
+		readLock.lock();
+		try {
+			return ids.size();
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * Finds the symbols that match the given query, best matches first.
+	 *
+	 * @param query the characters to look for (in the given order, case insensitive)
+	 * @param maxResults the max number of symbols to return
+	 */
+	public List<SymbolInformation> search(String query, int maxResults) {
+		String lowerCaseQuery = query.toLowerCase();
+
+		readLock.lock();
+		try {
+			BitSet candidates = (BitSet) allIds.clone();
+			for (int i = 0; i < lowerCaseQuery.length() && !candidates.isEmpty(); i++) {
+				BitSet posting = postings.get(lowerCaseQuery.charAt(i));
+				if (posting == null) {
+					return new ArrayList<>();
+				}
+				candidates.and(posting);
+			}
+
+			PriorityQueue<Match> matches = new PriorityQueue<>(WORST_FIRST);
+			for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+				String name = lowerCaseNames.get(id);
+				double score = lowerCaseQuery.isEmpty() ? 1.0 : FuzzyMatcher.matchScore(lowerCaseQuery, name);
+				if (score != 0.0) {
+					matches.add(new Match(id, name, score));
+					if (matches.size() > maxResults) {
+						matches.poll();
+					}
+				}
+			}
+
+			List<SymbolInformation> result = new ArrayList<>(matches.size());
+			while (!matches.isEmpty()) {
+				result.add(symbols.get(matches.poll().id));
+			}
+			Collections.reverse(result);
+			return result;
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	private void add(SymbolInformation symbol) {
+		if (ids.containsKey(symbol)) {
+			return;
+		}
+
+		String name = symbol.getName() == null ? "" : symbol.getName().toLowerCase();
+		int id;
+		if (freeIds.isEmpty()) {
+			id = symbols.size();
+			symbols.add(symbol);
+			lowerCaseNames.add(name);
+		} else {
+			id = freeIds.remove(freeIds.size() - 1);
+			symbols.set(id, symbol);
+			lowerCaseNames.set(id, name);
+		}
+
+		ids.put(symbol, id);
+		allIds.set(id);
+		for (int i = 0; i < name.length(); i++) {
+			postings.computeIfAbsent(name.charAt(i), c -> new BitSet()).set(id);
+		}
+	}
+
+	private void remove(SymbolInformation symbol) {
+		Integer id = ids.remove(symbol);
+		if (id != null) {
+			String name = lowerCaseNames.get(id);
+			for (int i = 0; i < name.length(); i++) {
+				BitSet posting = postings.get(name.charAt(i));
+				if (posting != null) {
+					posting.clear(id);
+				}
+			}
+			allIds.clear(id);
+			symbols.set(id, null);
+			lowerCaseNames.set(id, null);
+			freeIds.add(id);
+		}
+	}
+
+}
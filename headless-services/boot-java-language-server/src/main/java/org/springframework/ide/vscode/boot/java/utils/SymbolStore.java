@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.boot.java.utils;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.lsp4j.SymbolInformation;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Stores the symbols of the {@link SpringIndexer} per document.
+ * <p>
+ * The symbols of a document are kept as an immutable list that gets replaced as a whole when the
+ * document is updated, so updating a single document only costs O(symbols-in-doc). Readers never
+ * lock, they either get the immutable list of a single document or an immutable snapshot of all
+ * symbols. The snapshot of all symbols is re-created lazily on the first read after a change.
+ *
+ * @author Martin Lippert
+ */
+public class SymbolStore {
+
+	private static class Snapshot {
+		final long version;
+		final ImmutableList<SymbolInformation> symbols;
+
+		Snapshot(long version, ImmutableList<SymbolInformation> symbols) {
+			this.version = version;
+			this.symbols = symbols;
+		}
+	}
+
+	private final ConcurrentMap<String, ImmutableList<SymbolInformation>> symbolsByDoc = new ConcurrentHashMap<>();
+	private final AtomicLong version = new AtomicLong(0);
+	private volatile Snapshot snapshot = new Snapshot(0, ImmutableList.of());
+
+	/**
+	 * Replaces the symbols of the given document.
+	 *
+	 * @return the previous symbols of the document (empty list if there were none)
+	 */
+	public ImmutableList<SymbolInformation> put(String docURI, Collection<SymbolInformation> symbols) {
+		ImmutableList<SymbolInformation> old = symbols.isEmpty()
+				? symbolsByDoc.remove(docURI)
+				: symbolsByDoc.put(docURI, ImmutableList.copyOf(symbols));
+		version.incrementAndGet();
+		return old == null ? ImmutableList.of() : old;
+	}
+
+	/**
+	 * Removes the symbols of the given document.
+	 *
+	 * @return the previous symbols of the document (empty list if there were none)
+	 */
+	public ImmutableList<SymbolInformation> remove(String docURI) {
+		return put(docURI, ImmutableList.of());
+	}
+
+	/**
+	 * @return the symbols of the given document or <code>null</code> if there are none
+	 */
+	public ImmutableList<SymbolInformation> get(String docURI) {
+		return symbolsByDoc.get(docURI);
+	}
+
+	public boolean contains(String docURI) {
+		return symbolsByDoc.containsKey(docURI);
+	}
+
+	/**
+	 * @return an immutable snapshot of the symbols of all documents
+	 */
+	public ImmutableList<SymbolInformation> getAll() {
+		Snapshot current = snapshot;
+		long currentVersion = version.get();
+		if (current.version != currentVersion) {
+			ImmutableList.Builder<SymbolInformation> builder = ImmutableList.builder();
+			symbolsByDoc.values().forEach(builder::addAll);
+			current = new Snapshot(currentVersion, builder.build());
+			snapshot = current;
+		}
+		return current.symbols;
+	}
+
+}
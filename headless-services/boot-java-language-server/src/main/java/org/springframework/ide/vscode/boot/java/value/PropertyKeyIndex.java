@@ -0,0 +1,356 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.boot.java.value;
+
+import static org.springframework.ide.vscode.commons.yaml.ast.NodeUtil.asScalar;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.springframework.ide.vscode.commons.languageserver.multiroot.WorkspaceFolder;
+import org.springframework.ide.vscode.commons.util.FileObserver;
+import org.springframework.ide.vscode.commons.util.Log;
+import org.springframework.ide.vscode.commons.util.text.TextDocument;
+import org.springframework.ide.vscode.commons.yaml.ast.YamlASTProvider;
+import org.springframework.ide.vscode.commons.yaml.ast.YamlFileAST;
+import org.springframework.ide.vscode.commons.yaml.ast.YamlParser;
+import org.springframework.ide.vscode.java.properties.antlr.parser.AntlrParser;
+import org.springframework.ide.vscode.java.properties.parser.ParseResults;
+import org.springframework.ide.vscode.java.properties.parser.PropertiesAst.KeyValuePair;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+
+/**
+ * Index of the property keys defined in the <code>application*.properties</code> and <code>application*.yml</code>
+ * files of the workspace, so that looking up the references to a property doesn't need to walk and parse all the
+ * files of all the workspace roots again.
+ * <p>
+ * The index is built in the background for all workspace roots and kept up-to-date via the file observer of the
+ * server, re-parsing only the files that got created, changed or deleted.
+ *
+ * @author Martin Lippert
+ */
+public class PropertyKeyIndex {
+
+	private static final List<String> GLOB_PATTERNS = Arrays.asList("**/*application*.properties", "**/*application*.yml");
+
+	private final ExecutorService updateWorker = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "Property Key Index Update Worker");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final List<String> subscriptions = new ArrayList<>();
+	private FileObserver fileObserver;
+
+	private List<Path> roots;
+	private CompletableFuture<Void> initialized;
+	private CompletableFuture<Void> lastUpdate;
+
+	// file URI -> keys defined in that file with the ranges of the keys
+	private final Map<String, Map<String, List<Range>>> keysPerFile = new LinkedHashMap<>();
+	// key -> URIs of the files that define the key
+	private final Map<String, Set<String>> filesPerKey = new LinkedHashMap<>();
+
+	/**
+	 * Builds the index for the given workspace roots in the background. Does nothing if the index got built for
+	 * the same roots already.
+	 */
+	public synchronized CompletableFuture<Void> initialize(Collection<WorkspaceFolder> workspaceRoots) {
+		List<Path> newRoots = toPaths(workspaceRoots);
+		if (initialized == null || !newRoots.equals(roots)) {
+			roots = newRoots;
+			initialized = CompletableFuture.runAsync(() -> scan(newRoots), updateWorker);
+			lastUpdate = initialized;
+		}
+		return initialized;
+	}
+
+	/**
+	 * Starts listening to changes of the property files, once the file observer of the server is available.
+	 */
+	public synchronized void serverInitialized(FileObserver fileObserver) {
+		this.fileObserver = fileObserver;
+		subscriptions.add(fileObserver.onFileCreated(GLOB_PATTERNS, this::fileChanged));
+		subscriptions.add(fileObserver.onFileChanged(GLOB_PATTERNS, this::fileChanged));
+		subscriptions.add(fileObserver.onFileDeleted(GLOB_PATTERNS, this::fileDeleted));
+	}
+
+	public synchronized void dispose() {
+		if (fileObserver != null) {
+			subscriptions.forEach(fileObserver::unsubscribe);
+		}
+		subscriptions.clear();
+		updateWorker.shutdownNow();
+	}
+
+	/**
+	 * @return the locations of the given property key in the property files of the given workspace roots, waits
+	 * for the index to be built (or pending updates of the index to be applied) if necessary
+	 */
+	public List<Location> findReferences(Collection<WorkspaceFolder> workspaceRoots, String propertyKey) throws InterruptedException, ExecutionException {
+		initialize(workspaceRoots);
+		getLastUpdate().get();
+
+		List<Location> locations = new ArrayList<>();
+		synchronized (this) {
+			Set<String> files = filesPerKey.get(propertyKey);
+			if (files != null) {
+				for (String file : files) {
+					for (Range range : keysPerFile.get(file).get(propertyKey)) {
+						locations.add(new Location(file, range));
+					}
+				}
+			}
+		}
+		return locations;
+	}
+
+	private synchronized CompletableFuture<Void> getLastUpdate() {
+		return lastUpdate;
+	}
+
+	private synchronized void update(Runnable update) {
+		lastUpdate = CompletableFuture.runAsync(update, updateWorker);
+	}
+
+	private void fileChanged(String docURI) {
+		update(() -> {
+			Path path = toPath(docURI);
+			if (path != null && isPropertiesFile(path) && isInWorkspace(path)) {
+				Map<String, List<Range>> keys = path.toFile().isFile() ? parse(path) : null;
+				String file = path.toUri().toString();
+				synchronized (this) {
+					remove(file);
+					if (keys != null) {
+						add(file, keys);
+					}
+				}
+			}
+		});
+	}
+
+	private void fileDeleted(String docURI) {
+		update(() -> {
+			Path path = toPath(docURI);
+			if (path != null) {
+				synchronized (this) {
+					remove(path.toUri().toString());
+				}
+			}
+		});
+	}
+
+	private void scan(List<Path> scanRoots) {
+		Map<String, Map<String, List<Range>>> keys = new LinkedHashMap<>();
+		for (Path root : scanRoots) {
+			try (Stream<Path> walk = Files.walk(root)) {
+				walk.filter(path -> isPropertiesFile(path))
+					.filter(path -> path.toFile().isFile())
+					.forEach(path -> keys.put(path.toUri().toString(), parse(path)));
+			}
+			catch (Exception e) {
+				Log.log(e);
+			}
+		}
+
+		synchronized (this) {
+			// the roots might have changed in the meantime, the scan for the new roots is queued already
+			if (scanRoots.equals(roots)) {
+				keysPerFile.clear();
+				filesPerKey.clear();
+				keys.forEach(this::add);
+			}
+		}
+	}
+
+	private synchronized boolean isInWorkspace(Path path) {
+		if (roots != null) {
+			for (Path root : roots) {
+				if (path.startsWith(root)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private void add(String file, Map<String, List<Range>> keys) {
+		keysPerFile.put(file, keys);
+		for (String key : keys.keySet()) {
+			filesPerKey.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(file);
+		}
+	}
+
+	private void remove(String file) {
+		Map<String, List<Range>> keys = keysPerFile.remove(file);
+		if (keys != null) {
+			for (String key : keys.keySet()) {
+				Set<String> files = filesPerKey.get(key);
+				if (files != null) {
+					files.remove(file);
+					if (files.isEmpty()) {
+						filesPerKey.remove(key);
+					}
+				}
+			}
+		}
+	}
+
+	public static boolean isPropertiesFile(Path path) {
+		Path fileName = path.getFileName();
+
+		if (fileName != null && (fileName.toString().endsWith(".properties") || fileName.toString().endsWith(".yml"))) {
+			return fileName.toString().contains("application");
+		}
+		else {
+			return false;
+		}
+	}
+
+	private static Map<String, List<Range>> parse(Path path) {
+		String filePath = path.toString();
+		if (filePath.endsWith(".properties")) {
+			return parsePropertiesFile(path);
+		}
+		else if (filePath.endsWith(".yml")) {
+			return parseYMLFile(path);
+		}
+		return new LinkedHashMap<>();
+	}
+
+	private static Map<String, List<Range>> parsePropertiesFile(Path path) {
+		Map<String, List<Range>> keys = new LinkedHashMap<>();
+
+		try {
+			String fileContent = FileUtils.readFileToString(path.toFile());
+
+			ParseResults parseResults = new AntlrParser().parse(fileContent);
+
+			if (parseResults != null && parseResults.ast != null) {
+				TextDocument doc = new TextDocument(path.toUri().toString(), null);
+				doc.setText(fileContent);
+
+				for (KeyValuePair pair : parseResults.ast.getNodes(KeyValuePair.class)) {
+					if (pair.getKey() != null) {
+						int line = doc.getLineOfOffset(pair.getKey().getOffset());
+						int startInLine = pair.getKey().getOffset() - doc.getLineOffset(line);
+						int endInLine = startInLine + (pair.getKey().getLength());
+
+						add(keys, pair.getKey().decode(), new Range(new Position(line, startInLine), new Position(line, endInLine)));
+					}
+				}
+			}
+		}
+		catch (Exception e) {
+			Log.log(e);
+		}
+
+		return keys;
+	}
+
+	private static Map<String, List<Range>> parseYMLFile(Path path) {
+		Map<String, List<Range>> keys = new LinkedHashMap<>();
+
+		try {
+			String fileContent = FileUtils.readFileToString(path.toFile());
+
+			YamlASTProvider parser = new YamlParser(new Yaml());
+
+			TextDocument doc = new TextDocument(path.toUri().toString(), null);
+			doc.setText(fileContent);
+			YamlFileAST ast = parser.getAST(doc);
+
+			List<Node> nodes = ast.getNodes();
+			if (nodes != null) {
+				for (Node node : nodes) {
+					// only the first occurrence of a key within a document counts
+					collectKeys(node, "", new HashSet<>(), keys);
+				}
+			}
+		}
+		catch (Exception e) {
+			Log.log(e);
+		}
+
+		return keys;
+	}
+
+	private static void collectKeys(Node node, String prefix, Set<String> documentKeys, Map<String, List<Range>> keys) {
+		if (node.getNodeId().equals(NodeId.mapping)) {
+			for (NodeTuple entry : ((MappingNode)node).getValue()) {
+				Node keyNode = entry.getKeyNode();
+				String key = asScalar(keyNode);
+
+				if (key != null) {
+					String combinedKey = prefix.length() > 0 ? prefix + "." + key : key;
+
+					if (documentKeys.add(combinedKey)) {
+						Position start = new Position(keyNode.getStartMark().getLine(), keyNode.getStartMark().getColumn());
+						Position end = new Position(keyNode.getEndMark().getLine(), keyNode.getEndMark().getColumn());
+						add(keys, combinedKey, new Range(start, end));
+					}
+
+					collectKeys(entry.getValueNode(), combinedKey, documentKeys, keys);
+				}
+			}
+		}
+	}
+
+	private static void add(Map<String, List<Range>> keys, String key, Range range) {
+		keys.computeIfAbsent(key, k -> new ArrayList<>()).add(range);
+	}
+
+	private static List<Path> toPaths(Collection<WorkspaceFolder> workspaceRoots) {
+		List<Path> paths = new ArrayList<>();
+		for (WorkspaceFolder workspaceRoot : workspaceRoots) {
+			Path path = toPath(workspaceRoot.getUri());
+			if (path != null) {
+				paths.add(path);
+			}
+		}
+		return paths;
+	}
+
+	private static Path toPath(String uri) {
+		try {
+			return Paths.get(new URI(uri)).normalize();
+		}
+		catch (Exception e) {
+			Log.log(e);
+			return null;
+		}
+	}
+
+}
@@ -13,13 +13,16 @@ package org.springframework.ide.vscode.boot.java.value;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
-import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.Annotation;
+import org.eclipse.jdt.core.dom.Expression;
 import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.MemberValuePair;
-import org.eclipse.jdt.core.dom.NodeFinder;
+import org.eclipse.jdt.core.dom.NormalAnnotation;
+import org.eclipse.jdt.core.dom.SingleMemberAnnotation;
 import org.eclipse.jdt.core.dom.StringLiteral;
 import org.eclipse.jdt.core.dom.TypeDeclaration;
 import org.eclipse.lsp4j.Hover;
@@ -27,49 +30,57 @@ import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.json.JSONObject;
 import org.springframework.ide.vscode.boot.java.handlers.HoverProvider;
+import org.springframework.ide.vscode.boot.java.handlers.LiveHoverTarget;
+import org.springframework.ide.vscode.boot.java.livehover.LiveAppSnapshots;
 import org.springframework.ide.vscode.boot.java.livehover.LiveHoverUtils;
+import org.springframework.ide.vscode.commons.boot.app.cli.LiveDataCategory;
 import org.springframework.ide.vscode.commons.boot.app.cli.SpringBootApp;
 import org.springframework.ide.vscode.commons.java.IJavaProject;
 import org.springframework.ide.vscode.commons.util.text.TextDocument;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 /**
  * @author Martin Lippert
  */
 public class ValueHoverProvider implements HoverProvider {
 
-	@Override
-	public Hover provideHover(ASTNode node, Annotation annotation, ITypeBinding type, int offset,
-			TextDocument doc, IJavaProject project, SpringBootApp[] runningApps) {
+	private final LiveAppSnapshots liveAppSnapshots;
 
-		try {
-			ASTNode exactNode = NodeFinder.perform(node, offset, 0);
+	public ValueHoverProvider(LiveAppSnapshots liveAppSnapshots) {
+		this.liveAppSnapshots = liveAppSnapshots;
+	}
 
-			// case: @Value("prefix<*>")
-			if (exactNode != null && exactNode instanceof StringLiteral && exactNode.getParent() instanceof Annotation) {
-				if (exactNode.toString().startsWith("\"") && exactNode.toString().endsWith("\"")) {
-					return provideHover(exactNode.toString(), offset - exactNode.getStartPosition(), exactNode.getStartPosition(), doc, runningApps);
-				}
-			}
-			// case: @Value(value="prefix<*>")
-			else if (exactNode != null && exactNode instanceof StringLiteral && exactNode.getParent() instanceof MemberValuePair
-					&& "value".equals(((MemberValuePair)exactNode.getParent()).getName().toString())) {
-				if (exactNode.toString().startsWith("\"") && exactNode.toString().endsWith("\"")) {
-					return provideHover(exactNode.toString(), offset - exactNode.getStartPosition(), exactNode.getStartPosition(), doc, runningApps);
+	@Override
+	public LiveHoverTarget createTarget(Annotation annotation, ITypeBinding type, TextDocument doc) {
+		ImmutableList.Builder<ValueLiteral> literals = ImmutableList.builder();
+
+		// case: @Value("prefix<*>")
+		if (annotation instanceof SingleMemberAnnotation) {
+			addLiteral(((SingleMemberAnnotation) annotation).getValue(), literals);
+		}
+		// case: @Value(value="prefix<*>")
+		else if (annotation instanceof NormalAnnotation) {
+			for (Object value : ((NormalAnnotation) annotation).values()) {
+				MemberValuePair pair = (MemberValuePair) value;
+				if ("value".equals(pair.getName().toString())) {
+					addLiteral(pair.getValue(), literals);
 				}
 			}
 		}
-		catch (Exception e) {
-			e.printStackTrace();
-		}
 
-		return null;
+		List<ValueLiteral> result = literals.build();
+		return result.isEmpty() ? null : new ValueTarget(result);
 	}
 
-	@Override
-	public Collection<Range> getLiveHoverHints(Annotation annotation, TextDocument doc, SpringBootApp[] runningApps) {
-		return null;
+	private static void addLiteral(Expression expression, ImmutableList.Builder<ValueLiteral> literals) {
+		if (expression instanceof StringLiteral) {
+			String value = ((StringLiteral) expression).getEscapedValue();
+			if (value.startsWith("\"") && value.endsWith("\"")) {
+				literals.add(new ValueLiteral(value, expression.getStartPosition(), expression.getLength()));
+			}
+		}
 	}
 
 	private Hover provideHover(String value, int offset, int nodeStartOffset, TextDocument doc, SpringBootApp[] runningApps) {
@@ -97,7 +108,7 @@ public class ValueHoverProvider implements HoverProvider {
 
 									hover.append(propertyKey + " : " + propertyValue);
 									hover.append(" (from: " + key + ")\n\n");
-									hover.append(LiveHoverUtils.niceAppName(app));
+									hover.append(LiveHoverUtils.niceAppName(app, liveAppSnapshots.get(app)));
 									hover.append("\n\n");
 								}
 							}
@@ -126,7 +137,7 @@ public class ValueHoverProvider implements HoverProvider {
 
 		try {
 			for (SpringBootApp app : runningApps) {
-				String environment = app.getEnvironment();
+				String environment = liveAppSnapshots.get(app).getEnvironment();
 				if (environment != null) {
 					JSONObject env = new JSONObject(environment);
 					if (env != null) {
@@ -201,15 +212,59 @@ public class ValueHoverProvider implements HoverProvider {
 	}
 
 	@Override
-	public Hover provideHover(ASTNode node, TypeDeclaration typeDeclaration, ITypeBinding type, int offset,
-			TextDocument doc, IJavaProject project, SpringBootApp[] runningApps) {
+	public LiveHoverTarget createTarget(TypeDeclaration typeDeclaration, TextDocument doc) {
 		return null;
 	}
 
 	@Override
-	public Collection<Range> getLiveHoverHints(TypeDeclaration typeDeclaration, TextDocument doc,
-			SpringBootApp[] runningApps) {
-		return null;
+	public Set<LiveDataCategory> getLiveHintDataForAnnotations() {
+		return ImmutableSet.of();
+	}
+
+	@Override
+	public Set<LiveDataCategory> getLiveHintDataForTypes() {
+		return ImmutableSet.of();
+	}
+
+	private static class ValueLiteral {
+
+		final String value;
+		final int start;
+		final int length;
+
+		ValueLiteral(String value, int start, int length) {
+			this.value = value;
+			this.start = start;
+			this.length = length;
+		}
+	}
+
+	/**
+	 * Shows the values of the property the hover offset points to, if the offset is within one of the
+	 * string literals of the annotation.
+	 */
+	private class ValueTarget implements LiveHoverTarget {
+
+		private final List<ValueLiteral> literals;
+
+		ValueTarget(List<ValueLiteral> literals) {
+			this.literals = literals;
+		}
+
+		@Override
+		public Collection<Range> getLiveHoverHints(TextDocument doc, SpringBootApp[] runningApps) {
+			return null;
+		}
+
+		@Override
+		public Hover provideHover(int offset, TextDocument doc, IJavaProject project, SpringBootApp[] runningApps) {
+			for (ValueLiteral literal : literals) {
+				if (offset >= literal.start && offset <= literal.start + literal.length) {
+					return ValueHoverProvider.this.provideHover(literal.value, offset - literal.start, literal.start, doc, runningApps);
+				}
+			}
+			return null;
+		}
 	}
 
 }
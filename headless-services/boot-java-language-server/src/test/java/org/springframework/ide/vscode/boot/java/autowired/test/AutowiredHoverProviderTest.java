@@ -121,7 +121,7 @@ public class AutowiredHoverProviderTest {
 				"}\n"
 		);
 
-		editor.assertHighlights("@Component", "@Autowired");
+		editor.assertLatestHighlights("@Component", "@Autowired");
 		editor.assertTrimmedHover("@Autowired",
 				"**Injection report for Bean [id: autowiredClass, type: `com.example.AutowiredClass`]**\n" +
 				"\n" +
@@ -155,7 +155,7 @@ public class AutowiredHoverProviderTest {
 				"}\n"
 		);
 
-		editor.assertHighlights(/*MONE*/);
+		editor.assertLatestHighlights(/*MONE*/);
 		editor.assertNoHover("@Autowired");
 	}
 
@@ -196,7 +196,7 @@ public class AutowiredHoverProviderTest {
 				"}\n"
 		);
 
-		editor.assertHighlights(/*MONE*/);
+		editor.assertLatestHighlights(/*MONE*/);
 		editor.assertNoHover("@Autowired");
 	}
 
@@ -241,7 +241,7 @@ public class AutowiredHoverProviderTest {
 				"}\n"
 		);
 
-		editor.assertHighlights("@Component");
+		editor.assertLatestHighlights("@Component");
 		editor.assertNoHover("@Autowired");
 	}
 
@@ -298,7 +298,7 @@ public class AutowiredHoverProviderTest {
 				"\n" +
 				"}"
 		);
-		editor.assertHighlights("@Component", "@Autowired", "@Autowired");
+		editor.assertLatestHighlights("@Component", "@Autowired", "@Autowired");
 		for (int i = 1; i <= 2; i++) {
 			editor.assertHoverContains("@Autowired", i,
 					"Bean [id: defaultFoo, type: `com.example.FooImplementation`] got autowired with:\n" +
@@ -351,7 +351,7 @@ public class AutowiredHoverProviderTest {
 				"	\n" +
 				"}"
 		);
-		editor.assertHighlights("@Controller", "@Autowired");
+		editor.assertLatestHighlights("@Controller", "@Autowired");
 		editor.assertHoverContains("@Autowired",
 				"Bean [id: myController, type: `com.example.MyController`] got autowired with:\n" +
 				"\n" +
@@ -333,7 +333,7 @@ public class ConditionalsLiveHoverTest {
 
 		Editor editor = harness.newEditor( LanguageId.JAVA,  content, docUri);
 
-		editor.assertHighlights("@ConditionalOnBean", "@ConditionalOnWebApplication",
+		editor.assertLatestHighlights("@ConditionalOnBean", "@ConditionalOnWebApplication",
 				"@ConditionalOnJava(value=ConditionalOnJava.JavaVersion.EIGHT)", "@ConditionalOnMissingClass",
 				"@ConditionalOnExpression");
 
@@ -378,7 +378,7 @@ public class ConditionalsLiveHoverTest {
 
 		Editor editor = harness.newEditor( LanguageId.JAVA,  content, docUri);
 
-		editor.assertHighlights("@ConditionalOnClass(name=\"java.lang.String2\")");
+		editor.assertLatestHighlights("@ConditionalOnClass(name=\"java.lang.String2\")");
 
 	}
 
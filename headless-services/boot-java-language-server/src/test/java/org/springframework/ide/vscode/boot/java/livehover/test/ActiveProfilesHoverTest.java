@@ -63,7 +63,7 @@ public class ActiveProfilesHoverTest {
 		String[] hoverSites = {
 				"@Profile", "local-profile", "testing-profile"
 		};
-		editor.assertHighlights(
+		editor.assertLatestHighlights(
 				hoverSites
 		);
 		for (String hoverOver : hoverSites) {
@@ -100,7 +100,7 @@ public class ActiveProfilesHoverTest {
 				"}"
 		);
 		editor.assertHoverContains("@Profile", "Consider adding `spring-boot-actuator` as a dependency");
-		editor.assertHighlights(/*NONE*/);
+		editor.assertLatestHighlights(/*NONE*/);
 	}
 
 	@Test
@@ -132,7 +132,7 @@ public class ActiveProfilesHoverTest {
 				"}"
 		);
 
-		editor.assertHighlights("@Profile", "fancy");
+		editor.assertLatestHighlights("@Profile", "fancy");
 		editor.assertHoverContains("@Profile", "Unknown");
 		editor.assertHoverContains("@Profile", "fancy");
 	}
@@ -152,6 +152,6 @@ public class ActiveProfilesHoverTest {
 				"}"
 		);
 		editor.assertNoHover("@Profile");
-		editor.assertHighlights(/*NONE*/);
+		editor.assertLatestHighlights(/*NONE*/);
 	}
 }
@@ -67,7 +67,7 @@ public class ActuatorWarningHoverTest {
 				"}"
 		);
 
-		editor.assertHighlights(/*NONE*/);
+		editor.assertLatestHighlights(/*NONE*/);
 		editor.assertHoverContains("@Profile", "No live hover information");
 		editor.assertHoverContains("@Profile", "Consider adding `spring-boot-actuator` as a dependency to your project `"+projectName+"`");
 	}
@@ -95,7 +95,7 @@ public class ActuatorWarningHoverTest {
 				"}"
 		);
 
-		editor.assertHighlights(/*NONE*/);
+		editor.assertLatestHighlights(/*NONE*/);
 		editor.assertNoHover("@Profile");
 	}
 
@@ -130,7 +130,7 @@ public class ActuatorWarningHoverTest {
 				"	}\n" +
 				"}"
 		);
-		editor.assertHighlights(/*NONE*/);
+		editor.assertLatestHighlights(/*NONE*/);
 		editor.assertNoHover("@Bean");
 	}
 
@@ -168,7 +168,7 @@ public class ActuatorWarningHoverTest {
 				"	}\n" +
 				"}"
 		);
-		editor.assertHighlights(/*NONE*/);
+		editor.assertLatestHighlights(/*NONE*/);
 		editor.assertHoverContains("@Bean", "No live hover information");
 		editor.assertNoHover("the-bean-name");
 	}
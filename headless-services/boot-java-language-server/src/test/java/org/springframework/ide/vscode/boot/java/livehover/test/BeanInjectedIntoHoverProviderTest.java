@@ -92,7 +92,7 @@ public class BeanInjectedIntoHoverProviderTest {
 				"	}\n" +
 				"}"
 		);
-		editor.assertHighlights("@Bean");
+		editor.assertLatestHighlights("@Bean");
 		editor.assertTrimmedHover("@Bean",
 				"**Injection report for Bean [id: myFoo]**\n" +
 				"\n" +
@@ -151,7 +151,7 @@ public class BeanInjectedIntoHoverProviderTest {
 					"	}\n" +
 					"}"
 			);
-			editor.assertHighlights("@Bean");
+			editor.assertLatestHighlights("@Bean");
 			editor.assertTrimmedHover("@Bean",
 					"**Injection report for Bean [id: beanId]**\n" +
 					"\n" +
@@ -206,7 +206,7 @@ public class BeanInjectedIntoHoverProviderTest {
 				"	}\n" +
 				"}"
 		);
-		editor.assertHighlights("@Bean");
+		editor.assertLatestHighlights("@Bean");
 		editor.assertTrimmedHover("@Bean",
 				"**Injection report for Bean [id: fooImplementation]**\n" +
 				"\n" +
@@ -266,7 +266,7 @@ public class BeanInjectedIntoHoverProviderTest {
 				"	}\n"	 +
 				"}"
 		);
-		editor.assertHighlights("@Bean");
+		editor.assertLatestHighlights("@Bean");
 		editor.assertTrimmedHover("@Bean",
 				"**Injection report for Bean [id: fooImplementation]**\n" +
 				"\n" +
@@ -320,7 +320,7 @@ public class BeanInjectedIntoHoverProviderTest {
 				"	}\n" +
 				"}"
 		);
-		editor.assertHighlights("@Bean");
+		editor.assertLatestHighlights("@Bean");
 		editor.assertTrimmedHover("@Bean",
 				"**Injection report for Bean [id: fooImplementation]**\n" +
 				"\n" +
@@ -374,7 +374,7 @@ public class BeanInjectedIntoHoverProviderTest {
 				"	}\n" +
 				"}"
 		);
-		editor.assertHighlights("@Bean");
+		editor.assertLatestHighlights("@Bean");
 		editor.assertTrimmedHover("@Bean",
 				"**Injection report for Bean [id: fooImplementation]**\n" +
 				"\n" +
@@ -432,7 +432,7 @@ public class BeanInjectedIntoHoverProviderTest {
 				"	}\n" +
 				"}"
 		);
-		editor.assertHighlights("@Bean");
+		editor.assertLatestHighlights("@Bean");
 		editor.assertTrimmedHover("@Bean",
 				"**Injection report for Bean [id: fooImplementation]**\n" +
 				"\n" +
@@ -479,7 +479,7 @@ public class BeanInjectedIntoHoverProviderTest {
 				"	}\n" +
 				"}"
 		);
-		editor.assertHighlights(/*NONE*/);
+		editor.assertLatestHighlights(/*NONE*/);
 		editor.assertNoHover("@Bean");
 	}
 
@@ -501,7 +501,7 @@ public class BeanInjectedIntoHoverProviderTest {
 				"	}\n" +
 				"}"
 		);
-		editor.assertHighlights(/*NONE*/);
+		editor.assertLatestHighlights(/*NONE*/);
 		editor.assertNoHover("@Bean");
 	}
 }
@@ -104,7 +104,7 @@ public class ComponentInjectionsHoverProviderTest {
 				"	}\n" +
 				"}\n"
 		);
-		editor.assertHighlights("@Component");
+		editor.assertLatestHighlights("@Component");
 		editor.assertTrimmedHover("@Component",
 				"**Injection report for Bean [id: fooImplementation, type: `com.example.FooImplementation`]**\n" +
 				"\n" +
@@ -156,7 +156,7 @@ public class ComponentInjectionsHoverProviderTest {
 				"	}\n" +
 				"}\n"
 		);
-		editor.assertHighlights("@Component");
+		editor.assertLatestHighlights("@Component");
 		editor.assertTrimmedHover("@Component",
 				"**Injection report for Bean [id: fooImplementation, type: `com.example.FooImplementation`]**\n" +
 				"\n" +
@@ -211,7 +211,7 @@ public class ComponentInjectionsHoverProviderTest {
 				"	}\n" +
 				"}\n"
 		);
-		editor.assertHighlights("@Component");
+		editor.assertLatestHighlights("@Component");
 		editor.assertTrimmedHover("@Component",
 				"**Injection report for Bean [id: fooImplementation, type: `com.example.FooImplementation`]**\n" +
 				"\n" +
@@ -270,7 +270,7 @@ public class ComponentInjectionsHoverProviderTest {
 				"	}\n" +
 				"}\n"
 		);
-		editor.assertHighlights("@Component");
+		editor.assertLatestHighlights("@Component");
 		editor.assertTrimmedHover("@Component",
 				"**Injection report for Bean [id: fooImplementation, type: `com.example.FooImplementation`]**\n" +
 				"\n" +
@@ -341,7 +341,7 @@ public class ComponentInjectionsHoverProviderTest {
 				"	}\n" +
 				"}\n"
 		);
-		editor.assertHighlights("@Component");
+		editor.assertLatestHighlights("@Component");
 		editor.assertHoverExactText("@Component",
 				"**Injection report for Bean [id: fooImplementation, type: `com.example.FooImplementation`]**\n" +
 				"\n" +
@@ -401,7 +401,7 @@ public class ComponentInjectionsHoverProviderTest {
 				"	}\n" +
 				"}\n"
 		);
-		editor.assertHighlights("@Component");
+		editor.assertLatestHighlights("@Component");
 		editor.assertTrimmedHover("@Component",
 				"**Injection report for Bean [id: alternateFooImplementation, type: `com.example.FooImplementation`]**\n" +
 				"\n" +
@@ -450,7 +450,7 @@ public class ComponentInjectionsHoverProviderTest {
 				"	}\n" +
 				"}\n"
 		);
-		editor.assertHighlights(/*MONE*/);
+		editor.assertLatestHighlights(/*MONE*/);
 		editor.assertNoHover("@Component");
 	}
 
@@ -470,7 +470,7 @@ public class ComponentInjectionsHoverProviderTest {
 				"	}\n" +
 				"}\n"
 		);
-		editor.assertHighlights(/*MONE*/);
+		editor.assertLatestHighlights(/*MONE*/);
 		editor.assertNoHover("@Component");
 	}
 
@@ -515,7 +515,7 @@ public class ComponentInjectionsHoverProviderTest {
 				"	}\n" +
 				"}\n"
 		);
-		editor.assertHighlights("@Component");
+		editor.assertLatestHighlights("@Component");
 		editor.assertTrimmedHover("@Component",
 				"**Injection report for Bean [id: autowiredClass, type: `com.example.AutowiredClass`]**\n" +
 				"\n" +
@@ -575,7 +575,7 @@ public class ComponentInjectionsHoverProviderTest {
 				"	}\n" +
 				"}\n"
 		);
-		editor.assertHighlights("@Component", "@Autowired");
+		editor.assertLatestHighlights("@Component", "@Autowired");
 		editor.assertTrimmedHover("@Component",
 				"**Injection report for Bean [id: autowiredClass, type: `com.example.AutowiredClass`]**\n" +
 				"\n" +
@@ -618,7 +618,7 @@ public class ComponentInjectionsHoverProviderTest {
 				"	}\n" +
 				"}\n"
 		);
-		editor.assertHighlights("@SpringBootApplication");
+		editor.assertLatestHighlights("@SpringBootApplication");
 		editor.assertHoverContains("@SpringBootApplication",
 				"**Injection report for Bean [id: demoApplication, type: `com.example.DemoApplication`]**"
 		);
@@ -659,7 +659,7 @@ public class ComponentInjectionsHoverProviderTest {
 				"	}\n" +
 				"}\n"
 		);
-		editor.assertHighlights("@SpringBootApplication");
+		editor.assertLatestHighlights("@SpringBootApplication");
 		editor.assertHoverContains("@SpringBootApplication",
 				"**Injection report for Bean [id: demoApplication.InnerClass, type: `com.example.DemoApplication.InnerClass`]**"
 		);
@@ -703,7 +703,7 @@ public class ComponentInjectionsHoverProviderTest {
 				"	}\n" +
 				"}\n"
 		);
-		editor.assertHighlights("@SpringBootApplication");
+		editor.assertLatestHighlights("@SpringBootApplication");
 		editor.assertHoverContains("@SpringBootApplication",
 				"**Injection report for Bean [id: demoApplication.InnerClass.InnerInnerClass, type: `com.example.DemoApplication.InnerClass.InnerInnerClass`]**"
 		);
@@ -86,7 +86,7 @@ public class FunctionInjectionsHoverProviderTest {
 				"}\n" +
 				""
 		);
-		editor.assertHighlights();
+		editor.assertLatestHighlights();
 		editor.assertNoHover("ScannedRandomClass");
 	}
 
@@ -133,7 +133,7 @@ public class FunctionInjectionsHoverProviderTest {
 				"}\n" +
 				""
 		);
-		editor.assertHighlights("ScannedFunctionClass");
+		editor.assertLatestHighlights("ScannedFunctionClass");
 		editor.assertTrimmedHover("ScannedFunctionClass",
 				"**Injection report for Bean [id: scannedFunctionClass, type: `com.example.ScannedFunctionClass`]**\n" +
 				"\n" +
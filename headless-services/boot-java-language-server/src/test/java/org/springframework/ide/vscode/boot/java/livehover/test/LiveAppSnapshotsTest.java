@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.boot.java.livehover.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.ide.vscode.boot.java.livehover.LiveAppSnapshots;
+import org.springframework.ide.vscode.commons.boot.app.cli.LiveAppCircuitBreaker;
+import org.springframework.ide.vscode.commons.boot.app.cli.LiveAppSnapshot;
+import org.springframework.ide.vscode.commons.boot.app.cli.LiveDataCategory;
+import org.springframework.ide.vscode.commons.boot.app.cli.SpringBootApp;
+import org.springframework.ide.vscode.commons.boot.app.cli.livebean.LiveBeansModel;
+import org.springframework.ide.vscode.project.harness.MockRunningAppProvider;
+import org.springframework.ide.vscode.project.harness.MockRunningAppProvider.MockAppBuilder;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * @author Martin Lippert
+ */
+public class LiveAppSnapshotsTest {
+
+	private final LiveAppSnapshots liveAppSnapshots = new LiveAppSnapshots();
+
+	@After
+	public void tearDown() {
+		liveAppSnapshots.dispose();
+	}
+
+	@Test
+	public void snapshotSharedPerTick() throws Exception {
+		MockAppBuilder builder = new MockRunningAppProvider().builder()
+				.processId("22022")
+				.processName("foo.bar.RunningApp")
+				.profiles("testing-profile");
+		SpringBootApp app = builder.app;
+
+		LiveAppSnapshot snapshot = liveAppSnapshots.get(app);
+		List<String> profiles = snapshot.getActiveProfiles();
+		assertEquals(ImmutableList.of("testing-profile"), profiles);
+		assertSame(snapshot, liveAppSnapshots.get(app));
+
+		// unchanged data in the next tick keeps the same data objects
+		liveAppSnapshots.newTick();
+		assertSame(profiles, liveAppSnapshots.get(app).getActiveProfiles());
+
+		// changed data results in new data objects
+		builder.profiles("testing-profile", "local-profile");
+		liveAppSnapshots.newTick();
+		List<String> changed = liveAppSnapshots.get(app).getActiveProfiles();
+		assertNotSame(profiles, changed);
+		assertEquals(ImmutableList.of("testing-profile", "local-profile"), changed);
+	}
+
+	@Test
+	public void changedBeanAliasesResultInNewBeansModel() throws Exception {
+		MockAppBuilder builder = new MockRunningAppProvider().builder()
+				.processId("22028")
+				.processName("foo.bar.AliasedApp")
+				.beans("[{\"context\":\"app\",\"beans\":[{\"bean\":\"myBean\",\"aliases\":[\"first\"],\"scope\":\"singleton\",\"type\":\"foo.MyBean\",\"dependencies\":[]}]}]");
+		SpringBootApp app = builder.app;
+
+		LiveBeansModel beans = liveAppSnapshots.get(app).getBeans();
+		assertEquals(ImmutableList.of("first"), ImmutableList.copyOf(beans.getBeansOfName("myBean").get(0).getAliases()));
+
+		builder.beans("[{\"context\":\"app\",\"beans\":[{\"bean\":\"myBean\",\"aliases\":[\"second\"],\"scope\":\"singleton\",\"type\":\"foo.MyBean\",\"dependencies\":[]}]}]");
+		liveAppSnapshots.newTick();
+		LiveBeansModel changed = liveAppSnapshots.get(app).getBeans();
+		assertNotSame(beans, changed);
+		assertEquals(ImmutableList.of("second"), ImmutableList.copyOf(changed.getBeansOfName("myBean").get(0).getAliases()));
+	}
+
+	@Test
+	public void onlyRequestedDataFetched() throws Exception {
+		MockAppBuilder builder = new MockRunningAppProvider().builder()
+				.processId("22023")
+				.processName("foo.bar.OtherRunningApp")
+				.profiles("testing-profile");
+		SpringBootApp app = builder.app;
+
+		LiveAppSnapshot snapshot = liveAppSnapshots.get(app);
+		snapshot.getFingerprint(EnumSet.of(LiveDataCategory.PROFILES));
+		snapshot.getActiveProfiles();
+
+		assertTrue(snapshot.isFetched(LiveDataCategory.PROFILES));
+		assertFalse(snapshot.isFetched(LiveDataCategory.CONDITIONALS));
+		assertFalse(snapshot.isFetched(LiveDataCategory.BEANS));
+		verify(app, times(1)).getActiveProfiles();
+		verify(app, never()).getLiveConditionals();
+		verify(app, never()).getBeans();
+	}
+
+	@Test
+	public void snapshotsNotSharedBetweenInstances() throws Exception {
+		SpringBootApp app = new MockRunningAppProvider().builder()
+				.processId("22024")
+				.processName("foo.bar.YetAnotherRunningApp")
+				.profiles("testing-profile")
+				.app;
+
+		LiveAppSnapshots otherSnapshots = new LiveAppSnapshots();
+		try {
+			LiveAppSnapshot snapshot = liveAppSnapshots.get(app);
+			assertNotSame(snapshot, otherSnapshots.get(app));
+
+			// a new tick of one instance doesn't replace the snapshots of the other
+			otherSnapshots.newTick();
+			assertSame(snapshot, liveAppSnapshots.get(app));
+		}
+		finally {
+			otherSnapshots.dispose();
+		}
+	}
+
+	@Test
+	public void circuitBreakersSurviveClear() throws Exception {
+		SpringBootApp app = new MockRunningAppProvider().builder()
+				.processId("22027")
+				.processName("foo.bar.MisbehavingApp")
+				.app;
+
+		LiveAppCircuitBreaker circuitBreaker = liveAppSnapshots.get(app).getCircuitBreaker();
+		liveAppSnapshots.clear();
+		assertSame(circuitBreaker, liveAppSnapshots.get(app).getCircuitBreaker());
+	}
+
+	@Test
+	public void appsFetchedInParallel() throws Exception {
+		MockRunningAppProvider provider = new MockRunningAppProvider();
+		SpringBootApp app1 = provider.builder().processId("22025").processName("foo.bar.FirstApp").app;
+		SpringBootApp app2 = provider.builder().processId("22026").processName("foo.bar.SecondApp").app;
+
+		// each app only answers once the other one got asked as well, which never happens if they are fetched one after the other
+		CyclicBarrier barrier = new CyclicBarrier(2);
+		when(app1.getActiveProfiles()).thenAnswer(invocation -> {
+			barrier.await(2, TimeUnit.SECONDS);
+			return ImmutableList.of("first-profile");
+		});
+		when(app2.getActiveProfiles()).thenAnswer(invocation -> {
+			barrier.await(2, TimeUnit.SECONDS);
+			return ImmutableList.of("second-profile");
+		});
+
+		liveAppSnapshots.fetch(new SpringBootApp[] { app1, app2 }, EnumSet.of(LiveDataCategory.PROFILES));
+
+		LiveAppSnapshot snapshot1 = liveAppSnapshots.get(app1);
+		LiveAppSnapshot snapshot2 = liveAppSnapshots.get(app2);
+		assertTrue(snapshot1.isFetched(LiveDataCategory.PROFILES));
+		assertTrue(snapshot2.isFetched(LiveDataCategory.PROFILES));
+		assertFalse(snapshot1.isStale());
+		assertFalse(snapshot2.isStale());
+		assertEquals(ImmutableList.of("first-profile"), snapshot1.getActiveProfiles());
+		assertEquals(ImmutableList.of("second-profile"), snapshot2.getActiveProfiles());
+	}
+
+}
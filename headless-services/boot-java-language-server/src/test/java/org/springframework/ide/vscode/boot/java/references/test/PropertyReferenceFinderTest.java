@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017 Pivotal, Inc.
+ * Copyright (c) 2017, 2018 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,17 +13,25 @@ package org.springframework.ide.vscode.boot.java.references.test;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
+import java.io.File;
 import java.net.URI;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
+import org.apache.commons.io.FileUtils;
 import org.eclipse.lsp4j.Location;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.ide.vscode.boot.java.value.PropertyKeyIndex;
 import org.springframework.ide.vscode.boot.java.value.ValuePropertyReferencesProvider;
 import org.springframework.ide.vscode.commons.languageserver.multiroot.WorkspaceFolder;
+import org.springframework.ide.vscode.commons.util.FileObserver;
 import org.springframework.ide.vscode.project.harness.ProjectsHarness;
 
 import com.google.common.collect.ImmutableList;
@@ -33,6 +41,9 @@ import com.google.common.collect.ImmutableList;
  */
 public class PropertyReferenceFinderTest {
 
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+
 	@Test
 	public void testFindReferenceAtBeginningPropFile() throws Exception {
 		ValuePropertyReferencesProvider provider = new ValuePropertyReferencesProvider(null);
@@ -171,4 +182,79 @@ public class PropertyReferenceFinderTest {
 		assertEquals(3, location.getRange().getEnd().getLine());
 		assertEquals(6, location.getRange().getEnd().getCharacter());
 	}
+
+	@Test
+	public void testFindReferenceWithinMultipleWorkspaceRoots() throws Exception {
+		ValuePropertyReferencesProvider provider = new ValuePropertyReferencesProvider(null);
+
+		Path propertiesRoot = Paths.get(ProjectsHarness.class.getResource("/test-property-files/simple-case/").toURI());
+		Path ymlRoot = Paths.get(ProjectsHarness.class.getResource("/test-property-files/simple-yml/").toURI());
+		Collection<WorkspaceFolder> roots = ImmutableList.<WorkspaceFolder>builder()
+				.addAll(wsFolder(propertiesRoot))
+				.addAll(wsFolder(ymlRoot))
+				.build();
+
+		List<? extends Location> locations = provider.findReferencesFromPropertyFiles(roots, "test.property").get();
+		assertEquals(2, locations.size());
+		assertNotNull(getLocation(locations, Paths.get(propertiesRoot.toString(), "application.properties").toUri()));
+		assertNotNull(getLocation(locations, Paths.get(ymlRoot.toString(), "application.yml").toUri()));
+	}
+
+	@Test
+	public void testIndexUpdatedOnFileChanges() throws Exception {
+		TestFileObserver fileObserver = new TestFileObserver();
+		PropertyKeyIndex index = new PropertyKeyIndex();
+		index.serverInitialized(fileObserver);
+		ValuePropertyReferencesProvider provider = new ValuePropertyReferencesProvider(null, index);
+
+		Path root = tempFolder.getRoot().toPath();
+		File file = new File(tempFolder.getRoot(), "application.properties");
+		FileUtils.write(file, "first.property=value\n");
+		URI docURI = file.toURI();
+
+		assertEquals(1, provider.findReferencesFromPropertyFiles(wsFolder(root), "first.property").get().size());
+		assertEquals(0, provider.findReferencesFromPropertyFiles(wsFolder(root), "second.property").get().size());
+
+		FileUtils.write(file, "second.property=value\n");
+		fileObserver.changed.forEach(handler -> handler.accept(docURI.toString()));
+
+		assertEquals(0, provider.findReferencesFromPropertyFiles(wsFolder(root), "first.property").get().size());
+		assertEquals(1, provider.findReferencesFromPropertyFiles(wsFolder(root), "second.property").get().size());
+
+		file.delete();
+		fileObserver.deleted.forEach(handler -> handler.accept(docURI.toString()));
+
+		assertEquals(0, provider.findReferencesFromPropertyFiles(wsFolder(root), "second.property").get().size());
+
+		index.dispose();
+	}
+
+	private static class TestFileObserver implements FileObserver {
+
+		final List<Consumer<String>> changed = new ArrayList<>();
+		final List<Consumer<String>> deleted = new ArrayList<>();
+
+		@Override
+		public String onFileCreated(List<String> globPattern, Consumer<String> handler) {
+			changed.add(handler);
+			return "created";
+		}
+
+		@Override
+		public String onFileChanged(List<String> globPattern, Consumer<String> handler) {
+			changed.add(handler);
+			return "changed";
+		}
+
+		@Override
+		public String onFileDeleted(List<String> globPattern, Consumer<String> handler) {
+			deleted.add(handler);
+			return "deleted";
+		}
+
+		@Override
+		public boolean unsubscribe(String subscriptionId) {
+			return true;
+		}
+	}
 }
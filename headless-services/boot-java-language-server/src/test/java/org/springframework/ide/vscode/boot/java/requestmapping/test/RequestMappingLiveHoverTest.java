@@ -64,7 +64,7 @@ public class RequestMappingLiveHoverTest {
 		harness.intialize(directory);
 
 		Editor editor = harness.newEditorFromFileUri(docUri, LanguageId.JAVA);
-		editor.assertHighlights("@RequestMapping(method=RequestMethod.GET)");
+		editor.assertLatestHighlights("@RequestMapping(method=RequestMethod.GET)");
 		editor.assertHoverContains("@RequestMapping(method=RequestMethod.GET)", "[http://cfapps.io:1111/hello-world](http://cfapps.io:1111/hello-world)\n" +
 				"\n" +
 				"Process [PID=22022, name=`test-request-mapping-live-hover`]");
@@ -95,7 +95,7 @@ public class RequestMappingLiveHoverTest {
 		harness.intialize(directory);
 
 		Editor editor = harness.newEditorFromFileUri(docUri, LanguageId.JAVA);
-		editor.assertHighlights("@RequestMapping(\"/hello\")", "@RequestMapping(\"/goodbye\")");
+		editor.assertLatestHighlights("@RequestMapping(\"/hello\")", "@RequestMapping(\"/goodbye\")");
 
 		editor.assertHoverContains("@RequestMapping(\"/hello\")", "[http://cfapps.io:999/hello](http://cfapps.io:999/hello)\n" +
 				"\n" +
@@ -748,7 +748,7 @@ public class RequestMappingLiveHoverTest {
 
 		Editor editor = harness.newEditorFromFileUri(docUri, LanguageId.JAVA);
 
-		editor.assertHighlights("@RequestMapping(\"/hello\")", "@RequestMapping(\"/goodbye\")",
+		editor.assertLatestHighlights("@RequestMapping(\"/hello\")", "@RequestMapping(\"/goodbye\")",
 				"@GetMapping(\"/person/{name}\")", "@DeleteMapping(\"/delete/{id}\")", "@PostMapping(\"/postHello\")",
 				"@PutMapping(\"/put/{id}\")");
 
@@ -778,7 +778,7 @@ public class RequestMappingLiveHoverTest {
 		harness.intialize(directory);
 
 		Editor editor = harness.newEditorFromFileUri(docUri, LanguageId.JAVA);
-		editor.assertHighlights("@RequestMapping(\"/inner-class\")", "@RequestMapping(\"/inner-inner-class\")");
+		editor.assertLatestHighlights("@RequestMapping(\"/inner-class\")", "@RequestMapping(\"/inner-inner-class\")");
 
 		editor.assertHoverContains("@RequestMapping(\"/inner-class\")", "[http://cfapps.io:1111/inner-class](http://cfapps.io:1111/inner-class)\n" +
 				"\n" +
@@ -10,20 +10,35 @@
  *******************************************************************************/
 package org.springframework.ide.vscode.boot.java.utils.test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.eclipse.jdt.core.dom.Annotation;
 import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.ide.vscode.boot.java.annotations.AnnotationHierarchies;
+import org.springframework.ide.vscode.boot.java.utils.CompilationUnitSnapshot;
+import org.springframework.ide.vscode.boot.java.utils.CompilationUnitSnapshot.AnnotationSnapshot;
+import org.springframework.ide.vscode.boot.java.utils.CompilationUnitSnapshot.Extension;
+import org.springframework.ide.vscode.boot.java.utils.CompilationUnitSnapshot.TypeSnapshot;
+import org.springframework.ide.vscode.boot.java.utils.ParserEnvironments;
+import org.springframework.ide.vscode.boot.java.utils.ParserEnvironments.ParserEnvironment;
 import org.springframework.ide.vscode.commons.java.DelegatingCachedClasspath;
 import org.springframework.ide.vscode.commons.java.IClasspath;
 import org.springframework.ide.vscode.commons.java.IJavaProject;
@@ -33,6 +48,10 @@ import org.springframework.ide.vscode.commons.util.text.TextDocument;
 import org.springframework.ide.vscode.project.harness.BootLanguageServerHarness;
 import org.springframework.ide.vscode.project.harness.ProjectsHarness;
 
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
 /**
  * CU Cache tests
  *
@@ -72,6 +91,166 @@ public class CompilationUnitCacheTest {
 		assertTrue(cu == cuAnother);
 	}
 
+	@Test
+	public void cu_cache_records_stats() throws Exception {
+		harness = BootLanguageServerHarness.builder()
+				.mockDefaults().build();
+		harness.useProject(new IJavaProject() {
+			@Override
+			public IClasspath getClasspath() {
+				return new DelegatingCachedClasspath<>(() -> null, null);
+			}
+		});
+		harness.intialize(null);
+
+		TextDocument doc = new TextDocument(harness.createTempUri(), LanguageId.JAVA, 0, "package my.package\n" +
+				"\n" +
+				"public class SomeClass {\n" +
+				"\n" +
+				"}\n");
+		getCompilationUnit(doc);
+		getCompilationUnit(doc);
+
+		CacheStats stats = harness.getServer().getCompilationUnitCache().getStats();
+		assertEquals(1, stats.missCount());
+		assertEquals(1, stats.hitCount());
+		assertEquals(0, stats.evictionCount());
+	}
+
+	@Test
+	public void cu_cache_records_older_version_as_miss() throws Exception {
+		harness = BootLanguageServerHarness.builder()
+				.mockDefaults().build();
+		harness.useProject(new IJavaProject() {
+			@Override
+			public IClasspath getClasspath() {
+				return new DelegatingCachedClasspath<>(() -> null, null);
+			}
+		});
+		harness.intialize(null);
+
+		String uri = harness.createTempUri();
+		String content = "package my.package\n" +
+				"\n" +
+				"public class SomeClass {\n" +
+				"\n" +
+				"}\n";
+		getCompilationUnit(new TextDocument(uri, LanguageId.JAVA, 0, content));
+		getCompilationUnit(new TextDocument(uri, LanguageId.JAVA, 1, content));
+
+		CacheStats stats = harness.getServer().getCompilationUnitCache().getStats();
+		assertEquals(2, stats.missCount());
+		assertEquals(0, stats.hitCount());
+		assertEquals(2, stats.loadSuccessCount());
+	}
+
+	@Test
+	public void cu_cache_keyed_by_document_version() throws Exception {
+		harness = BootLanguageServerHarness.builder()
+				.mockDefaults().build();
+		harness.useProject(new IJavaProject() {
+			@Override
+			public IClasspath getClasspath() {
+				return new DelegatingCachedClasspath<>(() -> null, null);
+			}
+		});
+		harness.intialize(null);
+
+		String uri = harness.createTempUri();
+		TextDocument doc = new TextDocument(uri, LanguageId.JAVA, 0, "package my.package\n" +
+				"\n" +
+				"public class SomeClass {\n" +
+				"\n" +
+				"}\n");
+		CompilationUnit cu = getCompilationUnit(doc);
+		assertNotNull(cu);
+
+		TextDocument newerDoc = new TextDocument(uri, LanguageId.JAVA, 1, "package my.package\n" +
+				"\n" +
+				"public class SomeOtherClass {\n" +
+				"\n" +
+				"}\n");
+		CompilationUnit newerCu = getCompilationUnit(newerDoc);
+		assertNotNull(newerCu);
+		assertFalse(cu == newerCu);
+		assertTrue(newerCu == getCompilationUnit(newerDoc));
+
+		TextDocument evenNewerDoc = new TextDocument(uri, LanguageId.JAVA, 2, newerDoc.get());
+		assertFalse(newerCu == getCompilationUnit(evenNewerDoc));
+	}
+
+	@Test
+	public void snapshot_extracted_once_per_version() throws Exception {
+		harness = BootLanguageServerHarness.builder()
+				.mockDefaults().build();
+		harness.useProject(new IJavaProject() {
+			@Override
+			public IClasspath getClasspath() {
+				return new DelegatingCachedClasspath<>(() -> null, null);
+			}
+		});
+		harness.intialize(null);
+
+		TextDocument doc = new TextDocument(harness.createTempUri(), LanguageId.JAVA, 0, "package my.pack;\n" +
+				"\n" +
+				"@SomeMarker\n" +
+				"public class SomeClass {\n" +
+				"\n" +
+				"}\n" +
+				"\n" +
+				"@interface SomeMarker {\n" +
+				"}\n");
+
+		CompilationUnitSnapshot snapshot = getSnapshot(doc);
+		assertNotNull(snapshot);
+		assertTrue(snapshot == getSnapshot(doc));
+
+		assertEquals(1, snapshot.getTypes().size());
+		TypeSnapshot type = snapshot.getTypes().get(0);
+		assertEquals("my.pack.SomeClass", type.getQualifiedName());
+		assertEquals(doc.get().indexOf("SomeClass"), type.getNameRange().getStart());
+
+		assertEquals(1, type.getAnnotations().size());
+		AnnotationSnapshot annotation = type.getAnnotations().get(0);
+		assertEquals("my.pack.SomeMarker", annotation.getTypeName());
+		assertEquals("@SomeMarker", annotation.getNameRange().region(doc).toString());
+		assertEquals(snapshot.getAnnotations(), type.getAnnotations());
+	}
+
+	@Test
+	public void snapshot_extensions_extracted_once_per_version() throws Exception {
+		harness = BootLanguageServerHarness.builder()
+				.mockDefaults().build();
+		harness.useProject(new IJavaProject() {
+			@Override
+			public IClasspath getClasspath() {
+				return new DelegatingCachedClasspath<>(() -> null, null);
+			}
+		});
+		harness.intialize(null);
+
+		AtomicInteger extractions = new AtomicInteger();
+		Extension<String> extension = (cu, doc) -> {
+			extractions.incrementAndGet();
+			return ((TypeDeclaration) cu.types().get(0)).getName().getIdentifier() + "@" + doc.getVersion();
+		};
+		harness.getServer().getCompilationUnitCache().addSnapshotExtension(extension);
+
+		TextDocument doc = new TextDocument(harness.createTempUri(), LanguageId.JAVA, 3, "package my.pack;\n" +
+				"\n" +
+				"public class SomeClass {\n" +
+				"\n" +
+				"}\n");
+
+		assertEquals("SomeClass@3", getSnapshot(doc).get(extension));
+		assertEquals("SomeClass@3", getSnapshot(doc).get(extension));
+		assertEquals(1, extractions.get());
+	}
+
+	private CompilationUnitSnapshot getSnapshot(TextDocument doc) {
+		return harness.getServer().getCompilationUnitCache().withSnapshot(doc, snapshot -> snapshot);
+	}
+
 	@Test
 	public void cu_not_generated_without_project() throws Exception {
 		harness.intialize(null);
@@ -200,4 +379,109 @@ public class CompilationUnitCacheTest {
 		assertNotNull(cuAnother);
 		assertFalse(cu == cuAnother);
 	}
+
+	@Test
+	public void parser_environment_reused_until_project_change() throws Exception {
+		File directory = new File(
+				ProjectsHarness.class.getResource("/test-projects/test-request-mapping-live-hover/").toURI());
+		String docUri = "file://" +directory.getAbsolutePath() + "/src/main/java/example/HelloWorldController.java";
+
+		harness.intialize(directory);
+
+		IJavaProject project = harness.getServer().getProjectFinder().find(new TextDocumentIdentifier(docUri)).get();
+		ParserEnvironments environments = harness.getServer().getCompilationUnitCache().getParserEnvironments();
+
+		ParserEnvironment environment = environments.get(project);
+		assertTrue(environment.getClasspathEntries().length > 0);
+		assertTrue(environment == environments.get(project));
+
+		harness.changeFile(directory.toPath().resolve(MavenCore.POM_XML).toUri().toString());
+		assertFalse(environment == environments.get(project));
+	}
+
+	@Test
+	public void parser_environment_picks_up_classpath_entries_created_later() throws Exception {
+		Path outputFolder = Files.createTempDirectory("parser-environment").resolve("classes");
+		IClasspath classpath = mock(IClasspath.class);
+		when(classpath.getClasspathEntries()).thenReturn(ImmutableList.of(outputFolder));
+		IJavaProject project = mock(IJavaProject.class);
+		when(project.getClasspath()).thenReturn(classpath);
+
+		ParserEnvironments environments = new ParserEnvironments();
+		ParserEnvironment environment = environments.get(project);
+		assertEquals(0, environment.getClasspathEntries().length);
+
+		// e.g. the first build of the project after it got opened
+		Files.createDirectories(outputFolder);
+		assertTrue(environment == environments.get(project));
+		assertEquals(ImmutableList.of(outputFolder.toAbsolutePath().toString()), ImmutableList.copyOf(environment.getClasspathEntries()));
+	}
+
+	@Test
+	public void annotation_hierarchies_shared_per_project_until_project_change() throws Exception {
+		File directory = new File(
+				ProjectsHarness.class.getResource("/test-projects/test-request-mapping-live-hover/").toURI());
+		String docUri = "file://" +directory.getAbsolutePath() + "/src/main/java/example/HelloWorldController.java";
+
+		harness.intialize(directory);
+
+		String content = new String(Files.readAllBytes(Paths.get(new URI(docUri))));
+		TextDocument document = new TextDocument(docUri, LanguageId.JAVA, 0, content);
+
+		IJavaProject project = harness.getServer().getProjectFinder().find(new TextDocumentIdentifier(docUri)).get();
+		ParserEnvironments environments = harness.getServer().getCompilationUnitCache().getParserEnvironments();
+
+		CompilationUnit cu = getCompilationUnit(document);
+		AnnotationHierarchies hierarchies = AnnotationHierarchies.of(cu);
+		assertTrue(hierarchies == environments.get(project).getAnnotationHierarchies());
+
+		TypeDeclaration type = (TypeDeclaration) cu.types().get(0);
+		Annotation controller = (Annotation) type.modifiers().get(0);
+		assertTrue(AnnotationHierarchies.isSubtypeOf(controller, "org.springframework.stereotype.Component"));
+		assertEquals(ImmutableList.of("org.springframework.stereotype.Component"),
+				hierarchies.getDirectSuperAnnotationNames("org.springframework.stereotype.Controller"));
+
+		Set<String> supers = hierarchies.getTransitiveSuperAnnotations(controller.resolveTypeBinding());
+		assertEquals(ImmutableSet.of("org.springframework.stereotype.Controller", "org.springframework.stereotype.Component"), supers);
+		assertTrue(supers == hierarchies.getTransitiveSuperAnnotations(controller.resolveTypeBinding()));
+
+		harness.changeFile(directory.toPath().resolve(MavenCore.POM_XML).toUri().toString());
+		AnnotationHierarchies newHierarchies = AnnotationHierarchies.of(getCompilationUnit(document));
+		assertFalse(hierarchies == newHierarchies);
+		assertNull(newHierarchies.getDirectSuperAnnotationNames("org.springframework.stereotype.Controller"));
+	}
+
+	@Test
+	public void annotation_hierarchies_of_source_annotations_follow_edits() throws Exception {
+		File directory = new File(
+				ProjectsHarness.class.getResource("/test-projects/test-request-mapping-live-hover/").toURI());
+		String docUri = "file://" +directory.getAbsolutePath() + "/src/main/java/example/StereotypeUser.java";
+
+		harness.intialize(directory);
+
+		TextDocument document = new TextDocument(docUri, LanguageId.JAVA, 0, "package example;\n" +
+				"\n" +
+				"import org.springframework.stereotype.Component;\n" +
+				"\n" +
+				"@MyStereotype\n" +
+				"public class StereotypeUser {\n" +
+				"}\n" +
+				"\n" +
+				"@Component\n" +
+				"@interface MyStereotype {\n" +
+				"}\n");
+
+		CompilationUnit cu = getCompilationUnit(document);
+		Annotation annotation = (Annotation) ((TypeDeclaration) cu.types().get(0)).modifiers().get(0);
+		assertTrue(AnnotationHierarchies.isSubtypeOf(annotation, "org.springframework.stereotype.Component"));
+		assertEquals(null, AnnotationHierarchies.of(cu).getDirectSuperAnnotationNames("example.MyStereotype"));
+
+		// the annotation isn't a component anymore with the next version of the document
+		TextDocument newerDocument = new TextDocument(docUri, LanguageId.JAVA, 1, document.get().replace("@Component\n", ""));
+		CompilationUnit newerCu = getCompilationUnit(newerDocument);
+		Annotation newerAnnotation = (Annotation) ((TypeDeclaration) newerCu.types().get(0)).modifiers().get(0);
+		assertFalse(AnnotationHierarchies.isSubtypeOf(newerAnnotation, "org.springframework.stereotype.Component"));
+		assertEquals(ImmutableSet.of("example.MyStereotype"), AnnotationHierarchies.of(newerCu).getTransitiveSuperAnnotations(newerAnnotation.resolveTypeBinding()));
+	}
+
 }
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.boot.java.utils.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.ide.vscode.boot.java.utils.ProjectCapabilities;
+import org.springframework.ide.vscode.boot.java.utils.ProjectCapabilities.Capabilities;
+import org.springframework.ide.vscode.commons.java.IClasspath;
+import org.springframework.ide.vscode.commons.java.IJavaProject;
+import org.springframework.ide.vscode.commons.languageserver.java.ProjectObserver;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * @author Martin Lippert
+ */
+public class ProjectCapabilitiesTest {
+
+	private static class TestProjectObserver implements ProjectObserver {
+
+		final List<Listener> listeners = new ArrayList<>();
+
+		@Override
+		public void addListener(Listener listener) {
+			listeners.add(listener);
+		}
+
+		@Override
+		public void removeListener(Listener listener) {
+			listeners.remove(listener);
+		}
+
+		void changed(IJavaProject project) {
+			listeners.forEach(listener -> listener.changed(project));
+		}
+	}
+
+	@Test
+	public void capabilitiesComputedOncePerClasspath() throws Exception {
+		IClasspath classpath = mock(IClasspath.class);
+		when(classpath.getClasspathEntries()).thenReturn(ImmutableList.of(
+				Paths.get("/repo/org/springframework/boot/spring-boot/1.5.7.RELEASE/spring-boot-1.5.7.RELEASE.jar"),
+				Paths.get("/repo/org/springframework/boot/spring-boot-autoconfigure/1.5.7.RELEASE/spring-boot-autoconfigure-1.5.7.RELEASE.jar"),
+				Paths.get("/repo/org/springframework/spring-webmvc/4.3.11.RELEASE/spring-webmvc-4.3.11.RELEASE.jar"),
+				Paths.get("/project/target/classes")));
+		IJavaProject project = mock(IJavaProject.class);
+		when(project.getClasspath()).thenReturn(classpath);
+
+		TestProjectObserver observer = new TestProjectObserver();
+		ProjectCapabilities capabilities = new ProjectCapabilities(observer);
+
+		Capabilities result = capabilities.get(project);
+		assertFalse(result.hasActuator());
+		assertEquals("1.5.7.RELEASE", result.getBootVersion());
+		assertTrue(result.hasWebMvc());
+		assertFalse(result.hasWebFlux());
+		assertSame(result, capabilities.get(project));
+		verify(classpath, times(1)).getClasspathEntries();
+
+		// classpath changes are picked up after the project observer reports the change
+		when(classpath.getClasspathEntries()).thenReturn(ImmutableList.of(
+				Paths.get("/repo/org/springframework/boot/spring-boot-actuator/2.0.0.RELEASE/spring-boot-actuator-2.0.0.RELEASE.jar"),
+				Paths.get("/repo/org/springframework/spring-webflux/5.0.4.RELEASE/spring-webflux-5.0.4.RELEASE.jar")));
+		observer.changed(project);
+
+		result = capabilities.get(project);
+		assertTrue(result.hasActuator());
+		assertNull(result.getBootVersion());
+		assertFalse(result.hasWebMvc());
+		assertTrue(result.hasWebFlux());
+		verify(classpath, times(2)).getClasspathEntries();
+
+		capabilities.dispose();
+		assertTrue(observer.listeners.isEmpty());
+	}
+
+	@Test
+	public void changeDuringComputationIsNotLost() throws Exception {
+		IClasspath classpath = mock(IClasspath.class);
+		IJavaProject project = mock(IJavaProject.class);
+		when(project.getClasspath()).thenReturn(classpath);
+
+		TestProjectObserver observer = new TestProjectObserver();
+		ProjectCapabilities capabilities = new ProjectCapabilities(observer);
+
+		// the project changes while its (old) classpath is looked at
+		Thread change = new Thread(() -> observer.changed(project));
+		when(classpath.getClasspathEntries()).thenAnswer(invocation -> {
+			change.start();
+			Thread.sleep(200);
+			return ImmutableList.of(Paths.get("/repo/org/springframework/spring-webmvc/4.3.11.RELEASE/spring-webmvc-4.3.11.RELEASE.jar"));
+		});
+		assertTrue(capabilities.get(project).hasWebMvc());
+		change.join();
+
+		when(classpath.getClasspathEntries()).thenReturn(ImmutableList.of(
+				Paths.get("/repo/org/springframework/spring-webflux/5.0.4.RELEASE/spring-webflux-5.0.4.RELEASE.jar")));
+		Capabilities result = capabilities.get(project);
+		assertFalse(result.hasWebMvc());
+		assertTrue(result.hasWebFlux());
+
+		capabilities.dispose();
+	}
+
+}
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.boot.java.utils.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Map;
+
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SymbolInformation;
+import org.eclipse.lsp4j.SymbolKind;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.vscode.boot.java.utils.SpringIndexerCache;
+import org.springframework.ide.vscode.boot.java.utils.SpringIndexerCache.CachedDocument;
+import org.springframework.ide.vscode.commons.util.UriUtil;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * @author Martin Lippert
+ */
+public class SpringIndexerCacheTest {
+
+	private File cacheFile;
+	private File javaFile;
+	private String docURI;
+
+	@Before
+	public void setup() throws Exception {
+		File folder = Files.createTempDirectory("spring-indexer-cache-test").toFile();
+		cacheFile = new File(new File(folder, ".sts4-cache"), SpringIndexerCache.SYMBOLS_CACHE_FILE);
+		javaFile = new File(folder, "MainClass.java");
+		Files.write(javaFile.toPath(), "@SpringBootApplication public class MainClass {}".getBytes());
+		docURI = UriUtil.toUri(javaFile).toString();
+	}
+
+	@Test
+	public void testStoreAndLoadSymbols() throws Exception {
+		SymbolInformation symbol = new SymbolInformation("@/mapping1", SymbolKind.Interface,
+				new Location(docURI, new Range(new Position(6, 1), new Position(6, 28))));
+
+		CachedDocument doc = CachedDocument.stamp(docURI, javaFile).withSymbols(ImmutableList.of(symbol));
+		SpringIndexerCache.store(cacheFile, "cp1", ImmutableList.of(doc));
+
+		Map<String, CachedDocument> loaded = SpringIndexerCache.load(cacheFile, "cp1");
+		assertEquals(1, loaded.size());
+		assertTrue(loaded.get(docURI).isUpToDate(javaFile));
+
+		SymbolInformation loadedSymbol = loaded.get(docURI).getSymbols().get(0);
+		assertEquals("@/mapping1", loadedSymbol.getName());
+		assertEquals(SymbolKind.Interface, loadedSymbol.getKind());
+		assertEquals(symbol.getLocation(), loadedSymbol.getLocation());
+	}
+
+	@Test
+	public void testClasspathChangeInvalidatesCache() throws Exception {
+		CachedDocument doc = CachedDocument.stamp(docURI, javaFile);
+		SpringIndexerCache.store(cacheFile, "cp1", ImmutableList.of(doc));
+
+		assertTrue(SpringIndexerCache.load(cacheFile, "cp2").isEmpty());
+	}
+
+	@Test
+	public void testFingerprintIgnoresOutputFolderTimeStamps() throws Exception {
+		File outputFolder = new File(javaFile.getParentFile(), "classes");
+		outputFolder.mkdirs();
+		File jar = new File(javaFile.getParentFile(), "lib.jar");
+		Files.write(jar.toPath(), new byte[] { 1 });
+		String[] classpath = new String[] { outputFolder.getAbsolutePath(), jar.getAbsolutePath() };
+
+		String fingerprint = SpringIndexerCache.classpathFingerprint(classpath);
+		outputFolder.setLastModified(outputFolder.lastModified() - 10000);
+		assertEquals(fingerprint, SpringIndexerCache.classpathFingerprint(classpath));
+
+		jar.setLastModified(jar.lastModified() - 10000);
+		assertFalse(fingerprint.equals(SpringIndexerCache.classpathFingerprint(classpath)));
+	}
+
+	@Test
+	public void testChangedFileIsNotUpToDate() throws Exception {
+		CachedDocument doc = CachedDocument.stamp(docURI, javaFile);
+		Files.write(javaFile.toPath(), "@SpringBootApplication public class MainClass { }".getBytes());
+
+		assertFalse(doc.isUpToDate(javaFile));
+	}
+
+}
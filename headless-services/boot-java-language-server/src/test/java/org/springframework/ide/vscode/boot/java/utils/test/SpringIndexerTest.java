@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017 Pivotal, Inc.
+ * Copyright (c) 2017, 2018 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,10 +17,14 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.net.URI;
+import java.nio.file.Files;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -33,7 +37,11 @@ import org.springframework.ide.vscode.boot.java.BootJavaLanguageServer;
 import org.springframework.ide.vscode.boot.java.handlers.SymbolProvider;
 import org.springframework.ide.vscode.boot.java.requestmapping.RequestMappingSymbolProvider;
 import org.springframework.ide.vscode.boot.java.utils.SpringIndexer;
+import org.springframework.ide.vscode.boot.java.utils.SpringIndexerCache;
+import org.springframework.ide.vscode.commons.java.IJavaProject;
 import org.springframework.ide.vscode.commons.maven.MavenCore;
+import org.springframework.ide.vscode.commons.maven.java.MavenJavaProject;
+import org.springframework.ide.vscode.commons.util.UriUtil;
 import org.springframework.ide.vscode.languageserver.testharness.LanguageServerHarness;
 import org.springframework.ide.vscode.project.harness.BootLanguageServerHarness;
 import org.springframework.ide.vscode.project.harness.ProjectsHarness;
@@ -154,6 +162,27 @@ public class SpringIndexerTest {
 		assertTrue(containsSymbol(allSymbols, "@/classlevel/mapping-subpackage", uriPrefix + "/src/main/java/org/test/sub/MappingClassSubpackage.java", 7, 1, 7, 38));
 	}
 
+	@Test
+	public void testCoalesceUpdatesOfSameDocument() throws Exception {
+		harness.intialize(new File(ProjectsHarness.class.getResource("/test-projects/test-annotation-indexing-parent/test-annotation-indexing/").toURI()));
+
+		File directory = new File(ProjectsHarness.class.getResource("/test-projects/test-annotation-indexing-parent/test-annotation-indexing/").toURI());
+
+		String changedDocURI = "file://" + directory.getAbsolutePath() + "/src/main/java/org/test/SimpleMappingClass.java";
+		String content = FileUtils.readFileToString(new File(new URI(changedDocURI)));
+		CompletableFuture<Void> firstUpdate = indexer().updateDocument(changedDocURI, content.replace("mapping1", "mapping1-FIRST"));
+		CompletableFuture<Void> secondUpdate = indexer().updateDocument(changedDocURI, content.replace("mapping1", "mapping1-SECOND"));
+
+		secondUpdate.get(5, TimeUnit.SECONDS);
+		assertTrue(firstUpdate.isDone());
+
+		List<? extends SymbolInformation> symbols = indexer().getSymbols(changedDocURI);
+		assertEquals(2, symbols.size());
+		assertTrue(containsSymbol(symbols, "@/mapping1-SECOND", changedDocURI, 6, 1, 6, 35));
+		assertTrue(containsSymbol(symbols, "@/mapping2", changedDocURI, 11, 1, 11, 28));
+		assertEquals(0, indexer().getUpdateQueueDepth());
+	}
+
 	@Test
 	public void testNewDocumentCreated() throws Exception {
 		harness.intialize(new File(ProjectsHarness.class.getResource("/test-projects/test-annotation-indexing-parent/test-annotation-indexing/").toURI()));
@@ -324,12 +353,79 @@ public class SpringIndexerTest {
 
 		assertFalse(indexer().isInitializing());
 		harness.changeFile(pomFile.toURI().toString());
-		// Refresh in progress
-		assertTrue(indexer().isInitializing());
+		// Only the changed project gets refreshed, no full re-initialization
+		assertFalse(indexer().isInitializing());
+		assertTrue(indexer().isUpdatingProjects());
 
+		// Symbols stay available while the project is refreshed
+		allSymbols = indexer().getAllSymbols("");
+		assertEquals(6, allSymbols.size());
+
+		indexer().waitForProjectUpdates();
+		assertFalse(indexer().isUpdatingProjects());
 		allSymbols = indexer().getAllSymbols("");
-		assertFalse(indexer().isInitializing());
 		assertEquals(6, allSymbols.size());
 	}
 
+	@Test
+	public void testShardedScanFindsSameSymbolsAsSequentialScan() throws Exception {
+		File directory = new File(ProjectsHarness.class.getResource("/test-projects/test-annotation-indexing-parent/test-annotation-indexing/").toURI());
+
+		Set<SymbolInformation> sharded = scanWith(directory, 1, 4);
+		Set<SymbolInformation> sequential = scanWith(directory, 1000, 1);
+
+		assertEquals(6, sharded.size());
+		assertEquals(sequential, sharded);
+	}
+
+	private Set<SymbolInformation> scanWith(File directory, int shardSize, int parallelism) throws Exception {
+		System.setProperty(SpringIndexer.SHARD_SIZE_PROPERTY, String.valueOf(shardSize));
+		System.setProperty(SpringIndexer.PARALLELISM_PROPERTY, String.valueOf(parallelism));
+		try {
+			harness = BootLanguageServerHarness.builder().build();
+			harness.intialize(directory);
+			indexer().waitForInitializeTask();
+			return new HashSet<>(indexer().getAllSymbols(""));
+		}
+		finally {
+			System.clearProperty(SpringIndexer.SHARD_SIZE_PROPERTY);
+			System.clearProperty(SpringIndexer.PARALLELISM_PROPERTY);
+		}
+	}
+
+	@Test
+	public void testWarmStartUsesCachedSymbols() throws Exception {
+		File parent = Files.createTempDirectory("spring-indexer-warm-start").toFile();
+		FileUtils.copyDirectory(new File(ProjectsHarness.class.getResource("/test-projects/test-annotation-indexing-parent/").toURI()), parent);
+		File directory = new File(parent, "test-annotation-indexing");
+		String docURI = UriUtil.toUri(new File(directory, "src/main/java/org/test/SimpleMappingClass.java")).toString();
+
+		startWithProjectDataCache(directory);
+		assertTrue(containsSymbol(indexer().getSymbols(docURI), "@/mapping1", docURI, 6, 1, 6, 28));
+
+		// a symbol that only exists in the cache shows whether the file got parsed again
+		File cacheFile = directory.toPath().resolve(IJavaProject.PROJECT_CACHE_FOLDER).resolve(SpringIndexerCache.SYMBOLS_CACHE_FILE).toFile();
+		assertTrue(cacheFile.exists());
+		String cached = FileUtils.readFileToString(cacheFile);
+		FileUtils.writeStringToFile(cacheFile, cached.replace("@/mapping1", "@/mapping1-CACHED"));
+
+		startWithProjectDataCache(directory);
+
+		List<? extends SymbolInformation> symbols = indexer().getSymbols(docURI);
+		assertEquals(2, symbols.size());
+		assertTrue(containsSymbol(symbols, "@/mapping1-CACHED", docURI, 6, 1, 6, 28));
+		assertEquals(6, indexer().getAllSymbols("").size());
+	}
+
+	private void startWithProjectDataCache(File directory) throws Exception {
+		MavenJavaProject project = new MavenJavaProject(MavenCore.getDefault(), new File(directory, MavenCore.POM_XML),
+				directory.toPath().resolve(IJavaProject.PROJECT_CACHE_FOLDER));
+		if (!project.getClasspath().isCached()) {
+			project.getClasspath().update();
+		}
+		harness = BootLanguageServerHarness.builder().projectFinder(doc -> Optional.of(project)).build();
+		harness.intialize(directory);
+		indexer().waitForInitializeTask();
+	}
+
 }
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.boot.java.utils.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SymbolInformation;
+import org.eclipse.lsp4j.SymbolKind;
+import org.junit.Test;
+import org.springframework.ide.vscode.boot.java.utils.SymbolSearchIndex;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * @author Martin Lippert
+ */
+public class SymbolSearchIndexTest {
+
+	private static SymbolInformation symbol(String name) {
+		return new SymbolInformation(name, SymbolKind.Interface,
+				new Location("file:///test/Test.java", new Range(new Position(0, 0), new Position(0, 1))));
+	}
+
+	private static List<String> names(List<SymbolInformation> symbols) {
+		return symbols.stream().map(SymbolInformation::getName).collect(Collectors.toList());
+	}
+
+	@Test
+	public void testSubsequenceQuery() throws Exception {
+		SymbolSearchIndex index = new SymbolSearchIndex();
+		index.addAll(ImmutableList.of(symbol("@/mapping1"), symbol("@+ 'simpleMappingClass' SimpleMappingClass"), symbol("@/hello")));
+
+		assertEquals(ImmutableList.of("@/mapping1", "@+ 'simpleMappingClass' SimpleMappingClass"), names(index.search("mapp", 10)));
+		assertEquals(ImmutableList.of("@+ 'simpleMappingClass' SimpleMappingClass"), names(index.search("SMC", 10)));
+		assertTrue(index.search("xyz", 10).isEmpty());
+	}
+
+	@Test
+	public void testRankingAndMaxResults() throws Exception {
+		SymbolSearchIndex index = new SymbolSearchIndex();
+		index.addAll(ImmutableList.of(symbol("@/a-o-x-f-o-o"), symbol("@/foo-bar"), symbol("@/foo")));
+
+		List<String> result = names(index.search("@/foo", 10));
+		assertEquals(ImmutableList.of("@/foo", "@/foo-bar", "@/a-o-x-f-o-o"), result);
+
+		assertEquals(ImmutableList.of("@/foo", "@/foo-bar"), names(index.search("@/foo", 2)));
+	}
+
+	@Test
+	public void testRemoveSymbols() throws Exception {
+		SymbolSearchIndex index = new SymbolSearchIndex();
+		SymbolInformation mapping1 = symbol("@/mapping1");
+		SymbolInformation mapping2 = symbol("@/mapping2");
+		index.addAll(ImmutableList.of(mapping1, mapping2));
+
+		index.removeAll(ImmutableList.of(mapping1));
+		assertEquals(1, index.size());
+		assertEquals(ImmutableList.of("@/mapping2"), names(index.search("mapping", 10)));
+
+		index.addAll(ImmutableList.of(symbol("@/mapping3")));
+		assertEquals(ImmutableList.of("@/mapping2", "@/mapping3"), names(index.search("mapping", 10)));
+	}
+
+}
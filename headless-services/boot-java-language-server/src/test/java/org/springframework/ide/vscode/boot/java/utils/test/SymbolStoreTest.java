@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.boot.java.utils.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SymbolInformation;
+import org.eclipse.lsp4j.SymbolKind;
+import org.junit.Test;
+import org.springframework.ide.vscode.boot.java.utils.SymbolStore;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * @author Martin Lippert
+ */
+public class SymbolStoreTest {
+
+	private static SymbolInformation symbol(String name, String docURI) {
+		return new SymbolInformation(name, SymbolKind.Interface,
+				new Location(docURI, new Range(new Position(0, 0), new Position(0, 1))));
+	}
+
+	@Test
+	public void testSnapshotIsNotAffectedByUpdates() throws Exception {
+		SymbolStore store = new SymbolStore();
+		SymbolInformation mapping1 = symbol("@/mapping1", "file:///a/A.java");
+		SymbolInformation mapping2 = symbol("@/mapping2", "file:///b/B.java");
+
+		store.put("file:///a/A.java", ImmutableList.of(mapping1));
+		List<SymbolInformation> snapshot = store.getAll();
+		assertEquals(ImmutableList.of(mapping1), snapshot);
+		assertSame(snapshot, store.getAll());
+
+		store.put("file:///b/B.java", ImmutableList.of(mapping2));
+		assertEquals(1, snapshot.size());
+		assertEquals(2, store.getAll().size());
+	}
+
+	@Test
+	public void testReplaceAndRemoveDocument() throws Exception {
+		SymbolStore store = new SymbolStore();
+		SymbolInformation mapping1 = symbol("@/mapping1", "file:///a/A.java");
+		SymbolInformation changed = symbol("@/mapping1-CHANGED", "file:///a/A.java");
+
+		assertTrue(store.put("file:///a/A.java", ImmutableList.of(mapping1)).isEmpty());
+		assertEquals(ImmutableList.of(mapping1), store.put("file:///a/A.java", ImmutableList.of(changed)));
+		assertEquals(ImmutableList.of(changed), store.getAll());
+
+		assertEquals(ImmutableList.of(changed), store.remove("file:///a/A.java"));
+		assertFalse(store.contains("file:///a/A.java"));
+		assertNull(store.get("file:///a/A.java"));
+		assertTrue(store.getAll().isEmpty());
+	}
+
+}
@@ -14,6 +14,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
 import org.junit.Test;
+import org.springframework.ide.vscode.boot.java.livehover.LiveAppSnapshots;
 import org.springframework.ide.vscode.boot.java.value.ValueHoverProvider;
 
 /**
@@ -23,7 +24,7 @@ public class ValueHoverTest {
 	
 	@Test
 	public void testGetPropertyFromValue() {
-		ValueHoverProvider provider = new ValueHoverProvider();
+		ValueHoverProvider provider = new ValueHoverProvider(new LiveAppSnapshots());
 
 		assertNull(provider.getPropertyKey("${spring}", 0));
 		assertNull(provider.getPropertyKey("${spring}", 1));
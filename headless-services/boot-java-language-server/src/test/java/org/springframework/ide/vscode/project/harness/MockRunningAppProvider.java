@@ -73,7 +73,7 @@ public class MockRunningAppProvider {
 			return beans(LiveBeansModel.parse(beans));
 		}
 
-		public MockAppBuilder beans(LiveBeansModel beans) {
+		public MockAppBuilder beans(LiveBeansModel beans) throws Exception {
 			when(app.getBeans()).thenReturn(beans);
 			return this;
 		}
@@ -116,12 +116,12 @@ public class MockRunningAppProvider {
 			return this;
 		}
 
-		public MockAppBuilder profiles(String... names) {
+		public MockAppBuilder profiles(String... names) throws Exception {
 			when(app.getActiveProfiles()).thenReturn(ImmutableList.copyOf(names));
 			return this;
 		}
 
-		public MockAppBuilder profilesUnknown() {
+		public MockAppBuilder profilesUnknown() throws Exception {
 			//Note, technically, we don't have to program the mock for this case as it will return
 			// null by default. But it makes test code more readable. Also... how we represent the
 			// 'unknown' case may change in the future and having this method will help fix the tests.
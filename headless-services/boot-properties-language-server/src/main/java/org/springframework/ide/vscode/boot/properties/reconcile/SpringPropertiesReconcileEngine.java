@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014-2016 Pivotal, Inc.
+ * Copyright (c) 2014-2018 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,6 +16,7 @@ import static org.springframework.ide.vscode.boot.properties.reconcile.Applicati
 import static org.springframework.ide.vscode.boot.properties.reconcile.SpringPropertyProblem.problem;
 import static org.springframework.ide.vscode.commons.util.StringUtil.commonPrefix;
 
+import java.util.concurrent.CancellationException;
 import java.util.regex.Pattern;
 
 import org.springframework.ide.vscode.boot.metadata.PropertyInfo;
@@ -117,10 +118,14 @@ public class SpringPropertiesReconcileEngine implements IReconcileEngine {
 						CharSequence validPrefix = commonPrefix(similarEntry.getId(), keyName);
 						problemCollector.accept(problemUnkownProperty(propertyNameRegion, similarEntry, validPrefix));
 					} //end: validProperty==null
+				} catch (CancellationException e) {
+					throw e;
 				} catch (Exception e) {
 					Log.log(e);
 				}
 			});
+		} catch (CancellationException e) {
+			//reconcile superseded by a newer one, nothing to report
 		} catch (Throwable e2) {
 			Log.log(e2);
 		} finally {
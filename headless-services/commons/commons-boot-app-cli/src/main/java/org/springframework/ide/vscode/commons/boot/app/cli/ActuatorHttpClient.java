@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.commons.boot.app.cli;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Fetches the data of actuator endpoints via HTTP.
+ * <p>
+ * Connections are kept alive and re-used between requests (the JDK keeps idle persistent connections around
+ * as long as every response is read completely). Responses that carry an ETag are cached and re-validated with
+ * conditional requests, so unchanged data is not transferred and parsed from the wire again.
+ *
+ * @author Martin Lippert
+ */
+public class ActuatorHttpClient {
+
+	private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(2);
+	private static final Duration READ_TIMEOUT = Duration.ofSeconds(5);
+
+	private static class CachedResponse {
+		final String etag;
+		final String body;
+
+		CachedResponse(String etag, String body) {
+			this.etag = etag;
+			this.body = body;
+		}
+	}
+
+	private final Map<String, CachedResponse> responses = new ConcurrentHashMap<>();
+
+	/**
+	 * @return the body of the response or <code>null</code> if there is no such endpoint (404)
+	 */
+	public String get(String url) throws IOException {
+		HttpURLConnection connection = open(url);
+		connection.setRequestProperty("Accept", "application/json");
+
+		CachedResponse cached = responses.get(url);
+		if (cached != null) {
+			connection.setRequestProperty("If-None-Match", cached.etag);
+		}
+
+		int status = connection.getResponseCode();
+		if (status == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+			consume(connection);
+			return cached.body;
+		}
+		else if (status == HttpURLConnection.HTTP_NOT_FOUND) {
+			consume(connection);
+			responses.remove(url);
+			return null;
+		}
+		else if (status != HttpURLConnection.HTTP_OK) {
+			consume(connection);
+			throw new IOException("Unexpected response from " + url + ": " + status + " " + connection.getResponseMessage());
+		}
+
+		String body;
+		try (InputStream in = connection.getInputStream()) {
+			body = IOUtils.toString(in, StandardCharsets.UTF_8);
+		}
+
+		String etag = connection.getHeaderField("ETag");
+		if (etag != null) {
+			responses.put(url, new CachedResponse(etag, body));
+		} else {
+			responses.remove(url);
+		}
+		return body;
+	}
+
+	/**
+	 * @return <code>true</code> if there is a server responding to requests for the given URL (no matter what
+	 * the response is)
+	 */
+	public boolean isAvailable(String url) {
+		try {
+			HttpURLConnection connection = open(url);
+			connection.setRequestMethod("HEAD");
+			connection.getResponseCode();
+			consume(connection);
+			return true;
+		}
+		catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Forgets the cached responses of all URLs starting with the given prefix.
+	 */
+	public void forget(String urlPrefix) {
+		responses.keySet().removeIf(url -> url.startsWith(urlPrefix));
+	}
+
+	private static HttpURLConnection open(String url) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+		connection.setConnectTimeout((int) CONNECT_TIMEOUT.toMillis());
+		connection.setReadTimeout((int) READ_TIMEOUT.toMillis());
+		connection.setUseCaches(false);
+		return connection;
+	}
+
+	/**
+	 * Reads and closes the rest of the response, otherwise the connection can't be re-used.
+	 */
+	private static void consume(HttpURLConnection connection) {
+		try {
+			InputStream in = connection.getResponseCode() >= 400 ? connection.getErrorStream() : connection.getInputStream();
+			if (in != null) {
+				try {
+					IOUtils.skip(in, Long.MAX_VALUE);
+				} finally {
+					in.close();
+				}
+			}
+		}
+		catch (IOException e) {
+			// connection is not re-used then
+		}
+	}
+
+}
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.commons.boot.app.cli;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.MBeanServerConnection;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+
+import org.springframework.ide.vscode.commons.util.Log;
+
+import com.google.common.base.Supplier;
+
+/**
+ * Keeps one long-lived JMX connection per VM, instead of connecting and disconnecting for every
+ * single request to the actuator endpoints of a running app.
+ * <p>
+ * A connection is created lazily with the first request and re-used until it gets closed explicitly
+ * (when the app is disposed) or fails. If a request fails with an {@link IOException} the connection
+ * is considered broken, it gets closed and the request is retried once with a fresh connection.
+ *
+ * @author Martin Lippert
+ */
+public class JMXConnectionPool {
+
+	@FunctionalInterface
+	public interface ConnectionRequestor<T> {
+		T apply(MBeanServerConnection connection) throws Exception;
+	}
+
+	private final ConcurrentMap<String, JMXConnector> connectors = new ConcurrentHashMap<>();
+
+	/**
+	 * Runs the requestor with the pooled connection of the given VM, connecting to the VM first if there
+	 * is no open connection yet.
+	 *
+	 * @param vmId the key of the connection in the pool
+	 * @param serviceUrl provides the JMX service URL of the VM, only called when a new connection is created
+	 */
+	public <T> T withConnection(String vmId, Supplier<String> serviceUrl, ConnectionRequestor<T> requestor) throws Exception {
+		JMXConnector connector = getConnector(vmId, serviceUrl);
+		try {
+			return requestor.apply(connector.getMBeanServerConnection());
+		}
+		catch (IOException e) {
+			// connection broken (e.g. the app restarted its JMX agent), reconnect once
+			close(vmId, connector);
+			connector = getConnector(vmId, serviceUrl);
+			return requestor.apply(connector.getMBeanServerConnection());
+		}
+	}
+
+	private JMXConnector getConnector(String vmId, Supplier<String> serviceUrl) throws IOException {
+		JMXConnector connector = connectors.get(vmId);
+		if (connector == null) {
+			String address = serviceUrl.get();
+			if (address == null) {
+				throw new IOException("No JMX connector address available for VM: " + vmId);
+			}
+			JMXConnector newConnector = JMXConnectorFactory.connect(new JMXServiceURL(address), null);
+			connector = connectors.putIfAbsent(vmId, newConnector);
+			if (connector == null) {
+				connector = newConnector;
+			}
+			else {
+				// another thread has been faster
+				closeQuietly(newConnector);
+			}
+		}
+		return connector;
+	}
+
+	/**
+	 * Closes the pooled connection of the given VM (if there is one).
+	 */
+	public void close(String vmId) {
+		JMXConnector connector = connectors.remove(vmId);
+		if (connector != null) {
+			closeQuietly(connector);
+		}
+	}
+
+	private void close(String vmId, JMXConnector connector) {
+		if (connectors.remove(vmId, connector)) {
+			closeQuietly(connector);
+		}
+	}
+
+	/**
+	 * Closes all pooled connections.
+	 */
+	public void closeAll() {
+		List<String> vmIds = new ArrayList<>(connectors.keySet());
+		for (String vmId : vmIds) {
+			close(vmId);
+		}
+	}
+
+	public int size() {
+		return connectors.size();
+	}
+
+	private static void closeQuietly(JMXConnector connector) {
+		try {
+			connector.close();
+		}
+		catch (IOException e) {
+			// connection already broken, nothing more to clean up
+		}
+		catch (Exception e) {
+			Log.log(e);
+		}
+	}
+
+}
@@ -0,0 +1,428 @@
+/*******************************************************************************
+ * Copyright (c) 2017, 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.commons.boot.app.cli;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.StringTokenizer;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanServerConnection;
+import javax.management.ObjectName;
+import javax.management.remote.JMXServiceURL;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.ide.vscode.commons.boot.app.cli.livebean.LiveBeansModel;
+import org.springframework.ide.vscode.commons.boot.app.cli.requestmappings.RequestMapping;
+import org.springframework.ide.vscode.commons.util.Log;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.sun.tools.attach.AttachNotSupportedException;
+import com.sun.tools.attach.VirtualMachine;
+import com.sun.tools.attach.VirtualMachineDescriptor;
+
+/**
+ * A Spring Boot app running in a local JVM, attached to via the attach API and accessed via JMX.
+ *
+ * @author Martin Lippert
+ */
+public class JmxSpringBootApp extends SpringBootApp {
+
+	private VirtualMachine vm;
+	private VirtualMachineDescriptor vmd;
+
+	private static final String LOCAL_CONNECTOR_ADDRESS = "com.sun.management.jmxremote.localConnectorAddress";
+
+	private volatile Boolean isSpringBootApp;
+
+	private final Supplier<String> jmxConnect = Suppliers.memoize(() -> {
+		String address = null;
+		try {
+			address = vm.getAgentProperties().getProperty(LOCAL_CONNECTOR_ADDRESS);
+		} catch (Exception e) {
+			//ignore
+		}
+		if (address==null) {
+			try {
+				address = vm.startLocalManagementAgent();
+			} catch (IOException e) {
+				Log.log(e);
+			}
+		}
+		return address;
+	});
+
+	private static JMXConnectionPool connectionPool = new JMXConnectionPool();
+
+	public JmxSpringBootApp(VirtualMachineDescriptor vmd) throws AttachNotSupportedException, IOException {
+		this.vmd = vmd;
+		this.vm = VirtualMachine.attach(vmd);
+		Log.info("SpringBootApp created: "+this);
+	}
+
+	@Override
+	public String getProcessID() {
+		return vmd.id();
+	}
+
+	@Override
+	public String getProcessName() {
+		return vmd.displayName();
+	}
+
+	@Override
+	public String getHost() throws Exception {
+		JMXServiceURL serviceUrl = new JMXServiceURL(jmxConnect.get());
+		return serviceUrl.getHost();
+	}
+
+	@Override
+	public boolean isSpringBootApp() {
+		if (isSpringBootApp==null) {
+			try {
+				isSpringBootApp = !containsSystemProperty("sts4.languageserver.name")
+					&& (
+							isSpringBootAppClasspath() ||
+							isSpringBootAppSysprops()
+					);
+			} catch (Exception e) {
+				//Couldn't determine if the VM is a spring boot app. Could be it already died. Or could be its not accessible (yet).
+				// We will ignore the exception, pretend its not a boot app (most likely isn't) but DO NOT CACHE this result
+				// so it will be retried again on the next polling loop.
+				return false;
+			}
+		}
+		return isSpringBootApp;
+	}
+
+	/**
+	 * @return whether this is a Spring Boot app, or <code>null</code> if that couldn't be determined (yet)
+	 */
+	Boolean getSpringBootAppClassification() {
+		return isSpringBootApp;
+	}
+
+	private boolean isSpringBootAppSysprops() throws IOException {
+		Properties sysprops = this.vm.getSystemProperties();
+		return "org.springframework.boot.loader".equals(sysprops.getProperty("java.protocol.handler.pkgs"));
+	}
+
+	private boolean isSpringBootAppClasspath() throws IOException {
+		Properties props = this.vm.getSystemProperties();
+		String classpath = (String) props.get("java.class.path");
+		String[] cpElements = getClasspath(classpath);
+		return contains(cpElements, "spring-boot");
+	}
+
+
+	public boolean containsSystemProperty(Object key) throws IOException {
+		Properties props = this.vm.getSystemProperties();
+		return props.containsKey(key);
+	}
+
+	@Override
+	public String getPort() throws Exception {
+		return withConnection(this::getPort);
+	}
+
+	@Override
+	public String getEnvironment() throws Exception {
+		Object result = getActuatorDataFromAttribute("org.springframework.boot:type=Endpoint,name=environmentEndpoint", "Data");
+		if (result != null) {
+			String environment = new ObjectMapper().writeValueAsString(result);
+			return environment;
+		}
+
+		result = getActuatorDataFromOperation("org.springframework.boot:type=Endpoint,name=Env", "environment");
+		if (result != null) {
+			String environment = new ObjectMapper().writeValueAsString(result);
+			return environment;
+		}
+
+		return null;
+	}
+
+	private Object getBeansData() throws Exception {
+		//Boot 1.x
+		Object result = getActuatorDataFromAttribute("org.springframework.boot:type=Endpoint,name=beansEndpoint", "Data");
+		if (result != null) {
+			return result;
+		}
+
+		//Boot 2.x
+		return getActuatorDataFromOperation("org.springframework.boot:type=Endpoint,name=Beans", "beans");
+	}
+
+	@Override
+	public LiveBeansModel getBeans() throws Exception {
+		Object data = getBeansData();
+		if (data instanceof Map || data instanceof Collection) {
+			// walk the maps and lists we got via JMX directly, no need to go through a JSON string
+			return LiveBeansModel.parseActuatorData(data);
+		}
+		return LiveBeansModel.parseOrThrow(data != null ? new ObjectMapper().writeValueAsString(data) : null);
+	}
+
+	@Override
+	public Collection<RequestMapping> getRequestMappings() throws Exception {
+		//Boot 1.x
+		Object result = getActuatorDataFromAttribute("org.springframework.boot:type=Endpoint,name=requestMappingEndpoint", "Data");
+		if (result != null) {
+			String mappings = new ObjectMapper().writeValueAsString(result);
+			return parseRequestMappingsJson(mappings, "1.x");
+		}
+
+		//Boot 2.x
+		result = getActuatorDataFromOperation("org.springframework.boot:type=Endpoint,name=Mappings", "mappings");
+		if (result != null) {
+			String mappings = new ObjectMapper().writeValueAsString(result);
+			return parseRequestMappingsJson(mappings, "2.x");
+		}
+
+		return null;
+	}
+
+	@Override
+	public Optional<List<LiveConditional>> getLiveConditionals() throws Exception {
+		return getLiveConditionals(getAutoConfigReport(), getProcessID(), getProcessName());
+	}
+
+	private String getAutoConfigReport() throws Exception {
+		//Boot 1.x
+		Object result = getActuatorDataFromAttribute("org.springframework.boot:type=Endpoint,name=autoConfigurationReportEndpoint", "Data");
+		if (result != null) {
+			String report = new ObjectMapper().writeValueAsString(result);
+			return report;
+		}
+
+		//Boot 2.x
+		result = getActuatorDataFromOperation("org.springframework.boot:type=Endpoint,name=Conditions", "applicationConditionEvaluation");
+		if (result != null) {
+			String report = new ObjectMapper().writeValueAsString(result);
+			return report;
+		}
+
+		return null;
+	}
+
+	protected Object getActuatorDataFromAttribute(String actuatorID, String attribute) throws Exception {
+		return withConnection(connection -> {
+			try {
+				ObjectName objectName = new ObjectName(actuatorID);
+				Object result = connection.getAttribute(objectName, "Data");
+				return result;
+			}
+			catch (InstanceNotFoundException e) {
+			}
+			return null;
+		});
+	}
+
+	protected Object getActuatorDataFromOperation(String actuatorID, String operation) throws Exception {
+		return withConnection(connection -> {
+			try {
+				ObjectName objectName = new ObjectName(actuatorID);
+				Object result = connection.invoke(objectName, operation, null, null);
+				return result;
+			}
+			catch (InstanceNotFoundException e) {
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * Runs the requestor with the pooled JMX connection of this app. The connection is kept open
+	 * until the app is disposed (or the connections get closed via {@link #closeAllConnections()}).
+	 */
+	protected <T> T withConnection(JMXConnectionPool.ConnectionRequestor<T> requestor) throws Exception {
+		if (vmd == null) {
+			throw new IllegalStateException("SpringBootApp already disposed: " + this);
+		}
+		return connectionPool.withConnection(getProcessID(), jmxConnect, requestor);
+	}
+
+	/**
+	 * Closes the pooled JMX connections of all running apps. The connections are re-opened lazily
+	 * with the next request to an app.
+	 */
+	public static void closeAllConnections() {
+		connectionPool.closeAll();
+	}
+
+	/**
+	 * Closes the pooled JMX connection of this app, so that requests that are still blocked on it fail.
+	 * The connection is re-opened lazily with the next request.
+	 */
+	@Override
+	public void resetConnection() {
+		if (vmd != null) {
+			connectionPool.close(getProcessID());
+		}
+	}
+
+	protected boolean contains(String[] cpElements, String element) {
+		for (String cpElement : cpElements) {
+			if (cpElement.contains(element)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	protected String[] getClasspath(String classpath) {
+		List<String> classpathElements = new ArrayList<>();
+		if (classpath != null) {
+			StringTokenizer tokenizer = new StringTokenizer(classpath, File.pathSeparator);
+			while (tokenizer.hasMoreTokens()) {
+				String classpathElement = tokenizer.nextToken();
+				classpathElements.add(classpathElement);
+			}
+		}
+		return classpathElements.toArray(new String[classpathElements.size()]);
+	}
+
+	protected String getPort(MBeanServerConnection connection) throws Exception {
+		String port = getPortViaAdmin(connection);
+		if (port != null) {
+			return port;
+		}
+
+		port = getPortViaActuator(connection);
+		if (port != null) {
+			return port;
+		}
+
+		port = getPortViaTomcatBean(connection);
+		return port;
+	}
+
+	protected String getPortViaAdmin(MBeanServerConnection connection) throws Exception {
+		try {
+			String DEFAULT_OBJECT_NAME = "org.springframework.boot:type=Admin,name=SpringApplication";
+			ObjectName objectName = new ObjectName(DEFAULT_OBJECT_NAME);
+
+			Object o = connection.invoke(objectName,"getProperty", new String[] {"local.server.port"}, new String[] {String.class.getName()});
+			return o.toString();
+		}
+		catch (InstanceNotFoundException e) {
+			return null;
+		}
+	}
+
+	protected String getPortViaActuator(MBeanServerConnection connection) throws Exception {
+		String environment = getEnvironment();
+		if (environment != null) {
+			JSONObject env = new JSONObject(environment);
+			if (env != null) {
+				JSONObject portsObject = env.optJSONObject("server.ports");
+				if (portsObject != null) {
+					String portValue = portsObject.optString("local.server.port");
+					if (portValue!=null) {
+						return portValue;
+					}
+				}
+				//Not found as direct property value... in Boot 2.0 we must look inside the 'propertySources'.
+				//Similar... but structure is more complex.
+				JSONArray propertySources = env.optJSONArray("propertySources");
+				if (propertySources!=null) {
+					for (Object _source : propertySources) {
+						if (_source instanceof JSONObject) {
+							JSONObject source = (JSONObject) _source;
+							String sourceName = source.optString("name");
+							if ("server.ports".equals(sourceName)) {
+								JSONObject props = source.optJSONObject("properties");
+								JSONObject valueObject = props.optJSONObject("local.server.port");
+								if (valueObject!=null) {
+									String portValue = valueObject.optString("value");
+									if (portValue!=null) {
+										return portValue;
+									}
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	protected String getPortViaTomcatBean(MBeanServerConnection connection) throws Exception {
+		try {
+			Set<ObjectName> queryNames = connection.queryNames(null, null);
+
+			for (ObjectName objectName : queryNames) {
+				if (objectName.toString().startsWith("Tomcat") && objectName.toString().contains("type=Connector")) {
+					Object result = connection.getAttribute(objectName, "localPort");
+					if (result != null) {
+						return result.toString();
+					}
+				}
+			}
+		}
+		catch (InstanceNotFoundException e) {
+		}
+		return null;
+	}
+
+	/**
+	 * For testing / investigation purposes. Dumps out as much information as possible
+	 * that can be onbtained from the jvm, without accessing JMX.
+	 */
+	public void dumpJvmInfo() throws IOException {
+		System.out.println("--- vm infos ----");
+		System.out.println("id = "+vm.id());
+		System.out.println("displayName = "+vmd.displayName());
+		dump("agentProperties", vm.getAgentProperties());
+		dump("systemProps", vm.getSystemProperties());
+		System.out.println("-----------------");
+	}
+
+	private void dump(String name, Properties props) {
+		System.out.println(name + " = {");
+		for (Entry<Object, Object> prop : props.entrySet()) {
+			System.out.println("  "+prop.getKey()+" = "+prop.getValue());
+		}
+		System.out.println("}");
+	}
+
+	@Override
+	public void dispose() {
+		if (vmd!=null) {
+			connectionPool.close(getProcessID());
+		}
+		if (vm!=null) {
+			Log.info("SpringBootApp disposed: "+this);
+			try {
+				vm.detach();
+			} catch (Exception e) {
+			}
+			vm = null;
+		}
+		if (vmd!=null) {
+			vmd = null;
+		}
+	}
+
+
+}
\ No newline at end of file
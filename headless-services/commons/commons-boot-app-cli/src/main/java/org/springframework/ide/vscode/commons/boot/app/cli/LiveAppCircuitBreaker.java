@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.commons.boot.app.cli;
+
+import java.io.InterruptedIOException;
+import java.net.SocketException;
+import java.net.UnknownHostException;
+import java.rmi.RemoteException;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.ide.vscode.commons.util.Log;
+
+/**
+ * Guards the calls to a single running app, so that an app that doesn't respond (e.g. because it is suspended
+ * in the debugger or busy with garbage collection) doesn't block the callers.
+ * <p>
+ * Every call has a deadline. When a call doesn't finish in time or too many calls in a row can't reach the app
+ * (connection failures), the breaker opens and rejects all calls to the app for a cool-down period (without
+ * even trying to reach the app). After the cool-down, a single trial call is let through, which closes the
+ * breaker again if the app responds.
+ * <p>
+ * Calls that fail because of the data the app responded with (e.g. data that can't be parsed) don't count as
+ * failures, the app is responding after all. Only the data of such a call is unusable.
+ *
+ * @author Martin Lippert
+ */
+public class LiveAppCircuitBreaker {
+
+	public static final Duration DEFAULT_CALL_TIMEOUT = Duration.ofSeconds(3);
+	public static final Duration DEFAULT_COOL_DOWN = Duration.ofSeconds(30);
+	public static final int DEFAULT_FAILURE_THRESHOLD = 3;
+
+	public enum State {
+		/** calls go through */
+		CLOSED,
+		/** calls are rejected */
+		OPEN,
+		/** cool-down is over, a single trial call is on its way */
+		HALF_OPEN
+	}
+
+	private static final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable, "Live App Call");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final Duration callTimeout;
+	private final Duration coolDown;
+	private final int failureThreshold;
+
+	private State state = State.CLOSED;
+	private int failures = 0;
+	private long openedAt;
+
+	public LiveAppCircuitBreaker() {
+		this(DEFAULT_CALL_TIMEOUT, DEFAULT_COOL_DOWN, DEFAULT_FAILURE_THRESHOLD);
+	}
+
+	public LiveAppCircuitBreaker(Duration callTimeout, Duration coolDown, int failureThreshold) {
+		this.callTimeout = callTimeout;
+		this.coolDown = coolDown;
+		this.failureThreshold = failureThreshold;
+	}
+
+	/**
+	 * Runs the given call to the app, unless the breaker is open.
+	 *
+	 * @param onTimeout invoked when the call didn't finish in time, to release resources the call might still
+	 * be blocked on (e.g. the connection to the app)
+	 * @throws RejectedExecutionException if the breaker is open
+	 * @throws TimeoutException if the call didn't finish in time
+	 * @throws Exception the exception the call failed with (only connection failures count for opening the breaker)
+	 */
+	public <T> T call(Callable<T> call, Runnable onTimeout) throws Exception {
+		if (!allowCall()) {
+			throw new RejectedExecutionException("App is not responding, calls are suspended");
+		}
+
+		Future<T> future = executor.submit(call);
+		try {
+			T result = future.get(callTimeout.toMillis(), TimeUnit.MILLISECONDS);
+			succeeded();
+			return result;
+		}
+		catch (TimeoutException e) {
+			future.cancel(true);
+			timedOut();
+			if (onTimeout != null) {
+				onTimeout.run();
+			}
+			throw e;
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (isConnectionFailure(cause)) {
+				failed();
+			} else {
+				// the app responded, just not with anything useful
+				succeeded();
+			}
+			throw cause instanceof Exception ? (Exception) cause : e;
+		}
+		catch (InterruptedException e) {
+			// the caller got interrupted, nothing wrong with the app
+			future.cancel(true);
+			releaseTrial();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return whether the given failure means that the app couldn't be reached (or the connection to it broke), as
+	 * opposed to the app responding with data that can't be used
+	 */
+	public static boolean isConnectionFailure(Throwable failure) {
+		for (Throwable e = failure; e != null; e = e.getCause() != e ? e.getCause() : null) {
+			if (e instanceof SocketException || e instanceof InterruptedIOException || e instanceof UnknownHostException
+					|| e instanceof RemoteException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public synchronized State getState() {
+		return state;
+	}
+
+	/**
+	 * @return <code>true</code> if the app is considered to be not responding (calls are rejected or a trial
+	 * call is on its way)
+	 */
+	public synchronized boolean isOpen() {
+		return state != State.CLOSED;
+	}
+
+	private synchronized boolean allowCall() {
+		switch (state) {
+		case CLOSED:
+			return true;
+		case OPEN:
+			if (System.currentTimeMillis() - openedAt >= coolDown.toMillis()) {
+				state = State.HALF_OPEN;
+				return true;
+			}
+			return false;
+		default:
+			// trial call is on its way
+			return false;
+		}
+	}
+
+	private synchronized void succeeded() {
+		if (state != State.CLOSED) {
+			Log.info("Running app is responding again, resuming live data updates");
+		}
+		state = State.CLOSED;
+		failures = 0;
+	}
+
+	private synchronized void failed() {
+		failures++;
+		if (state == State.HALF_OPEN || failures >= failureThreshold) {
+			open();
+		}
+	}
+
+	private synchronized void timedOut() {
+		// a call that hangs is expensive enough, don't wait for more of them
+		open();
+	}
+
+	private synchronized void releaseTrial() {
+		if (state == State.HALF_OPEN) {
+			state = State.OPEN;
+		}
+	}
+
+	private void open() {
+		if (state == State.CLOSED) {
+			Log.info("Running app is not responding, suspending live data updates for " + coolDown.getSeconds() + "s");
+		}
+		state = State.OPEN;
+		openedAt = System.currentTimeMillis();
+	}
+
+}
@@ -0,0 +1,429 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.commons.boot.app.cli;
+
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+
+import org.springframework.ide.vscode.commons.boot.app.cli.livebean.LiveBean;
+import org.springframework.ide.vscode.commons.boot.app.cli.livebean.LiveBeansModel;
+import org.springframework.ide.vscode.commons.boot.app.cli.requestmappings.RequestMapping;
+import org.springframework.ide.vscode.commons.util.Log;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Snapshot of the live data of a running Spring Boot app (beans, request mappings, conditionals, active profiles,
+ * environment and port).
+ * <p>
+ * The data is fetched from the app on demand, separately per {@link LiveDataCategory}, with the first access to
+ * it. Once fetched, the data of the snapshot doesn't change anymore, so everybody using the same snapshot sees
+ * the same data and each category is fetched only once per snapshot.
+ * <p>
+ * The fetched data carries a fingerprint, so that two snapshots of the same app can be compared cheaply to find
+ * out whether anything has changed in between. If the data of a category turns out to be the same as in the
+ * previous snapshot of the app, the data object of the previous snapshot is kept.
+ * <p>
+ * All calls to the app go through the {@link LiveAppCircuitBreaker} of the app (shared by all snapshots of the
+ * app), so fetching data never blocks longer than the call timeout. If the data can't be fetched, the data of
+ * the previous snapshot is used instead and the snapshot is marked as {@link #isStale() stale}.
+ *
+ * @author Martin Lippert
+ */
+public class LiveAppSnapshot {
+
+	private final String processId;
+	private final String processName;
+	private final LiveAppCircuitBreaker circuitBreaker;
+	private final LiveData<LiveBeansModel> beans;
+	private final LiveData<Collection<RequestMapping>> requestMappings;
+	private final LiveData<String> host;
+	private final LiveData<String> port;
+	private final LiveData<Optional<List<LiveConditional>>> liveConditionals;
+	private final LiveData<List<String>> activeProfiles;
+	private final LiveData<String> environment;
+
+	private LiveAppSnapshot(SpringBootApp app, LiveAppSnapshot previous, LiveAppCircuitBreaker circuitBreaker) {
+		// don't keep apps alive (or reachable from caches) just because there is a snapshot of them
+		WeakReference<SpringBootApp> appRef = new WeakReference<>(app);
+
+		this.processId = app.getProcessID();
+		this.processName = app.getProcessName();
+		this.circuitBreaker = circuitBreaker;
+
+		this.beans = new LiveData<>(() -> {
+			LiveBeansModel beans = fetch(appRef, SpringBootApp::getBeans);
+			return beans != null ? beans : LiveBeansModel.builder().build();
+		}, LiveAppSnapshot::hashBeans, LiveBeansModel.builder().build(), previous != null ? previous.beans : null);
+
+		this.requestMappings = new LiveData<>(() -> {
+			Collection<RequestMapping> requestMappings = fetch(appRef, SpringBootApp::getRequestMappings);
+			return requestMappings != null ? ImmutableList.copyOf(requestMappings) : null;
+		}, LiveAppSnapshot::hashRequestMappings, null, previous != null ? previous.requestMappings : null);
+
+		this.host = new LiveData<>(() -> fetch(appRef, SpringBootApp::getHost),
+				LiveAppSnapshot::put, null, previous != null ? previous.host : null);
+
+		this.port = new LiveData<>(() -> fetch(appRef, SpringBootApp::getPort),
+				LiveAppSnapshot::put, null, previous != null ? previous.port : null);
+
+		this.liveConditionals = new LiveData<>(() -> {
+			Optional<List<LiveConditional>> liveConditionals = fetch(appRef, SpringBootApp::getLiveConditionals);
+			return liveConditionals != null ? liveConditionals.map(ImmutableList::copyOf) : Optional.empty();
+		}, LiveAppSnapshot::hashConditionals, Optional.empty(), previous != null ? previous.liveConditionals : null);
+
+		this.activeProfiles = new LiveData<>(() -> {
+			List<String> activeProfiles = fetch(appRef, SpringBootApp::getActiveProfiles);
+			return activeProfiles != null ? ImmutableList.copyOf(activeProfiles) : null;
+		}, (hasher, profiles) -> put(hasher, String.valueOf(profiles)), null, previous != null ? previous.activeProfiles : null);
+
+		this.environment = new LiveData<>(() -> fetch(appRef, SpringBootApp::getEnvironment),
+				LiveAppSnapshot::put, null, previous != null ? previous.environment : null);
+	}
+
+	/**
+	 * Creates a new snapshot of the given app, without fetching anything from the app yet. Data that turns
+	 * out to be unchanged compared to the previous snapshot re-uses the data objects of the previous snapshot.
+	 * The new snapshot shares the circuit breaker with the previous snapshot.
+	 *
+	 * @param previous the previous snapshot of the same app, can be <code>null</code>
+	 */
+	public static LiveAppSnapshot create(SpringBootApp app, LiveAppSnapshot previous) {
+		return create(app, previous, previous != null ? previous.circuitBreaker : new LiveAppCircuitBreaker());
+	}
+
+	/**
+	 * Creates a new snapshot of the given app that uses the given circuit breaker for all calls to the app.
+	 *
+	 * @param previous the previous snapshot of the same app, can be <code>null</code>
+	 */
+	public static LiveAppSnapshot create(SpringBootApp app, LiveAppSnapshot previous, LiveAppCircuitBreaker circuitBreaker) {
+		return new LiveAppSnapshot(app, previous, circuitBreaker);
+	}
+
+	private interface Fetcher<T> {
+		T fetch(SpringBootApp app) throws Exception;
+	}
+
+	private <T> T fetch(WeakReference<SpringBootApp> appRef, Fetcher<T> fetcher) throws Exception {
+		SpringBootApp app = appRef.get();
+		if (app != null) {
+			return circuitBreaker.call(() -> fetcher.fetch(app), app::resetConnection);
+		}
+		return null;
+	}
+
+	/**
+	 * Fetches the given categories of live data (unless they have been fetched already).
+	 */
+	public void fetch(LiveDataCategory... categories) {
+		for (LiveDataCategory category : categories) {
+			for (LiveData<?> data : getData(category)) {
+				data.get();
+			}
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if the given category of live data has been fetched already
+	 */
+	public boolean isFetched(LiveDataCategory category) {
+		for (LiveData<?> data : getData(category)) {
+			if (!data.isFetched()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private LiveData<?>[] getData(LiveDataCategory category) {
+		switch (category) {
+		case BEANS:
+			return new LiveData<?>[] { beans };
+		case REQUEST_MAPPINGS:
+			return new LiveData<?>[] { requestMappings, host, port };
+		case CONDITIONALS:
+			return new LiveData<?>[] { liveConditionals };
+		case PROFILES:
+			return new LiveData<?>[] { activeProfiles };
+		case ENVIRONMENT:
+			return new LiveData<?>[] { environment };
+		default:
+			throw new IllegalArgumentException("Unknown live data category: " + category);
+		}
+	}
+
+	public String getProcessID() {
+		return processId;
+	}
+
+	public String getProcessName() {
+		return processName;
+	}
+
+	/**
+	 * @return the circuit breaker that guards the calls to the app
+	 */
+	public LiveAppCircuitBreaker getCircuitBreaker() {
+		return circuitBreaker;
+	}
+
+	/**
+	 * @return <code>true</code> if any of the data fetched so far couldn't be fetched from the app, so that the
+	 * snapshot contains older data (or none at all) instead
+	 */
+	public boolean isStale() {
+		for (LiveDataCategory category : LiveDataCategory.values()) {
+			if (isStale(category)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return <code>true</code> if the given category of data couldn't be fetched from the app, so that the
+	 * snapshot contains older data (or none at all) instead
+	 */
+	public boolean isStale(LiveDataCategory category) {
+		for (LiveData<?> data : getData(category)) {
+			if (data.isStale()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the beans of the app, never <code>null</code> (but maybe empty)
+	 */
+	public LiveBeansModel getBeans() {
+		return beans.get();
+	}
+
+	/**
+	 * @return the request mappings of the app or <code>null</code> if they are unknown
+	 */
+	public Collection<RequestMapping> getRequestMappings() {
+		return requestMappings.get();
+	}
+
+	public Optional<List<LiveConditional>> getLiveConditionals() {
+		return liveConditionals.get();
+	}
+
+	/**
+	 * @return the active profiles of the app or <code>null</code> if they are unknown
+	 */
+	public List<String> getActiveProfiles() {
+		return activeProfiles.get();
+	}
+
+	/**
+	 * @return the environment of the app as JSON string or <code>null</code> if it is unknown
+	 */
+	public String getEnvironment() {
+		return environment.get();
+	}
+
+	public String getHost() {
+		return host.get();
+	}
+
+	public String getPort() {
+		return port.get();
+	}
+
+	/**
+	 * @return the fingerprint of the given categories of live data, fetches them if necessary
+	 */
+	public long getFingerprint(Set<LiveDataCategory> categories) {
+		Hasher hasher = Hashing.murmur3_128().newHasher();
+		put(hasher, processId);
+		for (LiveDataCategory category : LiveDataCategory.values()) {
+			if (categories.contains(category)) {
+				for (LiveData<?> data : getData(category)) {
+					hasher.putLong(data.getFingerprint());
+				}
+			}
+		}
+		return hasher.hash().asLong();
+	}
+
+	private static void hashBeans(Hasher hasher, LiveBeansModel beans) {
+		if (beans == null) {
+			return;
+		}
+		// all the fields of the beans, since the previous model gets re-used if the fingerprint stays the same
+		for (LiveBean bean : beans.getBeans()) {
+			put(hasher, bean.getId());
+			put(hasher, bean.getAliases());
+			put(hasher, bean.getScope());
+			put(hasher, bean.getType());
+			put(hasher, bean.getResource());
+			put(hasher, bean.getDependencies());
+		}
+	}
+
+	private static void hashRequestMappings(Hasher hasher, Collection<RequestMapping> requestMappings) {
+		if (requestMappings != null) {
+			for (RequestMapping mapping : requestMappings) {
+				String[] splitPath = mapping.getSplitPath();
+				put(hasher, splitPath != null ? String.join("/", splitPath) : null);
+				put(hasher, mapping.getMethodString());
+				put(hasher, String.valueOf(mapping.getRequestMethods()));
+			}
+		}
+	}
+
+	private static void hashConditionals(Hasher hasher, Optional<List<LiveConditional>> liveConditionals) {
+		if (liveConditionals == null) {
+			return;
+		}
+		liveConditionals.ifPresent(conditionals -> {
+			for (LiveConditional conditional : conditionals) {
+				put(hasher, conditional.getCondition());
+				put(hasher, conditional.getMessage());
+				put(hasher, conditional.getTypeInfo());
+			}
+		});
+	}
+
+	private static void put(Hasher hasher, String value) {
+		if (value != null) {
+			hasher.putString(value, StandardCharsets.UTF_8);
+		}
+		// separator, so that different splits of the same characters don't end up with the same hash
+		hasher.putByte((byte) 0);
+	}
+
+	private static void put(Hasher hasher, String[] values) {
+		hasher.putInt(values != null ? values.length : -1);
+		if (values != null) {
+			for (String value : values) {
+				put(hasher, value);
+			}
+		}
+	}
+
+	/**
+	 * A single piece of live data, fetched with the first access.
+	 * <p>
+	 * If fetching the data fails, the last data that got fetched successfully (from the previous snapshots) is
+	 * used instead and the data is marked as stale. Without any previous data, the given missing value is used.
+	 */
+	private static class LiveData<T> {
+
+		private Callable<T> fetcher;
+		private final BiConsumer<Hasher, T> hashing;
+		private final T missingValue;
+		private final T previousValue;
+		private final long previousFingerprint;
+		private final boolean hasPrevious;
+
+		private volatile boolean fetched;
+		private T value;
+		private long fingerprint;
+		private boolean stale;
+
+		LiveData(Callable<T> fetcher, BiConsumer<Hasher, T> hashing, T missingValue, LiveData<T> previous) {
+			this.fetcher = fetcher;
+			this.hashing = hashing;
+			this.missingValue = missingValue;
+
+			// only take over the data of the previous snapshot, not the previous snapshot itself
+			if (previous != null && previous.isFetched()) {
+				this.previousValue = previous.value;
+				this.previousFingerprint = previous.fingerprint;
+				this.hasPrevious = true;
+			}
+			else if (previous != null && previous.hasPrevious) {
+				// not used in the previous snapshot, keep the data from before
+				this.previousValue = previous.previousValue;
+				this.previousFingerprint = previous.previousFingerprint;
+				this.hasPrevious = true;
+			}
+			else {
+				this.previousValue = null;
+				this.previousFingerprint = 0;
+				this.hasPrevious = false;
+			}
+		}
+
+		boolean isFetched() {
+			return fetched;
+		}
+
+		boolean isStale() {
+			return fetched && stale;
+		}
+
+		T get() {
+			if (!fetched) {
+				synchronized (this) {
+					if (!fetched) {
+						try {
+							T value = fetcher.call();
+
+							Hasher hasher = Hashing.murmur3_128().newHasher();
+							hashing.accept(hasher, value);
+							long fingerprint = hasher.hash().asLong();
+
+							this.value = hasPrevious && previousFingerprint == fingerprint ? previousValue : value;
+							this.fingerprint = fingerprint;
+						}
+						catch (Exception e) {
+							if (!(e instanceof TimeoutException || e instanceof RejectedExecutionException)) {
+								// timeouts and suspended calls are reported by the circuit breaker
+								Log.log(e);
+							}
+							if (hasPrevious) {
+								this.value = previousValue;
+								this.fingerprint = previousFingerprint;
+							}
+							else {
+								Hasher hasher = Hashing.murmur3_128().newHasher();
+								hashing.accept(hasher, missingValue);
+								this.value = missingValue;
+								this.fingerprint = hasher.hash().asLong();
+							}
+							this.stale = true;
+						}
+						this.fetcher = null;
+						this.fetched = true;
+					}
+				}
+			}
+			return value;
+		}
+
+		long getFingerprint() {
+			get();
+			return fingerprint;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "LiveAppSnapshot [process=" + processId + "]";
+	}
+
+}
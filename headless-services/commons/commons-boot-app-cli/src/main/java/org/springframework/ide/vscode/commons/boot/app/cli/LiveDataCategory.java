@@ -0,0 +1,26 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.commons.boot.app.cli;
+
+/**
+ * The kinds of live data of a running app that are fetched separately (each from its own actuator endpoint).
+ *
+ * @author Martin Lippert
+ */
+public enum LiveDataCategory {
+
+	BEANS,
+	REQUEST_MAPPINGS, // including host and port of the app
+	CONDITIONALS,
+	PROFILES,
+	ENVIRONMENT
+
+}
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.commons.boot.app.cli;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.json.JSONObject;
+import org.springframework.ide.vscode.commons.boot.app.cli.livebean.LiveBeansModel;
+import org.springframework.ide.vscode.commons.boot.app.cli.requestmappings.RequestMapping;
+
+/**
+ * A Spring Boot app that is accessed via its actuator HTTP endpoints instead of JMX, e.g. an app running
+ * in a container that the language server can't attach to.
+ * <p>
+ * The app is identified by the base URL of its actuator endpoints (e.g. <code>http://localhost:8080/actuator</code>
+ * for Boot 2.x or <code>http://localhost:8080</code> for Boot 1.x).
+ *
+ * @author Martin Lippert
+ */
+public class RemoteSpringBootApp extends SpringBootApp {
+
+	private final String actuatorUrl;
+	private final URL url;
+	private final ActuatorHttpClient client;
+
+	public RemoteSpringBootApp(String actuatorUrl, ActuatorHttpClient client) throws MalformedURLException {
+		this.actuatorUrl = actuatorUrl.endsWith("/") ? actuatorUrl.substring(0, actuatorUrl.length() - 1) : actuatorUrl;
+		this.url = new URL(this.actuatorUrl);
+		this.client = client;
+	}
+
+	public String getActuatorUrl() {
+		return actuatorUrl;
+	}
+
+	@Override
+	public String getProcessID() {
+		return actuatorUrl;
+	}
+
+	@Override
+	public String getProcessName() {
+		return actuatorUrl;
+	}
+
+	@Override
+	public boolean isSpringBootApp() {
+		return true;
+	}
+
+	/**
+	 * @return <code>true</code> if the app responds to requests
+	 */
+	public boolean isAvailable() {
+		return client.isAvailable(actuatorUrl);
+	}
+
+	@Override
+	public String getHost() throws Exception {
+		return url.getHost();
+	}
+
+	@Override
+	public String getPort() throws Exception {
+		return String.valueOf(url.getPort() != -1 ? url.getPort() : url.getDefaultPort());
+	}
+
+	@Override
+	public String getEnvironment() throws Exception {
+		return get("env");
+	}
+
+	@Override
+	public LiveBeansModel getBeans() throws Exception {
+		return LiveBeansModel.parseOrThrow(get("beans"));
+	}
+
+	@Override
+	public Collection<RequestMapping> getRequestMappings() throws Exception {
+		String mappings = get("mappings");
+		if (mappings != null) {
+			JSONObject obj = new JSONObject(mappings);
+			return parseRequestMappings(obj, obj.has("contexts") ? "2.x" : "1.x");
+		}
+		return null;
+	}
+
+	@Override
+	public Optional<List<LiveConditional>> getLiveConditionals() throws Exception {
+		//Boot 2.x
+		String report = get("conditions");
+		if (report == null) {
+			//Boot 1.x
+			report = get("autoconfig");
+		}
+		return getLiveConditionals(report, getProcessID(), getProcessName());
+	}
+
+	private String get(String endpoint) throws IOException {
+		return client.get(actuatorUrl + "/" + endpoint);
+	}
+
+	@Override
+	public void dispose() {
+		client.forget(actuatorUrl + "/");
+	}
+
+}
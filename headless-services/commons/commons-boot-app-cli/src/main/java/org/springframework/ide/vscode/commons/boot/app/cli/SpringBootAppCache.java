@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017 Pivotal, Inc.
+ * Copyright (c) 2017, 2018 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,49 +13,342 @@ package org.springframework.ide.vscode.commons.boot.app.cli;
 import java.time.Duration;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.springframework.ide.vscode.commons.util.Log;
+
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.sun.tools.attach.VirtualMachine;
 import com.sun.tools.attach.VirtualMachineDescriptor;
 
+/**
+ * Keeps track of the running JVMs.
+ * <p>
+ * The list of JVMs is refreshed in the background. Attaching to new JVMs and finding out whether they are
+ * Spring Boot apps happens in parallel, with a timeout per JVM (counted from the moment its discovery starts,
+ * not while it waits for a free discovery slot), so that a single slow JVM doesn't stall the
+ * discovery of all the others. Readers always get the last known list of apps immediately (only the very
+ * first read waits for the initial discovery to finish).
+ * <p>
+ * JVMs that are known not to be Spring Boot apps are remembered, they are never checked again. JVMs that
+ * can't be attached to (or don't respond in time) are not retried before {@link #RETRY_AFTER}.
+ * <p>
+ * Discovery tasks that time out get cancelled (and interrupted). Attaching to a JVM might not react to the
+ * interrupt, so a timed out task gives up its discovery slot right away and its JVM is not tried again while
+ * the task is still stuck. A stuck attach therefore never blocks the discovery of other JVMs for longer than
+ * the timeout.
+ */
 public class SpringBootAppCache {
 
 	private static final Duration EXPIRE_AFTER = Duration.ofMillis(500); //Limits rate at which we refresh list of apps
-	private long nextRefreshAfter = Long.MIN_VALUE;
+	private static final Duration DISCOVERY_TIMEOUT = Duration.ofSeconds(5); //Max time to attach to and classify a single JVM
+	private static final Duration RETRY_AFTER = Duration.ofSeconds(10); //Don't retry JVMs we failed to attach to before
+	private static final int DISCOVERY_PARALLELISM = 4;
+
+	private volatile long nextRefreshAfter = Long.MIN_VALUE;
+
+	private volatile ImmutableMap<VirtualMachineDescriptor, JmxSpringBootApp> apps = ImmutableMap.of();
+	private volatile ImmutableList<SpringBootApp> springApps = ImmutableList.of();
+
+	private final Set<VirtualMachineDescriptor> nonBootVms = ConcurrentHashMap.newKeySet();
+	private final Map<VirtualMachineDescriptor, Long> failedVms = new ConcurrentHashMap<>();
+	private final Set<VirtualMachineDescriptor> stuckVms = ConcurrentHashMap.newKeySet();
+
+	private final ExecutorService refreshExecutor = createExecutor("Spring Boot App Discovery", 1, 1, new LinkedBlockingQueue<>());
+	// threads are created on demand, the number of running discovery tasks is limited by the permits instead
+	// (stuck tasks give up their permit, but not their thread)
+	private final ExecutorService discoveryExecutor = createExecutor("Spring Boot App Attach", 0, Integer.MAX_VALUE, new SynchronousQueue<>());
+	private final Semaphore discoveryPermits = new Semaphore(DISCOVERY_PARALLELISM);
+
+	// counts the discovery tasks that started or finished, the refresh waits for changes of it
+	private final Object discoveryProgressLock = new Object();
+	private long discoveryProgress = 0;
+
+	private CompletableFuture<Void> refresh = null;
+	private CompletableFuture<Void> initialRefresh = null;
+
+	public Collection<SpringBootApp> getAllRunningJavaApps() throws Exception {
+		refreshIfNeeded();
+		return ImmutableList.copyOf(apps.values());
+	}
 
-	private ImmutableMap<VirtualMachineDescriptor, SpringBootApp> apps = ImmutableMap.of();
+	public Collection<SpringBootApp> getAllRunningSpringApps() throws Exception {
+		refreshIfNeeded();
+		return springApps;
+	}
 
-	public synchronized Collection<SpringBootApp> getAllRunningJavaApps() {
-		if (System.currentTimeMillis()>=nextRefreshAfter) {
-			refresh();
+	private void refreshIfNeeded() throws Exception {
+		CompletableFuture<Void> initial;
+		synchronized (this) {
+			if (System.currentTimeMillis() >= nextRefreshAfter && (refresh == null || refresh.isDone())) {
+				refresh = CompletableFuture.runAsync(this::refresh, refreshExecutor);
+				if (initialRefresh == null) {
+					initialRefresh = refresh;
+				}
+			}
+			initial = initialRefresh;
+		}
+		if (!initial.isDone()) {
+			// there is no last known list of apps yet, the discovery itself is bounded by the per-JVM timeout
+			initial.get();
 		}
-		return apps.values();
 	}
 
 	private void refresh() {
-		List<VirtualMachineDescriptor> currentVms = VirtualMachine.list();
-		ImmutableMap.Builder<VirtualMachineDescriptor, SpringBootApp> newAppsBuilder = ImmutableMap.builder();
-		for (VirtualMachineDescriptor vm : currentVms) {
-			SpringBootApp existingApp = apps.get(vm);
-			if (existingApp!=null) {
-				newAppsBuilder.put(vm, existingApp);
-			} else {
-				try {
-					newAppsBuilder.put(vm, new SpringBootApp(vm));
-				} catch (Exception e) {
-					//Ignore problems attaching to a VM. We will try again on next polling loop, if vm still exists.
-					//The most likely cause is that the VM already died since we obtained a reference to it.
-				}
-			}
-		}
-		HashSet<VirtualMachineDescriptor> oldVms = new HashSet<>(apps.keySet());
-		ImmutableMap<VirtualMachineDescriptor, SpringBootApp> newApps = newAppsBuilder.build();
-		oldVms.removeAll(newApps.keySet());
-		for (VirtualMachineDescriptor oldVm : oldVms) {
-			apps.get(oldVm).dispose();
-		}
-		apps = newApps;
-		nextRefreshAfter = System.currentTimeMillis() + EXPIRE_AFTER.toMillis();
+		try {
+			List<VirtualMachineDescriptor> currentVms = VirtualMachine.list();
+			ImmutableMap<VirtualMachineDescriptor, JmxSpringBootApp> oldApps = apps;
+
+			Map<VirtualMachineDescriptor, JmxSpringBootApp> newApps = new LinkedHashMap<>();
+			Map<VirtualMachineDescriptor, DiscoveryTask> tasks = new LinkedHashMap<>();
+			long now = System.currentTimeMillis();
+
+			for (VirtualMachineDescriptor vm : currentVms) {
+				JmxSpringBootApp existingApp = oldApps.get(vm);
+				if (existingApp != null) {
+					newApps.put(vm, existingApp);
+					if (!nonBootVms.contains(vm) && !stuckVms.contains(vm) && existingApp.getSpringBootAppClassification() == null) {
+						// couldn't find out what it is last time, try again
+						tasks.put(vm, new DiscoveryTask(vm, existingApp));
+					}
+				} else {
+					Long retryAfter = failedVms.get(vm);
+					if ((retryAfter == null || retryAfter <= now) && !stuckVms.contains(vm)) {
+						tasks.put(vm, new DiscoveryTask(vm, null));
+					}
+				}
+			}
+
+			for (DiscoveryTask task : tasks.values()) {
+				task.future = discoveryExecutor.submit(task::run);
+			}
+
+			awaitDiscovery(tasks, newApps);
+
+			Set<VirtualMachineDescriptor> oldVms = new HashSet<>(oldApps.keySet());
+			oldVms.removeAll(newApps.keySet());
+			for (VirtualMachineDescriptor oldVm : oldVms) {
+				oldApps.get(oldVm).dispose();
+			}
+			nonBootVms.retainAll(currentVms);
+			failedVms.keySet().retainAll(currentVms);
+			stuckVms.retainAll(currentVms);
+
+			ImmutableList.Builder<SpringBootApp> newSpringApps = ImmutableList.builder();
+			for (Entry<VirtualMachineDescriptor, JmxSpringBootApp> entry : newApps.entrySet()) {
+				Boolean isSpringBootApp = entry.getValue().getSpringBootAppClassification();
+				if (isSpringBootApp != null && isSpringBootApp) {
+					newSpringApps.add(entry.getValue());
+				} else if (isSpringBootApp != null) {
+					nonBootVms.add(entry.getKey());
+				}
+			}
+
+			apps = ImmutableMap.copyOf(newApps);
+			springApps = newSpringApps.build();
+		} catch (Exception e) {
+			Log.log(e);
+		} finally {
+			nextRefreshAfter = System.currentTimeMillis() + EXPIRE_AFTER.toMillis();
+		}
+	}
+
+	/**
+	 * Waits for the given discovery tasks and collects the discovered apps. The timeout of a task starts when
+	 * it gets its discovery slot, waiting for a slot doesn't count.
+	 */
+	private void awaitDiscovery(Map<VirtualMachineDescriptor, DiscoveryTask> tasks, Map<VirtualMachineDescriptor, JmxSpringBootApp> newApps) throws InterruptedException {
+		Map<VirtualMachineDescriptor, DiscoveryTask> pending = new LinkedHashMap<>(tasks);
+		while (!pending.isEmpty()) {
+			long progress = getDiscoveryProgress();
+			long now = System.currentTimeMillis();
+			long nextDeadline = now + DISCOVERY_TIMEOUT.toMillis();
+
+			Iterator<Entry<VirtualMachineDescriptor, DiscoveryTask>> iterator = pending.entrySet().iterator();
+			while (iterator.hasNext()) {
+				Entry<VirtualMachineDescriptor, DiscoveryTask> entry = iterator.next();
+				VirtualMachineDescriptor vm = entry.getKey();
+				DiscoveryTask task = entry.getValue();
+				if (task.future.isDone()) {
+					iterator.remove();
+					try {
+						newApps.put(vm, task.future.get());
+						failedVms.remove(vm);
+					} catch (Exception e) {
+						//Ignore problems attaching to a VM. We will try again later, if vm still exists.
+						//The most likely cause is that the VM already died since we obtained a reference to it.
+						failedVms.put(vm, System.currentTimeMillis() + RETRY_AFTER.toMillis());
+					}
+				} else {
+					Long deadline = task.getDeadline();
+					if (deadline != null && deadline <= now) {
+						iterator.remove();
+						if (task.abandon()) {
+							failedVms.put(vm, System.currentTimeMillis() + RETRY_AFTER.toMillis());
+						}
+					} else if (deadline != null) {
+						nextDeadline = Math.min(nextDeadline, deadline);
+					}
+				}
+			}
+
+			if (!pending.isEmpty()) {
+				awaitDiscoveryProgress(progress, nextDeadline);
+			}
+		}
+	}
+
+	private long getDiscoveryProgress() {
+		synchronized (discoveryProgressLock) {
+			return discoveryProgress;
+		}
+	}
+
+	/**
+	 * Waits until a discovery task started or finished since the given progress was read, or the given time is reached.
+	 */
+	private void awaitDiscoveryProgress(long progress, long until) throws InterruptedException {
+		synchronized (discoveryProgressLock) {
+			long timeout = until - System.currentTimeMillis();
+			if (discoveryProgress == progress && timeout > 0) {
+				discoveryProgressLock.wait(timeout);
+			}
+		}
+	}
+
+	private void discoveryProgressed() {
+		synchronized (discoveryProgressLock) {
+			discoveryProgress++;
+			discoveryProgressLock.notifyAll();
+		}
+	}
+
+	/**
+	 * Attaches to a JVM (unless there is an app for it already) and finds out whether it is a Spring Boot app.
+	 */
+	private class DiscoveryTask {
+
+		private final VirtualMachineDescriptor vm;
+		private final JmxSpringBootApp existingApp;
+		private JmxSpringBootApp attachedApp;
+		private boolean abandoned;
+		private boolean holdsPermit;
+		private boolean started;
+		private boolean finished;
+		private long deadline;
+		Future<JmxSpringBootApp> future;
+
+		DiscoveryTask(VirtualMachineDescriptor vm, JmxSpringBootApp existingApp) {
+			this.vm = vm;
+			this.existingApp = existingApp;
+		}
+
+		JmxSpringBootApp run() throws Exception {
+			try {
+				discoveryPermits.acquire();
+				synchronized (this) {
+					if (abandoned) {
+						discoveryPermits.release();
+						return null;
+					}
+					holdsPermit = true;
+					started = true;
+					deadline = System.currentTimeMillis() + DISCOVERY_TIMEOUT.toMillis();
+				}
+				discoveryProgressed();
+
+				if (existingApp != null) {
+					existingApp.isSpringBootApp();
+					return existingApp;
+				}
+
+				JmxSpringBootApp app = new JmxSpringBootApp(vm);
+				app.isSpringBootApp();
+				synchronized (this) {
+					if (abandoned) {
+						// discovery gave up on the vm while we were attaching, don't leak the attached vm
+						app.dispose();
+					} else {
+						attachedApp = app;
+					}
+				}
+				return app;
+			} finally {
+				synchronized (this) {
+					finished = true;
+					releasePermit();
+					stuckVms.remove(vm);
+				}
+				discoveryProgressed();
+			}
+		}
+
+		/**
+		 * @return the time at which the task times out, or <code>null</code> if it didn't get a discovery slot yet
+		 */
+		synchronized Long getDeadline() {
+			return started ? deadline : null;
+		}
+
+		/**
+		 * Called when the discovery doesn't wait for the task anymore, a newly attached app is not used then.
+		 * The task gets cancelled and gives up its discovery slot. If it doesn't react to the interrupt, its
+		 * vm is not tried again until the task finishes.
+		 *
+		 * @return whether the task got to try the vm at all
+		 */
+		boolean abandon() {
+			boolean tried;
+			synchronized (this) {
+				tried = started;
+				abandoned = true;
+				releasePermit();
+				if (started && !finished) {
+					stuckVms.add(vm);
+				}
+				if (attachedApp != null) {
+					attachedApp.dispose();
+					attachedApp = null;
+				}
+			}
+			future.cancel(true);
+			return tried;
+		}
+
+		private void releasePermit() {
+			if (holdsPermit) {
+				holdsPermit = false;
+				discoveryPermits.release();
+			}
+		}
+	}
+
+	private static ExecutorService createExecutor(String name, int coreThreads, int maxThreads, BlockingQueue<Runnable> queue) {
+		AtomicInteger count = new AtomicInteger();
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(coreThreads, maxThreads, 10, TimeUnit.SECONDS, queue, runnable -> {
+			Thread thread = new Thread(runnable, name + " " + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
 	}
+
 }
@@ -69,12 +69,12 @@ public class LiveBean {
 
 	protected LiveBean(String id, String[] aliases, String scope, String type, String resource, String[] dependencies) {
 		super();
-		this.id = id;
-		this.aliases = aliases;
-		this.scope = scope;
-		this.type = type;
-		this.resource = "null".equals(resource) ? null : resource;
-		this.dependencies = dependencies;
+		this.id = LiveBeansModel.intern(id);
+		this.aliases = LiveBeansModel.intern(aliases);
+		this.scope = LiveBeansModel.intern(scope);
+		this.type = LiveBeansModel.intern(type);
+		this.resource = "null".equals(resource) ? null : LiveBeansModel.intern(resource);
+		this.dependencies = LiveBeansModel.intern(dependencies);
 	}
 
 	public String getId() {
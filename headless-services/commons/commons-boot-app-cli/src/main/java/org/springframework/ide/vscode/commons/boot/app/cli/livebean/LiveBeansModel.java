@@ -10,48 +10,45 @@
  *******************************************************************************/
 package org.springframework.ide.vscode.commons.boot.app.cli.livebean;
 
+import java.io.IOException;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.RandomAccess;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
 import org.springframework.ide.vscode.commons.util.Log;
 import org.springframework.ide.vscode.commons.util.StringUtil;
 
-import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 
 /**
+ * The beans of a running app.
+ * <p>
+ * The model is kept compact, because it is held for every running app and re-created with every refresh:
+ * all strings of the beans are interned in a pool shared by all models, and the lookup structures are int
+ * arrays of bean indices (per bean name, per type name and per dependency name) instead of multimaps.
+ *
  * @author Martin Lippert
  * @author Kris De Volder
  */
 public class LiveBeansModel {
 
 	public static class Builder {
-		private final ImmutableListMultimap.Builder<String, LiveBean> beansViaName = ImmutableListMultimap.builder();
-		private final ImmutableListMultimap.Builder<String, LiveBean> beansViaType = ImmutableListMultimap.builder();
-		private final ImmutableListMultimap.Builder<String, LiveBean> beansViaDependency = ImmutableListMultimap.builder();
+		private final List<LiveBean> beans = new ArrayList<>();
 
 		public LiveBeansModel build() {
-			return new LiveBeansModel(beansViaName.build(), beansViaType.build(), beansViaDependency.build());
+			return new LiveBeansModel(beans.toArray(new LiveBean[beans.size()]));
 		}
 
 		public Builder add(LiveBean bean) {
-			String type = bean.getType();
-			if (type != null) {
-				beansViaType.put(type, bean);
-			}
-
-			String name = bean.getId();
-			if (name != null) {
-				beansViaName.put(name, bean);
-			}
-
-			String[] deps = bean.getDependencies();
-			if (deps!=null) {
-				for (String dep : deps) {
-					beansViaDependency.put(dep, bean);
-				}
-			}
+			beans.add(bean);
 			return this;
 		}
 
@@ -61,153 +58,222 @@ public class LiveBeansModel {
 		return new Builder();
 	}
 
-	interface Parser {
-		LiveBeansModel parse(String json) throws Exception;
+	/**
+	 * Creates the model from the JSON data of the beans actuator endpoint (Boot 1.x or Boot 2.x format).
+	 * Never returns <code>null</code>, problems are logged and result in an empty model.
+	 */
+	public static LiveBeansModel parse(String json) {
+		try {
+			return parseOrThrow(json);
+		} catch (Exception e) {
+			Log.log(e);
+			return LiveBeansModel.builder().build();
+		}
 	}
 
-	private static class Boot15Parser implements Parser {
-		@Override
-		public LiveBeansModel parse(String json) throws Exception {
-			Builder model = LiveBeansModel.builder();
-			JSONArray mainArray = new JSONArray(json);
-			for (int i = 0; i < mainArray.length(); i++) {
-				JSONObject appContext = mainArray.getJSONObject(i);
-				if (appContext == null) continue;
-
-				JSONArray beansArray = appContext.optJSONArray("beans");
-				if (beansArray == null) continue;
-
-				for (int j = 0; j < beansArray.length(); j++) {
-					JSONObject beanObject = beansArray.getJSONObject(j);
-					if (beanObject == null) continue;
-
-					LiveBean bean = parseBean(beanObject);
-					if (bean != null) {
-						model.add(bean);
-					}
-				}
-			}
-			return model.build();
-		}
-		private LiveBean parseBean(JSONObject beansJSON) {
-			String id = beansJSON.optString("bean");
-			String type = beansJSON.optString("type");
-			String scope = beansJSON.optString("scope");
-			String resource = beansJSON.optString("resource");
-
-			JSONArray aliasesJSON = beansJSON.getJSONArray("aliases");
-			String[] aliases = new String[aliasesJSON.length()];
-			for (int i = 0; i < aliasesJSON.length(); i++) {
-				aliases[i] = aliasesJSON.optString(i);
-			}
-
-			JSONArray dependenciesJSON = beansJSON.getJSONArray("dependencies");
-			String[] dependencies = new String[dependenciesJSON.length()];
-			for (int i = 0; i < dependenciesJSON.length(); i++) {
-				dependencies[i] = dependenciesJSON.optString(i);
-			}
+	/**
+	 * Creates the model from the JSON data of the beans actuator endpoint (Boot 1.x or Boot 2.x format).
+	 * Never returns <code>null</code>, but fails for data that can't be parsed (so that callers can keep the
+	 * model they had before).
+	 */
+	public static LiveBeansModel parseOrThrow(String json) throws IOException {
+		Builder model = LiveBeansModel.builder();
+		if (StringUtil.hasText(json)) {
+			new LiveBeansParser(model).parse(json);
+		}
+		return model.build();
+	}
 
-			return new LiveBean(id, aliases, scope, type, resource, dependencies);
+	/**
+	 * Creates the model from the data of the beans actuator endpoint as returned via JMX (nested maps and
+	 * lists, Boot 1.x or Boot 2.x format), without converting it to JSON first. Never returns <code>null</code>,
+	 * but fails for data that can't be parsed (so that callers can keep the model they had before).
+	 */
+	public static LiveBeansModel parseActuatorData(Object data) {
+		Builder model = LiveBeansModel.builder();
+		if (data != null) {
+			new LiveBeansParser(model).parse(data);
 		}
+		return model.build();
+	}
 
+	/**
+	 * Shared by all models (of all apps and all refreshes), the names of beans and types are mostly the same
+	 * across refreshes and apps, so they are kept in memory only once.
+	 */
+	private static final Interner<String> STRINGS = Interners.newWeakInterner();
+
+	private static final int[] NO_BEANS = new int[0];
+
+	static String intern(String string) {
+		return string != null ? STRINGS.intern(string) : null;
 	}
 
-	private static class Boot20Parser implements Parser {
-		@Override
-		public LiveBeansModel parse(String json) throws Exception {
-			Builder model = LiveBeansModel.builder();
-			JSONObject mainObject = new JSONObject(json);
-			mainObject = mainObject.getJSONObject("contexts");
-			for (String contextId : mainObject.keySet()) {
-				JSONObject contextObject = mainObject.getJSONObject(contextId);
-				JSONObject beansObject = contextObject.getJSONObject("beans");
-				for (String id : beansObject.keySet()) {
-					JSONObject beanObject = beansObject.getJSONObject(id);
-					LiveBean bean = parseBean(id, contextId, beanObject);
-					if (bean!=null) {
-						model.add(bean);
-					}
+	static String[] intern(String[] strings) {
+		if (strings == null || strings.length == 0) {
+			return strings;
+		}
+		String[] interned = new String[strings.length];
+		for (int i = 0; i < strings.length; i++) {
+			interned[i] = intern(strings[i]);
+		}
+		return interned;
+	}
+
+	private final LiveBean[] beans;
+
+	/**
+	 * bean name table: bean name (of beans and dependencies) -> name id
+	 */
+	private final Map<String, Integer> nameIds;
+
+	/**
+	 * name id -> indices of the beans with that name
+	 */
+	private final int[][] beansOfName;
+
+	/**
+	 * name id -> indices of the beans depending on the bean with that name (reverse dependencies)
+	 */
+	private final int[][] beansDependingOn;
+
+	/**
+	 * type name -> indices of the beans of that type
+	 */
+	private final Map<String, int[]> beansOfType;
+
+	protected LiveBeansModel(LiveBean[] beans) {
+		this.beans = beans;
+
+		// assign ids to all names first, then count and fill the adjacency arrays
+		Map<String, Integer> nameIds = new HashMap<>();
+		Map<String, Integer> typeIds = new HashMap<>();
+		for (LiveBean bean : beans) {
+			nameId(nameIds, bean.getId());
+			nameId(typeIds, bean.getType());
+			String[] deps = bean.getDependencies();
+			if (deps != null) {
+				for (String dep : deps) {
+					nameId(nameIds, dep);
 				}
 			}
-			return model.build();
 		}
 
-		private LiveBean parseBean(String id, String contextId, JSONObject beansJSON) {
-			String type = beansJSON.optString("type");
-			String scope = beansJSON.optString("scope");
-			String resource = beansJSON.optString("resource");
-
-			JSONArray aliasesJSON = beansJSON.getJSONArray("aliases");
-			String[] aliases = new String[aliasesJSON.length()];
-			for (int i = 0; i < aliasesJSON.length(); i++) {
-				aliases[i] = aliasesJSON.optString(i);
+		int[] nameCounts = new int[nameIds.size()];
+		int[] dependingOnCounts = new int[nameIds.size()];
+		int[] typeCounts = new int[typeIds.size()];
+		for (LiveBean bean : beans) {
+			count(nameIds, bean.getId(), nameCounts);
+			count(typeIds, bean.getType(), typeCounts);
+			String[] deps = bean.getDependencies();
+			if (deps != null) {
+				for (String dep : deps) {
+					count(nameIds, dep, dependingOnCounts);
+				}
 			}
+		}
 
-			JSONArray dependenciesJSON = beansJSON.getJSONArray("dependencies");
-			String[] dependencies = new String[dependenciesJSON.length()];
-			for (int i = 0; i < dependenciesJSON.length(); i++) {
-				dependencies[i] = dependenciesJSON.optString(i);
+		this.beansOfName = allocate(nameCounts);
+		this.beansDependingOn = allocate(dependingOnCounts);
+		int[][] beansOfType = allocate(typeCounts);
+		for (int i = 0; i < beans.length; i++) {
+			LiveBean bean = beans[i];
+			add(nameIds, bean.getId(), nameCounts, beansOfName, i);
+			add(typeIds, bean.getType(), typeCounts, beansOfType, i);
+			String[] deps = bean.getDependencies();
+			if (deps != null) {
+				for (String dep : deps) {
+					add(nameIds, dep, dependingOnCounts, beansDependingOn, i);
+				}
 			}
+		}
 
-			return new LiveBean(id, aliases, scope, type, resource, dependencies);
+		this.nameIds = nameIds;
+		this.beansOfType = new HashMap<>(typeIds.size() * 4 / 3 + 1);
+		for (Entry<String, Integer> type : typeIds.entrySet()) {
+			this.beansOfType.put(type.getKey(), beansOfType[type.getValue()]);
 		}
 	}
 
-	private static final Parser[] PARSERS = {
-			new Boot15Parser(),
-			new Boot20Parser(),
-	};
-
-	public static LiveBeansModel parse(String json) {
-		List<Exception> exceptions = new ArrayList<>(PARSERS.length);
-		if (StringUtil.hasText(json)) {
-			for (Parser parser : PARSERS) {
-				try {
-					LiveBeansModel model = parser.parse(json);
-					if (model==null) {
-						throw new NullPointerException("Parser returned a null model (it should not!)");
-					}
-					return model; //good!
-				} catch (Exception e) {
-					exceptions.add(e);
-				}
-			}
+	private static void nameId(Map<String, Integer> ids, String name) {
+		if (name != null && !ids.containsKey(name)) {
+			ids.put(name, ids.size());
 		}
-		//Only getting here if none of the parsers worked... So if at least one parser works,
-		// we won't log any exceptions.
-		for (Exception e : exceptions) {
-			Log.log(e);
+	}
+
+	private static void count(Map<String, Integer> ids, String name, int[] counts) {
+		if (name != null) {
+			counts[ids.get(name)]++;
 		}
-		return LiveBeansModel.builder().build(); // allways return at least an empty model.
 	}
 
-	private final ImmutableListMultimap<String, LiveBean> beansViaType;
-	private final ImmutableListMultimap<String, LiveBean> beansViaName;
-	private final ImmutableListMultimap<String, LiveBean> beansViaDependency;
+	private static int[][] allocate(int[] counts) {
+		int[][] arrays = new int[counts.length][];
+		for (int i = 0; i < counts.length; i++) {
+			arrays[i] = counts[i] == 0 ? NO_BEANS : new int[counts[i]];
+		}
+		return arrays;
+	}
 
-	protected LiveBeansModel(
-			ImmutableListMultimap<String, LiveBean> beansViaName,
-			ImmutableListMultimap<String, LiveBean> beansViaType,
-			ImmutableListMultimap<String, LiveBean> beansViaDependency) {
-		this.beansViaName = beansViaName;
-		this.beansViaType = beansViaType;
-		this.beansViaDependency = beansViaDependency;
+	/**
+	 * Fills the arrays from the end, counting down the counts to zero.
+	 */
+	private static void add(Map<String, Integer> ids, String name, int[] counts, int[][] arrays, int beanIndex) {
+		if (name != null) {
+			int id = ids.get(name);
+			int[] array = arrays[id];
+			array[array.length - counts[id]--] = beanIndex;
+		}
 	}
 
 	public List<LiveBean> getBeansOfType(String fullyQualifiedType) {
-		return beansViaType.get(fullyQualifiedType);
+		return beanList(beansOfType.get(fullyQualifiedType));
 	}
 
 	public List<LiveBean> getBeansOfName(String beanName) {
-		return beansViaName.get(beanName);
+		Integer id = nameIds.get(beanName);
+		return beanList(id != null ? beansOfName[id] : null);
 	}
 
 	public List<LiveBean> getBeansDependingOn(String beanName) {
-		return beansViaDependency.get(beanName);
+		Integer id = nameIds.get(beanName);
+		return beanList(id != null ? beansDependingOn[id] : null);
 	}
 
 	public boolean isEmpty() {
-		return beansViaName.isEmpty(); //Assumes every bean has a name.
+		return beans.length == 0;
+	}
+
+	public List<LiveBean> getBeans() {
+		return Collections.unmodifiableList(Arrays.asList(beans));
+	}
+
+	private List<LiveBean> beanList(int[] indices) {
+		if (indices == null || indices.length == 0) {
+			return ImmutableList.of();
+		}
+		return new BeanList(beans, indices);
+	}
+
+	private static class BeanList extends AbstractList<LiveBean> implements RandomAccess {
+
+		private final LiveBean[] beans;
+		private final int[] indices;
+
+		BeanList(LiveBean[] beans, int[] indices) {
+			this.beans = beans;
+			this.indices = indices;
+		}
+
+		@Override
+		public LiveBean get(int index) {
+			return beans[indices[index]];
+		}
+
+		@Override
+		public int size() {
+			return indices.length;
+		}
 	}
 
 }
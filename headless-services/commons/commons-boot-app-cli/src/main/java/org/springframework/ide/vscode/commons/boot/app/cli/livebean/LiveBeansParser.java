@@ -0,0 +1,238 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.commons.boot.app.cli.livebean;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Single-pass parser for the data of the beans actuator endpoint. The Boot version is detected from the
+ * structure of the data up front and the beans are added to the {@link LiveBeansModel.Builder} right away,
+ * without materializing the complete document first.
+ * <p>
+ * Boot 1.x: <code>[ { "context": ..., "beans": [ { "bean": id, "aliases": [...], ... } ] } ]</code>
+ * <br>
+ * Boot 2.x: <code>{ "contexts": { contextId: { "beans": { id: { "aliases": [...], ... } } } } }</code>
+ *
+ * @author Martin Lippert
+ */
+class LiveBeansParser {
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	private static final String[] NO_STRINGS = new String[0];
+
+	private final LiveBeansModel.Builder model;
+
+	LiveBeansParser(LiveBeansModel.Builder model) {
+		this.model = model;
+	}
+
+	//
+	// JSON string
+	//
+
+	void parse(String json) throws IOException {
+		try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+			JsonToken token = parser.nextToken();
+			if (token == JsonToken.START_ARRAY) {
+				parseBoot1xContexts(parser);
+			}
+			else if (token == JsonToken.START_OBJECT) {
+				parseBoot2xRoot(parser);
+			}
+			else {
+				throw new IOException("Unexpected beans JSON, neither Boot 1.x nor Boot 2.x format: " + token);
+			}
+		}
+	}
+
+	private void parseBoot1xContexts(JsonParser parser) throws IOException {
+		while (parser.nextToken() == JsonToken.START_OBJECT) {
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.getCurrentName();
+				JsonToken value = parser.nextToken();
+				if ("beans".equals(field) && value == JsonToken.START_ARRAY) {
+					while (parser.nextToken() == JsonToken.START_OBJECT) {
+						parseBean(parser, null);
+					}
+				}
+				else {
+					parser.skipChildren();
+				}
+			}
+		}
+	}
+
+	private void parseBoot2xRoot(JsonParser parser) throws IOException {
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			JsonToken value = parser.nextToken();
+			if ("contexts".equals(field) && value == JsonToken.START_OBJECT) {
+				while (parser.nextToken() == JsonToken.FIELD_NAME) {
+					parser.nextToken(); // context object
+					parseBoot2xContext(parser);
+				}
+			}
+			else {
+				parser.skipChildren();
+			}
+		}
+	}
+
+	private void parseBoot2xContext(JsonParser parser) throws IOException {
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			JsonToken value = parser.nextToken();
+			if ("beans".equals(field) && value == JsonToken.START_OBJECT) {
+				while (parser.nextToken() == JsonToken.FIELD_NAME) {
+					String id = parser.getCurrentName();
+					parser.nextToken(); // bean object
+					parseBean(parser, id);
+				}
+			}
+			else {
+				parser.skipChildren();
+			}
+		}
+	}
+
+	/**
+	 * Parses the bean object the parser is positioned at (Boot 1.x has the id inside of the object,
+	 * Boot 2.x as the field name of the object).
+	 */
+	private void parseBean(JsonParser parser, String id) throws IOException {
+		String[] aliases = NO_STRINGS;
+		String scope = "";
+		String type = "";
+		String resource = "";
+		String[] dependencies = NO_STRINGS;
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			JsonToken value = parser.nextToken();
+			switch (field) {
+			case "bean":
+				id = parser.getValueAsString();
+				break;
+			case "aliases":
+				aliases = parseStrings(parser, value);
+				break;
+			case "scope":
+				scope = parser.getValueAsString();
+				break;
+			case "type":
+				type = parser.getValueAsString();
+				break;
+			case "resource":
+				resource = parser.getValueAsString();
+				break;
+			case "dependencies":
+				dependencies = parseStrings(parser, value);
+				break;
+			default:
+				parser.skipChildren();
+			}
+		}
+
+		model.add(new LiveBean(id != null ? id : "", aliases, scope, type, resource, dependencies));
+	}
+
+	private static String[] parseStrings(JsonParser parser, JsonToken value) throws IOException {
+		if (value != JsonToken.START_ARRAY) {
+			parser.skipChildren();
+			return NO_STRINGS;
+		}
+		List<String> strings = new ArrayList<>();
+		while (parser.nextToken() != JsonToken.END_ARRAY) {
+			strings.add(parser.getValueAsString());
+			parser.skipChildren();
+		}
+		return strings.isEmpty() ? NO_STRINGS : strings.toArray(new String[strings.size()]);
+	}
+
+	//
+	// Data returned by the JMX endpoint (maps and lists)
+	//
+
+	void parse(Object data) {
+		if (data instanceof Collection) {
+			for (Object context : (Collection<?>) data) {
+				if (context instanceof Map) {
+					Object beans = ((Map<?, ?>) context).get("beans");
+					if (beans instanceof Collection) {
+						for (Object bean : (Collection<?>) beans) {
+							if (bean instanceof Map) {
+								parseBean(null, (Map<?, ?>) bean);
+							}
+						}
+					}
+				}
+			}
+		}
+		else if (data instanceof Map) {
+			Object contexts = ((Map<?, ?>) data).get("contexts");
+			if (contexts instanceof Map) {
+				for (Object context : ((Map<?, ?>) contexts).values()) {
+					if (context instanceof Map) {
+						Object beans = ((Map<?, ?>) context).get("beans");
+						if (beans instanceof Map) {
+							for (Entry<?, ?> bean : ((Map<?, ?>) beans).entrySet()) {
+								if (bean.getValue() instanceof Map) {
+									parseBean(String.valueOf(bean.getKey()), (Map<?, ?>) bean.getValue());
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+		else {
+			throw new IllegalArgumentException("Unexpected beans data, neither Boot 1.x nor Boot 2.x format: " + data);
+		}
+	}
+
+	private void parseBean(String id, Map<?, ?> bean) {
+		if (id == null) {
+			id = getString(bean, "bean");
+		}
+		model.add(new LiveBean(id, getStrings(bean, "aliases"), getString(bean, "scope"), getString(bean, "type"),
+				getString(bean, "resource"), getStrings(bean, "dependencies")));
+	}
+
+	private static String getString(Map<?, ?> map, String key) {
+		Object value = map.get(key);
+		return value != null ? value.toString() : map.containsKey(key) ? null : "";
+	}
+
+	private static String[] getStrings(Map<?, ?> map, String key) {
+		Object value = map.get(key);
+		if (value instanceof Collection && !((Collection<?>) value).isEmpty()) {
+			Collection<?> values = (Collection<?>) value;
+			String[] strings = new String[values.size()];
+			int i = 0;
+			for (Object v : values) {
+				strings[i++] = v != null ? v.toString() : null;
+			}
+			return strings;
+		}
+		return NO_STRINGS;
+	}
+
+}
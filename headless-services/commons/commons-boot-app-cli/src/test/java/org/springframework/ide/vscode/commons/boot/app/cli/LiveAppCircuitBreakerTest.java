@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.commons.boot.app.cli;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.ide.vscode.commons.boot.app.cli.livebean.LiveBeansModel;
+import org.springframework.ide.vscode.commons.boot.app.cli.requestmappings.RequestMapping;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * @author Martin Lippert
+ */
+public class LiveAppCircuitBreakerTest {
+
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	private class TestApp extends SpringBootApp {
+
+		final AtomicInteger calls = new AtomicInteger();
+		final AtomicInteger resets = new AtomicInteger();
+		volatile boolean hanging = false;
+		volatile boolean failing = false;
+		volatile boolean corrupt = false;
+
+		@Override
+		public String getProcessID() {
+			return "4711";
+		}
+
+		@Override
+		public String getProcessName() {
+			return "test-app";
+		}
+
+		@Override
+		public boolean isSpringBootApp() {
+			return true;
+		}
+
+		@Override
+		public String getHost() {
+			return null;
+		}
+
+		@Override
+		public String getPort() {
+			return null;
+		}
+
+		@Override
+		public String getEnvironment() {
+			return null;
+		}
+
+		@Override
+		public LiveBeansModel getBeans() throws IOException {
+			if (failing) {
+				throw new ConnectException("connection refused");
+			}
+			if (corrupt) {
+				return LiveBeansModel.parseOrThrow("42");
+			}
+			return LiveBeansModel.parse("{\"contexts\":{\"application\":{\"beans\":{\"testBean\":{\"type\":\"com.example.TestBean\",\"dependencies\":[]}}}}}");
+		}
+
+		@Override
+		public Collection<RequestMapping> getRequestMappings() {
+			return null;
+		}
+
+		@Override
+		public Optional<List<LiveConditional>> getLiveConditionals() {
+			return Optional.empty();
+		}
+
+		@Override
+		public List<String> getActiveProfiles() throws IOException {
+			calls.incrementAndGet();
+			if (failing) {
+				throw new ConnectException("connection refused");
+			}
+			if (hanging) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					// cancelled
+				}
+			}
+			return ImmutableList.of("testing-profile");
+		}
+
+		@Override
+		public void resetConnection() {
+			resets.incrementAndGet();
+		}
+
+		@Override
+		public void dispose() {
+		}
+	}
+
+	@After
+	public void releaseHangingCalls() {
+		release.countDown();
+	}
+
+	@Test
+	public void hangingAppFallsBackToLastGoodData() throws Exception {
+		TestApp app = new TestApp();
+		LiveAppCircuitBreaker breaker = new LiveAppCircuitBreaker(Duration.ofMillis(200), Duration.ofSeconds(60), 3);
+
+		LiveAppSnapshot first = LiveAppSnapshot.create(app, null, breaker);
+		List<String> profiles = first.getActiveProfiles();
+		assertEquals(ImmutableList.of("testing-profile"), profiles);
+		assertFalse(first.isStale());
+
+		// app stops responding, the call times out and the last good data is used
+		app.hanging = true;
+		LiveAppSnapshot second = LiveAppSnapshot.create(app, first);
+		long start = System.currentTimeMillis();
+		assertSame(profiles, second.getActiveProfiles());
+		assertTrue(System.currentTimeMillis() - start < 2000);
+		assertTrue(second.isStale());
+		assertTrue(second.isStale(LiveDataCategory.PROFILES));
+		assertEquals(LiveAppCircuitBreaker.State.OPEN, breaker.getState());
+		assertEquals(1, app.resets.get());
+		assertEquals(first.getFingerprint(EnumSet.of(LiveDataCategory.PROFILES)), second.getFingerprint(EnumSet.of(LiveDataCategory.PROFILES)));
+
+		// the app is left alone during the cool-down
+		LiveAppSnapshot third = LiveAppSnapshot.create(app, second);
+		assertSame(profiles, third.getActiveProfiles());
+		assertTrue(third.isStale());
+		assertEquals(2, app.calls.get());
+	}
+
+	@Test
+	public void failingAppFallsBackToLastGoodData() throws Exception {
+		TestApp app = new TestApp();
+		LiveAppCircuitBreaker breaker = new LiveAppCircuitBreaker(Duration.ofSeconds(1), Duration.ofSeconds(60), 2);
+
+		LiveAppSnapshot first = LiveAppSnapshot.create(app, null, breaker);
+		List<String> profiles = first.getActiveProfiles();
+		LiveBeansModel beans = first.getBeans();
+		assertEquals(1, beans.getBeansOfName("testBean").size());
+
+		// fetching the data fails, the failures count for the circuit breaker and the last good data is used
+		app.failing = true;
+		LiveAppSnapshot second = LiveAppSnapshot.create(app, first);
+		assertSame(profiles, second.getActiveProfiles());
+		assertSame(beans, second.getBeans());
+		assertTrue(second.isStale(LiveDataCategory.PROFILES));
+		assertTrue(second.isStale(LiveDataCategory.BEANS));
+		assertEquals(LiveAppCircuitBreaker.State.OPEN, breaker.getState());
+	}
+
+	@Test
+	public void dataErrorsDontOpenTheBreaker() throws Exception {
+		TestApp app = new TestApp();
+		LiveAppCircuitBreaker breaker = new LiveAppCircuitBreaker(Duration.ofSeconds(1), Duration.ofSeconds(60), 1);
+
+		LiveAppSnapshot first = LiveAppSnapshot.create(app, null, breaker);
+		LiveBeansModel beans = first.getBeans();
+
+		// the app responds with beans data that can't be parsed, only the beans fall back to the last good data
+		app.corrupt = true;
+		LiveAppSnapshot second = LiveAppSnapshot.create(app, first);
+		assertSame(beans, second.getBeans());
+		assertTrue(second.isStale(LiveDataCategory.BEANS));
+		assertEquals(LiveAppCircuitBreaker.State.CLOSED, breaker.getState());
+
+		assertEquals(ImmutableList.of("testing-profile"), second.getActiveProfiles());
+		assertFalse(second.isStale(LiveDataCategory.PROFILES));
+	}
+
+	@Test
+	public void breakerClosesAgainAfterCoolDown() throws Exception {
+		LiveAppCircuitBreaker breaker = new LiveAppCircuitBreaker(Duration.ofSeconds(1), Duration.ofMillis(100), 2);
+
+		for (int i = 0; i < 2; i++) {
+			try {
+				breaker.call(() -> { throw new ConnectException("connection refused"); }, null);
+				fail("exception expected");
+			} catch (ConnectException e) {
+				// expected
+			}
+		}
+		assertTrue(breaker.isOpen());
+
+		try {
+			breaker.call(() -> "rejected", null);
+			fail("call should have been rejected");
+		} catch (RejectedExecutionException e) {
+			// expected
+		}
+
+		Thread.sleep(150);
+		assertEquals("trial", breaker.call(() -> "trial", null));
+		assertFalse(breaker.isOpen());
+	}
+
+}
@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.commons.boot.app.cli;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.BeforeClass;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.springframework.ide.vscode.commons.boot.app.cli.livebean.LiveBean;
+import org.springframework.ide.vscode.commons.boot.app.cli.livebean.LiveBeansModel;
+
+import com.google.common.collect.ImmutableListMultimap;
+
+/**
+ * Compares heap usage and lookup times of the {@link LiveBeansModel} with the multimap based representation
+ * it had before, for a generated app with 10k beans. The numbers are printed only, the test itself just checks
+ * that both representations find the same beans.
+ * <p>
+ * The multimap representation is built from its own beans with their own (not interned) strings, the way the
+ * previous model got them from the JSON parser, so that it doesn't profit from the string pool of the compact model.
+ * <p>
+ * This is a benchmark, not a unit test, so it is ignored by default and meant to be run manually.
+ *
+ * @author Martin Lippert
+ */
+public class LiveBeansModelBenchmarkTest {
+
+	private static final int BEANS = 10000;
+	private static final int TYPES = 500;
+	private static final int DEPENDENCIES_PER_BEAN = 3;
+	private static final int LOOKUPS = 100000;
+
+	private static String json;
+	private static int[] types;
+	private static int[][] dependencies;
+
+	@BeforeClass
+	public static void createFixture() {
+		Random random = new Random(4711);
+		types = new int[BEANS];
+		dependencies = new int[BEANS][DEPENDENCIES_PER_BEAN];
+		for (int i = 0; i < BEANS; i++) {
+			types[i] = random.nextInt(TYPES);
+			for (int d = 0; d < DEPENDENCIES_PER_BEAN; d++) {
+				dependencies[i][d] = random.nextInt(BEANS);
+			}
+		}
+
+		StringBuilder builder = new StringBuilder();
+		builder.append("{\"contexts\":{\"application\":{\"beans\":{");
+		for (int i = 0; i < BEANS; i++) {
+			if (i > 0) {
+				builder.append(',');
+			}
+			builder.append("\"bean").append(i).append("\":{");
+			builder.append("\"aliases\":[],");
+			builder.append("\"scope\":\"singleton\",");
+			builder.append("\"type\":\"").append(type(i)).append("\",");
+			builder.append("\"resource\":\"").append(resource(i)).append("\",");
+			builder.append("\"dependencies\":[");
+			for (int d = 0; d < DEPENDENCIES_PER_BEAN; d++) {
+				if (d > 0) {
+					builder.append(',');
+				}
+				builder.append("\"bean").append(dependencies[i][d]).append('"');
+			}
+			builder.append("]}");
+		}
+		builder.append("}}}}");
+		json = builder.toString();
+	}
+
+	private static String type(int bean) {
+		return "com.example.generated.Type" + types[bean];
+	}
+
+	private static String resource(int bean) {
+		return "class path resource [com/example/generated/Config" + (bean % 50) + ".class]";
+	}
+
+	@Ignore @Test
+	public void compareWithMultimaps() throws Exception {
+		long before = usedHeap();
+		LiveBeansModel model = LiveBeansModel.parse(json);
+		long compactHeap = usedHeap() - before;
+
+		before = usedHeap();
+		Multimaps multimaps = new Multimaps(createUninternedBeans());
+		long multimapHeap = usedHeap() - before;
+
+		assertEquals(BEANS, model.getBeans().size());
+		for (int i = 0; i < TYPES; i++) {
+			String type = "com.example.generated.Type" + i;
+			assertEquals(ids(multimaps.beansViaType.get(type)), idsOf(model.getBeansOfType(type)));
+		}
+		for (int i = 0; i < BEANS; i++) {
+			String name = "bean" + i;
+			assertEquals(ids(multimaps.beansViaName.get(name)), idsOf(model.getBeansOfName(name)));
+			assertEquals(ids(multimaps.beansViaDependency.get(name)), idsOf(model.getBeansDependingOn(name)));
+		}
+		assertFalse(model.getBeansOfType("com.example.generated.Type0").isEmpty());
+
+		long compactTypeLookup = time(i -> model.getBeansOfType("com.example.generated.Type" + (i % TYPES)).size());
+		long multimapTypeLookup = time(i -> multimaps.beansViaType.get("com.example.generated.Type" + (i % TYPES)).size());
+		long compactDependencyLookup = time(i -> model.getBeansDependingOn("bean" + (i % BEANS)).size());
+		long multimapDependencyLookup = time(i -> multimaps.beansViaDependency.get("bean" + (i % BEANS)).size());
+
+		System.out.println("LiveBeansModel benchmark (" + BEANS + " beans, " + LOOKUPS + " lookups):");
+		System.out.println("  heap:                  compact " + compactHeap / 1024 + " KB, multimaps (incl. beans) " + multimapHeap / 1024 + " KB");
+		System.out.println("  getBeansOfType:        compact " + compactTypeLookup / 1000000 + " ms, multimaps " + multimapTypeLookup / 1000000 + " ms");
+		System.out.println("  getBeansDependingOn:   compact " + compactDependencyLookup / 1000000 + " ms, multimaps " + multimapDependencyLookup / 1000000 + " ms");
+	}
+
+	/**
+	 * Creates the beans of the fixture the way the JSON parser did for the previous model, each bean with its
+	 * own string instances.
+	 */
+	private static List<PlainBean> createUninternedBeans() {
+		List<PlainBean> beans = new ArrayList<>(BEANS);
+		for (int i = 0; i < BEANS; i++) {
+			String[] deps = new String[DEPENDENCIES_PER_BEAN];
+			for (int d = 0; d < DEPENDENCIES_PER_BEAN; d++) {
+				deps[d] = "bean" + dependencies[i][d];
+			}
+			beans.add(new PlainBean("bean" + i, new String[0], new String("singleton"), type(i), resource(i), deps));
+		}
+		return beans;
+	}
+
+	private static List<String> ids(List<PlainBean> beans) {
+		return beans.stream().map(bean -> bean.id).collect(Collectors.toList());
+	}
+
+	private static List<String> idsOf(List<LiveBean> beans) {
+		return beans.stream().map(LiveBean::getId).collect(Collectors.toList());
+	}
+
+	private static long time(Lookup lookup) {
+		int found = 0;
+		// warm up
+		for (int i = 0; i < LOOKUPS; i++) {
+			found += lookup.run(i);
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < LOOKUPS; i++) {
+			found += lookup.run(i);
+		}
+		long time = System.nanoTime() - start;
+		assertFalse(found == 0);
+		return time;
+	}
+
+	private static long usedHeap() throws InterruptedException {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+			Thread.sleep(50);
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private interface Lookup {
+		int run(int i);
+	}
+
+	/**
+	 * A bean as the previous model represented it, without any string pooling.
+	 */
+	private static class PlainBean {
+		final String id;
+		final String[] aliases;
+		final String scope;
+		final String type;
+		final String resource;
+		final String[] dependencies;
+
+		PlainBean(String id, String[] aliases, String scope, String type, String resource, String[] dependencies) {
+			this.id = id;
+			this.aliases = aliases;
+			this.scope = scope;
+			this.type = type;
+			this.resource = resource;
+			this.dependencies = dependencies;
+		}
+	}
+
+	/**
+	 * The previous representation of the model, for comparison.
+	 */
+	private static class Multimaps {
+		final ImmutableListMultimap<String, PlainBean> beansViaName;
+		final ImmutableListMultimap<String, PlainBean> beansViaType;
+		final ImmutableListMultimap<String, PlainBean> beansViaDependency;
+
+		Multimaps(List<PlainBean> beans) {
+			ImmutableListMultimap.Builder<String, PlainBean> viaName = ImmutableListMultimap.builder();
+			ImmutableListMultimap.Builder<String, PlainBean> viaType = ImmutableListMultimap.builder();
+			ImmutableListMultimap.Builder<String, PlainBean> viaDependency = ImmutableListMultimap.builder();
+			for (PlainBean bean : beans) {
+				viaName.put(bean.id, bean);
+				viaType.put(bean.type, bean);
+				for (String dependency : bean.dependencies) {
+					viaDependency.put(dependency, bean);
+				}
+			}
+			this.beansViaName = viaName.build();
+			this.beansViaType = viaType.build();
+			this.beansViaDependency = viaDependency.build();
+		}
+	}
+
+}
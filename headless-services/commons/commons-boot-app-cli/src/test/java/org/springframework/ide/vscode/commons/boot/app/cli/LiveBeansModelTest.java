@@ -10,16 +10,22 @@
  *******************************************************************************/
 package org.springframework.ide.vscode.commons.boot.app.cli;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import java.io.InputStream;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 import org.springframework.ide.vscode.commons.boot.app.cli.livebean.LiveBean;
 import org.springframework.ide.vscode.commons.boot.app.cli.livebean.LiveBeansModel;
 
+import com.google.common.collect.ImmutableList;
+
 /**
  * @author Martin Lippert
  */
@@ -67,6 +73,53 @@ public class LiveBeansModelTest {
 		assertEquals(0, bean.size());
 	}
 
+	@Test
+	public void testBoot20Model() throws Exception {
+		String json =
+				"{\"contexts\": {\"application-1\": {\"parentId\": null, \"beans\": {\n" +
+				"  \"dependencyA\": {\"aliases\": [], \"scope\": \"singleton\", \"type\": \"org.test.DependencyA\",\n" +
+				"    \"resource\": \"file [/test-projects/classes/org/test/DependencyA.class]\", \"dependencies\": []},\n" +
+				"  \"dependencyB\": {\"aliases\": [\"depB\"], \"scope\": \"prototype\", \"type\": \"org.test.DependencyB\",\n" +
+				"    \"resource\": null, \"dependencies\": [\"dependencyA\"]}\n" +
+				"}}}}";
+		LiveBeansModel model = LiveBeansModel.parse(json);
+
+		LiveBean[] bean = model.getBeansOfType("org.test.DependencyA").toArray(new LiveBean[0]);
+		assertEquals(1, bean.length);
+		assertEquals("dependencyA", bean[0].getId());
+		assertEquals("file [/test-projects/classes/org/test/DependencyA.class]", bean[0].getResource());
+
+		bean = model.getBeansDependingOn("dependencyA").toArray(new LiveBean[0]);
+		assertEquals(1, bean.length);
+		assertEquals("dependencyB", bean[0].getId());
+		assertEquals("prototype", bean[0].getScope());
+		assertNull(bean[0].getResource());
+		assertArrayEquals(new String[] {"depB"}, bean[0].getAliases());
+	}
+
+	@Test
+	public void testModelFromActuatorData() throws Exception {
+		Map<String, Object> dependencyA = new LinkedHashMap<>();
+		dependencyA.put("bean", "dependencyA");
+		dependencyA.put("aliases", ImmutableList.of());
+		dependencyA.put("scope", "singleton");
+		dependencyA.put("type", "org.test.DependencyA");
+		dependencyA.put("resource", null);
+		dependencyA.put("dependencies", ImmutableList.of("dependencyB"));
+
+		Map<String, Object> context = new LinkedHashMap<>();
+		context.put("context", "application");
+		context.put("beans", ImmutableList.of(dependencyA));
+
+		// Boot 1.x structure, as returned by the JMX endpoint
+		LiveBeansModel model = LiveBeansModel.parseActuatorData(ImmutableList.of(context));
+
+		LiveBean[] bean = model.getBeansOfName("dependencyA").toArray(new LiveBean[0]);
+		assertEquals(1, bean.length);
+		assertEquals("org.test.DependencyA", bean[0].getType());
+		assertEquals(1, model.getBeansDependingOn("dependencyB").size());
+	}
+
 	private InputStream getResourceAsStream(String string) {
 		return LiveBeansModelTest.class.getResourceAsStream(string);
 	}
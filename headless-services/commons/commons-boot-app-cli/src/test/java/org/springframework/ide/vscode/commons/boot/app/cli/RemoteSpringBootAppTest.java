@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.commons.boot.app.cli;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.vscode.commons.boot.app.cli.livebean.LiveBean;
+import org.springframework.ide.vscode.commons.boot.app.cli.livebean.LiveBeansModel;
+import org.springframework.ide.vscode.commons.boot.app.cli.requestmappings.RequestMapping;
+
+import com.google.common.collect.ImmutableList;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * @author Martin Lippert
+ */
+public class RemoteSpringBootAppTest {
+
+	private static final String BEANS =
+			"{\"contexts\":{\"application\":{\"beans\":{" +
+				"\"dependencyA\":{\"aliases\":[],\"scope\":\"singleton\",\"type\":\"org.test.DependencyA\",\"resource\":null,\"dependencies\":[]}," +
+				"\"myComponent\":{\"aliases\":[],\"scope\":\"singleton\",\"type\":\"org.test.MyComponent\",\"resource\":null,\"dependencies\":[\"dependencyA\"]}" +
+			"}}}}";
+
+	private static final String MAPPINGS =
+			"{\"contexts\":{\"application\":{\"mappings\":{\"dispatcherServlets\":{\"dispatcherServlet\":[" +
+				"{\"handler\":\"public java.lang.String org.test.MyController.hello()\",\"predicate\":\"{[/hello],methods=[GET]}\"}" +
+			"]}}}}}";
+
+	private static final String ENV = "{\"activeProfiles\":[\"local\",\"testing\"],\"propertySources\":[]}";
+
+	private HttpServer server;
+	private String actuatorUrl;
+
+	private final Map<String, String> endpoints = new ConcurrentHashMap<>();
+	private final Map<String, String> etags = new ConcurrentHashMap<>();
+	private final AtomicInteger requests = new AtomicInteger();
+	private final AtomicInteger notModified = new AtomicInteger();
+
+	@Before
+	public void startServer() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/actuator/", exchange -> {
+			requests.incrementAndGet();
+			String endpoint = exchange.getRequestURI().getPath().substring("/actuator/".length());
+			String body = endpoints.get(endpoint);
+			String etag = etags.get(endpoint);
+
+			if (body == null) {
+				exchange.sendResponseHeaders(404, -1);
+			}
+			else if (etag != null && etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+				notModified.incrementAndGet();
+				exchange.sendResponseHeaders(304, -1);
+			}
+			else {
+				byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+				if (etag != null) {
+					exchange.getResponseHeaders().add("ETag", etag);
+				}
+				exchange.getResponseHeaders().add("Content-Type", "application/json");
+				exchange.sendResponseHeaders(200, bytes.length);
+				try (OutputStream out = exchange.getResponseBody()) {
+					out.write(bytes);
+				}
+			}
+			exchange.close();
+		});
+		server.start();
+		actuatorUrl = "http://localhost:" + server.getAddress().getPort() + "/actuator/";
+	}
+
+	@After
+	public void stopServer() {
+		server.stop(0);
+	}
+
+	@Test
+	public void liveDataViaHttp() throws Exception {
+		endpoints.put("beans", BEANS);
+		endpoints.put("mappings", MAPPINGS);
+		endpoints.put("env", ENV);
+
+		RemoteSpringBootApp app = new RemoteSpringBootApp(actuatorUrl, new ActuatorHttpClient());
+		assertTrue(app.isSpringBootApp());
+		assertEquals("localhost", app.getHost());
+		assertEquals(String.valueOf(server.getAddress().getPort()), app.getPort());
+
+		LiveBeansModel beans = app.getBeans();
+		List<LiveBean> dependers = beans.getBeansDependingOn("dependencyA");
+		assertEquals(1, dependers.size());
+		assertEquals("myComponent", dependers.get(0).getId());
+
+		Collection<RequestMapping> mappings = app.getRequestMappings();
+		assertEquals(1, mappings.size());
+		assertArrayEquals(new String[] {"/hello"}, mappings.iterator().next().getSplitPath());
+
+		assertEquals(ImmutableList.of("local", "testing"), app.getActiveProfiles());
+	}
+
+	@Test
+	public void conditionalRequests() throws Exception {
+		endpoints.put("beans", BEANS);
+		etags.put("beans", "\"v1\"");
+
+		RemoteSpringBootApp app = new RemoteSpringBootApp(actuatorUrl, new ActuatorHttpClient());
+		assertEquals(2, app.getBeans().getBeans().size());
+		assertEquals(0, notModified.get());
+
+		// unchanged data is re-validated, not transferred again
+		assertEquals(2, app.getBeans().getBeans().size());
+		assertEquals(1, notModified.get());
+
+		// changed data is transferred again
+		endpoints.put("beans", "{\"contexts\":{\"application\":{\"beans\":{}}}}");
+		etags.put("beans", "\"v2\"");
+		assertTrue(app.getBeans().isEmpty());
+		assertEquals(1, notModified.get());
+		assertEquals(3, requests.get());
+	}
+
+	@Test
+	public void missingEndpoints() throws Exception {
+		RemoteSpringBootApp app = new RemoteSpringBootApp(actuatorUrl, new ActuatorHttpClient());
+		assertTrue(app.isAvailable());
+		assertTrue(app.getBeans().isEmpty());
+		assertEquals(null, app.getRequestMappings());
+		assertEquals(null, app.getActiveProfiles());
+	}
+
+}
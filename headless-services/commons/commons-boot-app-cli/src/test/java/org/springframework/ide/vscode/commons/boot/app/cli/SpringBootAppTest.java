@@ -99,7 +99,7 @@ public class SpringBootAppTest {
 		//Ignored because this test may have timing issues. Still useful to
 		// run locally and inspect dump results, but may need some tweaking.
 		for (String appName : appNames) {
-			SpringBootApp testApp = getAppContaining(appName);
+			JmxSpringBootApp testApp = (JmxSpringBootApp) getAppContaining(appName);
 			testApp.dumpJvmInfo();
 			System.out.println("======================================");
 		}
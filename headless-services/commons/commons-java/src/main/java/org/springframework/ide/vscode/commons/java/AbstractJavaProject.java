@@ -25,5 +25,12 @@ public abstract class AbstractJavaProject implements IJavaProject {
 	public AbstractJavaProject(Path projectDataCache) {
 		this.projectDataCache = projectDataCache;
 	}
+	
+	/**
+	 * @return folder to store calculated project data in or <code>null</code> if project data shouldn't be cached
+	 */
+	public Path getProjectDataCache() {
+		return projectDataCache;
+	}
 
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014-2017 Pivotal, Inc.
+ * Copyright (c) 2014-2018 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -32,6 +32,17 @@ public interface IProblemCollector {
 
 	}
 
+	/**
+	 * Optional for both implementors and callers.
+	 * <p/>
+	 * Tells long running reconcilers whether the problems are still needed, so that they can stop
+	 * early (e.g. by throwing a {@link java.util.concurrent.CancellationException}) when the document
+	 * got changed in the meantime, even if they haven't found any problems to report yet.
+	 */
+	default boolean isCancelled() {
+		return false;
+	}
+
 	/**
 	 * Problem collector that simply ignores/discards anything passed to it.
 	 */
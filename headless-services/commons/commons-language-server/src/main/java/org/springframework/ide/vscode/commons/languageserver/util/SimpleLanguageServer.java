@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2017 Pivotal, Inc.
+ * Copyright (c) 2016, 2018 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,10 +14,12 @@ import java.net.URI;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.lsp4j.ApplyWorkspaceEditParams;
@@ -78,7 +80,12 @@ import reactor.core.scheduler.Schedulers;
  */
 public abstract class SimpleLanguageServer implements Sts4LanguageServer, LanguageClientAware, ServiceNotificationsClient, WorkspaceFoldersProposedService {
 
-	private static final Scheduler RECONCILER_SCHEDULER = Schedulers.newSingle("Reconciler");
+	/**
+	 * Reconciles of different documents run in parallel (with bounded parallelism), reconciles of the same
+	 * document run one after the other.
+	 */
+	private static final Scheduler RECONCILER_SCHEDULER = Schedulers.newParallel("Reconciler",
+			Integer.getInteger("lsp.reconcile.threads", Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()))));
 
 	public final String EXTENSION_ID;
 	private final String CODE_ACTION_COMMAND_ID;
@@ -99,7 +106,10 @@ public abstract class SimpleLanguageServer implements Sts4LanguageServer, Langua
 
 	private DiagnosticService diagnosticService = message -> onError(null, message);
 
-	private CompletableFuture<Void> busyReconcile = CompletableFuture.completedFuture(null);
+	/**
+	 * The latest reconcile per document URI, as long as it is queued or running.
+	 */
+	private final Map<String, ReconcileSession> reconcileSessions = new HashMap<>();
 
 	private QuickfixRegistry quickfixRegistry;
 
@@ -407,16 +417,29 @@ public abstract class SimpleLanguageServer implements Sts4LanguageServer, Langua
 	 * from old STS codebase to validate a given {@link TextDocument} and publish Diagnostics.
 	 */
 	protected void validateWith(TextDocumentIdentifier docId, IReconcileEngine engine) {
-		CompletableFuture<Void> reconcileSession = this.busyReconcile = new CompletableFuture<Void>();
-//		Log.debug("Reconciling BUSY");
-
 		SimpleTextDocumentService documents = getTextDocumentService();
 
 		int requestedVersion = documents.getDocument(docId.getUri()).getVersion();
 
+		ReconcileSession reconcileSession = new ReconcileSession();
+		ReconcileSession previousSession;
+		synchronized (reconcileSessions) {
+			previousSession = reconcileSessions.put(docId.getUri(), reconcileSession);
+		}
+		CompletableFuture<Void> previousDone = CompletableFuture.completedFuture(null);
+		if (previousSession!=null) {
+			// The document changed (or needs to be reconciled again), abort the reconcile of the older
+			// version instead of letting it run to completion only to throw away its results.
+			previousSession.cancel();
+			previousDone = previousSession.done;
+		}
+
 		// Avoid running in the same thread as lsp4j as it can result
 		// in long "hangs" for slow reconcile providers
-		Mono.fromRunnable(() -> {
+		Mono<Void> reconcile = Mono.fromRunnable(() -> {
+			if (reconcileSession.isCancelled()) {
+				return;
+			}
 			TextDocument doc = documents.getDocument(docId.getUri()).copy();
 			if (requestedVersion!=doc.getVersion()) {
 				//Do not bother reconciling if document contents is already stale.
@@ -432,8 +455,10 @@ public abstract class SimpleLanguageServer implements Sts4LanguageServer, Langua
 
 				@Override
 				public void endCollecting() {
-					documents.setQuickfixes(docId, quickfixes);
-					documents.publishDiagnostics(docId, diagnostics);
+					if (!reconcileSession.isCancelled()) {
+						documents.setQuickfixes(docId, quickfixes);
+						documents.publishDiagnostics(docId, diagnostics);
+					}
 				}
 
 				@Override
@@ -443,12 +468,19 @@ public abstract class SimpleLanguageServer implements Sts4LanguageServer, Langua
 
 				@Override
 				public void checkPointCollecting() {
+					reconcileSession.checkCancelled();
 					// publish what has been collected so far
 					documents.publishDiagnostics(docId, diagnostics);
 				}
 
+				@Override
+				public boolean isCancelled() {
+					return reconcileSession.isCancelled();
+				}
+
 				@Override
 				public void accept(ReconcileProblem problem) {
+					reconcileSession.checkCancelled();
 					try {
 						DiagnosticSeverity severity = getDiagnosticSeverity(problem);
 						if (severity!=null) {
@@ -479,15 +511,21 @@ public abstract class SimpleLanguageServer implements Sts4LanguageServer, Langua
 			engine.reconcile(doc, problems);
 		})
 		.otherwise(error -> {
-			Log.log(error);
+			if (!(error instanceof CancellationException)) {
+				Log.log(error);
+			}
 			return Mono.empty();
 		})
 		.doFinally(ignore -> {
-			reconcileSession.complete(null);
-//			Log.debug("Reconciler DONE : "+this.busyReconcile.isDone());
+			synchronized (reconcileSessions) {
+				reconcileSessions.remove(docId.getUri(), reconcileSession);
+			}
+			reconcileSession.done.complete(null);
 		})
-		.subscribeOn(RECONCILER_SCHEDULER)
-		.subscribe();
+		.subscribeOn(RECONCILER_SCHEDULER);
+
+		// start once the reconcile of the previous version is out of the way
+		previousDone.whenComplete((result, error) -> reconcile.subscribe());
 	}
 
 	protected DiagnosticSeverity getDiagnosticSeverity(ReconcileProblem problem) {
@@ -513,8 +551,42 @@ public abstract class SimpleLanguageServer implements Sts4LanguageServer, Langua
 	 * all the document changes.
 	 */
 	public void waitForReconcile() throws Exception {
-		while (!this.busyReconcile.isDone()) {
-			this.busyReconcile.get();
+		while (true) {
+			List<CompletableFuture<Void>> pending = new ArrayList<>();
+			synchronized (reconcileSessions) {
+				for (ReconcileSession session : reconcileSessions.values()) {
+					pending.add(session.done);
+				}
+			}
+			if (pending.isEmpty()) {
+				getTextDocumentService().flushDiagnostics();
+				return;
+			}
+			CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[pending.size()])).get();
+		}
+	}
+
+	/**
+	 * A single reconcile of a document. Cancellation is cooperative: the problem collector
+	 * of a cancelled reconcile stops accepting problems and doesn't publish anything.
+	 */
+	private static class ReconcileSession {
+
+		private final CompletableFuture<Void> done = new CompletableFuture<>();
+		private volatile boolean cancelled = false;
+
+		void cancel() {
+			cancelled = true;
+		}
+
+		boolean isCancelled() {
+			return cancelled;
+		}
+
+		void checkCancelled() {
+			if (cancelled) {
+				throw new CancellationException("Reconcile superseded by a newer one");
+			}
 		}
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2017 Pivotal, Inc.
+ * Copyright (c) 2016, 2018 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,11 +10,15 @@
  *******************************************************************************/
 package org.springframework.ide.vscode.commons.languageserver.util;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -67,6 +71,12 @@ import reactor.core.publisher.Mono;
 
 public class SimpleTextDocumentService implements TextDocumentService {
 
+	/**
+	 * Diagnostics published within this time window get sent to the client together (e.g. when all open
+	 * documents get reconciled again after a classpath change).
+	 */
+	private static final Duration DIAGNOSTICS_PUBLISH_DELAY = Duration.ofMillis(50);
+
 	final private SimpleLanguageServer server;
 	private Map<String, TrackedDocument> documents = new HashMap<>();
 	private ListenerList<TextDocumentContentChange> documentChangeListeners = new ListenerList<>();
@@ -85,6 +95,12 @@ public class SimpleTextDocumentService implements TextDocumentService {
 
 	private Consumer<TextDocumentSaveChange> documentSaveListener;
 
+	private final Map<String, List<Diagnostic>> pendingDiagnostics = new LinkedHashMap<>();
+	private boolean diagnosticsFlushScheduled = false;
+	private final Map<String, List<Diagnostic>> publishedDiagnostics = new HashMap<>();
+	// documents closed since the last flush, guarded by pendingDiagnostics
+	private final Set<String> closedDocuments = new HashSet<>();
+
 	public SimpleTextDocumentService(SimpleLanguageServer server) {
 		this.server = server;
 	}
@@ -164,6 +180,9 @@ public class SimpleTextDocumentService implements TextDocumentService {
 		LanguageId languageId = LanguageId.of(docId.getLanguageId());
 		int version = docId.getVersion();
 		if (url!=null) {
+			synchronized (pendingDiagnostics) {
+				closedDocuments.remove(url);
+			}
 			String text = params.getTextDocument().getText();
 			TrackedDocument td = createDocument(url, languageId, version, text).open();
 //			Log.info("Opened "+td.getOpenCount()+" times: "+url);
@@ -201,7 +220,10 @@ public class SimpleTextDocumentService implements TextDocumentService {
 					//Clear diagnostics when a file is closed. This makes the errors disapear when the language is changed for
 					// a document (this resulst in a dicClose even as being sent to the language server if that changes make the
 					// document go 'out of scope'.
-					publishDiagnostics(params.getTextDocument(), ImmutableList.of());
+					synchronized (pendingDiagnostics) {
+						closedDocuments.add(url);
+						publishDiagnostics(params.getTextDocument(), ImmutableList.of());
+					}
 					documentCloseListeners.fire(doc.getDocument());
 					documents.remove(url);
 				} else {
@@ -396,13 +418,56 @@ public class SimpleTextDocumentService implements TextDocumentService {
 		}
 	}
 
+	/**
+	 * Queues the diagnostics of the given document for publication. Diagnostics are sent to the client
+	 * with a short delay, together with the ones of other documents that arrive in the meantime, and only
+	 * if they differ from the ones published last for the document.
+	 */
 	public void publishDiagnostics(TextDocumentIdentifier docId, Collection<Diagnostic> diagnostics) {
-		LanguageClient client = server.getClient();
-		if (client!=null && diagnostics!=null) {
-			PublishDiagnosticsParams params = new PublishDiagnosticsParams();
-			params.setUri(docId.getUri());
-			params.setDiagnostics(ImmutableList.copyOf(diagnostics));
-			client.publishDiagnostics(params);
+		if (diagnostics!=null) {
+			List<Diagnostic> copy = ImmutableList.copyOf(diagnostics);
+			synchronized (pendingDiagnostics) {
+				pendingDiagnostics.put(docId.getUri(), copy);
+				if (!diagnosticsFlushScheduled) {
+					diagnosticsFlushScheduled = true;
+					Mono.delay(DIAGNOSTICS_PUBLISH_DELAY).subscribe(ignore -> flushDiagnostics());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sends the queued diagnostics to the client right away.
+	 */
+	void flushDiagnostics() {
+		synchronized (publishedDiagnostics) {
+			Map<String, List<Diagnostic>> toPublish;
+			Set<String> closed;
+			synchronized (pendingDiagnostics) {
+				toPublish = new LinkedHashMap<>(pendingDiagnostics);
+				pendingDiagnostics.clear();
+				closed = new HashSet<>(closedDocuments);
+				closedDocuments.clear();
+				diagnosticsFlushScheduled = false;
+			}
+
+			LanguageClient client = server.getClient();
+			if (client!=null) {
+				toPublish.forEach((uri, diagnostics) -> {
+					if (!diagnostics.equals(publishedDiagnostics.get(uri))) {
+						PublishDiagnosticsParams params = new PublishDiagnosticsParams();
+						params.setUri(uri);
+						params.setDiagnostics(diagnostics);
+						client.publishDiagnostics(params);
+					}
+					if (closed.contains(uri)) {
+						//closed document, nothing to remember
+						publishedDiagnostics.remove(uri);
+					} else {
+						publishedDiagnostics.put(uri, diagnostics);
+					}
+				});
+			}
 		}
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017 Pivotal, Inc.
+ * Copyright (c) 2017, 2018 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,6 +16,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.ide.vscode.commons.util.Assert;
 import org.springframework.ide.vscode.commons.util.StringUtil;
@@ -78,38 +79,34 @@ public class ASTTypeCache implements ITypeCollector {
 	}
 
 	/**
-	 * Set upon commencing a reconciler session.
+	 * Collects the types of the active reconciler sessions, one per ast (documents are reconciled in parallel).
 	 */
-	private YamlFileAST currentAst = null;
-
-	/**
-	 * Collects types for the current session.
-	 */
-	private ImmutableMap.Builder<Node, YType> currentTypes = null;
+	private final Map<YamlFileAST, ImmutableMap.Builder<Node, YType>> currentTypes = new ConcurrentHashMap<>();
 
 	private final Set<YType> interestingTypes = new HashSet<>();
 	private final Map<String, NodeTypes> typeIndex = new HashMap<>();
 
 	@Override
 	public void beginCollecting(YamlFileAST ast) {
-		Assert.isNull("A session is already active. Concurrency isn't supported by ITypeCollector protocol", currentTypes);
-		this.currentAst = ast;
-		this.currentTypes = ImmutableMap.builder();
+		ImmutableMap.Builder<Node, YType> previous = currentTypes.putIfAbsent(ast, ImmutableMap.builder());
+		Assert.isNull("A session is already active for this ast", previous);
 	}
 
 	@Override
-	public synchronized void endCollecting(YamlFileAST ast) {
-		Assert.isLegal(currentAst==ast);
+	public void endCollecting(YamlFileAST ast) {
+		ImmutableMap.Builder<Node, YType> types = currentTypes.remove(ast);
+		Assert.isLegal(types!=null);
 		String uri = ast.getDocument().getUri();
-		typeIndex.put(uri, new NodeTypesImpl(currentTypes.build()));
-		this.currentAst = null;
-		this.currentTypes = null;
+		NodeTypes nodeTypes = new NodeTypesImpl(types.build());
+		synchronized (this) {
+			typeIndex.put(uri, nodeTypes);
+		}
 	}
 
 	@Override
-	public void accept(Node node, YType type) {
+	public void accept(YamlFileAST ast, Node node, YType type) {
 		if (interestingTypes.contains(type)) {
-			currentTypes.put(node, type);
+			currentTypes.get(ast).put(node, type);
 		}
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017 Pivotal, Inc.
+ * Copyright (c) 2017, 2018 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -18,11 +18,15 @@ import org.yaml.snakeyaml.nodes.Node;
  * A type collector can optionally be added to a {@link SchemaBasedYamlASTReconciler}.
  * It is notified of the types the reconciler infers for
  * any AST nodes it visits during reconciling.
+ * <p>
+ * A collecting session lasts from {@link #beginCollecting(YamlFileAST)} until
+ * {@link #endCollecting(YamlFileAST)} for the same AST. Documents are reconciled
+ * in parallel, so the sessions of different ASTs may be active at the same time.
  *
  * @author Kris De Volder
  */
 public interface ITypeCollector {
 	void beginCollecting(YamlFileAST ast);
-	void accept(Node node, YType type);
+	void accept(YamlFileAST ast, Node node, YType type);
 	void endCollecting(YamlFileAST ast);
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016-2017 Pivotal, Inc.
+ * Copyright (c) 2016-2018 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -138,12 +139,14 @@ public class SchemaBasedYamlASTReconciler implements YamlASTReconciler {
 	}
 
 	private void reconcile(YamlFileAST ast, YamlPath path, Node parent, Node node, YType _type) {
+		// also stops a superseded reconcile of a large document that doesn't have any problems to report
+		checkCancelled();
 //		IDocument doc = ast.getDocument();
 		if (_type!=null && !skipReconciling(node)) {
 			DynamicSchemaContext schemaContext = new ASTDynamicSchemaContext(ast, path, node);
 			YType type = typeUtil.inferMoreSpecificType(_type, schemaContext);
 			if (typeCollector!=null) {
-				typeCollector.accept(node, type);
+				typeCollector.accept(ast, node, type);
 			}
 			checkConstraints(parent, node, type, schemaContext);
 			switch (getNodeId(node)) {
@@ -323,8 +326,15 @@ public class SchemaBasedYamlASTReconciler implements YamlASTReconciler {
 		}
 	}
 
+	private void checkCancelled() {
+		if (problems.isCancelled()) {
+			throw new CancellationException("Reconcile superseded by a newer one");
+		}
+	}
+
 	private void verifyDelayedConstraints() {
 		for (Runnable runnable : delayedConstraints) {
+			checkCancelled();
 			runnable.run();
 		}
 
@@ -334,6 +344,7 @@ public class SchemaBasedYamlASTReconciler implements YamlASTReconciler {
 		delayedConstraints.clear();
 
 		for (Runnable runnable : slowDelayedConstraints) {
+			checkCancelled();
 			runnable.run();
 		}
 		slowDelayedConstraints.clear();
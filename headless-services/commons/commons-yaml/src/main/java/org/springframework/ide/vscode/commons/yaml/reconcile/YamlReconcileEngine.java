@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016-2017 Pivotal, Inc.
+ * Copyright (c) 2016-2018 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,8 @@
 
 package org.springframework.ide.vscode.commons.yaml.reconcile;
 
+import java.util.concurrent.CancellationException;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ide.vscode.commons.languageserver.reconcile.IProblemCollector;
@@ -53,6 +55,8 @@ public abstract class YamlReconcileEngine implements IReconcileEngine {
 			String msg = e.getProblem();
 			Mark mark = e.getProblemMark();
 			problemCollector.accept(syntaxError(msg, mark.getIndex(), 1));
+		} catch (CancellationException e) {
+			//reconcile superseded by a newer one, nothing to report
 		} catch (Exception e) {
 			logger.error("unexpected error during reconcile", e);
 		} finally {
@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.yaml.reconcile;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.springframework.ide.vscode.commons.util.text.LanguageId;
+import org.springframework.ide.vscode.commons.util.text.TextDocument;
+import org.springframework.ide.vscode.commons.yaml.ast.NodeUtil;
+import org.springframework.ide.vscode.commons.yaml.ast.YamlFileAST;
+import org.springframework.ide.vscode.commons.yaml.ast.YamlParser;
+import org.springframework.ide.vscode.commons.yaml.reconcile.ASTTypeCache;
+import org.springframework.ide.vscode.commons.yaml.schema.YType;
+import org.springframework.ide.vscode.commons.yaml.schema.YTypeFactory;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.nodes.Node;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * @author Martin Lippert
+ */
+public class ASTTypeCacheTest {
+
+	@Test
+	public void sessionsOfDifferentDocumentsCanOverlap() throws Exception {
+		YType name = new YTypeFactory().yatomic("Name");
+		ASTTypeCache cache = new ASTTypeCache();
+		cache.addInterestingType(name);
+
+		YamlFileAST first = parse("file:///first.yml", "first");
+		YamlFileAST second = parse("file:///second.yml", "second");
+
+		cache.beginCollecting(first);
+		cache.beginCollecting(second);
+		cache.accept(second, second.getNodes().get(0), name);
+		cache.accept(first, first.getNodes().get(0), name);
+		cache.endCollecting(first);
+
+		assertEquals(ImmutableList.of("first"), names(cache, "file:///first.yml", name));
+
+		cache.endCollecting(second);
+
+		assertEquals(ImmutableList.of("second"), names(cache, "file:///second.yml", name));
+	}
+
+	private static YamlFileAST parse(String uri, String text) throws Exception {
+		TextDocument doc = new TextDocument(uri, LanguageId.YAML);
+		doc.setText(text);
+		return new YamlParser(new Yaml()).getAST(doc);
+	}
+
+	private static ImmutableList<String> names(ASTTypeCache cache, String uri, YType type) {
+		ImmutableList.Builder<String> names = ImmutableList.builder();
+		for (Node node : cache.getNodes(uri, type)) {
+			names.add(NodeUtil.asScalar(node));
+		}
+		return names.build();
+	}
+
+}
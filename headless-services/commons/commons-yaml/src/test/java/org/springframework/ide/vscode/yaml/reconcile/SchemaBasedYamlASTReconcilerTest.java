@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.yaml.reconcile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.ide.vscode.commons.languageserver.reconcile.IProblemCollector;
+import org.springframework.ide.vscode.commons.languageserver.reconcile.ReconcileProblem;
+import org.springframework.ide.vscode.commons.util.text.LanguageId;
+import org.springframework.ide.vscode.commons.util.text.TextDocument;
+import org.springframework.ide.vscode.commons.yaml.ast.YamlFileAST;
+import org.springframework.ide.vscode.commons.yaml.ast.YamlParser;
+import org.springframework.ide.vscode.commons.yaml.reconcile.ITypeCollector;
+import org.springframework.ide.vscode.commons.yaml.reconcile.SchemaBasedYamlASTReconciler;
+import org.springframework.ide.vscode.commons.yaml.schema.YType;
+import org.springframework.ide.vscode.commons.yaml.schema.YTypeFactory;
+import org.springframework.ide.vscode.commons.yaml.schema.YTypeUtil;
+import org.springframework.ide.vscode.commons.yaml.schema.YamlSchema;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.nodes.Node;
+
+/**
+ * @author Martin Lippert
+ */
+public class SchemaBasedYamlASTReconcilerTest {
+
+	@Test
+	public void cancelledReconcileStopsWalkingTheNodes() throws Exception {
+		YTypeFactory f = new YTypeFactory();
+		YType names = f.yseq(f.yatomic("Name"));
+		YamlSchema schema = new YamlSchema() {
+			@Override
+			public YType getTopLevelType() {
+				return names;
+			}
+
+			@Override
+			public YTypeUtil getTypeUtil() {
+				return f.TYPE_UTIL;
+			}
+		};
+
+		// a document without any problems, so the reconciler never hands anything to the problem collector
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			text.append("- name").append(i).append('\n');
+		}
+		YamlFileAST ast = parse("file:///names.yml", text.toString());
+
+		AtomicInteger visited = new AtomicInteger();
+		ITypeCollector typeCollector = new ITypeCollector() {
+			@Override
+			public void beginCollecting(YamlFileAST ast) {
+			}
+
+			@Override
+			public void accept(YamlFileAST ast, Node node, YType type) {
+				visited.incrementAndGet();
+			}
+
+			@Override
+			public void endCollecting(YamlFileAST ast) {
+			}
+		};
+		IProblemCollector problems = new IProblemCollector() {
+			@Override
+			public void beginCollecting() {
+			}
+
+			@Override
+			public void endCollecting() {
+			}
+
+			@Override
+			public void accept(ReconcileProblem problem) {
+			}
+
+			@Override
+			public boolean isCancelled() {
+				// superseded after the first few nodes
+				return visited.get() >= 3;
+			}
+		};
+
+		try {
+			new SchemaBasedYamlASTReconciler(problems, schema, typeCollector, null).reconcile(ast);
+			fail("cancelled reconcile should have stopped");
+		}
+		catch (CancellationException e) {
+			// expected
+		}
+		assertEquals(3, visited.get());
+	}
+
+	private static YamlFileAST parse(String uri, String text) throws Exception {
+		TextDocument doc = new TextDocument(uri, LanguageId.YAML);
+		doc.setText(text);
+		return new YamlParser(new Yaml()).getAST(doc);
+	}
+
+}
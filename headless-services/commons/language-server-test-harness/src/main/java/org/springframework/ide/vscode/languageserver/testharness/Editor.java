@@ -26,6 +26,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -207,8 +210,7 @@ public class Editor {
 
 	public List<Range> assertHighlights(String... expectedHighlights) throws Exception {
 		HighlightParams highlights = harness.getHighlights(doc);
-		List<Range> ranges = new ArrayList<>(highlights.getRanges());
-		Collections.sort(ranges, RANGE_COMPARATOR);
+		List<Range> ranges = sortedRanges(highlights);
 		List<String> actualHighlights = ranges.stream()
 			.map(this::getText)
 			.collect(Collectors.toList());
@@ -216,6 +218,57 @@ public class Editor {
 		return ranges;
 	}
 
+	/**
+	 * Like {@link #assertHighlights(String...)}, but for servers that only publish highlights when they change:
+	 * starts with the latest highlights received and waits for updates until they match the expected ones
+	 * (or the timeout is reached).
+	 */
+	public List<Range> assertLatestHighlights(String... expectedHighlights) throws Exception {
+		List<String> expected = ImmutableList.copyOf(expectedHighlights);
+		long timeout = System.currentTimeMillis() + LanguageServerHarness.HIGHLIGHTS_TIMEOUT.toMillis();
+		Future<HighlightParams> next = harness.getHighlightsFuture(doc);
+		HighlightParams highlights = harness.getLatestHighlights(doc);
+		while (highlights == null || !expected.equals(getHighlightedTexts(highlights))) {
+			long remaining = timeout - System.currentTimeMillis();
+			if (remaining <= 0) {
+				break;
+			}
+			try {
+				next.get(remaining, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				break;
+			}
+			next = harness.getHighlightsFuture(doc);
+			highlights = harness.getLatestHighlights(doc);
+		}
+		if (highlights == null) {
+			throw new TimeoutException("No highlights received for " + doc.getUri());
+		}
+		List<Range> ranges = sortedRanges(highlights);
+		List<String> actualHighlights = ranges.stream()
+			.map(this::getText)
+			.collect(Collectors.toList());
+		assertEquals(expected, actualHighlights);
+		return ranges;
+	}
+
+	private List<String> getHighlightedTexts(HighlightParams highlights) {
+		try {
+			return sortedRanges(highlights).stream()
+				.map(this::getText)
+				.collect(Collectors.toList());
+		} catch (Exception e) {
+			// highlights for an older version of the document
+			return null;
+		}
+	}
+
+	private static List<Range> sortedRanges(HighlightParams highlights) {
+		List<Range> ranges = new ArrayList<>(highlights.getRanges());
+		Collections.sort(ranges, RANGE_COMPARATOR);
+		return ranges;
+	}
+
 
 	/**
 	 * Get the editor text, with cursor markers inserted (for easy textual comparison
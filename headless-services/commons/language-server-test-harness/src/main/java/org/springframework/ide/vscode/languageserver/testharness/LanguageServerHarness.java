@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016-2017 Pivotal, Inc.
+ * Copyright (c) 2016-2018 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -126,7 +126,9 @@ public class LanguageServerHarness<S extends SimpleLanguageServer> {
 
 	private Map<String,TextDocumentInfo> documents = new HashMap<>();
 	private Multimap<String, CompletableFuture<HighlightParams>> highlights = MultimapBuilder.hashKeys().linkedListValues().build();
+	private Map<String, HighlightParams> latestHighlights = new HashMap<>();
 	private Map<String, PublishDiagnosticsParams> diagnostics = new HashMap<>();
+	private List<PublishDiagnosticsParams> receivedDiagnostics = new ArrayList<>();
 	private List<Editor> activeEditors = new ArrayList<>();
 
 
@@ -186,6 +188,7 @@ public class LanguageServerHarness<S extends SimpleLanguageServer> {
 
 	private synchronized void receiveDiagnostics(PublishDiagnosticsParams diags) {
 		this.diagnostics.put(diags.getUri(), diags);
+		this.receivedDiagnostics.add(diags);
 	}
 
 	private void receiveHighlights(HighlightParams highlights) {
@@ -193,6 +196,7 @@ public class LanguageServerHarness<S extends SimpleLanguageServer> {
 		synchronized (this) {
 			String uri = highlights.getDoc().getUri();
 			if (uri!=null) {
+				latestHighlights.put(uri, highlights);
 				requestors = ImmutableList.copyOf(this.highlights.get(uri));
 				//Carefull!! Must make a copy above. Because the returned collection is cleared when we call removeAll below.
 				this.highlights.removeAll(uri); //futures can only be completed once, so no point holding any longer
@@ -419,6 +423,13 @@ public class LanguageServerHarness<S extends SimpleLanguageServer> {
 		return diagnostics.get(doc.getUri());
 	}
 
+	/**
+	 * @return all the diagnostics received from the server so far, in the order they were received
+	 */
+	public synchronized List<PublishDiagnosticsParams> getReceivedDiagnostics() {
+		return ImmutableList.copyOf(receivedDiagnostics);
+	}
+
 	public synchronized Future<HighlightParams> getHighlightsFuture(TextDocumentInfo doc) {
 		CompletableFuture<HighlightParams> future = new CompletableFuture<HighlightParams>();
 		highlights.put(doc.getUri(), future);
@@ -429,6 +440,13 @@ public class LanguageServerHarness<S extends SimpleLanguageServer> {
 		return getHighlightsFuture(doc).get(HIGHLIGHTS_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
 	}
 
+	/**
+	 * @return the highlights most recently received for the given document (or null if none have been received yet)
+	 */
+	public synchronized HighlightParams getLatestHighlights(TextDocumentInfo doc) {
+		return latestHighlights.get(doc.getUri());
+	}
+
 	public static Condition<Diagnostic> isDiagnosticWithSeverity(DiagnosticSeverity severity) {
 		return new Condition<>(
 				(d) -> d.getSeverity()==severity,
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.commons.languageserver.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.vscode.commons.languageserver.reconcile.IReconcileEngine;
+import org.springframework.ide.vscode.commons.languageserver.reconcile.ProblemSeverity;
+import org.springframework.ide.vscode.commons.languageserver.reconcile.ProblemType;
+import org.springframework.ide.vscode.commons.languageserver.reconcile.ProblemTypes;
+import org.springframework.ide.vscode.commons.languageserver.reconcile.ReconcileProblemImpl;
+import org.springframework.ide.vscode.commons.util.text.LanguageId;
+import org.springframework.ide.vscode.languageserver.testharness.Editor;
+import org.springframework.ide.vscode.languageserver.testharness.LanguageServerHarness;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests for the publication of the diagnostics by {@link SimpleTextDocumentService}.
+ *
+ * @author Martin Lippert
+ */
+public class DiagnosticsPublishingTest {
+
+	private static final ProblemType BAD_WORD = ProblemTypes.create("BAD_WORD", ProblemSeverity.ERROR);
+
+	/**
+	 * Reports every 'bad' in the document.
+	 */
+	private static final IReconcileEngine BAD_WORD_ENGINE = (doc, problems) -> {
+		String text = doc.get();
+		problems.beginCollecting();
+		try {
+			for (int pos = text.indexOf("bad"); pos >= 0; pos = text.indexOf("bad", pos + 1)) {
+				problems.accept(new ReconcileProblemImpl(BAD_WORD, "bad word", pos, 3));
+			}
+		} finally {
+			problems.endCollecting();
+		}
+	};
+
+	private static class TestLanguageServer extends SimpleLanguageServer {
+		TestLanguageServer() {
+			super("vscode-test");
+			getTextDocumentService().onDidChangeContent(params -> validateWith(params.getDocument().getId(), BAD_WORD_ENGINE));
+		}
+	}
+
+	private LanguageServerHarness<TestLanguageServer> harness;
+
+	@Before
+	public void setup() throws Exception {
+		harness = new LanguageServerHarness<>(TestLanguageServer::new, LanguageId.PLAINTEXT);
+		harness.intialize(null);
+	}
+
+	@Test
+	public void unchangedDiagnosticsAreNotSentAgain() throws Exception {
+		Editor editor = harness.newEditor(LanguageId.PLAINTEXT, "bad one");
+		editor.assertProblems("bad|bad word");
+		assertEquals(1, received(editor.getUri()).size());
+
+		// different text, same problems
+		editor.setRawText("bad two");
+		editor.assertProblems("bad|bad word");
+		assertEquals(1, received(editor.getUri()).size());
+
+		editor.setRawText("one bad");
+		editor.assertProblems("bad|bad word");
+		assertEquals(2, received(editor.getUri()).size());
+	}
+
+	@Test
+	public void closedDocumentGetsItsDiagnosticsCleared() throws Exception {
+		Editor editor = harness.newEditor(LanguageId.PLAINTEXT, "bad");
+		editor.assertProblems("bad|bad word");
+
+		harness.closeDocument(new TextDocumentIdentifier(editor.getUri()));
+		harness.getServer().waitForReconcile();
+
+		List<PublishDiagnosticsParams> received = received(editor.getUri());
+		assertEquals(2, received.size());
+		assertThat(received.get(1).getDiagnostics()).isEmpty();
+
+		// opened again, the diagnostics get sent again
+		Editor reopened = harness.newEditor(LanguageId.PLAINTEXT, "bad", editor.getUri());
+		reopened.assertProblems("bad|bad word");
+		assertEquals(3, received(editor.getUri()).size());
+	}
+
+	@Test
+	public void diagnosticsWithinTheWindowAreSentTogether() throws Exception {
+		SimpleTextDocumentService documents = harness.getServer().getTextDocumentService();
+		TextDocumentIdentifier first = new TextDocumentIdentifier("file:///first.txt");
+		TextDocumentIdentifier second = new TextDocumentIdentifier("file:///second.txt");
+
+		documents.publishDiagnostics(first, ImmutableList.of(diagnostic("outdated")));
+		documents.publishDiagnostics(first, ImmutableList.of(diagnostic("latest")));
+		documents.publishDiagnostics(second, ImmutableList.of(diagnostic("other")));
+		assertThat(harness.getReceivedDiagnostics()).isEmpty();
+
+		Thread.sleep(500);
+
+		List<PublishDiagnosticsParams> received = harness.getReceivedDiagnostics();
+		assertEquals(2, received.size());
+		assertEquals(first.getUri(), received.get(0).getUri());
+		assertEquals(ImmutableList.of(diagnostic("latest")), received.get(0).getDiagnostics());
+		assertEquals(second.getUri(), received.get(1).getUri());
+		assertEquals(ImmutableList.of(diagnostic("other")), received.get(1).getDiagnostics());
+	}
+
+	private List<PublishDiagnosticsParams> received(String uri) {
+		return harness.getReceivedDiagnostics().stream()
+				.filter(params -> uri.equals(params.getUri()))
+				.collect(Collectors.toList());
+	}
+
+	private static Diagnostic diagnostic(String message) {
+		Diagnostic diagnostic = new Diagnostic();
+		diagnostic.setRange(new Range(new Position(0, 0), new Position(0, 1)));
+		diagnostic.setMessage(message);
+		return diagnostic;
+	}
+
+}
@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.vscode.commons.languageserver.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.vscode.commons.languageserver.reconcile.IProblemCollector;
+import org.springframework.ide.vscode.commons.languageserver.reconcile.IReconcileEngine;
+import org.springframework.ide.vscode.commons.languageserver.reconcile.ProblemSeverity;
+import org.springframework.ide.vscode.commons.languageserver.reconcile.ProblemType;
+import org.springframework.ide.vscode.commons.languageserver.reconcile.ProblemTypes;
+import org.springframework.ide.vscode.commons.languageserver.reconcile.ReconcileProblemImpl;
+import org.springframework.ide.vscode.commons.util.ExceptionUtil;
+import org.springframework.ide.vscode.commons.util.text.IDocument;
+import org.springframework.ide.vscode.commons.util.text.LanguageId;
+import org.springframework.ide.vscode.languageserver.testharness.Editor;
+import org.springframework.ide.vscode.languageserver.testharness.LanguageServerHarness;
+
+/**
+ * Tests for the scheduling of the reconciles in {@link SimpleLanguageServer}: documents are reconciled in
+ * parallel, reconciles of the same document one after the other.
+ *
+ * @author Martin Lippert
+ */
+public class ReconcileSchedulingTest {
+
+	private static final ProblemType BAD_WORD = ProblemTypes.create("BAD_WORD", ProblemSeverity.ERROR);
+
+	/**
+	 * Reports every 'bad' in the document. Reconciles of the texts that have a gate wait for it to open
+	 * before they report anything.
+	 */
+	private static class TestReconcileEngine implements IReconcileEngine {
+
+		final Map<String, CompletableFuture<Void>> gates = new ConcurrentHashMap<>();
+		final Map<String, CompletableFuture<Void>> started = new ConcurrentHashMap<>();
+		final List<String> events = Collections.synchronizedList(new ArrayList<>());
+
+		private final Map<String, AtomicInteger> active = new ConcurrentHashMap<>();
+		final AtomicBoolean overlapping = new AtomicBoolean();
+
+		@Override
+		public void reconcile(IDocument doc, IProblemCollector problems) {
+			String text = doc.get();
+			AtomicInteger reconciling = active.computeIfAbsent(doc.getUri(), uri -> new AtomicInteger());
+			if (reconciling.incrementAndGet() > 1) {
+				overlapping.set(true);
+			}
+			events.add("start " + text);
+			problems.beginCollecting();
+			try {
+				started(text).complete(null);
+				CompletableFuture<Void> gate = gates.get(text);
+				if (gate != null) {
+					gate.get();
+				}
+				for (int pos = text.indexOf("bad"); pos >= 0; pos = text.indexOf("bad", pos + 1)) {
+					problems.accept(new ReconcileProblemImpl(BAD_WORD, "bad word", pos, 3));
+				}
+				events.add("end " + text);
+			}
+			catch (CancellationException e) {
+				events.add("cancelled " + text);
+				throw e;
+			}
+			catch (Exception e) {
+				throw ExceptionUtil.unchecked(e);
+			}
+			finally {
+				problems.endCollecting();
+				reconciling.decrementAndGet();
+			}
+		}
+
+		CompletableFuture<Void> started(String text) {
+			return started.computeIfAbsent(text, t -> new CompletableFuture<>());
+		}
+	}
+
+	private static class TestLanguageServer extends SimpleLanguageServer {
+		TestLanguageServer(IReconcileEngine engine) {
+			super("vscode-test");
+			getTextDocumentService().onDidChangeContent(params -> validateWith(params.getDocument().getId(), engine));
+		}
+	}
+
+	private TestReconcileEngine engine;
+	private LanguageServerHarness<TestLanguageServer> harness;
+
+	@Before
+	public void setup() throws Exception {
+		engine = new TestReconcileEngine();
+		harness = new LanguageServerHarness<>(() -> new TestLanguageServer(engine), LanguageId.PLAINTEXT);
+		harness.intialize(null);
+	}
+
+	@Test
+	public void reconcilesOfTheSameDocumentRunInOrder() throws Exception {
+		CompletableFuture<Void> gate = new CompletableFuture<>();
+		engine.gates.put("first", gate);
+
+		Editor editor = harness.newEditor(LanguageId.PLAINTEXT, "first");
+		engine.started("first").get(5, TimeUnit.SECONDS);
+
+		editor.setRawText("bad second");
+		Thread.sleep(200);
+		assertFalse(engine.started("bad second").isDone());
+
+		gate.complete(null);
+		editor.assertProblems("bad|bad word");
+
+		assertFalse(engine.overlapping.get());
+		assertThat(engine.events).containsExactly("start first", "end first", "start bad second", "end bad second");
+	}
+
+	@Test
+	public void supersededReconcileIsCancelled() throws Exception {
+		CompletableFuture<Void> gate = new CompletableFuture<>();
+		engine.gates.put("bad old", gate);
+
+		Editor editor = harness.newEditor(LanguageId.PLAINTEXT, "bad old");
+		engine.started("bad old").get(5, TimeUnit.SECONDS);
+
+		editor.setRawText("good new");
+		gate.complete(null);
+		editor.assertProblems(/*NONE*/);
+
+		assertThat(engine.events).containsExactly("start bad old", "cancelled bad old", "start good new", "end good new");
+	}
+
+	@Test
+	public void stuckReconcileDoesntHoldBackOtherDocuments() throws Exception {
+		CompletableFuture<Void> gate = new CompletableFuture<>();
+		engine.gates.put("stuck", gate);
+		try {
+			harness.newEditor(LanguageId.PLAINTEXT, "stuck");
+			engine.started("stuck").get(5, TimeUnit.SECONDS);
+
+			Editor other = harness.newEditor(LanguageId.PLAINTEXT, "bad other");
+			List<Diagnostic> diagnostics = awaitDiagnostics(other.getUri());
+			assertEquals(1, diagnostics.size());
+			assertEquals("bad word", diagnostics.get(0).getMessage());
+			assertThat(engine.events).doesNotContain("end stuck");
+		}
+		finally {
+			gate.complete(null);
+		}
+	}
+
+	@Test
+	public void waitForReconcileWaitsForAllDocuments() throws Exception {
+		CompletableFuture<Void> gate = new CompletableFuture<>();
+		engine.gates.put("bad one", gate);
+		engine.gates.put("bad two", gate);
+		engine.gates.put("bad three", gate);
+
+		Editor one = harness.newEditor(LanguageId.PLAINTEXT, "bad one");
+		Editor two = harness.newEditor(LanguageId.PLAINTEXT, "bad two");
+		Editor three = harness.newEditor(LanguageId.PLAINTEXT, "bad three");
+		engine.started("bad one").get(5, TimeUnit.SECONDS);
+
+		CompletableFuture.runAsync(() -> {
+			try {
+				Thread.sleep(200);
+			} catch (InterruptedException e) {
+			}
+			gate.complete(null);
+		});
+		harness.getServer().waitForReconcile();
+
+		assertThat(engine.events).contains("end bad one", "end bad two", "end bad three");
+		one.assertProblems("bad|bad word");
+		two.assertProblems("bad|bad word");
+		three.assertProblems("bad|bad word");
+	}
+
+	/**
+	 * Waits for the diagnostics of the given document without waiting for the reconciles of all the documents.
+	 */
+	private List<Diagnostic> awaitDiagnostics(String uri) throws Exception {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (System.currentTimeMillis() < deadline) {
+			for (PublishDiagnosticsParams params : harness.getReceivedDiagnostics()) {
+				if (uri.equals(params.getUri())) {
+					return params.getDiagnostics();
+				}
+			}
+			Thread.sleep(50);
+		}
+		fail("No diagnostics received for " + uri);
+		return null;
+	}
+
+}